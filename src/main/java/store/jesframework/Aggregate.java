@@ -21,6 +21,7 @@ public class Aggregate {
 
     protected UUID uuid;
     private long streamVersion;
+    private long streamPosition;
 
 
     @Nonnull
@@ -32,15 +33,41 @@ public class Aggregate {
         return streamVersion;
     }
 
+    /**
+     * Returns the position (see {@link Envelope#position()}) of the last event applied to this aggregate. The position
+     * is stored within the snapshot, so the rest of the event stream can be read right after it.
+     *
+     * @return position of the last applied event, or 0 if it's unknown.
+     */
+    public long streamPosition() {
+        return streamPosition;
+    }
+
     void handleEventStream(@Nonnull Collection<Event> stream) {
         requireNonNull(stream, "Event stream must not be null");
         for (Event event : stream) {
-            final Consumer<Event> applier = applierFor(event.getClass());
-            if (applier != null) {
-                applier.accept(event);
-            }
+            apply(event);
+        }
+        if (!stream.isEmpty()) {
+            streamVersion += stream.size();
+            // the positions of the events are unknown: the stream is read after the version then, not after the stale
+            // position (it would apply the events once again)
+            streamPosition = 0;
+        }
+    }
+
+    void handleEnvelope(@Nonnull Envelope envelope) {
+        requireNonNull(envelope, "Envelope must not be null");
+        apply(requireNonNull(envelope.event(), "Event must not be null"));
+        streamVersion++;
+        streamPosition = envelope.position();
+    }
+
+    private void apply(@Nonnull Event event) {
+        final Consumer<Event> applier = applierFor(event.getClass());
+        if (applier != null) {
+            applier.accept(event);
         }
-        streamVersion += stream.size();
     }
 
     @Nullable
@@ -1,7 +1,14 @@
 package store.jesframework;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
 import store.jesframework.snapshot.AlwaysSnapshotStrategy;
@@ -75,35 +82,167 @@ public class AggregateStore {
      */
     @Nonnull
     public <T extends Aggregate> T readBy(@Nonnull UUID uuid, @Nonnull T aggregate) {
-        final Collection<Event> events = eventStore.readBy(uuid, aggregate.streamVersion());
+        final Collection<Event> events;
+        if (eventStore.canReadSnapshots()) {
+            events = new ArrayList<>();
+            try (final Stream<Envelope> tail = readTail(uuid, aggregate)) {
+                tail.forEach(envelope -> {
+                    aggregate.handleEnvelope(envelope);
+                    events.add(envelope.event());
+                });
+            }
+        } else {
+            events = eventStore.readBy(uuid, aggregate.streamVersion());
+            aggregate.handleEventStream(events);
+        }
         if (events.isEmpty()) {
             return aggregate;
         }
-        aggregate.handleEventStream(events);
         if (snapshotStrategy.isSnapshotNecessary(aggregate, events)) {
             return snapshotProvider.snapshot(aggregate);
         }
         return aggregate;
     }
 
+    /**
+     * Returns specified aggregate of type {@code type} with restored state from {@link JEventStore}. Unlike
+     * {@link #readBy(UUID, Class)}, the event stream is read lazily and applied by chunks, so the memory needed to
+     * restore the aggregate doesn't depend on the stream length. {@link SnapshotStrategy} is consulted after each chunk
+     * with the events of the chunk, so intermediate snapshots can be done while the aggregate is restored.
+     *
+     * @param uuid      identifier of the event stream (uuid) to read.
+     * @param type      class of the aggregate to load.
+     * @param chunkSize is a max number of the events in one chunk.
+     * @param <T>       type of the aggregate.
+     * @return recreated/restored form {@link JEventStore} aggregate instance.
+     * @throws NullPointerException     if any of {@code uuid}/{@code type} is null.
+     * @throws IllegalArgumentException if chunk size is not positive.
+     */
+    @Nonnull
+    public <T extends Aggregate> T readBy(@Nonnull UUID uuid, @Nonnull Class<T> type, int chunkSize) {
+        final T aggregate = snapshotProvider.initialStateOf(uuid, type);
+        return readBy(uuid, aggregate, chunkSize);
+    }
+
+    /**
+     * Returns specified aggregate with refreshed state from {@link JEventStore}. The events are applied by chunks, see
+     * {@link #readBy(UUID, Class, int)}.
+     *
+     * @param uuid      identifier of the event stream (uuid) to read.
+     * @param aggregate instance of the aggregate to refresh.
+     * @param chunkSize is a max number of the events in one chunk.
+     * @param <T>       type of the aggregate.
+     * @return refreshed form {@link JEventStore} aggregate instance.
+     * @throws NullPointerException     if any of {@code uuid}/{@code type} is null.
+     * @throws IllegalArgumentException if chunk size is not positive.
+     */
+    @Nonnull
+    public <T extends Aggregate> T readBy(@Nonnull UUID uuid, @Nonnull T aggregate, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        T current = aggregate;
+        final List<Event> chunk = new ArrayList<>();
+        try (final Stream<Envelope> tail = readTail(uuid, aggregate)) {
+            final Iterator<Envelope> iterator = tail.iterator();
+            while (iterator.hasNext()) {
+                final Envelope envelope = iterator.next();
+                current.handleEnvelope(envelope);
+                chunk.add(envelope.event());
+                if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                    if (snapshotStrategy.isSnapshotNecessary(current, chunk)) {
+                        current = snapshotProvider.snapshot(current);
+                    }
+                    chunk.clear();
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Reads the events of the stream, that are not yet applied to the aggregate. If the provider supports snapshotting,
+     * the events are read right after the position of the last applied event (or after its version, if the position
+     * is unknown). Otherwise the envelopes carry no position.
+     */
+    @Nonnull
+    private Stream<Envelope> readTail(@Nonnull UUID uuid, @Nonnull Aggregate aggregate) {
+        if (eventStore.canReadSnapshots()) {
+            return eventStore.readEnvelopesBy(uuid, aggregate.streamPosition(), aggregate.streamVersion());
+        }
+        return eventStore.streamBy(uuid, aggregate.streamVersion()).map(event -> new Envelope(0, event));
+    }
+
+    /**
+     * Returns specified aggregates of type {@code type} with restored states from {@link JEventStore}. It's the same as
+     * {@link #readBy(UUID, Class)} for each of the identifiers, but the snapshots and the events of all the aggregates
+     * are read at once (if the providers support it), instead of a round trip per aggregate.
+     *
+     * @param uuids identifiers of the event streams (uuids) to read.
+     * @param type  class of the aggregates to load.
+     * @param <T>   type of the aggregates.
+     * @return recreated/restored form {@link JEventStore} aggregate instances by their identifiers, in the order of the
+     *     given identifiers.
+     * @throws NullPointerException if any of {@code uuids}/{@code type} is null.
+     */
+    @Nonnull
+    public <T extends Aggregate> Map<UUID, T> readAll(@Nonnull Collection<UUID> uuids, @Nonnull Class<T> type) {
+        requireNonNull(uuids, "Uuids must not be null");
+        requireNonNull(type, "Aggregate type must not be null");
+        final Map<UUID, T> aggregates = snapshotProvider.initialStatesOf(uuids, type);
+        final Map<UUID, Long> skips = new LinkedHashMap<>();
+        aggregates.forEach((uuid, aggregate) -> skips.put(uuid, aggregate.streamVersion()));
+        final Map<UUID, Collection<Event>> streams = new LinkedHashMap<>();
+        if (eventStore.canReadSnapshots()) {
+            // the positions of the applied events are kept, so the next reads seek right after them
+            eventStore.readAllEnvelopesBy(skips).forEach((uuid, envelopes) -> {
+                final Aggregate aggregate = aggregates.get(uuid);
+                final List<Event> events = new ArrayList<>(envelopes.size());
+                for (Envelope envelope : envelopes) {
+                    aggregate.handleEnvelope(envelope);
+                    events.add(envelope.event());
+                }
+                streams.put(uuid, events);
+            });
+        } else {
+            eventStore.readAllBy(skips).forEach((uuid, events) -> {
+                aggregates.get(uuid).handleEventStream(events);
+                streams.put(uuid, events);
+            });
+        }
+
+        final Map<UUID, T> result = new LinkedHashMap<>();
+        aggregates.forEach((uuid, aggregate) -> {
+            final Collection<Event> events = streams.getOrDefault(uuid, Collections.emptyList());
+            T current = aggregate;
+            if (!events.isEmpty() && snapshotStrategy.isSnapshotNecessary(current, events)) {
+                current = snapshotProvider.snapshot(current);
+            }
+            result.put(uuid, current);
+        });
+        return result;
+    }
+
     /**
      * see {@link JEventStore#write(Event)}.
      *
      * @param event is an event to store.
+     * @return position of the written event.
      * @throws NullPointerException if event is null.
      */
-    public void write(@Nonnull Event event) {
-        eventStore.write(event);
+    public long write(@Nonnull Event event) {
+        return eventStore.write(event);
     }
 
     /**
      * see {@link JEventStore#write(Event...)}.
      *
      * @param events are events to store.
+     * @return positions of the written events.
      * @throws NullPointerException if events is null.
      */
-    public void write(@Nonnull Event... events) {
-        eventStore.write(events);
+    public long[] write(@Nonnull Event... events) {
+        return eventStore.write(events);
     }
 
 }
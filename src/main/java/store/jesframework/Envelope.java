@@ -0,0 +1,135 @@
+package store.jesframework;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import lombok.ToString;
+
+/**
+ * An {@link Event} read from the {@literal Event Store} together with its position in the store. The position is the
+ * same value, that was returned by {@link JEventStore#write(Event)}, and it can be used as an offset to continue
+ * reading the store right after that event.
+ *
+ * <p>When the store is read by event types (see {@link JEventStore#readEnvelopesFrom(long, Set)}), events
+ * of other types are returned as envelopes without an event: only their positions are read.
+ *
+ * <p>An envelope can be lazy: it carries the type name of the event and deserializes the event only on the first
+ * {@link #event()} call. It allows to skip the events of irrelevant types without deserialization.
+ */
+@ToString
+public final class Envelope {
+
+    private final long position;
+    private final String type;
+    private Event event;
+    @ToString.Exclude
+    private Supplier<Event> deserializer;
+
+    public Envelope(long position, @Nullable Event event) {
+        this.position = position;
+        this.type = null;
+        this.event = event;
+    }
+
+    /**
+     * Creates a lazy envelope: the event is deserialized only when it's requested.
+     *
+     * @param position     is a position of the event.
+     * @param type         is a type name of the event (alias or class name) as it's serialized, or null if unknown.
+     * @param deserializer is a function to deserialize the event.
+     */
+    public Envelope(long position, @Nullable String type, @Nonnull Supplier<Event> deserializer) {
+        this.position = position;
+        this.type = type;
+        this.deserializer = Objects.requireNonNull(deserializer, "Deserializer must not be null");
+    }
+
+    /**
+     * Creates an envelope of the skipped (filtered out) event.
+     *
+     * @param position is a position of the skipped event.
+     */
+    public Envelope(long position) {
+        this(position, null);
+    }
+
+    /**
+     * @return position of the event in the {@literal Event Store}.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * @return event, read from the {@literal Event Store}, or null if the event was skipped.
+     */
+    @Nullable
+    public synchronized Event event() {
+        if (deserializer != null) {
+            event = deserializer.get();
+            deserializer = null;
+        }
+        return event;
+    }
+
+    /**
+     * @return type name of the event (alias or class name) as it's serialized, if it's known without deserialization.
+     */
+    @Nullable
+    public String type() {
+        return type;
+    }
+
+    /**
+     * Returns the same envelope, if its event has one of the given types, or an envelope of the skipped event.
+     *
+     * @param types are class names of the events to keep.
+     * @return envelope, filtered by the event types.
+     */
+    @Nonnull
+    public Envelope filter(@Nonnull Set<String> types) {
+        final Event read = event();
+        if (read == null || types.contains(read.getClass().getName())) {
+            return this;
+        }
+        return new Envelope(position);
+    }
+
+    /**
+     * Same as {@link #filter(Set)}, but the event of the known type is not deserialized, if its type name is not one of
+     * the given type names.
+     *
+     * @param types     are class names of the events to keep.
+     * @param typeNames are type names (see {@link #type()}) of the events, that can be deserialized to the given types.
+     * @return envelope, filtered by the event types.
+     */
+    @Nonnull
+    public Envelope filter(@Nonnull Set<String> types, @Nonnull Set<String> typeNames) {
+        if (type != null && !typeNames.contains(type)) {
+            return new Envelope(position);
+        }
+        return filter(types);
+    }
+
+    // the position identifies the event in the store: the event itself is not compared to keep the envelope lazy
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+        final Envelope that = (Envelope) other;
+        return position == that.position && Objects.equals(type, that.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(position, type);
+    }
+
+}
@@ -1,11 +1,23 @@
 package store.jesframework;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
+import store.jesframework.provider.BulkWriter;
+import store.jesframework.provider.ChangeNotifier;
+import store.jesframework.provider.ParallelReader;
+import store.jesframework.provider.RangeReader;
 import store.jesframework.provider.StoreProvider;
 import store.jesframework.snapshot.SnapshotReader;
 
@@ -14,6 +26,8 @@ import static java.util.Objects.requireNonNull;
 public class JEventStore {
 
     private static final String NON_NULL_UUID = "Event stream uuid must not be null";
+    private static final String NON_NULL_TYPES = "Event types must not be null";
+    private static final String NON_NULL_POOL = "Pool must not be null";
 
     private final StoreProvider provider;
     private final boolean canReadSnapshots;
@@ -44,6 +58,114 @@ public class JEventStore {
         return provider.readFrom(offset);
     }
 
+    /**
+     * Returns events of the given types from given offset. Filtering is done on the storage side, if the underlying
+     * provider supports it, so the events of other types are neither transferred nor deserialized.
+     *
+     * <p>As with {@link #readFrom(long)}, the returned Stream must be closed after usage.
+     *
+     * @param offset the offset to read from.
+     * @param types  are class names (see {@link Class#getName()}) of the events to read.
+     * @return {@link Stream} of events of the given types stored in that {@literal EventStore}.
+     * @throws NullPointerException if types is null.
+     */
+    public Stream<Event> readFrom(long offset, @Nonnull Set<String> types) {
+        return provider.readFrom(offset, requireNonNull(types, NON_NULL_TYPES));
+    }
+
+    /**
+     * Returns all events of the Event Store from given offset along with their positions in the store. The position of
+     * the last read event can be used as the offset for the next read to continue right after it.
+     *
+     * <p>As with {@link #readFrom(long)}, the returned Stream must be closed after usage.
+     *
+     * @param offset the offset to read from.
+     * @return {@link Stream} of events stored in that {@literal EventStore} along with their positions.
+     */
+    public Stream<Envelope> readEnvelopesFrom(long offset) {
+        return provider.readEnvelopesFrom(offset);
+    }
+
+    /**
+     * Returns envelopes of all events from given offset, but only the events of the given types are read: envelopes
+     * of other events carry only their positions. It allows to move an offset past the skipped events.
+     *
+     * <p>As with {@link #readFrom(long)}, the returned Stream must be closed after usage.
+     *
+     * @param offset the offset to read from.
+     * @param types  are class names (see {@link Class#getName()}) of the events to read.
+     * @return {@link Stream} of envelopes stored in that {@literal EventStore}.
+     * @throws NullPointerException if types is null.
+     */
+    public Stream<Envelope> readEnvelopesFrom(long offset, @Nonnull Set<String> types) {
+        return provider.readEnvelopesFrom(offset, requireNonNull(types, NON_NULL_TYPES));
+    }
+
+    /**
+     * Returns envelopes of all events from given offset, like {@link #readEnvelopesFrom(long)}, but the events are read
+     * and deserialized concurrently on the given pool: the positions are split into ranges, that are read ahead of the
+     * consumer and merged back in order. Only the events, written before this call, are read: the read can be
+     * continued from the position of the last read event. If the provider can't read by ranges, it's read sequentially.
+     *
+     * <p>As with {@link #readFrom(long)}, the returned Stream must be closed after usage.
+     *
+     * @param offset the offset to read from.
+     * @param pool   is a pool to read the ranges on. Its parallelism limits the number of the concurrent reads.
+     * @return {@link Stream} of envelopes stored in that {@literal EventStore}.
+     * @throws NullPointerException if pool is null.
+     */
+    public Stream<Envelope> readEnvelopesInParallel(long offset, @Nonnull ForkJoinPool pool) {
+        requireNonNull(pool, NON_NULL_POOL);
+        if (provider instanceof RangeReader) {
+            return new ParallelReader((RangeReader) provider, pool).read(offset, UnaryOperator.identity());
+        }
+        return provider.readEnvelopesFrom(offset);
+    }
+
+    /**
+     * Same as {@link #readEnvelopesInParallel(long, ForkJoinPool)}, but only the events of the given types are read:
+     * envelopes of other events carry only their positions (see {@link #readEnvelopesFrom(long, Set)}).
+     *
+     * @param offset the offset to read from.
+     * @param types  are class names (see {@link Class#getName()}) of the events to read.
+     * @param pool   is a pool to read the ranges on. Its parallelism limits the number of the concurrent reads.
+     * @return {@link Stream} of envelopes stored in that {@literal EventStore}.
+     * @throws NullPointerException if types or pool is null.
+     */
+    public Stream<Envelope> readEnvelopesInParallel(long offset, @Nonnull Set<String> types,
+                                                    @Nonnull ForkJoinPool pool) {
+        requireNonNull(types, NON_NULL_TYPES);
+        requireNonNull(pool, NON_NULL_POOL);
+        if (provider instanceof RangeReader) {
+            final RangeReader reader = (RangeReader) provider;
+            return new ParallelReader(reader, pool).read(offset, reader.typeFilter(types));
+        }
+        return provider.readEnvelopesFrom(offset, types);
+    }
+
+    /**
+     * Passes envelopes of all events from given offset to the consumer concurrently, in no particular order: the
+     * positions are split into ranges, that are read, deserialized and consumed on the given pool. Only the events,
+     * written before this call, are read. If the provider can't read by ranges, it's read sequentially.
+     *
+     * @param offset   the offset to read from.
+     * @param pool     is a pool to read and consume the ranges on.
+     * @param consumer is an order-insensitive, thread-safe consumer of the envelopes.
+     * @throws NullPointerException if pool or consumer is null.
+     */
+    public void forEachInParallel(long offset, @Nonnull ForkJoinPool pool,
+                                  @Nonnull Consumer<? super Envelope> consumer) {
+        requireNonNull(pool, NON_NULL_POOL);
+        requireNonNull(consumer, "Consumer must not be null");
+        if (provider instanceof RangeReader) {
+            new ParallelReader((RangeReader) provider, pool).forEach(offset, consumer);
+        } else {
+            try (final Stream<Envelope> stream = provider.readEnvelopesFrom(offset)) {
+                stream.forEach(consumer);
+            }
+        }
+    }
+
     /**
      * Returns all events grouped by {@literal event uuid identifier}, also known as an {@literal aggregate
      * identifier}.
@@ -69,15 +191,92 @@ public class JEventStore {
         return ((SnapshotReader) provider).readBy(requireNonNull(uuid, NON_NULL_UUID), skip);
     }
 
+    /**
+     * Returns the events of several event streams at once. It's more efficient than reading the streams one by one
+     * with {@link #readBy(UUID)}, if the provider supports it.
+     *
+     * @param uuids identifiers of the event streams to read.
+     * @return events of each requested stream (possibly empty), by the stream identifiers.
+     * @throws NullPointerException if uuids is null.
+     */
+    public Map<UUID, Collection<Event>> readAllBy(@Nonnull Collection<UUID> uuids) {
+        final Map<UUID, Long> skips = new LinkedHashMap<>();
+        for (UUID uuid : requireNonNull(uuids, "Uuids must not be null")) {
+            skips.put(requireNonNull(uuid, NON_NULL_UUID), 0L);
+        }
+        return readAllBy(skips);
+    }
+
+    Map<UUID, Collection<Event>> readAllBy(@Nonnull Map<UUID, Long> skips) {
+        if (skips.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (skips.values().stream().anyMatch(skip -> skip < 0)) {
+            throw new IllegalArgumentException("'skip' arguments must be greater than 0. Actual: " + skips.values());
+        }
+        return provider.readAllBy(skips);
+    }
+
+    Map<UUID, Collection<Envelope>> readAllEnvelopesBy(@Nonnull Map<UUID, Long> skips) {
+        if (skips.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        if (skips.values().stream().anyMatch(skip -> skip < 0)) {
+            throw new IllegalArgumentException("'skip' arguments must be greater than 0. Actual: " + skips.values());
+        }
+        if (!canReadSnapshots) {
+            throw new IllegalStateException("The current provider doesn't support snapshotting");
+        }
+        return ((SnapshotReader) provider).readAllEnvelopesBy(skips);
+    }
+
+    /**
+     * Returns all events grouped by {@literal event uuid identifier} as a lazily read stream: unlike
+     * {@link #readBy(UUID)}, the events are not loaded at once (if the provider supports it), so the stream of any
+     * length can be processed in constant memory.
+     *
+     * @param uuid identifier of event uuid to read.
+     * @return {@link Stream} of events stored in that {@literal EventStore}, grouped by {@literal uuid}. The stream
+     *     must be closed after usage.
+     * @throws NullPointerException if uuid is null.
+     */
+    public Stream<Event> streamBy(@Nonnull UUID uuid) {
+        return streamBy(uuid, 0);
+    }
+
+    Stream<Event> streamBy(@Nonnull UUID uuid, long skip) {
+        if (skip < 0) {
+            throw new IllegalArgumentException("'skip' argument must be greater than 0. Actual: " + skip);
+        }
+        return provider.streamBy(requireNonNull(uuid, NON_NULL_UUID), skip);
+    }
+
+    boolean canReadSnapshots() {
+        return canReadSnapshots;
+    }
+
+    Stream<Envelope> readEnvelopesBy(@Nonnull UUID uuid, long afterPosition, long skip) {
+        if (afterPosition < 0 || skip < 0) {
+            throw new IllegalArgumentException("'afterPosition' and 'skip' arguments must be greater than 0. Actual: "
+                    + afterPosition + ", " + skip);
+        }
+        if (!canReadSnapshots) {
+            throw new IllegalStateException("The current provider doesn't support snapshotting");
+        }
+        return ((SnapshotReader) provider).readEnvelopesBy(requireNonNull(uuid, NON_NULL_UUID), afterPosition, skip);
+    }
+
     /**
      * Write a given event into the {@literal Event Store}.
      * {@implNote there is no guarantee that write operation will be performed in sync manner}.
      *
      * @param event is an event to store.
+     * @return position of the written event in the {@literal Event Store}. It can be used, for example, to wait until
+     *     the event is processed by a projector (see {@link store.jesframework.reactors.Projector#awaitPosition}).
      * @throws NullPointerException if event is null.
      */
-    public void write(@Nonnull Event event) {
-        provider.write(requireNonNull(event, "Event must not be null"));
+    public long write(@Nonnull Event event) {
+        return provider.write(requireNonNull(event, "Event must not be null"));
     }
 
     /**
@@ -85,10 +284,51 @@ public class JEventStore {
      * {@implNote there is no guarantee that write operation will be performed in sync manner}.
      *
      * @param events are events to store.
+     * @return positions of the written events in the {@literal Event Store} (in the same order).
+     * @throws NullPointerException if events is null.
+     */
+    public long[] write(@Nonnull Event... events) {
+        return provider.write(events);
+    }
+
+    /**
+     * Asynchronously write given events into {@literal Event Store}. Concurrent asynchronous writes can be grouped and
+     * committed together, but events of a single call are always written atomically, and stream versions are verified
+     * for each event separately: a version conflict fails only the future of the call it belongs to.
+     *
+     * <p>If the provider has no asynchronous writes, the events are written by the calling thread, and the returned
+     * future is already completed.
+     *
+     * @param events are events to store.
+     * @return future, that will be completed with the positions assigned to the given events (in the same order), or
+     *     completed exceptionally if the events can't be written.
+     * @throws NullPointerException if events is null.
+     */
+    public CompletableFuture<long[]> writeAsync(@Nonnull Event... events) {
+        return provider.writeAsync(requireNonNull(events, "Events must not be null"));
+    }
+
+    /**
+     * Appends a lot of events at once, i.e. for migrations or copying into a fresh store. If the provider supports bulk
+     * writes (see {@link BulkWriter}), the events are written by large chunks with the stream versions read once per
+     * stream, so the written streams must not be written concurrently. Otherwise, the events are written one by one.
+     * Either way, a failed bulk write stays partially applied: the events, written before the failure, are kept.
+     *
+     * @param events are events to store.
+     * @return number of the written events.
      * @throws NullPointerException if events is null.
      */
-    public void write(@Nonnull Event... events) {
-        provider.write(events);
+    public long bulkWrite(@Nonnull Stream<? extends Event> events) {
+        requireNonNull(events, "Events must not be null");
+        if (provider instanceof BulkWriter) {
+            return ((BulkWriter) provider).bulkWrite(events);
+        }
+        final LongAdder written = new LongAdder();
+        events.forEach(event -> {
+            provider.write(event);
+            written.increment();
+        });
+        return written.sum();
     }
 
     /**
@@ -102,6 +342,36 @@ public class JEventStore {
         provider.deleteBy(requireNonNull(uuid, NON_NULL_UUID));
     }
 
+    /**
+     * Subscribes the listener to the {@literal Event Store} changes: the listener is called after new events are
+     * written into the store. Note: not all {@link StoreProvider} can notify about changes.
+     *
+     * @param listener is a fast, non-blocking action to run when new events are written.
+     * @return true if the listener is subscribed, false if the underlying provider does not support notifications.
+     * @throws NullPointerException if listener is null.
+     */
+    public boolean addChangeListener(@Nonnull Runnable listener) {
+        requireNonNull(listener, "Listener must not be null");
+        if (provider instanceof ChangeNotifier) {
+            ((ChangeNotifier) provider).addChangeListener(listener);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Unsubscribes the listener from the {@literal Event Store} changes.
+     *
+     * @param listener is a previously subscribed listener.
+     * @throws NullPointerException if listener is null.
+     */
+    public void removeChangeListener(@Nonnull Runnable listener) {
+        requireNonNull(listener, "Listener must not be null");
+        if (provider instanceof ChangeNotifier) {
+            ((ChangeNotifier) provider).removeChangeListener(listener);
+        }
+    }
+
     /**
      * Copy whole contents of this {@literal Event Store} into given one.
      * {@implNote it's implementation specific to use STW pause during this operation}.
@@ -131,7 +401,26 @@ public class JEventStore {
         requireNonNull(store, "Store must not be null");
         requireNonNull(handler, "Handler must not be null");
         try (final Stream<Event> stream = readFrom(0)) {
-            stream.map(handler).forEach(store::write);
+            store.bulkWrite(stream.map(handler));
+        }
+    }
+
+    /**
+     * Same as {@link #copyTo(JEventStore, UnaryOperator)}, but the events are read and deserialized in parallel on the
+     * given pool (see {@link #readEnvelopesInParallel(long, ForkJoinPool)}). The events are transformed and written
+     * sequentially, in the same order.
+     *
+     * @param store   is an Event Store to copy all events.
+     * @param handler is an event transformer.
+     * @param pool    is a pool to read the events on.
+     * @throws NullPointerException if store, handler or pool is null.
+     */
+    @SuppressWarnings("WeakerAccess")
+    public void copyTo(@Nonnull JEventStore store, @Nonnull UnaryOperator<Event> handler, @Nonnull ForkJoinPool pool) {
+        requireNonNull(store, "Store must not be null");
+        requireNonNull(handler, "Handler must not be null");
+        try (final Stream<Envelope> stream = readEnvelopesInParallel(0, pool)) {
+            store.bulkWrite(stream.map(Envelope::event).map(handler));
         }
     }
 
@@ -8,6 +8,9 @@ import store.jesframework.JEventStore;
  * Offset used by all {@literal Reactor} subclasses. It's main responsibility to provide actual and consistent
  * information about current {@link JEventStore} offset state in clustered/distributed environment for
  * concrete client.
+ *
+ * <p>The offset value is the position of the last processed event in the {@link JEventStore} (see
+ * {@link store.jesframework.Envelope#position()}), not a count of the processed events: the positions can have gaps.
  */
 public interface Offset {
 
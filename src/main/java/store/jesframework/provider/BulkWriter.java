@@ -0,0 +1,25 @@
+package store.jesframework.provider;
+
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+
+import store.jesframework.Event;
+
+/**
+ * {@link StoreProvider} capability to append a lot of events at once, i.e. for migrations or copying into a fresh
+ * store. Bulk writes are cheaper than regular ones, but they assume that the written streams are not written
+ * concurrently: the stream versions are read once per stream and tracked in memory.
+ */
+public interface BulkWriter {
+
+    /**
+     * Appends the events in the given order. The events may be committed by parts (see the implementations), so a
+     * failed bulk write may stay partially applied: the events, committed before the failure, are not rolled back.
+     *
+     * @param events are events to write.
+     * @return number of the written events.
+     * @throws store.jesframework.ex.VersionMismatchException if the expected version of any event doesn't match.
+     */
+    long bulkWrite(@Nonnull Stream<? extends Event> events);
+
+}
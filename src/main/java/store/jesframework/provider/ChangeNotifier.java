@@ -0,0 +1,26 @@
+package store.jesframework.provider;
+
+import javax.annotation.Nonnull;
+
+/**
+ * {@link StoreProvider} capability to notify about new events, written into the store. Listeners are called after the
+ * events are committed, so they are visible for reads. Listeners must be fast and non-blocking: they are called on the
+ * writing (or notification) thread.
+ */
+public interface ChangeNotifier {
+
+    /**
+     * Subscribes the listener to the store changes.
+     *
+     * @param listener is an action to run when new events are written into the store.
+     */
+    void addChangeListener(@Nonnull Runnable listener);
+
+    /**
+     * Unsubscribes the listener from the store changes.
+     *
+     * @param listener is a previously subscribed listener.
+     */
+    void removeChangeListener(@Nonnull Runnable listener);
+
+}
@@ -0,0 +1,803 @@
+package store.jesframework.provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.Envelope;
+import store.jesframework.Event;
+import store.jesframework.common.UnknownTypeResolved;
+import store.jesframework.ex.BrokenStoreException;
+import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.serializer.api.SerializationOption;
+import store.jesframework.serializer.api.Serializer;
+import store.jesframework.serializer.impl.SerializerFactory;
+import store.jesframework.snapshot.SnapshotReader;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static store.jesframework.util.PropsReader.getProperty;
+
+/**
+ * File {@link StoreProvider} implementation for the single-node deployments, that don't run a database. The events
+ * are appended to the segment files of the given directory ({@literal events-<number>.seg}), which are mapped into
+ * memory: the records are written without system calls (only the streams index entries of a batch take one positioned
+ * write), and the events are deserialized only when they are requested.
+ * {@implNote each record of a segment is checked by CRC32. A batch of the events is written into one segment, and
+ * its last record is marked as committed. On start, the tail of the last segment after the last committed record
+ * (i.e. the torn tail of a crashed write) is truncated. The records of a segment are indexed sparsely (see
+ * {@literal jes.file.index-interval}), so the store is read from an offset without scanning the whole segment. The
+ * locations of the records of each event stream are kept in the streams index file ({@literal streams.idx}), which is
+ * recovered from the segments, if it's behind them}.
+ * {@implNote deleted events are only marked as deleted: the positions of the other events don't change, and the space
+ * isn't reclaimed. The mapped segments are unmapped by GC only, so the directory can't be reopened on Windows until
+ * then}.
+ *
+ * @param <T> type of event serialization.
+ */
+@Slf4j
+public class FileStoreProvider<T> implements StoreProvider, SnapshotReader, RangeReader, AutoCloseable {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("events-(\\d{10})\\.seg");
+    private static final String STREAMS_INDEX = "streams.idx";
+
+    // record: length (4), crc (4), flags (1), position (8), uuid (16), data (length). crc covers position, uuid, data
+    private static final int HEADER_SIZE = 33;
+    private static final int CRC_OFFSET = 4;
+    private static final int FLAGS_OFFSET = 8;
+    private static final int POSITION_OFFSET = 9;
+    private static final byte FLAG_UUID = 1;
+    private static final byte FLAG_COMMIT = 2;
+    private static final byte FLAG_DELETED = 4;
+    // streams index entry: uuid (16), position (8), location (8)
+    private static final int INDEX_ENTRY_SIZE = 32;
+
+    private final Path directory;
+    private final Serializer<Event, T> serializer;
+    private final boolean binary;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final boolean forceOnWrite;
+    private final FileChannel streamsIndex;
+    private final FileLock directoryLock;
+    // guarded by lock
+    private long streamsIndexSize;
+
+    // the segments are written only under the lock, and published to the readers by the last position
+    private volatile Segment[] segments;
+    private volatile long lastPosition;
+    private final Map<UUID, StreamIndex> streams = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Opens the store in the given directory, or creates a new one, if the directory has no segments.
+     *
+     * @param directory is a directory of the segment files.
+     * @param options   are serialization extensions.
+     * @throws BrokenStoreException if the store can't be opened, or it's already opened by another process.
+     */
+    public FileStoreProvider(@Nonnull Path directory, @Nullable SerializationOption... options) {
+        this(directory, Integer.parseInt(getProperty("jes.file.segment-size")),
+                Integer.parseInt(getProperty("jes.file.index-interval")),
+                Boolean.parseBoolean(getProperty("jes.file.force-on-write")), options);
+    }
+
+    FileStoreProvider(@Nonnull Path directory, int segmentSize, int indexInterval, boolean forceOnWrite,
+                      @Nullable SerializationOption... options) {
+        try {
+            this.directory = Files.createDirectories(requireNonNull(directory, "Directory must not be null"));
+            this.serializer = SerializerFactory.newEventSerializer(options);
+            this.binary = serializer.rawType() == byte[].class;
+            this.segmentSize = segmentSize;
+            this.indexInterval = Math.max(1, indexInterval);
+            this.forceOnWrite = forceOnWrite;
+            this.streamsIndex = FileChannel.open(this.directory.resolve(STREAMS_INDEX), CREATE, READ, WRITE);
+            this.directoryLock = tryLock(streamsIndex);
+            if (directoryLock == null) {
+                streamsIndex.close();
+                throw new BrokenStoreException("Store " + directory + " is already opened by another process");
+            }
+            this.segments = openSegments();
+            this.lastPosition = segments[segments.length - 1].last;
+            recoverStreams();
+            log.debug("Opened file store {}: {} segment(s), last position {}", directory, segments.length,
+                    lastPosition);
+        } catch (IOException e) {
+            log.error("Failed to init {}", this.getClass(), e);
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    @Nullable
+    private static FileLock tryLock(@Nonnull FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // the store is already opened by this process
+            return null;
+        }
+    }
+
+    @Nonnull
+    private Segment[] openSegments() throws IOException {
+        final List<Path> files = new ArrayList<>();
+        try (final Stream<Path> list = Files.list(directory)) {
+            list.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches()).forEach(files::add);
+        }
+        // the numbers are zero-padded, so the names are sorted by the numbers
+        Collections.sort(files);
+        final List<Segment> opened = new ArrayList<>();
+        long first = 1;
+        for (Path file : files) {
+            final Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+            if (!matcher.matches() || Integer.parseInt(matcher.group(1)) != opened.size()) {
+                throw new BrokenStoreException("Segment " + file + " doesn't follow the previous one");
+            }
+            final Segment segment = new Segment(opened.size(), first, file, segmentSize, indexInterval);
+            segment.recover(opened.size() == files.size() - 1);
+            opened.add(segment);
+            first = segment.last + 1;
+        }
+        if (opened.isEmpty()) {
+            opened.add(new Segment(0, 1, segmentPath(0), segmentSize, indexInterval));
+        }
+        return opened.toArray(new Segment[0]);
+    }
+
+    /**
+     * Loads the streams index and appends the missing entries (of the records, which were written, but not indexed
+     * before a crash) to it.
+     */
+    private void recoverStreams() throws IOException {
+        final long entries = streamsIndex.size() / INDEX_ENTRY_SIZE;
+        final ByteBuffer index = streamsIndex.map(FileChannel.MapMode.READ_ONLY, 0, entries * INDEX_ENTRY_SIZE);
+        long indexed = 0;
+        while (index.hasRemaining()) {
+            final UUID uuid = new UUID(index.getLong(), index.getLong());
+            final long position = index.getLong();
+            final long location = index.getLong();
+            // the entries after the last position (or out of order) are left by a torn or failed batch
+            if (position > lastPosition || position <= indexed) {
+                break;
+            }
+            if (!isDeleted(location)) {
+                streams.computeIfAbsent(uuid, key -> new StreamIndex()).add(position, location);
+            }
+            indexed = position;
+            streamsIndexSize += INDEX_ENTRY_SIZE;
+        }
+        streamsIndex.truncate(streamsIndexSize);
+
+        final ByteBuffer missing = ByteBuffer.allocate(INDEX_ENTRY_SIZE * indexInterval);
+        final Cursor cursor = new Cursor(indexed, lastPosition);
+        long recovered = 0;
+        while (cursor.next()) {
+            final Segment segment = cursor.segment();
+            final int offset = cursor.offset();
+            if ((segment.buffer.get(offset + FLAGS_OFFSET) & FLAG_UUID) != 0) {
+                final UUID uuid = segment.uuid(offset);
+                final long location = location(segment.number, offset);
+                if (!isDeleted(location)) {
+                    streams.computeIfAbsent(uuid, key -> new StreamIndex()).add(cursor.position(), location);
+                }
+                putIndexEntry(missing, uuid, cursor.position(), location);
+                recovered++;
+                if (!missing.hasRemaining()) {
+                    writeIndexEntries(missing);
+                }
+            }
+        }
+        writeIndexEntries(missing);
+        if (recovered > 0) {
+            log.warn("Recovered {} entries of the streams index of {}", recovered, directory);
+        }
+    }
+
+    @Nonnull
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("events-%010d.seg", number));
+    }
+
+    private static long location(int segment, int offset) {
+        return ((long) segment << Integer.SIZE) | offset;
+    }
+
+    private boolean isDeleted(long location) {
+        final Segment segment = segments[(int) (location >>> Integer.SIZE)];
+        return (segment.buffer.get((int) location + FLAGS_OFFSET) & FLAG_DELETED) != 0;
+    }
+
+    @Override
+    public Stream<Event> readFrom(long offset) {
+        return readEnvelopesFrom(offset).map(Envelope::event);
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset) {
+        final Cursor cursor = new Cursor(offset, lastPosition);
+        final Iterator<Envelope> iterator = new Iterator<Envelope>() {
+
+            private Envelope next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null && cursor.next()) {
+                    next = toEnvelope(cursor.segment(), cursor.offset());
+                }
+                return next != null;
+            }
+
+            @Override
+            public Envelope next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                final Envelope envelope = next;
+                next = null;
+                return envelope;
+            }
+        };
+        return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false);
+    }
+
+    @Override
+    public long lastPosition() {
+        return lastPosition;
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the events of other types are skipped by their type names, without deserialization}.
+     */
+    @Nonnull
+    @Override
+    public UnaryOperator<Envelope> typeFilter(@Nonnull Set<String> types) {
+        if (types.contains(UnknownTypeResolved.class.getName())) {
+            // events of unknown types can't be found by their type names
+            return RangeReader.super.typeFilter(types);
+        }
+        final Set<String> typeNames = serializer.typeNames(types);
+        return envelope -> envelope.filter(types, typeNames);
+    }
+
+    @Nonnull
+    @Override
+    public List<Envelope> readEnvelopesRange(long from, long to) {
+        final Cursor cursor = new Cursor(from, Math.min(to, lastPosition));
+        final List<Envelope> envelopes = new ArrayList<>();
+        while (cursor.next()) {
+            final Envelope envelope = toEnvelope(cursor.segment(), cursor.offset());
+            if (envelope != null) {
+                envelopes.add(envelope);
+            }
+        }
+        return envelopes;
+    }
+
+    @Override
+    public Collection<Event> readBy(@Nonnull UUID uuid) {
+        return readStream(uuid, 0, 0).stream().map(Envelope::event).collect(Collectors.toList());
+    }
+
+    @Override
+    public Collection<Event> readBy(@Nonnull UUID uuid, long skip) {
+        return readStream(uuid, 0, skip).stream().map(Envelope::event).collect(Collectors.toList());
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesBy(@Nonnull UUID uuid, long afterPosition, long skip) {
+        return readStream(uuid, afterPosition, skip).stream();
+    }
+
+    @Nonnull
+    private List<Envelope> readStream(@Nonnull UUID uuid, long afterPosition, long skip) {
+        final StreamIndex index = streams.get(requireNonNull(uuid, "Event stream uuid must not be null"));
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        // the count is read before the arrays, so the arrays hold at least count entries
+        final int count = index.count;
+        final long[] positions = index.positions;
+        final long[] locations = index.locations;
+        int from = (int) Math.min(Math.max(skip, 0), count);
+        if (afterPosition > 0) {
+            final int found = Arrays.binarySearch(positions, 0, count, afterPosition);
+            from = found >= 0 ? found + 1 : -found - 1;
+        }
+        final Segment[] snapshot = segments;
+        final List<Envelope> envelopes = new ArrayList<>(count - from);
+        for (int i = from; i < count; i++) {
+            final Envelope envelope = toEnvelope(snapshot[(int) (locations[i] >>> Integer.SIZE)], (int) locations[i]);
+            if (envelope != null) {
+                envelopes.add(envelope);
+            }
+        }
+        return envelopes;
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private Envelope toEnvelope(@Nonnull Segment segment, int offset) {
+        if ((segment.buffer.get(offset + FLAGS_OFFSET) & FLAG_DELETED) != 0) {
+            return null;
+        }
+        final ByteBuffer data = segment.buffer.duplicate();
+        data.limit(offset + HEADER_SIZE + segment.buffer.getInt(offset));
+        data.position(offset + HEADER_SIZE);
+        final long position = segment.buffer.getLong(offset + POSITION_OFFSET);
+        final T raw;
+        if (binary) {
+            final byte[] bytes = new byte[data.remaining()];
+            data.get(bytes);
+            raw = (T) bytes;
+        } else {
+            // the string is decoded right from the mapped segment
+            raw = (T) UTF_8.decode(data).toString();
+        }
+        return new Envelope(position, serializer.fetchTypeName(raw), () -> serializer.deserialize(raw));
+    }
+
+    @Override
+    public long write(@Nonnull Event event) {
+        return write(new Event[] {event})[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the events are written atomically: if any of the events has an unexpected stream version, or the
+     * batch fails to be written, none of them is written. If the process crashes, the batch is either recovered
+     * completely, or truncated}.
+     */
+    @Override
+    public long[] write(@Nonnull Event... events) {
+        // the events are serialized before the lock is taken
+        final byte[][] data = new byte[events.length][];
+        int size = 0;
+        int streamEvents = 0;
+        for (int i = 0; i < events.length; i++) {
+            final T raw = serializer.serialize(events[i]);
+            data[i] = binary ? (byte[]) raw : ((String) raw).getBytes(UTF_8);
+            size = Math.addExact(size, HEADER_SIZE + data[i].length);
+            streamEvents += events[i].uuid() != null ? 1 : 0;
+        }
+        lock.lock();
+        Segment segment = null;
+        int end = 0;
+        final long indexSize = streamsIndexSize;
+        try {
+            verifyVersions(events);
+            segment = segments[segments.length - 1];
+            if (segment.capacity - segment.end < size) {
+                segment = roll(size);
+            }
+            end = segment.end;
+            final ByteBuffer entries = ByteBuffer.allocate(INDEX_ENTRY_SIZE * streamEvents);
+            final long[] positions = new long[events.length];
+            final long[] locations = new long[events.length];
+            long position = lastPosition;
+            for (int i = 0; i < events.length; i++) {
+                final UUID uuid = events[i].uuid();
+                final int offset = segment.append(++position, uuid, data[i], i == events.length - 1);
+                positions[i] = position;
+                locations[i] = location(segment.number, offset);
+                if (uuid != null) {
+                    putIndexEntry(entries, uuid, position, locations[i]);
+                }
+            }
+            writeIndexEntries(entries);
+            if (forceOnWrite) {
+                segment.buffer.force();
+                streamsIndex.force(false);
+            }
+            // the position is published before the streams, so the streams never refer to unpublished records
+            lastPosition = position;
+            for (int i = 0; i < events.length; i++) {
+                if (events[i].uuid() != null) {
+                    streams.computeIfAbsent(events[i].uuid(), key -> new StreamIndex()).add(positions[i],
+                            locations[i]);
+                }
+            }
+            return positions;
+        } catch (IOException e) {
+            if (segment != null) {
+                rollback(segment, end, indexSize, e);
+            }
+            throw new BrokenStoreException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Discards the records and the streams index entries of the failed batch, so the next batch is written in their
+     * place.
+     */
+    private void rollback(@Nonnull Segment segment, int end, long indexSize, @Nonnull IOException cause) {
+        segment.truncate(end, lastPosition);
+        streamsIndexSize = indexSize;
+        try {
+            streamsIndex.truncate(indexSize);
+        } catch (IOException e) {
+            // the entries, that aren't overwritten, are skipped on start anyway
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void verifyVersions(@Nonnull Event... events) {
+        final Map<UUID, Integer> versions = new HashMap<>();
+        for (Event event : events) {
+            final UUID uuid = event.uuid();
+            if (uuid != null) {
+                final int actual = versions.computeIfAbsent(uuid, key -> {
+                    final StreamIndex index = streams.get(key);
+                    return index != null ? index.count : 0;
+                });
+                final long expectedVersion = event.expectedStreamVersion();
+                // check current event stream version
+                if (expectedVersion != -1 && actual != expectedVersion) {
+                    throw new VersionMismatchException(uuid, expectedVersion, actual);
+                }
+                versions.put(uuid, actual + 1);
+            }
+        }
+    }
+
+    @Nonnull
+    private Segment roll(int size) throws IOException {
+        final Segment[] current = segments;
+        final Segment active = current[current.length - 1];
+        // the sealed segment is never written again
+        active.buffer.force();
+        final Segment segment = new Segment(current.length, lastPosition + 1, segmentPath(current.length),
+                Math.max(segmentSize, size), indexInterval);
+        final Segment[] rolled = Arrays.copyOf(current, current.length + 1);
+        rolled[current.length] = segment;
+        segments = rolled;
+        log.debug("Rolled file store {} to segment {}", directory, segment.number);
+        return segment;
+    }
+
+    private static void putIndexEntry(@Nonnull ByteBuffer entries, @Nonnull UUID uuid, long position, long location) {
+        entries.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+        entries.putLong(position).putLong(location);
+    }
+
+    private void writeIndexEntries(@Nonnull ByteBuffer entries) throws IOException {
+        entries.flip();
+        while (entries.hasRemaining()) {
+            streamsIndexSize += streamsIndex.write(entries, streamsIndexSize);
+        }
+        entries.clear();
+    }
+
+    @Override
+    public void deleteBy(@Nonnull UUID uuid) {
+        lock.lock();
+        try {
+            final StreamIndex index = streams.remove(requireNonNull(uuid, "Event stream uuid must not be null"));
+            if (index != null) {
+                final Segment[] snapshot = segments;
+                for (int i = 0; i < index.count; i++) {
+                    final Segment segment = snapshot[(int) (index.locations[i] >>> Integer.SIZE)];
+                    final int offset = (int) index.locations[i] + FLAGS_OFFSET;
+                    segment.buffer.put(offset, (byte) (segment.buffer.get(offset) | FLAG_DELETED));
+                    if (forceOnWrite) {
+                        segment.buffer.force();
+                    }
+                }
+                log.debug("Deleted {} event(s) of the stream {}", index.count, uuid);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            for (Segment segment : segments) {
+                segment.buffer.force();
+                segment.channel.close();
+            }
+            streamsIndex.force(false);
+            directoryLock.release();
+            streamsIndex.close();
+        } catch (IOException e) {
+            log.warn("Failed to close file store {}", directory, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Mapped segment file. The records are appended under the lock, and read without it: a record is read only if its
+     * position isn't greater than the published last position.
+     */
+    private static final class Segment {
+
+        private final int number;
+        private final long first;
+        private final int capacity;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private final int indexInterval;
+        private final SparseIndex sparse = new SparseIndex();
+        // guarded by lock
+        private int end;
+        private volatile long last;
+
+        private Segment(int number, long first, @Nonnull Path file, int minCapacity, int indexInterval)
+                throws IOException {
+            this.number = number;
+            this.indexInterval = indexInterval;
+            this.first = first;
+            this.last = first - 1;
+            this.channel = FileChannel.open(file, CREATE, READ, WRITE);
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new BrokenStoreException("Segment " + file + " is too large: " + size);
+            }
+            // an empty file is a segment, that was created, but not yet mapped before a crash
+            this.capacity = size > 0 ? (int) size : minCapacity;
+            this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        }
+
+        /**
+         * Reads the records of the segment: rebuilds the sparse index, and finds the last committed record. The tail
+         * of the last segment after it is truncated, the sealed segments must have no such tail.
+         */
+        void recover(boolean active) {
+            int offset = 0;
+            long expected = first;
+            while (offset <= capacity - HEADER_SIZE) {
+                final int length = buffer.getInt(offset);
+                if (length <= 0 || length > capacity - HEADER_SIZE - offset
+                        || buffer.getLong(offset + POSITION_OFFSET) != expected
+                        || buffer.getInt(offset + CRC_OFFSET) != crc(offset, length)) {
+                    break;
+                }
+                if ((expected - first) % indexInterval == 0) {
+                    sparse.add(expected, offset);
+                }
+                final boolean commit = (buffer.get(offset + FLAGS_OFFSET) & FLAG_COMMIT) != 0;
+                offset += HEADER_SIZE + length;
+                if (commit) {
+                    end = offset;
+                    last = expected;
+                }
+                expected++;
+            }
+            sparse.truncate(last);
+            if (end < capacity - Integer.BYTES && (end != offset || buffer.getInt(end) != 0)) {
+                if (!active) {
+                    throw new BrokenStoreException("Sealed segment " + number + " is corrupted after position " + last);
+                }
+                log.warn("Truncating torn tail of segment {} after position {}", number, last);
+                final ByteBuffer tail = buffer.duplicate();
+                tail.position(end);
+                while (tail.hasRemaining()) {
+                    tail.put((byte) 0);
+                }
+                buffer.force();
+            }
+        }
+
+        int append(long position, @Nullable UUID uuid, @Nonnull byte[] data, boolean commit) {
+            final int offset = end;
+            final ByteBuffer record = buffer.duplicate();
+            record.position(offset + FLAGS_OFFSET);
+            record.put((byte) ((uuid != null ? FLAG_UUID : 0) | (commit ? FLAG_COMMIT : 0)));
+            record.putLong(position);
+            record.putLong(uuid != null ? uuid.getMostSignificantBits() : 0);
+            record.putLong(uuid != null ? uuid.getLeastSignificantBits() : 0);
+            record.put(data);
+            buffer.putInt(offset + CRC_OFFSET, crc(offset, data.length));
+            // the length is written last, so a record with a non-zero length is always complete
+            buffer.putInt(offset, data.length);
+            if ((position - first) % indexInterval == 0) {
+                sparse.add(position, offset);
+            }
+            end = offset + HEADER_SIZE + data.length;
+            last = position;
+            return offset;
+        }
+
+        /**
+         * Discards the records after the given end: they are zeroed, so they are never read as complete ones.
+         */
+        void truncate(int newEnd, long newLast) {
+            final ByteBuffer tail = buffer.duplicate();
+            tail.limit(end);
+            tail.position(newEnd);
+            while (tail.hasRemaining()) {
+                tail.put((byte) 0);
+            }
+            sparse.truncate(newLast);
+            end = newEnd;
+            last = newLast;
+        }
+
+        @Nonnull
+        UUID uuid(int offset) {
+            return new UUID(buffer.getLong(offset + POSITION_OFFSET + Long.BYTES),
+                    buffer.getLong(offset + POSITION_OFFSET + 2 * Long.BYTES));
+        }
+
+        private int crc(int offset, int length) {
+            final ByteBuffer region = buffer.duplicate();
+            region.limit(offset + HEADER_SIZE + length);
+            region.position(offset + POSITION_OFFSET);
+            final CRC32 crc = new CRC32();
+            crc.update(region);
+            return (int) crc.getValue();
+        }
+    }
+
+    /**
+     * Iterates over the records with positions in {@code (after, until]}, across the segments.
+     */
+    private final class Cursor {
+
+        private final long after;
+        private final long until;
+        private final Segment[] snapshot;
+        private int segment;
+        private int next;
+        private int offset;
+        private long position;
+
+        private Cursor(long after, long until) {
+            this.after = after;
+            this.until = until;
+            // the segments are read after the last position, so they hold all the positions up to it
+            this.snapshot = segments;
+            seek(after + 1);
+        }
+
+        private void seek(long target) {
+            int low = 0;
+            int high = snapshot.length - 1;
+            while (low < high) {
+                final int middle = (low + high + 1) >>> 1;
+                if (snapshot[middle].first <= target) {
+                    low = middle;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            segment = low;
+            next = snapshot[low].sparse.floor(target);
+        }
+
+        boolean next() {
+            while (segment < snapshot.length) {
+                final Segment current = snapshot[segment];
+                if (next <= current.capacity - HEADER_SIZE) {
+                    final int length = current.buffer.getInt(next);
+                    if (length > 0) {
+                        final long found = current.buffer.getLong(next + POSITION_OFFSET);
+                        if (found > until) {
+                            return false;
+                        }
+                        offset = next;
+                        next += HEADER_SIZE + length;
+                        if (found > after) {
+                            position = found;
+                            return true;
+                        }
+                        continue;
+                    }
+                }
+                segment++;
+                next = 0;
+            }
+            return false;
+        }
+
+        @Nonnull
+        Segment segment() {
+            return snapshot[segment];
+        }
+
+        int offset() {
+            return offset;
+        }
+
+        long position() {
+            return position;
+        }
+    }
+
+    /**
+     * Offsets of every n-th record of a segment, by their positions. Modified only under the lock.
+     */
+    private static final class SparseIndex {
+
+        private volatile long[] positions = new long[16];
+        private volatile int[] offsets = new int[16];
+        private volatile int count;
+
+        void add(long position, int offset) {
+            if (count == positions.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                positions = Arrays.copyOf(positions, count * 2);
+            }
+            positions[count] = position;
+            offsets[count] = offset;
+            count = count + 1;
+        }
+
+        void truncate(long last) {
+            while (count > 0 && positions[count - 1] > last) {
+                count = count - 1;
+            }
+        }
+
+        /**
+         * Returns the offset of the nearest indexed record with the position not greater than the target.
+         */
+        int floor(long target) {
+            final int indexed = count;
+            final long[] indexedPositions = positions;
+            final int found = Arrays.binarySearch(indexedPositions, 0, indexed, target);
+            final int floor = found >= 0 ? found : -found - 2;
+            return floor >= 0 ? offsets[floor] : 0;
+        }
+    }
+
+    /**
+     * Positions and locations (segment number and offset) of the events of one stream. Modified only under the lock.
+     */
+    private static final class StreamIndex {
+
+        private volatile long[] positions = new long[4];
+        private volatile long[] locations = new long[4];
+        private volatile int count;
+
+        void add(long position, long location) {
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                locations = Arrays.copyOf(locations, count * 2);
+            }
+            positions[count] = position;
+            locations[count] = location;
+            // the count is written after the entry, so the readers never see an unset entry
+            count = count + 1;
+        }
+    }
+}
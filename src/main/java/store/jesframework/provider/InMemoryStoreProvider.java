@@ -1,69 +1,405 @@
 package store.jesframework.provider;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.atomic.LongAdder;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import store.jesframework.Envelope;
 import store.jesframework.Event;
+import store.jesframework.ex.BrokenStoreException;
 import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.serializer.api.SerializationOption;
+import store.jesframework.serializer.api.Serializer;
+import store.jesframework.serializer.impl.SerializerFactory;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * In-memory {@link StoreProvider} implementation.
+ * {@implNote the events are kept in an append-only log of fixed-size chunks, so a write doesn't copy the already
+ * written events, and the readers don't take any locks. Each event stream is indexed by the positions of its events,
+ * so it's read without scanning the whole log. Deleted events leave empty slots in the log: the positions of the
+ * other events don't change}.
+ * {@implNote the provider is empty after it's closed: the memory of the events (the direct buffers of the
+ * {@link Storage#OFF_HEAP} storage) is released}.
  */
-public class InMemoryStoreProvider implements StoreProvider {
+public class InMemoryStoreProvider implements StoreProvider, RangeReader, AutoCloseable {
+
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final EventLog<?> log;
+    // the log is modified only under the lock, and published to the readers by the size
+    private volatile int size;
+    private final Map<UUID, StreamIndex> streams = new ConcurrentHashMap<>();
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Defines how {@link InMemoryStoreProvider} keeps the events.
+     */
+    public enum Storage {
+
+        /**
+         * ON_HEAP is the default storage: the written events are kept as is.
+         */
+        ON_HEAP,
+        /**
+         * OFF_HEAP storage keeps the serialized events in direct (off-heap) buffers, and deserializes them on each
+         * read. The heap usage doesn't depend on the number of the events, so there are no long GC pauses on large
+         * stores, and the read/write costs are closer to the ones of the database-backed providers. The memory of
+         * the deleted events isn't reclaimed.
+         */
+        OFF_HEAP
+    }
 
-    private final List<Event> events = new CopyOnWriteArrayList<>();
-    private final Map<UUID, LongAdder> streamsVersions = new ConcurrentHashMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    public InMemoryStoreProvider() {
+        this(Storage.ON_HEAP);
+    }
+
+    /**
+     * Builds an {@link InMemoryStoreProvider} instance with the given storage.
+     *
+     * @param storage defines how the events are kept, see {@link Storage}.
+     * @param options are serialization extensions of the {@link Storage#OFF_HEAP} storage.
+     */
+    public InMemoryStoreProvider(@Nonnull Storage storage, @Nullable SerializationOption... options) {
+        if (requireNonNull(storage, "Storage must not be null") == Storage.OFF_HEAP) {
+            log = new OffHeapLog<>(SerializerFactory.newEventSerializer(options));
+        } else {
+            log = new HeapLog();
+        }
+    }
 
     @Override
     public Stream<Event> readFrom(long offset) {
-        return events.stream().skip(offset);
+        return readEnvelopesFrom(offset).map(Envelope::event);
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset) {
+        // the stream is read up to the size at the moment of the call, so the positions are consistent
+        final int last = size;
+        return IntStream.range((int) Math.min(Math.max(offset, 0), last), last)
+                .mapToObj(this::toEnvelope)
+                .filter(Objects::nonNull);
+    }
+
+    @Override
+    public long lastPosition() {
+        return size;
+    }
+
+    @Nonnull
+    @Override
+    public List<Envelope> readEnvelopesRange(long from, long to) {
+        final int last = size;
+        return IntStream.range((int) Math.min(Math.max(from, 0), last), (int) Math.min(Math.max(to, 0), last))
+                .mapToObj(this::toEnvelope)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    @Nullable
+    private Envelope toEnvelope(int index) {
+        final Event event = log.get(index);
+        // position is the number of events written before the event, plus one
+        return event != null ? new Envelope(index + 1L, event) : null;
     }
 
-    // search for O(n)
+    // search for O(k), where k is the length of the event stream
     @Override
     public Collection<Event> readBy(@Nonnull UUID uuid) {
-        return events.stream().filter(event -> uuid.equals(event.uuid())).collect(Collectors.toList());
+        final StreamIndex index = streams.get(uuid);
+        if (index == null) {
+            return Collections.emptyList();
+        }
+        final int count = index.count;
+        final int[] positions = index.positions;
+        final List<Event> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final Event event = log.get(positions[i]);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        return events;
     }
 
-    // not optimal exclusive write
+    // exclusive write, O(1) amortized
     @Override
-    public void write(@Nonnull Event event) {
+    public long write(@Nonnull Event event) {
+        return write(new Event[] {event})[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the events are written atomically: if any of the events has an unexpected stream version, none of
+     * them is written}.
+     */
+    @Override
+    public long[] write(@Nonnull Event... events) {
+        lock.lock();
         try {
-            lock.writeLock().lock();
-            if (event.uuid() != null) {
+            verifyVersions(events);
+            return append(log, events);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void verifyVersions(@Nonnull Event... events) {
+        final Map<UUID, Integer> versions = new HashMap<>();
+        for (Event event : events) {
+            final UUID uuid = event.uuid();
+            if (uuid != null) {
+                final int actual = versions.computeIfAbsent(uuid, key -> {
+                    final StreamIndex index = streams.get(key);
+                    return index != null ? index.count : 0;
+                });
                 final long expectedVersion = event.expectedStreamVersion();
                 // check current event stream version
-                if (expectedVersion != -1) {
-                    final LongAdder actual = streamsVersions.computeIfAbsent(event.uuid(), uuid -> new LongAdder());
-                    if (actual.longValue() != expectedVersion) {
-                        throw new VersionMismatchException(event.uuid(), expectedVersion, actual.longValue());
-                    }
+                if (expectedVersion != -1 && actual != expectedVersion) {
+                    throw new VersionMismatchException(uuid, expectedVersion, actual);
                 }
+                versions.put(uuid, actual + 1);
+            }
+        }
+    }
+
+    /**
+     * Appends the events to the log. All the events are encoded first, so the events, that fail to be encoded (i.e.
+     * serialized), fail the whole write before any of them is appended.
+     */
+    @Nonnull
+    private <E> long[] append(@Nonnull EventLog<E> eventLog, @Nonnull Event... events) {
+        if ((long) size + events.length > Integer.MAX_VALUE) {
+            throw new BrokenStoreException("In-memory event store is full");
+        }
+        final List<E> entries = new ArrayList<>(events.length);
+        for (Event event : events) {
+            entries.add(eventLog.encode(event));
+        }
+        final long[] positions = new long[events.length];
+        for (int i = 0; i < events.length; i++) {
+            final int index = size;
+            eventLog.append(index, entries.get(i));
+            if (events[i].uuid() != null) {
+                streams.computeIfAbsent(events[i].uuid(), uuid -> new StreamIndex()).add(index);
             }
-            events.add(event);
-            // update written event stream version
-            if (event.uuid() != null) {
-                streamsVersions.computeIfAbsent(event.uuid(), uuid -> new LongAdder()).increment();
+            size = index + 1;
+            positions[i] = index + 1L;
+        }
+        return positions;
+    }
+
+    @Override
+    public void deleteBy(@Nonnull UUID uuid) {
+        lock.lock();
+        try {
+            final StreamIndex index = streams.remove(uuid);
+            if (index != null) {
+                for (int i = 0; i < index.count; i++) {
+                    log.clear(index.positions[i]);
+                }
+                // publishes the removal to the readers
+                size = size;
             }
         } finally {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     @Override
-    public void deleteBy(@Nonnull UUID uuid) {
-        events.removeIf(event -> uuid.equals(event.uuid()));
-        streamsVersions.remove(uuid);
+    public void close() {
+        lock.lock();
+        try {
+            streams.clear();
+            size = 0;
+            log.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Slots of the written events by their log indexes. The slots are appended and cleared only under the lock, and
+     * read without it: a slot is read only if its index is less than the published size.
+     *
+     * @param <E> type of the encoded events.
+     */
+    private interface EventLog<E> extends AutoCloseable {
+
+        @Nonnull
+        E encode(@Nonnull Event event);
+
+        void append(int index, @Nonnull E entry);
+
+        @Nullable
+        Event get(int index);
+
+        void clear(int index);
+
+        @Override
+        void close();
+    }
+
+    private static final class HeapLog implements EventLog<Event> {
+
+        private volatile Event[][] chunks = new Event[0][];
+
+        @Nonnull
+        @Override
+        public Event encode(@Nonnull Event event) {
+            return event;
+        }
+
+        @Override
+        public void append(int index, @Nonnull Event event) {
+            Event[][] current = chunks;
+            if (index >>> CHUNK_SHIFT == current.length) {
+                current = Arrays.copyOf(current, current.length + 1);
+                current[current.length - 1] = new Event[CHUNK_SIZE];
+                chunks = current;
+            }
+            current[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = event;
+        }
+
+        @Nullable
+        @Override
+        public Event get(int index) {
+            return chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+        }
+
+        @Override
+        public void clear(int index) {
+            chunks[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = null;
+        }
+
+        @Override
+        public void close() {
+            chunks = new Event[0][];
+        }
+    }
+
+    /**
+     * Keeps the serialized events in the direct buffers (slabs). The location of an event is its slab number and
+     * offset, packed into a single long, and the length of the serialized event (-1 for the deleted ones).
+     */
+    private static final class OffHeapLog<T> implements EventLog<byte[]> {
+
+        private static final int SLAB_SIZE = 16 * 1024 * 1024;
+
+        private final Serializer<Event, T> serializer;
+        private final boolean binary;
+
+        private volatile ByteBuffer[] slabs = new ByteBuffer[0];
+        private volatile long[][] locations = new long[0][];
+        private volatile int[][] lengths = new int[0][];
+
+        private OffHeapLog(@Nonnull Serializer<Event, T> serializer) {
+            this.serializer = serializer;
+            this.binary = serializer.rawType() == byte[].class;
+        }
+
+        @Nonnull
+        @Override
+        public byte[] encode(@Nonnull Event event) {
+            final T raw = serializer.serialize(event);
+            return binary ? (byte[]) raw : ((String) raw).getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void append(int index, @Nonnull byte[] data) {
+            ByteBuffer[] currentSlabs = slabs;
+            ByteBuffer slab = currentSlabs.length == 0 ? null : currentSlabs[currentSlabs.length - 1];
+            if (slab == null || slab.remaining() < data.length) {
+                slab = ByteBuffer.allocateDirect(Math.max(SLAB_SIZE, data.length));
+                currentSlabs = Arrays.copyOf(currentSlabs, currentSlabs.length + 1);
+                currentSlabs[currentSlabs.length - 1] = slab;
+                slabs = currentSlabs;
+            }
+            final long location = ((long) (currentSlabs.length - 1) << Integer.SIZE) | slab.position();
+            slab.put(data);
+
+            long[][] currentLocations = locations;
+            int[][] currentLengths = lengths;
+            if (index >>> CHUNK_SHIFT == currentLocations.length) {
+                currentLocations = Arrays.copyOf(currentLocations, currentLocations.length + 1);
+                currentLocations[currentLocations.length - 1] = new long[CHUNK_SIZE];
+                currentLengths = Arrays.copyOf(currentLengths, currentLengths.length + 1);
+                currentLengths[currentLengths.length - 1] = new int[CHUNK_SIZE];
+                locations = currentLocations;
+                lengths = currentLengths;
+            }
+            currentLocations[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = location;
+            currentLengths[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = data.length;
+        }
+
+        @Nullable
+        @Override
+        @SuppressWarnings("unchecked")
+        public Event get(int index) {
+            final int length = lengths[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+            if (length < 0) {
+                return null;
+            }
+            final long location = locations[index >>> CHUNK_SHIFT][index & CHUNK_MASK];
+            // the slab is shared with the writer, so it's read through a duplicate with its own position
+            final ByteBuffer slab = slabs[(int) (location >>> Integer.SIZE)].duplicate();
+            slab.position((int) location);
+            final byte[] data = new byte[length];
+            slab.get(data);
+            return serializer.deserialize((T) (binary ? data : new String(data, StandardCharsets.UTF_8)));
+        }
+
+        @Override
+        public void clear(int index) {
+            lengths[index >>> CHUNK_SHIFT][index & CHUNK_MASK] = -1;
+        }
+
+        // the direct memory of the slabs is freed, once they are collected
+        @Override
+        public void close() {
+            slabs = new ByteBuffer[0];
+            locations = new long[0][];
+            lengths = new int[0][];
+        }
+    }
+
+    /**
+     * Positions (log indexes) of the events of one stream. Modified only under the lock.
+     */
+    private static final class StreamIndex {
+
+        private volatile int[] positions = new int[4];
+        private volatile int count;
+
+        void add(int position) {
+            int[] current = positions;
+            if (count == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                positions = current;
+            }
+            current[count] = position;
+            // the count is written after the position, so the readers never see an unset position
+            count = count + 1;
+        }
     }
 }
@@ -3,12 +3,25 @@ package store.jesframework.provider;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.sql.DataSource;
@@ -16,12 +29,22 @@ import javax.sql.DataSource;
 import org.cache2k.Cache;
 import org.cache2k.Cache2kBuilder;
 
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.Envelope;
 import store.jesframework.Event;
 import store.jesframework.ex.BrokenStoreException;
+import store.jesframework.provider.jdbc.BloomWritesTracker;
+import store.jesframework.provider.jdbc.CacheWritesTracker;
+import store.jesframework.provider.jdbc.WritesTracker;
 import store.jesframework.serializer.api.SerializationOption;
 import store.jesframework.snapshot.SnapshotReader;
+import store.jesframework.util.DaemonThreadFactory;
 
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.MINUTES;
+import static store.jesframework.util.PropsReader.getProperty;
 
 /**
  * This implementation is similar to {@link JdbcStoreProvider} except reads distribution. It's intended to be used in
@@ -30,18 +53,33 @@ import static java.util.concurrent.TimeUnit.MINUTES;
  * by its uuid, and then read store by offset via {@link StoreProvider#readFrom(long)} you can see stale state,
  * because offset reads always routed to the replicas.
  *
+ * <p>The replicas are probed periodically for their last positions (see {@literal jes.jdbc.cluster.probe-interval-ms}
+ * property for the default interval). A read by offset is routed only to the replicas, that are caught up to that
+ * offset (or to the most caught up one, if there are no such replicas), choosing randomly by the replica weights.
+ * The reads of one thread (i.e. of one projector) stick to the chosen replica while it's caught up, so the reader
+ * doesn't bounce between replicas with different replication lag. A replica, that fails to respond, is ejected until
+ * the next successful probe; if all the replicas are ejected, the master handles the reads. If a replica fails while
+ * a stream is read, the rest of the stream is read from the next replica.
+ *
  * @param <T> type of event serialization.
  */
-public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReader, AutoCloseable {
+@Slf4j
+public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReader, ChangeNotifier, RangeReader,
+        BulkWriter, AutoCloseable {
 
     /**
      * Fair enough(?) amount of time to avoid replication lag issues.
      */
     private static final int MAX_TRACKED_TIME = 5;
+    // the replicas of the finished threads are evicted by the capacity, if they are not expired yet
+    private static final int MAX_READERS = 1024;
 
     private final JdbcStoreProvider<T> master;
-    private final List<JdbcStoreProvider<T>> replicas = new ArrayList<>();
-    private final Cache<UUID, Object> writesTracker;
+    private final Replica<T> fallback;
+    private final List<Replica<T>> replicas = new ArrayList<>();
+    private final WritesTracker writesTracker;
+    private final Cache<Long, Replica<T>> readers;
+    private final ScheduledExecutorService prober;
 
     /**
      * Builds a {@link JdbcClusterStoreProvider} instance by given params.
@@ -49,32 +87,68 @@ public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReade
      * @param master   is a datasource that will handle all the writes and querying events by its {@link Event#uuid()}
      *                 (if such an event is tracked).
      * @param replicas are collection of datasources that will handle the sequential events reads.
-     * @param timeout  the duration of events tracking. Must be greater than a replication lag. Note: cache has no max
-     *                 entries size, so all tracked within {@code timeout} event uuid's will be kept in-memory.
+     * @param timeout  the duration of events tracking. Must be greater than a replication lag. Note: by default cache
+     *                 has no max entries size, so all tracked within {@code timeout} event uuid's will be kept
+     *                 in-memory (see {@literal jes.jdbc.cluster.tracker.*} properties for a bounded tracker).
      * @param timeUnit is just a time unit for {@code timeout}.
      * @param options  are serialization extensions.
      */
-    @SuppressWarnings("squid:S2589")
     public JdbcClusterStoreProvider(@Nonnull DataSource master, @Nullable Collection<DataSource> replicas, int timeout,
                                     @Nonnull TimeUnit timeUnit, @Nullable SerializationOption... options) {
+        this(master, replicas == null ? null : replicas.stream().collect(Collectors.toMap(Function.identity(),
+                replica -> 1, (first, second) -> first, LinkedHashMap::new)), timeout, timeUnit,
+                Long.parseLong(getProperty("jes.jdbc.cluster.probe-interval-ms")), options);
+    }
+
+    /**
+     * Builds a {@link JdbcClusterStoreProvider} instance by given params.
+     *
+     * @param master          is a datasource that will handle all the writes and querying events by its
+     *                        {@link Event#uuid()} (if such an event is tracked).
+     * @param replicas        are datasources that will handle the sequential events reads, with their weights. A
+     *                        replica with the weight of 2 gets twice as many new readers as a replica with the weight
+     *                        of 1.
+     * @param timeout         the duration of events tracking. Must be greater than a replication lag. Note: by
+     *                        default cache has no max entries size, so all tracked within {@code timeout} event
+     *                        uuid's will be kept in-memory (see {@literal jes.jdbc.cluster.tracker.*} properties for a
+     *                        bounded tracker).
+     * @param timeUnit        is just a time unit for {@code timeout}.
+     * @param probeIntervalMs is an interval between the probes of the replica positions.
+     * @param options         are serialization extensions.
+     */
+    @SuppressWarnings("squid:S2589")
+    public JdbcClusterStoreProvider(@Nonnull DataSource master, @Nullable Map<DataSource, Integer> replicas,
+                                    int timeout, @Nonnull TimeUnit timeUnit, long probeIntervalMs,
+                                    @Nullable SerializationOption... options) {
         //noinspection ConstantConditions
-        if (timeout <= 0 || timeUnit == null) {
-            throw new BrokenStoreException("Timeout must be > 0, timeunit must not be null: " + timeout + timeUnit);
+        if (timeout <= 0 || timeUnit == null || probeIntervalMs <= 0) {
+            throw new BrokenStoreException("Timeout and probe interval must be > 0, timeunit must not be null: "
+                    + timeout + timeUnit + ", " + probeIntervalMs);
         }
 
         this.master = new JdbcStoreProvider<>(master, options);
+        this.fallback = new Replica<>(this.master, 1);
         if (replicas == null || replicas.isEmpty()) {
-            this.replicas.add(this.master);
+            this.replicas.add(fallback);
+            this.prober = null;
         } else {
-            for (DataSource replica : replicas) {
-                this.replicas.add(new JdbcStoreProvider<>(replica, true, options));
-            }
+            replicas.forEach((replica, weight) -> {
+                if (weight == null || weight <= 0) {
+                    throw new BrokenStoreException("Replica weight must be > 0: " + weight);
+                }
+                this.replicas.add(new Replica<>(new JdbcStoreProvider<>(replica, true, options), weight));
+            });
+            this.prober = Executors.newSingleThreadScheduledExecutor(
+                    new DaemonThreadFactory(getClass().getSimpleName()));
+            this.prober.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, MILLISECONDS);
         }
-        writesTracker = Cache2kBuilder.of(UUID.class, Object.class)
-                .name(getClass() + "-" + UUID.randomUUID())
-                .permitNullValues(true)
+        writesTracker = newWritesTracker(timeout, timeUnit);
+        @SuppressWarnings("unchecked")
+        final Class<Replica<T>> replicaType = (Class<Replica<T>>) (Class<?>) Replica.class;
+        readers = Cache2kBuilder.of(Long.class, replicaType)
+                .name(getClass() + "-readers-" + UUID.randomUUID())
                 .boostConcurrency(true)
-                .entryCapacity(Long.MAX_VALUE)
+                .entryCapacity(MAX_READERS)
                 .expireAfterWrite(timeout, timeUnit)
                 .build();
     }
@@ -83,10 +157,63 @@ public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReade
         this(master, replicas != null ? Arrays.asList(replicas) : null, MAX_TRACKED_TIME, MINUTES);
     }
 
+    @Nonnull
+    private static WritesTracker newWritesTracker(int timeout, @Nonnull TimeUnit timeUnit) {
+        final long expectedWrites = Long.parseLong(getProperty("jes.jdbc.cluster.tracker.expected-writes"));
+        if (expectedWrites <= 0) {
+            return new CacheWritesTracker(timeout, timeUnit);
+        }
+        final String falsePositiveRate = getProperty("jes.jdbc.cluster.tracker.false-positive-rate");
+        return new BloomWritesTracker(timeout, timeUnit, expectedWrites, Double.parseDouble(falsePositiveRate));
+    }
+
     @Override
     public Stream<Event> readFrom(long offset) {
         // it's ok to sequentially read events from replicas
-        return nextReplica().readFrom(offset);
+        return readEnvelopesFrom(offset).map(Envelope::event);
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset) {
+        final long[] last = {offset};
+        return readStream(offset, replica -> replica.readEnvelopesFrom(last[0]),
+                envelope -> last[0] = envelope.position());
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset, @Nonnull Set<String> types) {
+        final long[] last = {offset};
+        return readStream(offset, replica -> replica.readEnvelopesFrom(last[0], types),
+                envelope -> last[0] = envelope.position());
+    }
+
+    // the ranges are read from any of the replicas, so all of them must have the events up to the returned position
+    @Override
+    public long lastPosition() {
+        long lastPosition = Long.MAX_VALUE;
+        for (Replica<T> replica : replicas) {
+            if (replica.healthy) {
+                try {
+                    replica.position = replica.provider.lastPosition();
+                    lastPosition = Math.min(lastPosition, replica.position);
+                } catch (Exception e) {
+                    eject(replica, e);
+                }
+            }
+        }
+        return lastPosition == Long.MAX_VALUE ? master.lastPosition() : lastPosition;
+    }
+
+    @Nonnull
+    @Override
+    public List<Envelope> readEnvelopesRange(long from, long to) {
+        return read(to, replica -> replica.readEnvelopesRange(from, to));
+    }
+
+    @Nonnull
+    @Override
+    public UnaryOperator<Envelope> typeFilter(@Nonnull Set<String> types) {
+        return master.typeFilter(types);
     }
 
     @Override
@@ -94,7 +221,7 @@ public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReade
         if (isTracked(uuid)) {
             return master.readBy(uuid);
         }
-        return nextReplica().readBy(uuid);
+        return read(0, replica -> replica.readBy(uuid));
     }
 
     @Override
@@ -102,21 +229,87 @@ public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReade
         if (isTracked(uuid)) {
             return master.readBy(uuid, skip);
         }
-        return nextReplica().readBy(uuid, skip);
+        return read(0, replica -> replica.readBy(uuid, skip));
+    }
+
+    @Override
+    public Map<UUID, Collection<Event>> readAllBy(@Nonnull Map<UUID, Long> skips) {
+        if (skips.keySet().stream().anyMatch(this::isTracked)) {
+            return master.readAllBy(skips);
+        }
+        return read(0, replica -> replica.readAllBy(skips));
+    }
+
+    @Override
+    public Map<UUID, Collection<Envelope>> readAllEnvelopesBy(@Nonnull Map<UUID, Long> skips) {
+        if (skips.keySet().stream().anyMatch(this::isTracked)) {
+            return master.readAllEnvelopesBy(skips);
+        }
+        return read(0, replica -> replica.readAllEnvelopesBy(skips));
+    }
+
+    @Override
+    public Stream<Event> streamBy(@Nonnull UUID uuid, long skip) {
+        if (isTracked(uuid)) {
+            return master.streamBy(uuid, skip);
+        }
+        final long[] read = {skip};
+        return readStream(0, replica -> replica.streamBy(uuid, read[0]), event -> read[0]++);
     }
 
     @Override
-    public void write(@Nonnull Event event) {
+    public Stream<Envelope> readEnvelopesBy(@Nonnull UUID uuid, long afterPosition, long skip) {
+        if (isTracked(uuid)) {
+            return master.readEnvelopesBy(uuid, afterPosition, skip);
+        }
+        final long[] last = {afterPosition};
+        final long[] read = {skip};
+        return readStream(afterPosition, replica -> replica.readEnvelopesBy(uuid, last[0], read[0]), envelope -> {
+            last[0] = Math.max(last[0], envelope.position());
+            read[0]++;
+        });
+    }
+
+    @Override
+    public long write(@Nonnull Event event) {
         track(event.uuid());
-        master.write(event);
+        return master.write(event);
+    }
+
+    @Override
+    public long[] write(@Nonnull Event... events) {
+        for (Event event : events) {
+            track(event.uuid());
+        }
+        return master.write(events);
     }
 
     @Override
-    public void write(@Nonnull Event... events) {
+    public CompletableFuture<long[]> writeAsync(@Nonnull Event... events) {
         for (Event event : events) {
             track(event.uuid());
         }
-        master.write(events);
+        return master.writeAsync(events);
+    }
+
+    @Override
+    public long bulkWrite(@Nonnull Stream<? extends Event> events) {
+        return master.bulkWrite(events.peek(event -> track(event.uuid())));
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the writes are made by the master, so it notifies about the changes (the notifications of the other
+     * nodes are received by the master too, see {@link JdbcStoreProvider#addChangeListener(Runnable)})}.
+     */
+    @Override
+    public void addChangeListener(@Nonnull Runnable listener) {
+        master.addChangeListener(listener);
+    }
+
+    @Override
+    public void removeChangeListener(@Nonnull Runnable listener) {
+        master.removeChangeListener(listener);
     }
 
     @Override
@@ -129,25 +322,222 @@ public class JdbcClusterStoreProvider<T> implements StoreProvider, SnapshotReade
 
     private void track(@Nullable UUID uuid) {
         if (uuid != null) {
-            writesTracker.put(uuid, null);
+            writesTracker.track(uuid);
         }
     }
 
     private boolean isTracked(@Nonnull UUID uuid) {
-        return writesTracker.containsKey(Objects.requireNonNull(uuid, "Uuid must not be null"));
+        return writesTracker.isTracked(Objects.requireNonNull(uuid, "Uuid must not be null"));
+    }
+
+    /**
+     * Reads from the replica, that is caught up to the given position. If the replica fails, it's ejected, and the
+     * read is retried on the next one.
+     */
+    private <R> R read(long position, @Nonnull Function<JdbcStoreProvider<T>, R> reader) {
+        final Replica<T> replica = nextReplica(position);
+        try {
+            return reader.apply(replica.provider);
+        } catch (Exception e) {
+            if (replica == fallback) {
+                throw e;
+            }
+            eject(replica, e);
+            return read(position, reader);
+        }
+    }
+
+    /**
+     * Reads the stream from the replica, that is caught up to the given position. If the replica fails to open the
+     * stream, or while the stream is read, it's ejected, and the rest of the stream is read from the next one.
+     *
+     * @param reader opens the rest of the stream on the given replica.
+     * @param onRead tracks the read elements, so the reader knows where the rest of the stream starts.
+     */
+    @Nonnull
+    private <E> Stream<E> readStream(long position, @Nonnull Function<JdbcStoreProvider<T>, Stream<E>> reader,
+                                     @Nonnull Consumer<E> onRead) {
+        final FailoverIterator<E> iterator = new FailoverIterator<>(position, reader, onRead);
+        return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(iterator::close);
     }
 
-    private JdbcStoreProvider<T> nextReplica() {
-        return replicas.get(ThreadLocalRandom.current().nextInt(replicas.size()));
+    @Nonnull
+    private Replica<T> nextReplica(long position) {
+        final long reader = Thread.currentThread().getId();
+        final Replica<T> current = readers.peek(reader);
+        if (current != null && current.isCaughtUp(position)) {
+            return current;
+        }
+        final Replica<T> next = chooseReplica(position);
+        readers.put(reader, next);
+        return next;
+    }
+
+    @Nonnull
+    private Replica<T> chooseReplica(long position) {
+        final List<Replica<T>> candidates = new ArrayList<>();
+        Replica<T> mostCaughtUp = null;
+        int totalWeight = 0;
+        for (Replica<T> replica : replicas) {
+            if (replica.isCaughtUp(position)) {
+                candidates.add(replica);
+                totalWeight += replica.weight;
+            } else if (replica.healthy && (mostCaughtUp == null || replica.position > mostCaughtUp.position)) {
+                mostCaughtUp = replica;
+            }
+        }
+        if (candidates.isEmpty()) {
+            return mostCaughtUp != null ? mostCaughtUp : fallback;
+        }
+        int chosen = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (Replica<T> candidate : candidates) {
+            chosen -= candidate.weight;
+            if (chosen < 0) {
+                return candidate;
+            }
+        }
+        return candidates.get(candidates.size() - 1);
+    }
+
+    private void probe() {
+        for (Replica<T> replica : replicas) {
+            try {
+                replica.position = replica.provider.lastPosition();
+                if (!replica.healthy) {
+                    log.info("Replica {} is available again at position {}", replica.provider, replica.position);
+                    replica.healthy = true;
+                }
+            } catch (Exception e) {
+                eject(replica, e);
+            }
+        }
+    }
+
+    private void eject(@Nonnull Replica<T> replica, @Nonnull Exception cause) {
+        if (replica.healthy) {
+            log.warn("Replica {} is ejected until the next successful probe", replica.provider, cause);
+            replica.healthy = false;
+        }
     }
 
     @Override
     public void close() {
+        if (prober != null) {
+            prober.shutdownNow();
+        }
         master.close();
-        for (JdbcStoreProvider<T> replica : replicas) {
-            replica.close();
+        for (Replica<T> replica : replicas) {
+            replica.provider.close();
         }
         writesTracker.close();
+        readers.close();
+    }
+
+    /**
+     * Iterator over the stream of a replica, that switches to the next replica, if the current one fails.
+     */
+    private final class FailoverIterator<E> implements Iterator<E> {
+
+        private final long position;
+        private final Function<JdbcStoreProvider<T>, Stream<E>> reader;
+        private final Consumer<E> onRead;
+        private Replica<T> replica;
+        private Stream<E> stream;
+        private Iterator<E> iterator;
+
+        private FailoverIterator(long position, @Nonnull Function<JdbcStoreProvider<T>, Stream<E>> reader,
+                                 @Nonnull Consumer<E> onRead) {
+            this.position = position;
+            this.reader = reader;
+            this.onRead = onRead;
+            open();
+        }
+
+        private void open() {
+            while (true) {
+                replica = nextReplica(position);
+                try {
+                    stream = reader.apply(replica.provider);
+                    iterator = stream.iterator();
+                    return;
+                } catch (Exception e) {
+                    if (replica == fallback) {
+                        throw e;
+                    }
+                    eject(replica, e);
+                }
+            }
+        }
+
+        private void failover(@Nonnull Exception cause) {
+            close();
+            eject(replica, cause);
+            open();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                try {
+                    return iterator.hasNext();
+                } catch (Exception e) {
+                    if (replica == fallback) {
+                        throw e;
+                    }
+                    failover(e);
+                }
+            }
+        }
+
+        @Override
+        public E next() {
+            while (true) {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    final E next = iterator.next();
+                    onRead.accept(next);
+                    return next;
+                } catch (Exception e) {
+                    if (replica == fallback) {
+                        throw e;
+                    }
+                    failover(e);
+                }
+            }
+        }
+
+        void close() {
+            try {
+                stream.close();
+            } catch (RuntimeException e) {
+                log.debug("Failed to close the stream of replica {}", replica.provider, e);
+            }
+        }
+    }
+
+    /**
+     * Replica with its weight and the state of the last probe.
+     */
+    private static final class Replica<T> {
+
+        private static final long UNKNOWN_POSITION = -1;
+
+        private final JdbcStoreProvider<T> provider;
+        private final int weight;
+        private volatile long position = UNKNOWN_POSITION;
+        private volatile boolean healthy = true;
+
+        private Replica(@Nonnull JdbcStoreProvider<T> provider, int weight) {
+            this.provider = provider;
+            this.weight = weight;
+        }
+
+        // the replica is considered caught up until it's probed
+        boolean isCaughtUp(long offset) {
+            return healthy && (position == UNKNOWN_POSITION || position >= offset);
+        }
     }
 
 }
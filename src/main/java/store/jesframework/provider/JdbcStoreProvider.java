@@ -1,14 +1,34 @@
 package store.jesframework.provider;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.LongFunction;
+import java.util.function.UnaryOperator;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
@@ -16,60 +36,139 @@ import javax.annotation.Nullable;
 import javax.annotation.WillClose;
 import javax.sql.DataSource;
 
-import lombok.AccessLevel;
-import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import store.jesframework.Envelope;
 import store.jesframework.Event;
+import store.jesframework.common.UnknownTypeResolved;
 import store.jesframework.ex.BrokenStoreException;
 import store.jesframework.ex.VersionMismatchException;
 import store.jesframework.provider.jdbc.DDLFactory;
+import store.jesframework.provider.jdbc.JdbcClassRegistry;
+import store.jesframework.provider.jdbc.PostgresBinaryCopy;
+import store.jesframework.provider.jdbc.PostgresNotificationListener;
+import store.jesframework.provider.jdbc.PostgresPartitionManager;
+import store.jesframework.provider.jdbc.ReadMode;
+import store.jesframework.provider.jdbc.SegmentArchive;
 import store.jesframework.serializer.impl.SerializerFactory;
-import store.jesframework.serializer.api.Format;
+import store.jesframework.serializer.api.ClassRegistry;
 import store.jesframework.serializer.api.SerializationOption;
 import store.jesframework.serializer.api.Serializer;
 import store.jesframework.snapshot.SnapshotReader;
+import store.jesframework.util.DaemonThreadFactory;
 
 import static java.sql.ResultSet.CONCUR_READ_ONLY;
 import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
 import static java.util.Objects.requireNonNull;
 import static java.util.Spliterator.ORDERED;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static java.util.Spliterators.spliteratorUnknownSize;
 import static java.util.stream.Collectors.toList;
 import static store.jesframework.util.JdbcUtils.createConnection;
+import static store.jesframework.util.JdbcUtils.getDatabaseMajorVersion;
+import static store.jesframework.util.JdbcUtils.getDatabaseName;
+import static store.jesframework.util.JdbcUtils.getSchemaName;
+import static store.jesframework.util.JdbcUtils.isIntegrityConstraintViolation;
 import static store.jesframework.util.JdbcUtils.unwrapJdbcType;
 import static store.jesframework.util.PropsReader.getProperty;
 
 /**
  * JDBC {@link StoreProvider} implementation.
+ * {@implNote change listeners are notified about the events written by this provider. For PostgreSQL they are also
+ * notified about the events written by other processes via {@literal LISTEN/NOTIFY}: the notification is sent by
+ * the event store insert trigger}.
+ * {@implNote for PostgreSQL 11+ the event store can be partitioned by ranges of ids (see
+ * {@literal jes.jdbc.partitioning.*} properties). The old partitions can be archived into segment files: the archived
+ * events are still read by {@link #readFrom(long)}, {@link #readEnvelopesFrom(long)},
+ * {@link #readEnvelopesRange(long, long)} and {@link #readBy(UUID)} (the archive is scanned for the archived events of
+ * the stream). The stream versions are kept in the {@literal event_store_streams} table, so they continue after the
+ * archived events}.
  *
  * @param <T> type of event serialization.
  */
 @Slf4j
-public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, AutoCloseable {
+public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, ChangeNotifier, RangeReader, BulkWriter,
+        AutoCloseable {
 
     private static final int FETCH_SIZE = 100;
+    private static final int SEQUENTIAL_FETCH_SIZE = 1000;
+    private static final int MAX_WRITE_ATTEMPTS = 10;
+    // each stream takes 4 parameters of the query
+    private static final int MAX_STREAMS_PER_READ = 500;
+
+    private static final String[] GENERATED_KEYS = {"id"};
+    private static final String POSTGRESQL = "PostgreSQL";
+    private static final int POSTGRESQL_WITH_PARTITIONING_VERSION = 11;
+    private static final String NOTIFICATION_CHANNEL_SUFFIX = ".event_store";
 
     private final boolean readOnly;
+    private final ReadMode readMode;
     private final DataSource dataSource;
     private final Serializer<Event, T> serializer;
+    private final long partitionSize;
+    private final SegmentArchive archive;
+    private final PostgresPartitionManager partitionManager;
+    // resolved on the first use by the read-only providers: the replica could be unavailable yet
+    private volatile Boolean partitioned;
+    private volatile GroupCommitWriter groupCommitWriter;
+
+    private final Set<Runnable> changeListeners = new CopyOnWriteArraySet<>();
+    // guarded by this
+    private boolean notificationsResolved;
+    private PostgresNotificationListener notificationListener;
 
     public JdbcStoreProvider(@Nonnull DataSource dataSource, @Nullable SerializationOption... options) {
-        this(dataSource, false, options);
+        this(dataSource, ReadMode.CURSOR, options);
+    }
+
+    /**
+     * Builds a {@link JdbcStoreProvider} instance with the given sequential read mode.
+     *
+     * @param dataSource is a datasource of the {@literal Event Store}.
+     * @param readMode   defines how the store is read by {@link #readFrom(long)}, see {@link ReadMode}.
+     * @param options    are serialization extensions.
+     */
+    public JdbcStoreProvider(@Nonnull DataSource dataSource, @Nonnull ReadMode readMode,
+                             @Nullable SerializationOption... options) {
+        this(dataSource, false, readMode, options);
     }
 
     JdbcStoreProvider(@Nonnull DataSource dataSource, boolean readOnly, @Nullable SerializationOption... options) {
+        this(dataSource, readOnly, ReadMode.CURSOR, options);
+    }
+
+    JdbcStoreProvider(@Nonnull DataSource dataSource, boolean readOnly, @Nonnull ReadMode readMode,
+                      @Nullable SerializationOption... options) {
+        this(dataSource, readOnly, readMode, Long.parseLong(getProperty("jes.jdbc.partitioning.partition-size")),
+                archiveDirectory(), options);
+    }
+
+    /**
+     * Builds a {@link JdbcStoreProvider} instance with the given partitioning, instead of the one of the
+     * {@literal jes.jdbc.partitioning.*} properties.
+     *
+     * @param partitionSize    is a number of ids in one partition, or 0 to create a regular event store.
+     * @param archiveDirectory is a directory of the archived partitions, if any.
+     */
+    JdbcStoreProvider(@Nonnull DataSource dataSource, boolean readOnly, @Nonnull ReadMode readMode,
+                      long partitionSize, @Nullable Path archiveDirectory, @Nullable SerializationOption... options) {
         try {
             this.readOnly = readOnly;
+            this.readMode = requireNonNull(readMode, "ReadMode must not be null");
             this.dataSource = requireNonNull(dataSource, "DataSource must not be null");
-            this.serializer = SerializerFactory.newEventSerializer(options);
+            this.serializer = SerializerFactory.newEventSerializer(withClassRegistry(dataSource, options));
+            this.partitionSize = partitionSize;
+            this.archive = archiveDirectory == null ? null : new SegmentArchive(archiveDirectory);
 
             if (!readOnly) {
                 try (final Connection connection = createConnection(this.dataSource)) {
-                    final Format format = this.serializer.format();
-                    final String ddl = DDLFactory.getEventStoreDDL(connection, format.getJavaType());
-                    createEventStore(connection, ddl);
+                    createEventStore(connection, getEventStoreDDL(connection, this.serializer.rawType()));
+                    this.partitioned = isPartitioned(connection);
+                    this.partitionManager = createPartitionManager(connection);
                 }
+            } else {
+                this.partitionManager = null;
             }
         } catch (Exception e) {
             log.error("Failed to init {}", this.getClass(), e);
@@ -77,6 +176,94 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
         }
     }
 
+    /**
+     * Adds the class registry of the event store to the options, unless another one is given (it's used by the
+     * {@link store.jesframework.serializer.api.Format#BINARY_KRYO} serializer only).
+     */
+    @Nullable
+    private static SerializationOption[] withClassRegistry(@Nonnull DataSource dataSource,
+                                                           @Nullable SerializationOption... options) {
+        if (!Boolean.parseBoolean(getProperty("jes.serializer.kryo.class-registry"))) {
+            return options;
+        }
+        final SerializationOption[] given = options != null ? options : new SerializationOption[0];
+        for (SerializationOption option : given) {
+            if (option instanceof ClassRegistry) {
+                return options;
+            }
+        }
+        final SerializationOption[] extended = Arrays.copyOf(given, given.length + 1);
+        extended[given.length] = new JdbcClassRegistry(dataSource);
+        return extended;
+    }
+
+    @Nullable
+    private static Path archiveDirectory() {
+        final String archiveDirectory = getProperty("jes.jdbc.partitioning.archive-dir").trim();
+        return archiveDirectory.isEmpty() ? null : Paths.get(archiveDirectory);
+    }
+
+    @Nonnull
+    private String getEventStoreDDL(@Nonnull Connection connection, @Nonnull Class<?> type) {
+        if (partitionSize > 0) {
+            try {
+                return DDLFactory.getPartitionedEventStoreDDL(connection, type);
+            } catch (IllegalArgumentException e) {
+                log.warn("Event store partitioning is not supported, a regular event store will be used: {}",
+                        e.getMessage());
+            }
+        }
+        return DDLFactory.getEventStoreDDL(connection, type);
+    }
+
+    /**
+     * Checks if the event store is partitioned (it could be created by another provider with another configuration).
+     */
+    @SneakyThrows
+    private static boolean isPartitioned(@Nonnull Connection connection) {
+        if (!POSTGRESQL.equals(getDatabaseName(connection))
+                || getDatabaseMajorVersion(connection) < POSTGRESQL_WITH_PARTITIONING_VERSION) {
+            return false;
+        }
+        try (final PreparedStatement statement = connection.prepareStatement(
+                getProperty("jes.jdbc.statement.is-event-store-partitioned"));
+             final ResultSet set = statement.executeQuery()) {
+            return set.next() && set.getBoolean(1);
+        }
+    }
+
+    private boolean isPartitioned() {
+        Boolean resolved = partitioned;
+        if (resolved == null) {
+            try (final Connection connection = createConnection(dataSource)) {
+                resolved = isPartitioned(connection);
+                partitioned = resolved;
+            } catch (SQLException e) {
+                throw new BrokenStoreException(e);
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * Creates the partition manager, if the event store is partitioned.
+     */
+    @Nullable
+    private PostgresPartitionManager createPartitionManager(@Nonnull Connection connection) {
+        if (partitionSize <= 0 || !POSTGRESQL.equals(getDatabaseName(connection))
+                || getDatabaseMajorVersion(connection) < POSTGRESQL_WITH_PARTITIONING_VERSION) {
+            return null;
+        }
+        if (!isPartitioned()) {
+            log.warn("Event store was created without partitioning, partitions won't be maintained");
+            return null;
+        }
+        return new PostgresPartitionManager(dataSource, partitionSize,
+                Integer.parseInt(getProperty("jes.jdbc.partitioning.partitions-ahead")),
+                Integer.parseInt(getProperty("jes.jdbc.partitioning.hot-partitions")),
+                Long.parseLong(getProperty("jes.jdbc.partitioning.check-interval-ms")), archive);
+    }
+
     @SneakyThrows
     private void createEventStore(@Nonnull Connection connection, @Nonnull String ddl) {
         try (PreparedStatement statement = connection.prepareStatement(ddl)) {
@@ -95,28 +282,255 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
 
     @Override
     public Stream<Event> readFrom(long offset) {
-        final String query = getProperty("jes.jdbc.statement.select-events");
-        final SequentialResultSetIterator iterator = new SequentialResultSetIterator(query, offset);
-        return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(iterator::close);
+        return readEnvelopesFrom(offset).map(Envelope::event);
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset) {
+        return readEnvelopes(offset, Collections.emptyList());
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset, @Nonnull Set<String> types) {
+        if (types.isEmpty() || types.contains(UnknownTypeResolved.class.getName())) {
+            // events of unknown types can't be found by their type names
+            return StoreProvider.super.readEnvelopesFrom(offset, types);
+        }
+        // the rows are filtered by the stored type names, and the events by their actual types (they can be upcasted)
+        final Set<String> typeNames = serializer.typeNames(types);
+        return readEnvelopes(offset, new ArrayList<>(typeNames)).map(envelope -> envelope.filter(types, typeNames));
+    }
+
+    /**
+     * Reads all the envelopes from the given offset. If the type names are given, only the data of the events of those
+     * types (or without a type) is read.
+     */
+    private Stream<Envelope> readEnvelopes(long offset, @Nonnull List<String> typeNames) {
+        final boolean filtered = !typeNames.isEmpty();
+        final SequentialResultSetIterator iterator;
+        if (readMode == ReadMode.PAGED) {
+            final String query = filtered
+                    ? withTypeNames(getProperty("jes.jdbc.statement.select-events-page-by-types"), typeNames)
+                    : getProperty("jes.jdbc.statement.select-events-page");
+            final int pageSize = Integer.parseInt(getProperty("jes.jdbc.paged-read.page-size"));
+            iterator = new SequentialResultSetIterator(offset,
+                    from -> new PagedIterator(query, typeNames, pageSize, from));
+        } else {
+            final String query = filtered
+                    ? withTypeNames(getProperty("jes.jdbc.statement.select-events-by-types"), typeNames)
+                    : getProperty("jes.jdbc.statement.select-events");
+            iterator = new SequentialResultSetIterator(offset, from -> createCursorIterator(query, typeNames, from));
+        }
+        final Stream<Envelope> stored = StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false)
+                .onClose(iterator::close);
+        if (archive == null) {
+            return stored;
+        }
+        // the archive is listed after the read is started: the events, archived in between, are skipped in the store
+        final long archived = archive.upperBound() - 1;
+        if (offset >= archived) {
+            return stored.filter(envelope -> envelope.position() > archived);
+        }
+        return Stream.concat(archive.read(offset, archived).map(entry -> toEnvelope(entry, typeNames)),
+                stored.filter(envelope -> envelope.position() > archived));
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private Envelope toEnvelope(@Nonnull SegmentArchive.Entry entry, @Nonnull Collection<String> typeNames) {
+        if (entry.getType() != null && !typeNames.isEmpty() && !typeNames.contains(entry.getType())) {
+            return new Envelope(entry.getId());
+        }
+        final T data = serializer.rawType() == String.class
+                ? (T) new String(entry.getData(), StandardCharsets.UTF_8)
+                : (T) entry.getData();
+        return new Envelope(entry.getId(), serializer.fetchTypeName(data), () -> serializer.deserialize(data));
+    }
+
+    /**
+     * Archives the partitions of the event store, that hold only the events before the given position. The archived
+     * events are moved into the segment files of {@literal jes.jdbc.partitioning.archive-dir}.
+     *
+     * @param beforePosition is an exclusive upper bound of the positions to archive.
+     * @return number of the archived partitions.
+     * @throws BrokenStoreException if the event store is not partitioned, or the archive directory is not configured.
+     */
+    public int archivePartitions(long beforePosition) {
+        verifyWritable();
+        if (partitionManager == null) {
+            throw new BrokenStoreException("Event store is not partitioned");
+        }
+        return partitionManager.archive(beforePosition);
+    }
+
+    @Override
+    public long lastPosition() {
+        try (final Connection connection = createConnection(dataSource);
+             final PreparedStatement statement = connection.prepareStatement(
+                     getProperty("jes.jdbc.statement.select-last-event-id"));
+             final ResultSet set = statement.executeQuery()) {
+            final long last = set.next() ? set.getLong(1) : 0;
+            return archive == null ? last : Math.max(last, archive.upperBound() - 1);
+        } catch (Exception e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the events of other types are skipped by their type names, without deserialization}.
+     */
+    @Nonnull
+    @Override
+    public UnaryOperator<Envelope> typeFilter(@Nonnull Set<String> types) {
+        if (types.contains(UnknownTypeResolved.class.getName())) {
+            // events of unknown types can't be found by their type names
+            return RangeReader.super.typeFilter(types);
+        }
+        final Set<String> typeNames = serializer.typeNames(types);
+        return envelope -> envelope.filter(types, typeNames);
+    }
+
+    @Nonnull
+    @Override
+    public List<Envelope> readEnvelopesRange(long from, long to) {
+        try (final Connection connection = createConnection(dataSource);
+             final PreparedStatement statement = connection.prepareStatement(
+                     getProperty("jes.jdbc.statement.select-events-range"))) {
+            statement.setFetchSize(SEQUENTIAL_FETCH_SIZE);
+            statement.setLong(1, from);
+            statement.setLong(2, to);
+            final List<Envelope> envelopes = new ArrayList<>();
+            try (final ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    envelopes.add(readEnvelope(set));
+                }
+            }
+            final long archived = archive == null ? 0 : archive.upperBound() - 1;
+            if (from >= archived) {
+                return envelopes;
+            }
+            final List<Envelope> merged;
+            try (final Stream<SegmentArchive.Entry> entries = archive.read(from, Math.min(to, archived))) {
+                merged = entries.map(entry -> toEnvelope(entry, Collections.emptyList())).collect(toList());
+            }
+            envelopes.stream().filter(envelope -> envelope.position() > archived).forEach(merged::add);
+            return merged;
+        } catch (Exception e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    @Nonnull
+    private static String withTypeNames(@Nonnull String query, @Nonnull List<String> typeNames) {
+        return String.format(query, String.join(", ", Collections.nCopies(typeNames.size(), "?")));
+    }
+
+    /**
+     * Binds the type names (if any) and the offset to the select statement.
+     *
+     * @return index of the next parameter.
+     */
+    private static int bindSelect(@Nonnull PreparedStatement statement, @Nonnull List<String> typeNames, long offset)
+            throws SQLException {
+        int index = 1;
+        for (String typeName : typeNames) {
+            statement.setString(index++, typeName);
+        }
+        statement.setLong(index++, offset);
+        return index;
     }
 
     @Override
     public Collection<Event> readBy(@Nonnull UUID uuid) {
-        try (final Stream<Event> stream = readBy(getProperty("jes.jdbc.statement.select-events-by-uuid"), uuid)) {
-            return stream.collect(toList());
+        if (hasArchive()) {
+            return readBy(uuid, 0);
+        }
+        try (final Stream<Envelope> stream = selectEnvelopes(getProperty("jes.jdbc.statement.select-events-by-uuid"),
+                uuid)) {
+            return stream.map(Envelope::event).collect(toList());
         }
     }
 
     @Override
     public Collection<Event> readBy(@Nonnull UUID uuid, long skip) {
-        final String statement = getProperty("jes.jdbc.statement.select-events-by-uuid-with-skip");
-        try (final Stream<Event> stream = readBy(requireNonNull(statement), uuid, skip)) {
-            return stream.collect(toList());
+        try (final Stream<Envelope> stream = selectStream(uuid, skip)) {
+            return stream.map(Envelope::event).collect(toList());
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * {@implNote if the position is known, the events are selected with {@literal uuid = ? AND id > ?} on the
+     * {@literal (uuid, id)} index, instead of scanning and discarding the skipped events with {@literal OFFSET}}.
+     */
+    @Override
+    public Stream<Envelope> readEnvelopesBy(@Nonnull UUID uuid, long afterPosition, long skip) {
+        // the archived events are read by the skip only
+        if (afterPosition > 0 && (!hasArchive() || afterPosition >= archive.upperBound() - 1)) {
+            return selectEnvelopes(getProperty("jes.jdbc.statement.select-events-by-uuid-after-id"), uuid,
+                    afterPosition);
+        }
+        return selectStream(uuid, skip);
+    }
+
+    @Override
+    public Stream<Event> streamBy(@Nonnull UUID uuid, long skip) {
+        return selectStream(uuid, skip).map(Envelope::event);
+    }
+
+    private boolean hasArchive() {
+        return archive != null && isPartitioned();
+    }
+
+    /**
+     * Selects the events of the stream after the given number of events. If the first events of the stream are
+     * archived, they are read from the archive. The stream versions have no gaps, so the skip of the events in the
+     * event store is the given skip less the archived versions.
+     */
+    @Nonnull
+    private Stream<Envelope> selectStream(@Nonnull UUID uuid, long skip) {
+        final long archivedVersion = hasArchive() ? readArchivedVersion(uuid) : 0;
+        final String query = getProperty("jes.jdbc.statement.select-events-by-uuid-with-skip");
+        if (archivedVersion <= skip) {
+            return selectEnvelopes(query, uuid, skip - archivedVersion);
+        }
+        return Stream.concat(readArchived(uuid, skip, archivedVersion).stream(), selectEnvelopes(query, uuid, 0));
+    }
+
+    private long readArchivedVersion(@Nonnull UUID uuid) {
+        try (final Connection connection = createConnection(dataSource);
+             final PreparedStatement statement = connection.prepareStatement(
+                     getProperty("jes.jdbc.statement.select-stream-archived-version"))) {
+            statement.setObject(1, uuid);
+            statement.setObject(2, uuid);
+            try (final ResultSet set = statement.executeQuery()) {
+                return set.next() ? set.getLong(1) : 0;
+            }
+        } catch (Exception e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    /**
+     * Reads the archived events of the stream with the versions in {@literal (fromVersion, toVersion]}. The whole
+     * archive is scanned. If the stream was deleted and written again, the latest events of each version are read.
+     */
     @Nonnull
-    private Stream<Event> readBy(@Nonnull String from, @Nonnull Object... values) {
+    private Collection<Envelope> readArchived(@Nonnull UUID uuid, long fromVersion, long toVersion) {
+        final Map<Long, SegmentArchive.Entry> entries = new TreeMap<>();
+        try (final Stream<SegmentArchive.Entry> stream = archive.read(0)) {
+            stream.filter(entry -> uuid.equals(entry.getUuid()) && entry.getVersion() != null
+                    && entry.getVersion() > fromVersion && entry.getVersion() <= toVersion)
+                    .forEach(entry -> entries.put(entry.getVersion(), entry));
+        }
+        return entries.values().stream()
+                .map(entry -> toEnvelope(entry, Collections.emptyList()))
+                .collect(toList());
+    }
+
+    @Nonnull
+    private Stream<Envelope> selectEnvelopes(@Nonnull String from, @Nonnull Object... values) {
         final Connection connection = createConnection(dataSource);
         try {
             // order of calls matters
@@ -140,28 +554,109 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * {@implNote see {@link #readAllEnvelopesBy(Map)}}.
+     */
+    @Override
+    public Map<UUID, Collection<Event>> readAllBy(@Nonnull Map<UUID, Long> skips) {
+        final Map<UUID, Collection<Event>> streams = new LinkedHashMap<>();
+        readAllEnvelopesBy(skips).forEach((uuid, envelopes) -> streams.put(uuid,
+                envelopes.stream().map(Envelope::event).collect(toList())));
+        return streams;
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the streams are read with a single query per {@literal MAX_STREAMS_PER_READ} streams. The skipped
+     * events are filtered by their stream versions, so they are not read at all. If the event store has an archive,
+     * the streams are read one by one: their first events could be archived}.
+     */
+    @Override
+    public Map<UUID, Collection<Envelope>> readAllEnvelopesBy(@Nonnull Map<UUID, Long> skips) {
+        final Map<UUID, Collection<Envelope>> streams = new LinkedHashMap<>();
+        if (hasArchive()) {
+            skips.forEach((uuid, skip) -> {
+                try (final Stream<Envelope> stream = selectStream(uuid, skip)) {
+                    streams.put(uuid, stream.collect(toList()));
+                }
+            });
+            return streams;
+        }
+        final List<UUID> uuids = new ArrayList<>(skips.keySet());
+        uuids.forEach(uuid -> streams.put(uuid, new ArrayList<>()));
+        try (final Connection connection = createConnection(dataSource)) {
+            for (int from = 0; from < uuids.size(); from += MAX_STREAMS_PER_READ) {
+                final List<UUID> chunk = uuids.subList(from, Math.min(uuids.size(), from + MAX_STREAMS_PER_READ));
+                readStreams(connection, chunk, skips, streams);
+            }
+        } catch (Exception e) {
+            throw new BrokenStoreException(e);
+        }
+        return streams;
+    }
+
+    private void readStreams(@Nonnull Connection connection, @Nonnull List<UUID> uuids, @Nonnull Map<UUID, Long> skips,
+                             @Nonnull Map<UUID, Collection<Envelope>> streams) throws SQLException {
+        final StringBuilder cases = new StringBuilder();
+        for (int i = 0; i < uuids.size(); i++) {
+            cases.append("WHEN ? THEN ").append(i).append(' ');
+        }
+        final String query = String.format(getProperty("jes.jdbc.statement.select-events-by-uuids"), cases,
+                String.join(", ", Collections.nCopies(uuids.size(), "?")),
+                String.join(" ", Collections.nCopies(uuids.size(), "WHEN ? THEN ?")));
+        try (final PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setFetchSize(SEQUENTIAL_FETCH_SIZE);
+            int index = 1;
+            for (int i = 0; i < 2; i++) {
+                for (UUID uuid : uuids) {
+                    statement.setObject(index++, uuid);
+                }
+            }
+            for (UUID uuid : uuids) {
+                statement.setObject(index++, uuid);
+                statement.setLong(index++, skips.get(uuid));
+            }
+            try (final ResultSet set = statement.executeQuery()) {
+                while (set.next()) {
+                    final T data = unwrapJdbcType(set.getObject(3));
+                    streams.get(uuids.get(set.getInt(1))).add(new Envelope(set.getLong(2),
+                            serializer.fetchTypeName(data), () -> serializer.deserialize(data)));
+                }
+            }
+        }
+    }
+
     @Nonnull
-    private Stream<Event> resultSetToStream(Connection connection, Statement statement, ResultSet set) {
+    private Stream<Envelope> resultSetToStream(Connection connection, Statement statement, ResultSet set) {
         final ResultSetIterator iterator = new ResultSetIterator(connection, statement, set);
-        return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(iterator::close);
+        return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false)
+                .onClose(iterator::close);
     }
 
     @Override
-    public void write(@Nonnull Event event) {
+    public long write(@Nonnull Event event) {
         verifyWritable();
-        final String query = getProperty("jes.jdbc.statement.insert-events");
+        final String query = insertStatement();
         try (final Connection connection = createConnection(dataSource);
-             final PreparedStatement statement = connection.prepareStatement(query)) {
-
-            final UUID uuid = event.uuid();
-            verifyStreamVersion(event, connection);
+             final PreparedStatement statement = connection.prepareStatement(query, GENERATED_KEYS)) {
 
             final T data = serializer.serialize(event);
-
-            statement.setObject(1, uuid);
-            statement.setObject(2, data);
-
-            statement.executeUpdate();
+            for (int attempt = 1; ; attempt++) {
+                try {
+                    prepareInsert(statement, event, data);
+                    if (statement.executeUpdate() > 0) {
+                        final long position = readGeneratedKeys(statement, 1)[0];
+                        notifyChangeListeners();
+                        return position;
+                    }
+                } catch (SQLException e) {
+                    if (!isIntegrityConstraintViolation(e)) {
+                        throw e;
+                    }
+                }
+                onWriteConflict(connection, attempt, event);
+            }
         } catch (BrokenStoreException | VersionMismatchException e) {
             throw e;
         } catch (Exception e) {
@@ -170,33 +665,123 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
     }
 
     @Override
-    public void write(@Nonnull Event... events) {
+    public long[] write(@Nonnull Event... events) {
         verifyWritable();
         try (final Connection connection = createConnection(dataSource)) {
             final boolean supportsBatches = connection.getMetaData().supportsBatchUpdates();
             // first check if we can use batch
             if (!supportsBatches) {
                 log.warn("Current db doesn't support batch updates. Separate updates will be used");
-                for (Event event : events) {
-                    write(event);
+                final long[] positions = new long[events.length];
+                for (int i = 0; i < events.length; i++) {
+                    positions[i] = write(events[i]);
                 }
-                return;
+                return positions;
             }
             // ok, we can use it
             connection.setAutoCommit(false);
-            final String query = getProperty("jes.jdbc.statement.insert-events");
-            try (final PreparedStatement statement = connection.prepareStatement(query)) {
-                for (Event event : events) {
-                    final UUID uuid = event.uuid();
-                    verifyStreamVersion(event, connection);
-                    final T data = serializer.serialize(event);
-
-                    statement.setObject(1, uuid);
-                    statement.setObject(2, data);
-                    statement.addBatch();
+            final List<T> serialized = Stream.of(events).map(serializer::serialize).collect(toList());
+            final String query = insertStatement();
+            try (final PreparedStatement statement = connection.prepareStatement(query, GENERATED_KEYS)) {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        for (int i = 0; i < events.length; i++) {
+                            prepareInsert(statement, events[i], serialized.get(i));
+                            statement.addBatch();
+                        }
+                        if (isFullyApplied(statement.executeBatch())) {
+                            final long[] positions = readGeneratedKeys(statement, events.length);
+                            connection.commit();
+                            notifyChangeListeners();
+                            return positions;
+                        }
+                    } catch (SQLException e) {
+                        if (!isIntegrityConstraintViolation(e)) {
+                            throw e;
+                        }
+                    }
+                    statement.clearBatch();
+                    connection.rollback();
+                    onWriteConflict(connection, attempt, events);
+                }
+            }
+        } catch (BrokenStoreException | VersionMismatchException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<long[]> writeAsync(@Nonnull Event... events) {
+        verifyWritable();
+        final CompletableFuture<long[]> future = new CompletableFuture<>();
+        try {
+            final List<T> serialized = Stream.of(events).map(serializer::serialize).collect(toList());
+            getGroupCommitWriter().submit(new PendingWrite(events, serialized, future));
+        } catch (BrokenStoreException e) {
+            future.completeExceptionally(e);
+        } catch (Exception e) {
+            future.completeExceptionally(new BrokenStoreException(e));
+        }
+        return future;
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote PostgreSQL is written with binary {@literal COPY}, other databases with multi-row inserts. The events
+     * are written by chunks of {@literal jes.jdbc.bulk-write.chunk-size}: the versions of the streams, met for the
+     * first time in a chunk, are read right before the chunk is written. The chunks are committed by
+     * {@literal jes.jdbc.bulk-write.chunks-per-commit} (0 writes all the events in a single transaction), so a long
+     * load doesn't hold one huge transaction: if it fails, the committed chunks stay written}.
+     */
+    @Override
+    public long bulkWrite(@Nonnull Stream<? extends Event> events) {
+        verifyWritable();
+        requireNonNull(events, "Events must not be null");
+        final int chunkSize = Integer.parseInt(getProperty("jes.jdbc.bulk-write.chunk-size"));
+        final int chunksPerCommit = Integer.parseInt(getProperty("jes.jdbc.bulk-write.chunks-per-commit"));
+        try (final Connection connection = createConnection(dataSource)) {
+            connection.setAutoCommit(false);
+            final boolean copy = POSTGRESQL.equals(getDatabaseName(connection));
+            final Map<UUID, Long> versions = new HashMap<>();
+            final List<Object[]> chunk = new ArrayList<>(chunkSize);
+            long written = 0;
+            long committed = 0;
+            int chunks = 0;
+            try {
+                final Iterator<? extends Event> iterator = events.iterator();
+                while (iterator.hasNext()) {
+                    chunk.add(toRow(connection, versions, iterator.next()));
+                    if (chunk.size() == chunkSize || !iterator.hasNext()) {
+                        if (copy) {
+                            PostgresBinaryCopy.copy(connection, getProperty("jes.jdbc.statement.copy-events"), chunk);
+                        } else {
+                            insertValues(connection, chunk);
+                        }
+                        written += chunk.size();
+                        chunk.clear();
+                        if (++chunks == chunksPerCommit) {
+                            connection.commit();
+                            committed = written;
+                            chunks = 0;
+                            notifyChangeListeners();
+                        }
+                    }
+                }
+                if (committed < written) {
+                    connection.commit();
+                    notifyChangeListeners();
                 }
-                statement.executeBatch();
-                connection.commit();
+                log.debug("{} event(s) written in bulk", written);
+                return written;
+            } catch (Exception e) {
+                connection.rollback();
+                if (committed > 0) {
+                    log.error("Bulk write failed, {} event(s) are written, {} event(s) are rolled back", committed,
+                            written - committed);
+                }
+                throw e;
             }
         } catch (BrokenStoreException | VersionMismatchException e) {
             throw e;
@@ -205,24 +790,146 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
         }
     }
 
+    /**
+     * Converts the event into the {@literal (uuid, version, type, data)} row. The stream version is read once, and
+     * then tracked in the given versions.
+     */
+    @Nonnull
+    private Object[] toRow(@Nonnull Connection connection, @Nonnull Map<UUID, Long> versions, @Nonnull Event event) {
+        final UUID uuid = event.uuid();
+        Long version = null;
+        if (uuid != null) {
+            final long actualVersion = versions.computeIfAbsent(uuid, key -> readStreamVersion(connection, key));
+            final long expectedVersion = event.expectedStreamVersion();
+            if (expectedVersion != -1 && expectedVersion != actualVersion) {
+                log.error("Version mismatch detected for {}", event);
+                throw new VersionMismatchException(uuid, expectedVersion, actualVersion);
+            }
+            version = actualVersion + 1;
+            versions.put(uuid, version);
+        }
+        return new Object[] {uuid, version, serializer.typeName(event.getClass()), serializer.serialize(event)};
+    }
+
+    private void insertValues(@Nonnull Connection connection, @Nonnull List<Object[]> rows) throws SQLException {
+        final String values = String.join(", ", Collections.nCopies(rows.size(), "(?, ?, ?, ?)"));
+        final String query = String.format(getProperty("jes.jdbc.statement.insert-events-values"), values);
+        try (final PreparedStatement statement = connection.prepareStatement(query)) {
+            int index = 1;
+            for (Object[] row : rows) {
+                for (Object value : row) {
+                    statement.setObject(index++, value);
+                }
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    private GroupCommitWriter getGroupCommitWriter() {
+        GroupCommitWriter writer = groupCommitWriter;
+        if (writer == null) {
+            synchronized (this) {
+                writer = groupCommitWriter;
+                if (writer == null) {
+                    final long flushWindow = Long.parseLong(getProperty("jes.jdbc.group-commit.flush-window-ms"));
+                    final int maxBatchSize = Integer.parseInt(getProperty("jes.jdbc.group-commit.max-batch-size"));
+                    writer = new GroupCommitWriter(flushWindow, maxBatchSize);
+                    groupCommitWriter = writer;
+                }
+            }
+        }
+        return writer;
+    }
+
+    /**
+     * Returns the {@literal insert-events} statement. The partitioned event store reads the stream versions from the
+     * {@literal event_store_streams} table: the first events of the stream could be archived.
+     */
+    @Nonnull
+    private String insertStatement() {
+        return getProperty(isPartitioned() ? "jes.jdbc.statement.insert-stream-events"
+                : "jes.jdbc.statement.insert-events");
+    }
+
+    /**
+     * Binds the event to the {@literal insert-events} statement. The statement assigns the next stream version to the
+     * event and inserts it only if the stream still has the expected version (if any), so the version check and the
+     * write take a single round trip. Concurrent writes of the same version are rejected by the unique
+     * {@literal (uuid, version)} constraint (by the stream version trigger of the partitioned event store).
+     */
     @SneakyThrows
-    private void verifyStreamVersion(Event event, Connection connection) {
+    private void prepareInsert(@Nonnull PreparedStatement statement, @Nonnull Event event, @Nonnull T data) {
         final UUID uuid = event.uuid();
         final long expectedVersion = event.expectedStreamVersion();
-        if (uuid != null && expectedVersion != -1) {
-            final String query = getProperty("jes.jdbc.statement.select-events-version");
-            try (PreparedStatement statement = connection.prepareStatement(query)) {
-                statement.setObject(1, uuid);
-                try (final ResultSet resultSet = statement.executeQuery()) {
-                    if (!resultSet.next()) {
-                        throw new BrokenStoreException("Can't read uuid [" + uuid + "] version");
-                    }
-                    final long actualVersion = resultSet.getLong(1);
-                    if (expectedVersion != actualVersion) {
-                        log.error("Version mismatch detected for {}", event);
-                        throw new VersionMismatchException(uuid, expectedVersion, actualVersion);
-                    }
+
+        statement.setObject(1, uuid);
+        statement.setBoolean(2, uuid != null);
+        statement.setString(3, serializer.typeName(event.getClass()));
+        statement.setObject(4, data);
+        statement.setObject(5, uuid);
+        statement.setBoolean(6, uuid == null || expectedVersion == -1);
+        statement.setLong(7, expectedVersion);
+    }
+
+    private boolean isFullyApplied(@Nonnull int[] updateCounts) {
+        for (int updateCount : updateCounts) {
+            if (updateCount == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Called when some of the given events were not written: either the expected stream version didn't match, or a
+     * concurrent write has taken the same stream version. In the first case {@link VersionMismatchException} is thrown,
+     * in the second one the write can be safely retried.
+     */
+    private void onWriteConflict(@Nonnull Connection connection, int attempt, @Nonnull Event... events) {
+        final Map<UUID, Long> versions = new HashMap<>();
+        for (Event event : events) {
+            final UUID uuid = event.uuid();
+            if (uuid != null) {
+                final long actualVersion = versions.computeIfAbsent(uuid, key -> readStreamVersion(connection, key));
+                final long expectedVersion = event.expectedStreamVersion();
+                if (expectedVersion != -1 && expectedVersion != actualVersion) {
+                    log.error("Version mismatch detected for {}", event);
+                    throw new VersionMismatchException(uuid, expectedVersion, actualVersion);
+                }
+                versions.put(uuid, actualVersion + 1);
+            }
+        }
+        if (attempt >= MAX_WRITE_ATTEMPTS) {
+            throw new BrokenStoreException("Failed to write events in " + attempt + " attempts: concurrent writes");
+        }
+        log.debug("Concurrent write detected, retrying (attempt {})", attempt);
+    }
+
+    private long[] readGeneratedKeys(@Nonnull Statement statement, int count) throws SQLException {
+        final long[] keys = new long[count];
+        try (final ResultSet set = statement.getGeneratedKeys()) {
+            int index = 0;
+            while (index < count && set.next()) {
+                keys[index++] = set.getLong(1);
+            }
+            if (index != count) {
+                throw new BrokenStoreException("Expected " + count + " generated keys, but got " + index);
+            }
+        }
+        return keys;
+    }
+
+    @SneakyThrows
+    private long readStreamVersion(@Nonnull Connection connection, @Nonnull UUID uuid) {
+        final String query = getProperty(isPartitioned() ? "jes.jdbc.statement.select-stream-version"
+                : "jes.jdbc.statement.select-events-version");
+        try (PreparedStatement statement = connection.prepareStatement(query)) {
+            statement.setObject(1, uuid);
+            try (final ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new BrokenStoreException("Can't read uuid [" + uuid + "] version");
                 }
+                return resultSet.getLong(1);
             }
         }
     }
@@ -243,8 +950,62 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
         }
     }
 
+    @Override
+    public void addChangeListener(@Nonnull Runnable listener) {
+        changeListeners.add(requireNonNull(listener, "Listener must not be null"));
+        listenToNotifications();
+    }
+
+    @Override
+    public void removeChangeListener(@Nonnull Runnable listener) {
+        changeListeners.remove(requireNonNull(listener, "Listener must not be null"));
+    }
+
+    /**
+     * Starts listening to the database notifications, if the database supports them. It's done once, on the first
+     * listener subscription, because the notification listener holds a dedicated connection.
+     */
+    private synchronized void listenToNotifications() {
+        if (notificationsResolved) {
+            return;
+        }
+        notificationsResolved = true;
+        try (final Connection connection = createConnection(dataSource)) {
+            if (POSTGRESQL.equals(getDatabaseName(connection))) {
+                final String channel = getSchemaName(connection) + NOTIFICATION_CHANNEL_SUFFIX;
+                notificationListener = new PostgresNotificationListener(dataSource, channel,
+                        this::notifyChangeListeners);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to listen to the database notifications. Only local writes will be notified", e);
+        }
+    }
+
+    private void notifyChangeListeners() {
+        for (Runnable listener : changeListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.error("Change listener failed:", e);
+            }
+        }
+    }
+
     @Override
     public void close() {
+        final GroupCommitWriter writer = groupCommitWriter;
+        if (writer != null) {
+            writer.close();
+        }
+        if (partitionManager != null) {
+            partitionManager.close();
+        }
+        synchronized (this) {
+            if (notificationListener != null) {
+                notificationListener.close();
+                notificationListener = null;
+            }
+        }
         if (dataSource instanceof AutoCloseable) {
             closeQuietly((AutoCloseable) dataSource);
         }
@@ -262,13 +1023,265 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
         }
     }
 
+    /**
+     * Events of a single {@link #writeAsync(Event...)} call, waiting to be committed.
+     */
+    private class PendingWrite {
+
+        private final Event[] events;
+        private final List<T> data;
+        private final CompletableFuture<long[]> future;
+
+        PendingWrite(@Nonnull Event[] events, @Nonnull List<T> data, @Nonnull CompletableFuture<long[]> future) {
+            this.events = events;
+            this.data = data;
+            this.future = future;
+        }
+
+        int size() {
+            return events.length;
+        }
+    }
+
+    /**
+     * Group commit writer: coalesces concurrent asynchronous writes into a single JDBC batch, committed in a single
+     * transaction. A batch is flushed when it reaches {@code maxBatchSize} events, or when the flush window since the
+     * first write of the batch is elapsed. If the batch can't be applied as a whole (because of a version conflict),
+     * the writes are replayed one by one within the same transaction, so that a conflicting write fails only its own
+     * future.
+     */
+    private class GroupCommitWriter implements AutoCloseable {
+
+        private static final long IDLE_POLL_MS = 100;
+        private static final long CLOSE_TIMEOUT_MS = 5000;
+
+        private final long flushWindowMs;
+        private final int maxBatchSize;
+        private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+        private final Thread worker;
+        private volatile boolean running = true;
+
+        GroupCommitWriter(long flushWindowMs, int maxBatchSize) {
+            if (flushWindowMs < 0 || maxBatchSize <= 0) {
+                throw new BrokenStoreException("Flush window must be >= 0, max batch size must be > 0: "
+                        + flushWindowMs + ", " + maxBatchSize);
+            }
+            this.flushWindowMs = flushWindowMs;
+            this.maxBatchSize = maxBatchSize;
+            this.worker = new DaemonThreadFactory(JdbcStoreProvider.class.getSimpleName() + "-group-commit")
+                    .newThread(this::run);
+            this.worker.start();
+        }
+
+        void submit(@Nonnull PendingWrite write) {
+            queue.add(write);
+            if (!running && queue.remove(write)) {
+                throw new BrokenStoreException("Group commit writer is closed");
+            }
+        }
+
+        private void run() {
+            final List<PendingWrite> batch = new ArrayList<>();
+            while (running || !queue.isEmpty()) {
+                try {
+                    collect(batch);
+                    if (!batch.isEmpty()) {
+                        flush(batch);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void collect(@Nonnull List<PendingWrite> batch) throws InterruptedException {
+            final PendingWrite first = queue.poll(IDLE_POLL_MS, MILLISECONDS);
+            if (first == null) {
+                return;
+            }
+            batch.add(first);
+            int size = first.size();
+            final long deadline = System.nanoTime() + MILLISECONDS.toNanos(flushWindowMs);
+            while (size < maxBatchSize) {
+                PendingWrite next = queue.poll();
+                if (next == null) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining > 0) {
+                        next = queue.poll(remaining, NANOSECONDS);
+                    }
+                }
+                if (next == null) {
+                    return;
+                }
+                batch.add(next);
+                size += next.size();
+            }
+        }
+
+        private void flush(@Nonnull List<PendingWrite> batch) {
+            final String query = insertStatement();
+            try (final Connection connection = createConnection(dataSource);
+                 final PreparedStatement statement = connection.prepareStatement(query, GENERATED_KEYS)) {
+
+                connection.setAutoCommit(false);
+                if (!writeBatch(connection, statement, batch)) {
+                    log.debug("Failed to write {} writes as a batch, writing one by one", batch.size());
+                    writeOneByOne(connection, statement, batch);
+                }
+            } catch (Exception e) {
+                final BrokenStoreException exception = e instanceof BrokenStoreException
+                        ? (BrokenStoreException) e
+                        : new BrokenStoreException(e);
+                for (PendingWrite write : batch) {
+                    write.future.completeExceptionally(exception);
+                }
+            }
+        }
+
+        private boolean writeBatch(@Nonnull Connection connection, @Nonnull PreparedStatement statement,
+                                   @Nonnull List<PendingWrite> batch) throws SQLException {
+            try {
+                int size = 0;
+                for (PendingWrite write : batch) {
+                    for (int i = 0; i < write.size(); i++) {
+                        prepareInsert(statement, write.events[i], write.data.get(i));
+                        statement.addBatch();
+                    }
+                    size += write.size();
+                }
+                if (isFullyApplied(statement.executeBatch())) {
+                    final long[] positions = readGeneratedKeys(statement, size);
+                    connection.commit();
+                    notifyChangeListeners();
+                    int from = 0;
+                    for (PendingWrite write : batch) {
+                        write.future.complete(Arrays.copyOfRange(positions, from, from + write.size()));
+                        from += write.size();
+                    }
+                    return true;
+                }
+            } catch (SQLException e) {
+                if (!isIntegrityConstraintViolation(e)) {
+                    throw e;
+                }
+            }
+            statement.clearBatch();
+            connection.rollback();
+            return false;
+        }
+
+        private void writeOneByOne(@Nonnull Connection connection, @Nonnull PreparedStatement statement,
+                                   @Nonnull List<PendingWrite> batch) throws SQLException {
+            final Map<PendingWrite, long[]> written = new LinkedHashMap<>();
+            for (PendingWrite write : batch) {
+                try {
+                    written.put(write, writeIsolated(connection, statement, write));
+                } catch (BrokenStoreException | VersionMismatchException e) {
+                    write.future.completeExceptionally(e);
+                }
+            }
+            connection.commit();
+            if (!written.isEmpty()) {
+                notifyChangeListeners();
+            }
+            written.forEach((write, positions) -> write.future.complete(positions));
+        }
+
+        private long[] writeIsolated(@Nonnull Connection connection, @Nonnull PreparedStatement statement,
+                                     @Nonnull PendingWrite write) throws SQLException {
+            for (int attempt = 1; ; attempt++) {
+                final Savepoint savepoint = connection.setSavepoint();
+                try {
+                    final long[] positions = new long[write.size()];
+                    int written = 0;
+                    while (written < write.size()) {
+                        prepareInsert(statement, write.events[written], write.data.get(written));
+                        if (statement.executeUpdate() == 0) {
+                            break;
+                        }
+                        positions[written++] = readGeneratedKeys(statement, 1)[0];
+                    }
+                    if (written == write.size()) {
+                        connection.releaseSavepoint(savepoint);
+                        return positions;
+                    }
+                } catch (SQLException e) {
+                    if (!isIntegrityConstraintViolation(e)) {
+                        throw e;
+                    }
+                }
+                connection.rollback(savepoint);
+                onWriteConflict(connection, attempt, write.events);
+            }
+        }
+
+        @Override
+        public void close() {
+            running = false;
+            try {
+                worker.join(CLOSE_TIMEOUT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            PendingWrite write;
+            while ((write = queue.poll()) != null) {
+                write.future.completeExceptionally(new BrokenStoreException("Group commit writer is closed"));
+            }
+        }
+    }
+
+    private ResultSetIterator createCursorIterator(@Nonnull String query, @Nonnull List<String> typeNames,
+                                                   long offset) {
+        final Connection connection = createConnection(dataSource);
+        try {
+            // order of calls matters
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+
+            PreparedStatement statement = connection.prepareStatement(query, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY);
+            statement.setFetchSize(SEQUENTIAL_FETCH_SIZE);
+            bindSelect(statement, typeNames, offset);
+            final ResultSet set = statement.executeQuery();
+
+            return new ResultSetIterator(connection, statement, set);
+        } catch (Exception e) {
+            closeQuietly(connection);
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    @Nonnull
+    @SneakyThrows
+    private Envelope readEnvelope(@Nonnull ResultSet set) {
+        // get values by an index a bit more efficient
+        final long position = set.getLong(1);
+        final Object raw = set.getObject(2);
+        if (raw == null) {
+            // the event is filtered out by its type
+            return new Envelope(position);
+        }
+        final T data = unwrapJdbcType(raw);
+        // the event is deserialized only if it's needed
+        return new Envelope(position, serializer.fetchTypeName(data), () -> serializer.deserialize(data));
+    }
+
+    /**
+     * Iterator over the envelopes, that holds some resources until it's closed.
+     */
+    private interface EnvelopeIterator extends Iterator<Envelope>, AutoCloseable {
+
+        @Override
+        void close();
+    }
+
     /**
      * This iterator is NOT Thread safe.
      */
-    private class ResultSetIterator implements Iterator<Event>, AutoCloseable {
+    private class ResultSetIterator implements EnvelopeIterator {
 
-        @Getter(AccessLevel.PACKAGE)
-        long lastOffset;
         private FetchState fetchState = FetchState.UNKNOWN;
 
         private final ResultSet set;
@@ -291,23 +1304,14 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
         }
 
         @Override
-        public Event next() {
+        public Envelope next() {
             if (fetchState == FetchState.EMPTY || (fetchState == FetchState.UNKNOWN && !hasNext())) {
                 closeQuietly(set, statement, connection);
                 throw new NoSuchElementException("No more events to read");
             }
-            final Event event = readEvent();
+            final Envelope envelope = readEnvelope(set);
             fetchState = FetchState.UNKNOWN;
-            return event;
-        }
-
-        @Nonnull
-        @SneakyThrows
-        private Event readEvent() {
-            // get values by an index a bit more efficient
-            lastOffset = set.getLong(1);
-            T data = unwrapJdbcType(set.getObject(2));
-            return serializer.deserialize(data);
+            return envelope;
         }
 
         @Override
@@ -317,62 +1321,114 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
     }
 
     /**
+     * Reads the store page by page with a keyset query. The connection is acquired only for the time of a page read.
      * This iterator is NOT Thread safe.
      */
-    private class SequentialResultSetIterator implements Iterator<Event>, AutoCloseable {
-
-        private static final int MAX_RETRIES = 5;
-        private static final int SEQUENTIAL_FETCH_SIZE = 1000;
-
-        private int retryCount;
-        private long beforeLastOffset;
+    private class PagedIterator implements EnvelopeIterator {
 
         private final String query;
-        private ResultSetIterator delegate;
+        private final List<String> typeNames;
+        private final int pageSize;
 
-        SequentialResultSetIterator(@Nonnull String from, long offset) {
-            query = Objects.requireNonNull(from);
-            delegate = createIterator(from, offset);
+        private long lastOffset;
+        private boolean lastPage;
+        private Iterator<Envelope> page = Collections.emptyIterator();
+
+        PagedIterator(@Nonnull String query, @Nonnull List<String> typeNames, int pageSize, long offset) {
+            if (pageSize <= 0) {
+                throw new BrokenStoreException("Page size must be > 0: " + pageSize);
+            }
+            this.query = query;
+            this.typeNames = typeNames;
+            this.pageSize = pageSize;
+            this.lastOffset = offset;
         }
 
-        private ResultSetIterator createIterator(@Nonnull String from, long offset) {
-            final Connection connection = createConnection(dataSource);
-            try {
-                // order of calls matters
-                connection.setAutoCommit(false);
-                connection.setReadOnly(true);
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                page = readPage();
+            }
+            return page.hasNext();
+        }
 
-                PreparedStatement statement = connection.prepareStatement(from, TYPE_FORWARD_ONLY, CONCUR_READ_ONLY);
-                statement.setFetchSize(SEQUENTIAL_FETCH_SIZE);
-                statement.setLong(1, offset);
-                final ResultSet set = statement.executeQuery();
+        @Override
+        public Envelope next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more events to read");
+            }
+            final Envelope envelope = page.next();
+            lastOffset = envelope.position();
+            return envelope;
+        }
 
-                return new ResultSetIterator(connection, statement, set);
+        @Nonnull
+        private Iterator<Envelope> readPage() {
+            try (final Connection connection = createConnection(dataSource);
+                 final PreparedStatement statement = connection.prepareStatement(query)) {
+                statement.setFetchSize(pageSize);
+                statement.setInt(bindSelect(statement, typeNames, lastOffset), pageSize);
+                final List<Envelope> envelopes = new ArrayList<>(pageSize);
+                try (final ResultSet set = statement.executeQuery()) {
+                    while (set.next()) {
+                        envelopes.add(readEnvelope(set));
+                    }
+                }
+                lastPage = envelopes.size() < pageSize;
+                return envelopes.iterator();
             } catch (Exception e) {
-                closeQuietly(connection);
                 throw new BrokenStoreException(e);
             }
         }
 
+        @Override
+        public void close() {
+            page = Collections.emptyIterator();
+            lastPage = true;
+        }
+    }
+
+    /**
+     * Detects gaps between positions of the read events and re-reads the store from the last sequential position, so
+     * that the events of slow transactions, that are not committed yet, are not skipped. The events are read by
+     * delegates, created by the given factory from an offset.
+     * This iterator is NOT Thread safe.
+     */
+    private class SequentialResultSetIterator implements EnvelopeIterator {
+
+        private static final int MAX_RETRIES = 5;
+
+        private int retryCount;
+        private long beforeLastOffset;
+
+        private final LongFunction<EnvelopeIterator> factory;
+        private EnvelopeIterator delegate;
+
+        SequentialResultSetIterator(long offset, @Nonnull LongFunction<EnvelopeIterator> factory) {
+            this.factory = Objects.requireNonNull(factory);
+            delegate = factory.apply(offset);
+        }
+
         @Override
         public boolean hasNext() {
             return delegate.hasNext();
         }
 
-        private boolean isSequential() {
-            return beforeLastOffset == 0 || delegate.getLastOffset() - beforeLastOffset == 1;
+        private boolean isSequential(long lastOffset) {
+            return beforeLastOffset == 0 || lastOffset - beforeLastOffset == 1;
         }
 
         @Override
         @SuppressWarnings("squid:CommentedOutCodeLine")
-        public Event next() {
-            final Event next = delegate.next();
+        public Envelope next() {
+            final Envelope next = delegate.next();
+            final long lastOffset = next.position();
             // ok, keep sequentially read stuff
-            if (isSequential()) {
-                beforeLastOffset = delegate.getLastOffset();
+            if (isSequential(lastOffset)) {
+                beforeLastOffset = lastOffset;
                 return next;
             }
-            log.trace("last returned offset {}, offset before last {}", delegate.getLastOffset(), beforeLastOffset);
+            log.trace("last returned offset {}, offset before last {}", lastOffset, beforeLastOffset);
             /*
             We have some kind of read anomaly. It can be explained in context of PostgreSQL.
             First, create a table:
@@ -407,7 +1463,7 @@ public class JdbcStoreProvider<T> implements StoreProvider, SnapshotReader, Auto
             */
             log.trace("Closing current delegate and create new one with start offset {}", beforeLastOffset);
             close();
-            delegate = createIterator(query, beforeLastOffset);
+            delegate = factory.apply(beforeLastOffset);
 
             if (retryCount++ > MAX_RETRIES) {
                 /*
@@ -1,26 +1,37 @@
 package store.jesframework.provider;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.BiFunction;
-import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
 import javax.persistence.EntityTransaction;
+import javax.persistence.LockModeType;
 import javax.persistence.Query;
 import javax.persistence.TypedQuery;
 
+import store.jesframework.Envelope;
 import store.jesframework.Event;
+import store.jesframework.common.UnknownTypeResolved;
 import store.jesframework.ex.BrokenStoreException;
 import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.provider.jdbc.ReadMode;
 import store.jesframework.provider.jpa.StoreEntry;
 import store.jesframework.provider.jpa.StoreEntryFactory;
-import store.jesframework.serializer.api.Format;
 import store.jesframework.serializer.api.SerializationOption;
 import store.jesframework.serializer.api.Serializer;
 import store.jesframework.serializer.impl.SerializerFactory;
@@ -30,6 +41,9 @@ import lombok.extern.slf4j.Slf4j;
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.String.format;
 import static java.util.Objects.requireNonNull;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static store.jesframework.util.PropsReader.getProperty;
 
 /**
  * JPA {@link StoreProvider} implementation.
@@ -42,6 +56,10 @@ import static java.util.Objects.requireNonNull;
 public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoCloseable {
 
     private static final int FETCH_SIZE = 1000;
+    /**
+     * Number of the persisted entries, flushed at once by the batch writes.
+     */
+    private static final int FLUSH_SIZE = 500;
     private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
     private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
 
@@ -49,20 +67,48 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
     private final EntityManagerFactory entityManagerFactory;
 
     private final Class<? extends StoreEntry> entryType;
+    private final ReadMode readMode;
+    private final int pageSize;
 
     private static final String QUERY_BY_UUID = "SELECT e FROM %s e WHERE e.uuid = :uuid ORDER BY id";
+    private static final String QUERY_BY_UUID_AFTER_ID = "SELECT e FROM %s e WHERE e.uuid = :uuid AND e.id > :id "
+            + "ORDER BY id";
     private static final String DELETE_BY_UUID = "DELETE FROM %s e WHERE e.uuid = :uuid";
-    private static final String QUERY_COUNT_BY_UUID = "SELECT COUNT(e) FROM %s e WHERE e.uuid = :uuid";
-    private static final String QUERY_BY_OFFSET = "SELECT e FROM %s e WHERE e.id > :id ORDER BY id";
+    private static final String QUERY_LAST_BY_UUIDS = "SELECT e FROM %s e WHERE e.id IN (SELECT MAX(s.id) FROM %s s "
+            + "WHERE s.uuid IN :uuids GROUP BY s.uuid)";
+    private static final String QUERY_VERSIONS_BY_UUIDS = "SELECT e.uuid, COUNT(e), MAX(e.version) FROM %s e "
+            + "WHERE e.uuid IN :uuids GROUP BY e.uuid";
+    // the entries are read as (id, data) projections, so they are not managed by the persistence context
+    private static final String QUERY_BY_OFFSET = "SELECT e.id, e.data FROM %s e WHERE e.id > :id ORDER BY e.id";
 
     public JpaStoreProvider(@Nonnull EntityManagerFactory entityManagerFactory,
                             @Nullable SerializationOption... options) {
+        this(entityManagerFactory, ReadMode.CURSOR, options);
+    }
+
+    /**
+     * Builds a {@link JpaStoreProvider} instance with the given sequential read mode.
+     *
+     * @param entityManagerFactory is an application-managed entity manager factory.
+     * @param readMode             defines how the store is read by {@link #readFrom(long)}, see {@link ReadMode}. The
+     *                             page size of the {@link ReadMode#PAGED} mode is set by
+     *                             {@literal jes.jpa.paged-read.page-size} property.
+     * @param options              are serialization extensions.
+     */
+    public JpaStoreProvider(@Nonnull EntityManagerFactory entityManagerFactory, @Nonnull ReadMode readMode,
+                            @Nullable SerializationOption... options) {
+        this(entityManagerFactory, readMode, Integer.parseInt(getProperty("jes.jpa.paged-read.page-size")), options);
+    }
+
+    JpaStoreProvider(@Nonnull EntityManagerFactory entityManagerFactory, @Nonnull ReadMode readMode, int pageSize,
+                     @Nullable SerializationOption... options) {
         try {
+            this.readMode = requireNonNull(readMode, "ReadMode must not be null");
+            this.pageSize = pageSize;
             this.entityManagerFactory = requireNonNull(entityManagerFactory, "EntityManagerFactory must not be null");
             this.serializer = SerializerFactory.newEventSerializer(options);
 
-            final Format format = serializer.format();
-            this.entryType = StoreEntryFactory.entryTypeOf(format.getJavaType());
+            this.entryType = StoreEntryFactory.entryTypeOf(serializer.rawType());
         } catch (Exception e) {
             throw new BrokenStoreException(e);
         }
@@ -70,9 +116,33 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
 
     @Override
     public Stream<Event> readFrom(long offset) {
+        return readEnvelopesFrom(offset).map(Envelope::event);
+    }
+
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset, @Nonnull Set<String> types) {
+        if (types.contains(UnknownTypeResolved.class.getName())) {
+            // events of unknown types can't be found by their type names
+            return StoreProvider.super.readEnvelopesFrom(offset, types);
+        }
+        final Set<String> typeNames = serializer.typeNames(types);
+        return readEnvelopesFrom(offset).map(envelope -> envelope.filter(types, typeNames));
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the entries are read as {@literal (id, data)} projections, so the persistence context doesn't grow
+     * during long reads. In {@link ReadMode#PAGED} mode the store is read page by page with a keyset query, each page
+     * in its own short transaction}.
+     */
+    @Override
+    public Stream<Envelope> readEnvelopesFrom(long offset) {
+        if (readMode == ReadMode.PAGED) {
+            return StreamSupport.stream(spliteratorUnknownSize(new PagedIterator(pageSize, offset), ORDERED), false);
+        }
         return doInTransactionAndKeepAlive((entityManager, transaction) -> {
-            final TypedQuery<? extends StoreEntry> query = entityManager.createQuery(
-                    format(QUERY_BY_OFFSET, entryType.getName()), entryType
+            final TypedQuery<Object[]> query = entityManager.createQuery(
+                    format(QUERY_BY_OFFSET, entryType.getName()), Object[].class
             );
 
             query.setParameter("id", offset);
@@ -80,21 +150,29 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
             query.setHint(FETCH_SIZE_HINT, FETCH_SIZE);
 
             return query.getResultStream()
-                    .map(storeEntry -> serializer.deserialize(storeEntry.getData()))
-                    .onClose(() -> {
-                        try {
-                            transaction.commit();
-                            entityManager.close();
-                        } catch (Exception e) {
-                            if (transaction.isActive()) {
-                                transaction.rollback();
-                            }
-                            throw new BrokenStoreException(e);
-                        }
-                    });
+                    .map(this::toEnvelope)
+                    .onClose(() -> commitAndClose(entityManager, transaction));
         });
     }
 
+    @Nonnull
+    private Envelope toEnvelope(@Nonnull StoreEntry storeEntry) {
+        return toEnvelope(storeEntry.getId(), storeEntry.getData());
+    }
+
+    @Nonnull
+    private Envelope toEnvelope(@Nonnull Object[] row) {
+        @SuppressWarnings("unchecked")
+        final T data = (T) row[1];
+        return toEnvelope(((Number) row[0]).longValue(), data);
+    }
+
+    @Nonnull
+    private Envelope toEnvelope(long id, @Nonnull T data) {
+        // the event is deserialized only if it's needed
+        return new Envelope(id, serializer.fetchTypeName(data), () -> serializer.deserialize(data));
+    }
+
     @Override
     public Collection<Event> readBy(@Nonnull UUID uuid) {
         return readBy(uuid, 0);
@@ -119,30 +197,133 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
     }
 
     @Override
-    public void write(@Nonnull Event event) {
-        final UUID uuid = event.uuid();
-        final long expectedVersion = event.expectedStreamVersion();
-        if (uuid != null && expectedVersion != -1) {
-
-            final long actualVersion = doInTransaction(entityManager -> {
-                final TypedQuery<Long> versionQuery = entityManager.createQuery(
-                        format(QUERY_COUNT_BY_UUID, entryType.getName()), Long.class
-                );
-                versionQuery.setParameter("uuid", uuid);
-                versionQuery.setHint(READ_ONLY_HINT, true);
+    public Stream<Event> streamBy(@Nonnull UUID uuid, long skip) {
+        return doInTransactionAndKeepAlive((entityManager, transaction) -> {
+            final TypedQuery<? extends StoreEntry> query = entityManager.createQuery(
+                    format(QUERY_BY_UUID, entryType.getName()), entryType
+            );
 
-                return versionQuery.getSingleResult();
-            });
+            query.setParameter("uuid", uuid);
+            query.setMaxResults(MAX_VALUE);
+            query.setFirstResult((int) skip);
+            query.setHint(READ_ONLY_HINT, true);
+            query.setHint(FETCH_SIZE_HINT, FETCH_SIZE);
+            return query.getResultStream()
+                    .map(storeEntry -> serializer.deserialize(storeEntry.getData()))
+                    .onClose(() -> commitAndClose(entityManager, transaction));
+        });
+    }
 
-            if (expectedVersion != actualVersion) {
-                throw new VersionMismatchException(uuid, expectedVersion, actualVersion);
+    /**
+     * {@inheritDoc}
+     * {@implNote if the position is known, the events are selected by {@literal uuid = :uuid AND id > :id} on the
+     * {@literal (uuid, id)} index, instead of skipping the first results}.
+     */
+    @Override
+    public Stream<Envelope> readEnvelopesBy(@Nonnull UUID uuid, long afterPosition, long skip) {
+        return doInTransactionAndKeepAlive((entityManager, transaction) -> {
+            final TypedQuery<? extends StoreEntry> query;
+            if (afterPosition > 0) {
+                query = entityManager.createQuery(format(QUERY_BY_UUID_AFTER_ID, entryType.getName()), entryType);
+                query.setParameter("id", afterPosition);
+            } else {
+                query = entityManager.createQuery(format(QUERY_BY_UUID, entryType.getName()), entryType);
+                query.setMaxResults(MAX_VALUE);
+                query.setFirstResult((int) skip);
             }
+            query.setParameter("uuid", uuid);
+            query.setHint(READ_ONLY_HINT, true);
+            query.setHint(FETCH_SIZE_HINT, FETCH_SIZE);
+            return query.getResultStream()
+                    .map(this::toEnvelope)
+                    .onClose(() -> commitAndClose(entityManager, transaction));
+        });
+    }
+
+    @Override
+    public long write(@Nonnull Event event) {
+        return write(new Event[] {event})[0];
+    }
+
+    /**
+     * {@inheritDoc}
+     * {@implNote the events are written in a single transaction. The last entries of the written streams are locked
+     * first, then the versions of the streams are read with a single query, and the versions of the following events
+     * of the same stream are counted in memory. Every event of a stream is written with its stream version, so the
+     * concurrent writes of the same version (of new streams, which have nothing to lock) are rejected by the unique
+     * {@literal (uuid, version)} constraint. The entries are flushed by {@literal FLUSH_SIZE}, so the JPA provider can
+     * batch the inserts (if the batching is enabled for the entity manager factory)}.
+     */
+    @Override
+    public long[] write(@Nonnull Event... events) {
+        final List<StoreEntry> entries = doInTransaction(entityManager -> {
+            final Map<UUID, Long> versions = lockVersions(entityManager, events);
+            final List<StoreEntry> written = new ArrayList<>(events.length);
+            for (Event event : events) {
+                final UUID uuid = event.uuid();
+                Long version = null;
+                if (uuid != null) {
+                    final long actualVersion = versions.get(uuid);
+                    final long expectedVersion = event.expectedStreamVersion();
+                    if (expectedVersion != -1 && expectedVersion != actualVersion) {
+                        throw new VersionMismatchException(uuid, expectedVersion, actualVersion);
+                    }
+                    version = actualVersion + 1;
+                    versions.put(uuid, version);
+                }
+                final StoreEntry entry = StoreEntryFactory.newEntry(uuid, version,
+                        serializer.typeName(event.getClass()), serializer.serialize(event));
+                entityManager.persist(entry);
+                written.add(entry);
+                if (written.size() % FLUSH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            return written;
+        });
+        // identity is assigned on flush, so it's available after commit
+        final long[] positions = new long[entries.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = entries.get(i).getId();
+        }
+        return positions;
+    }
+
+    /**
+     * Locks the last entries of the written streams, and reads their current versions. The rows, written before the
+     * versions were assigned, have no version, so the version of the stream is the greatest of its size and its last
+     * version.
+     *
+     * @return versions by the stream identifiers (0 for new streams).
+     */
+    @Nonnull
+    private Map<UUID, Long> lockVersions(@Nonnull EntityManager entityManager, @Nonnull Event... events) {
+        final Map<UUID, Long> versions = new HashMap<>();
+        for (Event event : events) {
+            if (event.uuid() != null) {
+                versions.put(event.uuid(), 0L);
+            }
+        }
+        if (versions.isEmpty()) {
+            return versions;
         }
+        final String entryName = entryType.getName();
+        entityManager.createQuery(format(QUERY_LAST_BY_UUIDS, entryName, entryName), entryType)
+                .setParameter("uuids", versions.keySet())
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
 
-        final T data = serializer.serialize(event);
-        final StoreEntry entry = StoreEntryFactory.newEntry(uuid, data);
-        final Consumer<EntityManager> consumer = entityManager -> entityManager.persist(entry);
-        doInTransaction(consumer);
+        final TypedQuery<Object[]> versionQuery = entityManager.createQuery(
+                format(QUERY_VERSIONS_BY_UUIDS, entryName), Object[].class
+        );
+        versionQuery.setParameter("uuids", versions.keySet());
+        for (Object[] row : versionQuery.getResultList()) {
+            final long count = ((Number) row[1]).longValue();
+            final long version = row[2] != null ? ((Number) row[2]).longValue() : 0;
+            versions.put((UUID) row[0], Math.max(count, version));
+        }
+        return versions;
     }
 
     @Override
@@ -166,6 +347,9 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
             final R result = action.apply(entityManager);
             transaction.commit();
             return result;
+        } catch (VersionMismatchException e) {
+            transaction.rollback();
+            throw e;
         } catch (Exception e) {
             transaction.rollback();
             throw new BrokenStoreException(e);
@@ -174,29 +358,26 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
         }
     }
 
-    private void doInTransaction(@Nonnull Consumer<EntityManager> action) {
+    private <R> R doInTransactionAndKeepAlive(@Nonnull BiFunction<EntityManager, EntityTransaction, R> action) {
         final EntityManager entityManager = entityManagerFactory.createEntityManager();
         final EntityTransaction transaction = entityManager.getTransaction();
         try {
             transaction.begin();
-            action.accept(entityManager);
-            transaction.commit();
+            return action.apply(entityManager, transaction);
         } catch (Exception e) {
             transaction.rollback();
             throw new BrokenStoreException(e);
-        } finally {
-            entityManager.close();
         }
     }
 
-    private <R> R doInTransactionAndKeepAlive(@Nonnull BiFunction<EntityManager, EntityTransaction, R> action) {
-        final EntityManager entityManager = entityManagerFactory.createEntityManager();
-        final EntityTransaction transaction = entityManager.getTransaction();
+    private static void commitAndClose(@Nonnull EntityManager entityManager, @Nonnull EntityTransaction transaction) {
         try {
-            transaction.begin();
-            return action.apply(entityManager, transaction);
+            transaction.commit();
+            entityManager.close();
         } catch (Exception e) {
-            transaction.rollback();
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
             throw new BrokenStoreException(e);
         }
     }
@@ -210,4 +391,60 @@ public class JpaStoreProvider<T> implements StoreProvider, SnapshotReader, AutoC
         }
     }
 
+    /**
+     * Reads the store page by page with a keyset query. This iterator is NOT Thread safe.
+     */
+    private class PagedIterator implements Iterator<Envelope> {
+
+        private final int pageSize;
+
+        private long lastOffset;
+        private boolean lastPage;
+        private Iterator<Envelope> page = Collections.emptyIterator();
+
+        PagedIterator(int pageSize, long offset) {
+            if (pageSize <= 0) {
+                throw new BrokenStoreException("Page size must be > 0: " + pageSize);
+            }
+            this.pageSize = pageSize;
+            this.lastOffset = offset;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!page.hasNext() && !lastPage) {
+                page = readPage();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public Envelope next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more events to read");
+            }
+            final Envelope envelope = page.next();
+            lastOffset = envelope.position();
+            return envelope;
+        }
+
+        @Nonnull
+        private Iterator<Envelope> readPage() {
+            final List<Envelope> envelopes = doInTransaction(entityManager -> {
+                final TypedQuery<Object[]> query = entityManager.createQuery(
+                        format(QUERY_BY_OFFSET, entryType.getName()), Object[].class
+                );
+                query.setParameter("id", lastOffset);
+                query.setMaxResults(pageSize);
+                query.setHint(READ_ONLY_HINT, true);
+                query.setHint(FETCH_SIZE_HINT, pageSize);
+                return query.getResultList().stream()
+                        .map(JpaStoreProvider.this::toEnvelope)
+                        .collect(Collectors.toList());
+            });
+            lastPage = envelopes.size() < pageSize;
+            return envelopes.iterator();
+        }
+    }
+
 }
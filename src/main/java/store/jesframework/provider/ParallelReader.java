@@ -0,0 +1,215 @@
+package store.jesframework.provider;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.annotation.Nonnull;
+
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.Envelope;
+import store.jesframework.ex.BrokenStoreException;
+
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static store.jesframework.util.PropsReader.getProperty;
+
+/**
+ * Reads the store in parallel: the positions from the offset up to the {@link RangeReader#lastPosition()} are split
+ * into ranges, that are read and deserialized concurrently on the given pool. The events, written after the read is
+ * started, are not read: the read can be continued from the position of the last read event.
+ *
+ * <p>Some of the positions up to the last one can be taken by the writes, that are not committed yet. A range with
+ * gaps is read once more after the commit lag, so such writes are read too. The gaps, that are still there after the
+ * commit lag, are considered as deleted or rolled back events.
+ */
+@Slf4j
+public class ParallelReader {
+
+    private static final String COMMIT_LAG_PROPERTY = "jes.parallel-read.commit-lag-ms";
+
+    private final RangeReader reader;
+    private final ForkJoinPool pool;
+    private final int rangeSize;
+    private final long commitLagNanos;
+
+    public ParallelReader(@Nonnull RangeReader reader, @Nonnull ForkJoinPool pool) {
+        this(reader, pool, Integer.parseInt(getProperty("jes.parallel-read.range-size")));
+    }
+
+    public ParallelReader(@Nonnull RangeReader reader, @Nonnull ForkJoinPool pool, int rangeSize) {
+        this(reader, pool, rangeSize, Duration.ofMillis(Long.parseLong(getProperty(COMMIT_LAG_PROPERTY))));
+    }
+
+    /**
+     * Creates the reader.
+     *
+     * @param reader    is a provider to read the ranges with.
+     * @param pool      is a pool to read the ranges on. Its parallelism limits the number of the concurrent reads.
+     * @param rangeSize is a max number of positions in one range.
+     * @param commitLag is a max time between taking a position by a write and committing it.
+     */
+    public ParallelReader(@Nonnull RangeReader reader, @Nonnull ForkJoinPool pool, int rangeSize,
+                          @Nonnull Duration commitLag) {
+        this.reader = Objects.requireNonNull(reader, "Range reader must not be null");
+        this.pool = Objects.requireNonNull(pool, "Pool must not be null");
+        if (rangeSize <= 0) {
+            throw new IllegalArgumentException("Range size must be > 0: " + rangeSize);
+        }
+        this.rangeSize = rangeSize;
+        this.commitLagNanos = Objects.requireNonNull(commitLag, "Commit lag must not be null").toNanos();
+    }
+
+    /**
+     * Reads the envelopes in the order of their positions. Only a few ranges ahead of the consumer are read at the
+     * same time, so the memory usage is bounded.
+     *
+     * @param offset is an offset to read from.
+     * @param mapper is a function, applied to the read envelopes on the pool (i.e. a filter by event types).
+     * @return {@link Stream} of envelopes. The stream must be closed after usage.
+     */
+    @Nonnull
+    public Stream<Envelope> read(long offset, @Nonnull UnaryOperator<Envelope> mapper) {
+        Objects.requireNonNull(mapper, "Mapper must not be null");
+        final long last = reader.lastPosition();
+        final OrderedIterator iterator = new OrderedIterator(offset, last, System.nanoTime() + commitLagNanos, mapper);
+        return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(iterator::close);
+    }
+
+    /**
+     * Passes all the envelopes to the consumer concurrently, in no particular order. The consumer must be thread-safe.
+     * This method returns when all the envelopes are consumed.
+     *
+     * @param offset   is an offset to read from.
+     * @param consumer is an order-insensitive consumer of the envelopes.
+     */
+    public void forEach(long offset, @Nonnull Consumer<? super Envelope> consumer) {
+        Objects.requireNonNull(consumer, "Consumer must not be null");
+        final long last = reader.lastPosition();
+        final long settledAt = System.nanoTime() + commitLagNanos;
+        final List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (long from = offset; from < last; from += rangeSize) {
+            final long start = from;
+            final long end = Math.min(last, from + rangeSize);
+            tasks.add(CompletableFuture.runAsync(() -> readCommitted(start, end, settledAt).forEach(consumer), pool));
+        }
+        log.debug("Reading ({}, {}] in {} range(s)", offset, last, tasks.size());
+        join(CompletableFuture.allOf(tasks.toArray(new CompletableFuture<?>[0])));
+    }
+
+    @Nonnull
+    private List<Envelope> readRange(long from, long to, long settledAt, @Nonnull UnaryOperator<Envelope> mapper) {
+        final List<Envelope> envelopes = readCommitted(from, to, settledAt);
+        final List<Envelope> mapped = new ArrayList<>(envelopes.size());
+        for (Envelope envelope : envelopes) {
+            final Envelope result = mapper.apply(envelope);
+            // deserialize on the pool, not on the consuming thread
+            result.event();
+            mapped.add(result);
+        }
+        return mapped;
+    }
+
+    /**
+     * Reads the range. The positions up to the last one are taken by the writes, started before the read. If some of
+     * them are not read, the range is read once more, when the commit lag of such writes is elapsed.
+     */
+    @Nonnull
+    private List<Envelope> readCommitted(long from, long to, long settledAt) {
+        final List<Envelope> envelopes = reader.readEnvelopesRange(from, to);
+        final long wait = settledAt - System.nanoTime();
+        if (envelopes.size() >= to - from || wait <= 0) {
+            return envelopes;
+        }
+        log.trace("Range ({}, {}] has {} gap(s), it's read again in {} ns", from, to, to - from - envelopes.size(),
+                wait);
+        try {
+            NANOSECONDS.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BrokenStoreException(e);
+        }
+        return reader.readEnvelopesRange(from, to);
+    }
+
+    private static <T> T join(@Nonnull CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    /**
+     * Reads the ranges ahead of the consumer and returns their envelopes in order.
+     */
+    private class OrderedIterator implements Iterator<Envelope>, AutoCloseable {
+
+        // number of the ranges read ahead
+        private final int window = pool.getParallelism() * 2;
+        private final Deque<CompletableFuture<List<Envelope>>> ranges = new ArrayDeque<>();
+        private final UnaryOperator<Envelope> mapper;
+        private final long last;
+        private final long settledAt;
+
+        private long next;
+        private Iterator<Envelope> current = Collections.emptyIterator();
+
+        OrderedIterator(long offset, long last, long settledAt, @Nonnull UnaryOperator<Envelope> mapper) {
+            this.next = offset;
+            this.last = last;
+            this.settledAt = settledAt;
+            this.mapper = mapper;
+            readAhead();
+        }
+
+        private void readAhead() {
+            while (ranges.size() < window && next < last) {
+                final long from = next;
+                final long to = Math.min(last, from + rangeSize);
+                ranges.add(CompletableFuture.supplyAsync(() -> readRange(from, to, settledAt, mapper), pool));
+                next = to;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!current.hasNext() && !ranges.isEmpty()) {
+                current = join(ranges.poll()).iterator();
+                readAhead();
+            }
+            return current.hasNext();
+        }
+
+        @Override
+        public Envelope next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+
+        @Override
+        public void close() {
+            ranges.forEach(range -> range.cancel(false));
+            ranges.clear();
+            next = last;
+        }
+    }
+}
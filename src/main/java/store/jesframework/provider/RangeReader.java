@@ -0,0 +1,46 @@
+package store.jesframework.provider;
+
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import javax.annotation.Nonnull;
+
+import store.jesframework.Envelope;
+
+/**
+ * {@link StoreProvider} capability to read the store by ranges of positions. The ranges are independent from each
+ * other, so they can be read concurrently (see {@link ParallelReader}).
+ */
+public interface RangeReader {
+
+    /**
+     * Returns the position of the last event in the store at the moment of the call.
+     *
+     * @return position of the last event, or 0 if the store is empty.
+     */
+    long lastPosition();
+
+    /**
+     * Reads the envelopes with the positions in the range {@code (from, to]}. The range is read at once, so it should
+     * be small enough to fit in memory.
+     *
+     * @param from is an exclusive lower bound of the positions to read.
+     * @param to   is an inclusive upper bound of the positions to read.
+     * @return envelopes of the range, ordered by their positions.
+     */
+    @Nonnull
+    List<Envelope> readEnvelopesRange(long from, long to);
+
+    /**
+     * Returns the filter of the read envelopes by the event types (see {@link Envelope#filter(Set)}). The providers,
+     * that know the type names of the read events, skip the events of other types without deserialization.
+     *
+     * @param types are class names (see {@link Class#getName()}) of the events to keep.
+     * @return filter of the envelopes, read by ranges.
+     */
+    @Nonnull
+    default UnaryOperator<Envelope> typeFilter(@Nonnull Set<String> types) {
+        return envelope -> envelope.filter(types);
+    }
+
+}
@@ -1,13 +1,22 @@
 package store.jesframework.provider;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
+import store.jesframework.Envelope;
 import store.jesframework.Event;
 import store.jesframework.JEventStore;
 
+import static java.util.stream.Collectors.toList;
+
 /**
  * Basic {@literal EventStore} component, that provides protocol/tool-specific low level operations.
  */
@@ -21,6 +30,45 @@ public interface StoreProvider {
      */
     Stream<Event> readFrom(long offset);
 
+    /**
+     * see {@link JEventStore#readFrom(long, Set)}.
+     *
+     * @param offset the offset to read from.
+     * @param types  are class names of the events to read.
+     * @return {@link Stream} of events of the given types stored in that {@literal EventStore}.
+     */
+    default Stream<Event> readFrom(long offset, @Nonnull Set<String> types) {
+        return readEnvelopesFrom(offset, types).map(Envelope::event).filter(Objects::nonNull);
+    }
+
+    /**
+     * see {@link JEventStore#readEnvelopesFrom(long)}.
+     * {@implNote the default implementation assumes that positions of the events are contiguous: the event read right
+     * after the {@code offset} has position {@code offset + 1}, and so on. Providers, that can have gaps between
+     * positions (deleted events, rolled back sequences, etc.), must override this method}.
+     *
+     * @param offset the offset to read from.
+     * @return {@link Stream} of events stored in that {@literal EventStore} along with their positions.
+     */
+    default Stream<Envelope> readEnvelopesFrom(long offset) {
+        final AtomicLong position = new AtomicLong(offset);
+        return readFrom(offset).map(event -> new Envelope(position.incrementAndGet(), event));
+    }
+
+    /**
+     * see {@link JEventStore#readEnvelopesFrom(long, Set)}.
+     * {@implNote the default implementation reads all the events and skips the events of other types. Providers, that
+     * can filter events by types on the storage side, should override this method}.
+     *
+     * @param offset the offset to read from.
+     * @param types  are class names of the events to read.
+     * @return {@link Stream} of envelopes stored in that {@literal EventStore}: envelopes of the events of other types
+     *     have no event.
+     */
+    default Stream<Envelope> readEnvelopesFrom(long offset, @Nonnull Set<String> types) {
+        return readEnvelopesFrom(offset).map(envelope -> envelope.filter(types));
+    }
+
     /**
      * see {@link JEventStore#readBy(UUID)}.
      *
@@ -29,22 +77,73 @@ public interface StoreProvider {
      */
     Collection<Event> readBy(@Nonnull UUID uuid);
 
+    /**
+     * see {@link JEventStore#readAllBy(Collection)}.
+     * {@implNote the default implementation reads the event streams one by one. Providers, that can read several
+     * streams at once, should override this method}.
+     *
+     * @param skips are the identifiers of the event streams to read, along with the count of events to skip in each
+     *              of them.
+     * @return events of each requested stream (possibly empty), by the stream identifiers.
+     */
+    default Map<UUID, Collection<Event>> readAllBy(@Nonnull Map<UUID, Long> skips) {
+        final Map<UUID, Collection<Event>> streams = new LinkedHashMap<>();
+        skips.forEach((uuid, skip) -> streams.put(uuid, readBy(uuid).stream().skip(skip).collect(toList())));
+        return streams;
+    }
+
+    /**
+     * see {@link JEventStore#streamBy(UUID)}.
+     * {@implNote the default implementation reads the whole event stream at once. Providers, that can read the events
+     * lazily, should override this method}.
+     *
+     * @param uuid identifier of event uuid to read.
+     * @param skip events count to skip.
+     * @return {@link Stream} of events stored in that {@literal EventStore}, grouped by {@literal uuid}. The stream
+     *     must be closed after usage.
+     */
+    default Stream<Event> streamBy(@Nonnull UUID uuid, long skip) {
+        return readBy(uuid).stream().skip(skip);
+    }
+
     /**
      * see {@link JEventStore#write(Event)}.
      *
      * @param event is an event to store.
+     * @return position of the written event.
      */
-    void write(@Nonnull Event event);
+    long write(@Nonnull Event event);
 
     /**
      * see {@link JEventStore#write(Event...)}.
      *
      * @param events is an events to store.
+     * @return positions of the written events.
+     */
+    default long[] write(@Nonnull Event... events) {
+        final long[] positions = new long[events.length];
+        for (int i = 0; i < events.length; i++) {
+            positions[i] = write(events[i]);
+        }
+        return positions;
+    }
+
+    /**
+     * see {@link JEventStore#writeAsync(Event...)}.
+     *
+     * {@implNote the default implementation writes the events synchronously and returns an already completed future}.
+     *
+     * @param events is an events to store.
+     * @return future of the positions, assigned to the given events.
      */
-    default void write(@Nonnull Event... events) {
-        for (Event event : events) {
-            write(event);
+    default CompletableFuture<long[]> writeAsync(@Nonnull Event... events) {
+        final CompletableFuture<long[]> future = new CompletableFuture<>();
+        try {
+            future.complete(write(events));
+        } catch (Exception e) {
+            future.completeExceptionally(e);
         }
+        return future;
     }
 
     /**
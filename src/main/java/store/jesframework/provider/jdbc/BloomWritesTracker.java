@@ -0,0 +1,160 @@
+package store.jesframework.provider.jdbc;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import javax.annotation.Nonnull;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Approximate {@link WritesTracker} with a fixed memory budget: the tracking time is split into time buckets, each
+ * bucket is a Bloom filter of the uuids, written within its time. The buckets are rotated: the filter of the oldest
+ * bucket is cleared and reused for the new writes, so the uuid is tracked for at least the tracking time. Unlike
+ * {@link CacheWritesTracker}, no objects are allocated per write.
+ *
+ * <p>The tracker may return false positives (with the given rate, if the number of writes within the tracking time
+ * doesn't exceed the expected one), but never false negatives within the tracking time.
+ */
+@Slf4j
+public class BloomWritesTracker implements WritesTracker {
+
+    /**
+     * Number of buckets the tracking time is split into. One more bucket is kept for the current writes.
+     */
+    private static final int BUCKETS = 4;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final long bucketDurationMs;
+    private final long bits;
+    private final int hashes;
+    private final Bucket[] buckets = new Bucket[BUCKETS + 1];
+    private final LongSupplier clock;
+
+    /**
+     * Creates the tracker.
+     *
+     * @param timeout           is a tracking time.
+     * @param timeUnit          is just a time unit for {@code timeout}.
+     * @param expectedWrites    is an expected number of the written uuids within the tracking time.
+     * @param falsePositiveRate is an acceptable rate of the false positives, i.e. of the reads, needlessly routed to
+     *                          the master.
+     */
+    public BloomWritesTracker(long timeout, @Nonnull TimeUnit timeUnit, long expectedWrites,
+                              double falsePositiveRate) {
+        this(timeout, timeUnit, expectedWrites, falsePositiveRate, System::currentTimeMillis);
+    }
+
+    BloomWritesTracker(long timeout, @Nonnull TimeUnit timeUnit, long expectedWrites, double falsePositiveRate,
+                       @Nonnull LongSupplier clock) {
+        if (timeout <= 0 || expectedWrites <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Timeout and expected writes must be > 0, false positive rate must be "
+                    + "in (0, 1): " + timeout + ", " + expectedWrites + ", " + falsePositiveRate);
+        }
+        final long timeoutMs = Math.max(1, timeUnit.toMillis(timeout));
+        this.bucketDurationMs = (timeoutMs + BUCKETS - 1) / BUCKETS;
+        this.clock = clock;
+
+        // a uuid is checked against all the buckets, so each of them gets a fraction of the false positive rate. each
+        // bucket is sized for all the expected writes, as the writes can come in a burst within one bucket
+        final double bucketRate = falsePositiveRate / buckets.length;
+        final double bucketWrites = expectedWrites;
+        final long words = (long) Math.ceil(-bucketWrites * Math.log(bucketRate) / (Math.log(2) * Math.log(2)) / 64);
+        if (words > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many expected writes: " + expectedWrites);
+        }
+        this.bits = words * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round(bits / bucketWrites * Math.log(2)));
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket((int) words);
+        }
+        log.debug("Writes tracker: {} buckets of {} bits, {} hashes, {} KiB in total", buckets.length, bits, hashes,
+                buckets.length * words * Long.BYTES / 1024);
+    }
+
+    @Override
+    public void track(@Nonnull UUID uuid) {
+        final long epoch = clock.getAsLong() / bucketDurationMs;
+        final Bucket bucket = buckets[(int) (epoch % buckets.length)];
+        if (bucket.epoch != epoch) {
+            bucket.rotate(epoch);
+        }
+        final long hash = hash(uuid);
+        final long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            bucket.set(Math.floorMod(hash + i * step, bits));
+        }
+    }
+
+    @Override
+    public boolean isTracked(@Nonnull UUID uuid) {
+        final long epoch = clock.getAsLong() / bucketDurationMs;
+        final long hash = hash(uuid);
+        final long step = step(hash);
+        for (Bucket bucket : buckets) {
+            final long bucketEpoch = bucket.epoch;
+            if (bucketEpoch <= epoch && bucketEpoch >= epoch - BUCKETS && bucket.contains(hash, step)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() {
+        for (Bucket bucket : buckets) {
+            bucket.rotate(-1);
+        }
+    }
+
+    private static long hash(@Nonnull UUID uuid) {
+        return mix(uuid.getMostSignificantBits() ^ mix(uuid.getLeastSignificantBits()));
+    }
+
+    // an odd step visits the different bits for the different hash functions (double hashing)
+    private static long step(long hash) {
+        return mix(hash + GOLDEN_GAMMA) | 1;
+    }
+
+    // murmur3 finalizer
+    private static long mix(long value) {
+        long mixed = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed = (mixed ^ (mixed >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return mixed ^ (mixed >>> 33);
+    }
+
+    private final class Bucket {
+
+        private final AtomicLongArray words;
+        private volatile long epoch = -1;
+
+        private Bucket(int words) {
+            this.words = new AtomicLongArray(words);
+        }
+
+        synchronized void rotate(long newEpoch) {
+            if (epoch != newEpoch) {
+                for (int i = 0; i < words.length(); i++) {
+                    words.set(i, 0);
+                }
+                epoch = newEpoch;
+            }
+        }
+
+        void set(long bit) {
+            final long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (word, value) -> word | value);
+        }
+
+        boolean contains(long hash, long step) {
+            for (int i = 0; i < hashes; i++) {
+                final long bit = Math.floorMod(hash + i * step, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package store.jesframework.provider.jdbc;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+
+import org.cache2k.Cache;
+import org.cache2k.Cache2kBuilder;
+
+/**
+ * Exact {@link WritesTracker}: keeps every written uuid in the cache for the tracking time. Note: cache has no max
+ * entries size, so all the uuids, written within the tracking time, are kept in-memory.
+ */
+public class CacheWritesTracker implements WritesTracker {
+
+    private final Cache<UUID, Object> cache;
+
+    public CacheWritesTracker(long timeout, @Nonnull TimeUnit timeUnit) {
+        cache = Cache2kBuilder.of(UUID.class, Object.class)
+                .name(getClass() + "-" + UUID.randomUUID())
+                .permitNullValues(true)
+                .boostConcurrency(true)
+                .entryCapacity(Long.MAX_VALUE)
+                .expireAfterWrite(timeout, timeUnit)
+                .build();
+    }
+
+    @Override
+    public void track(@Nonnull UUID uuid) {
+        cache.put(uuid, null);
+    }
+
+    @Override
+    public boolean isTracked(@Nonnull UUID uuid) {
+        return cache.containsKey(uuid);
+    }
+
+    @Override
+    public void close() {
+        cache.close();
+    }
+}
@@ -26,6 +26,7 @@ public final class DDLFactory {
     private static final String DB_NAME_MY_SQL = "MySQL";
     private static final String DB_NAME_POSTGRE_SQL = "PostgreSQL";
     private static final int POSTGRESQL_WITH_IDENTITY_VERSION = 10;
+    private static final int POSTGRESQL_WITH_PARTITIONED_INDEXES_VERSION = 11;
 
     private static final String SCHEMA_NAME_PROPERTY = "schemaName";
     private static final String CONTENT_TYPE_PROPERTY = "contentType";
@@ -34,6 +35,7 @@ public final class DDLFactory {
     private static final Map<String, DDLReader> LOCK_DDLS = new HashMap<>();
     private static final Map<String, DDLReader> OFFSET_DDLS = new HashMap<>();
     private static final Map<String, DDLReader> EVENT_STORE_DDLS = new HashMap<>();
+    private static final Map<String, DDLReader> PARTITIONED_EVENT_STORE_DDLS = new HashMap<>();
     private static final Map<String, DDLReader> AGGREGATE_STORE_DDLS = new HashMap<>();
 
     // init on load
@@ -64,6 +66,13 @@ public final class DDLFactory {
             return "ddl/postgresql/v9/event-store-postgres.ddl";
         }));
 
+        PARTITIONED_EVENT_STORE_DDLS.put(DB_NAME_POSTGRE_SQL, new DDLReader(version -> {
+            if (version >= POSTGRESQL_WITH_PARTITIONED_INDEXES_VERSION) {
+                return "ddl/postgresql/v11/event-store-partitioned-postgres.ddl";
+            }
+            throw new IllegalArgumentException("Partitioning requires PostgreSQL 11+, but found: " + version);
+        }));
+
         AGGREGATE_STORE_DDLS.put(DB_NAME_MY_SQL, new DDLReader("ddl/mysql/snapshot-store-mysql.ddl"));
         AGGREGATE_STORE_DDLS.put(DB_NAME_POSTGRE_SQL, new DDLReader(version -> {
             if (version >= POSTGRESQL_WITH_IDENTITY_VERSION) {
@@ -90,6 +99,21 @@ public final class DDLFactory {
         return getDDL(connection, EVENT_STORE_DDLS.get(databaseName), contentType);
     }
 
+    /**
+     * Constructs new DDL producer of the event store, partitioned by ranges of ids. Only PostgreSQL 11+ is supported.
+     *
+     * @param connection is an active connection to underlying database.
+     * @param type       is a type of payload to use. Currently, one of {@literal String} or {@literal byte[]}
+     * @return ddl for partitioned event store.
+     * @throws IllegalArgumentException if the database doesn't support partitioning.
+     */
+    @SneakyThrows
+    public static String getPartitionedEventStoreDDL(@Nonnull Connection connection, @Nonnull Class<?> type) {
+        final String databaseName = JdbcUtils.getDatabaseName(connection);
+        final String contentType = getSqlTypeByClassAndDatabaseName(type, databaseName);
+        return getDDL(connection, PARTITIONED_EVENT_STORE_DDLS.get(databaseName), contentType);
+    }
+
     /**
      * Constructs new DDL producer based on DB vendor name and provided schema.
      *
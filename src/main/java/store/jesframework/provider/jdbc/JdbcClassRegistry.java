@@ -0,0 +1,113 @@
+package store.jesframework.provider.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.ex.BrokenStoreException;
+import store.jesframework.serializer.api.ClassRegistry;
+
+import static java.util.Objects.requireNonNull;
+import static store.jesframework.util.JdbcUtils.createConnection;
+import static store.jesframework.util.JdbcUtils.isIntegrityConstraintViolation;
+import static store.jesframework.util.PropsReader.getProperty;
+
+/**
+ * {@link ClassRegistry}, persisted in the {@literal class_registry} table of the event store schema (it's created
+ * along with the event store). The ids are assigned by the database, so the nodes, sharing the event store, share the
+ * ids. The registered ids never change, so they are cached.
+ */
+@Slf4j
+public class JdbcClassRegistry implements ClassRegistry {
+
+    private final DataSource dataSource;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+    public JdbcClassRegistry(@Nonnull DataSource dataSource) {
+        this.dataSource = requireNonNull(dataSource, "DataSource must not be null");
+    }
+
+    @Override
+    public int idOf(@Nonnull String className) {
+        final Integer cached = ids.get(requireNonNull(className, "Class name must not be null"));
+        if (cached != null) {
+            return cached;
+        }
+        try (final Connection connection = createConnection(dataSource)) {
+            Integer id = selectId(connection, className);
+            if (id == null) {
+                insert(connection, className);
+                id = requireNonNull(selectId(connection, className), "Class must be registered: " + className);
+                log.debug("Registered class {} with id {}", className, id);
+            }
+            cache(id, className);
+            return id;
+        } catch (SQLException e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    @Nullable
+    @Override
+    public String classNameOf(int id) {
+        final String cached = names.get(id);
+        if (cached != null) {
+            return cached;
+        }
+        try (final Connection connection = createConnection(dataSource);
+             final PreparedStatement statement = connection.prepareStatement(
+                     getProperty("jes.jdbc.statement.select-class-name"))) {
+            statement.setInt(1, id);
+            try (final ResultSet set = statement.executeQuery()) {
+                if (!set.next()) {
+                    return null;
+                }
+                final String className = set.getString(1);
+                cache(id, className);
+                return className;
+            }
+        } catch (SQLException e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    private void cache(int id, @Nonnull String className) {
+        ids.put(className, id);
+        names.put(id, className);
+    }
+
+    @Nullable
+    private static Integer selectId(@Nonnull Connection connection, @Nonnull String className) throws SQLException {
+        try (final PreparedStatement statement = connection.prepareStatement(
+                getProperty("jes.jdbc.statement.select-class-id"))) {
+            statement.setString(1, className);
+            try (final ResultSet set = statement.executeQuery()) {
+                return set.next() ? set.getInt(1) : null;
+            }
+        }
+    }
+
+    private static void insert(@Nonnull Connection connection, @Nonnull String className) throws SQLException {
+        try (final PreparedStatement statement = connection.prepareStatement(
+                getProperty("jes.jdbc.statement.insert-class"))) {
+            statement.setString(1, className);
+            statement.executeUpdate();
+        } catch (SQLException e) {
+            // registered concurrently by another node
+            if (!isIntegrityConstraintViolation(e)) {
+                throw e;
+            }
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package store.jesframework.provider.jdbc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+
+/**
+ * Writes rows into a PostgreSQL table with {@literal COPY ... FROM STDIN BINARY}: the rows are encoded in the binary
+ * COPY format on the client side, so the server doesn't parse them. Supported column values are {@link UUID}
+ * (uuid), {@link Long} (bigint), {@link String} (text) and {@code byte[]} (bytea). Nulls are written as SQL NULLs.
+ * {@implNote this class is loaded only for PostgreSQL, so the driver is not required for other databases}.
+ */
+public final class PostgresBinaryCopy {
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final int UUID_LENGTH = 16;
+    private static final int BIGINT_LENGTH = 8;
+
+    private PostgresBinaryCopy() {
+    }
+
+    /**
+     * Copies the rows into the table in a single {@literal COPY} command.
+     *
+     * @param connection is a connection to copy with. The copied rows are a part of its current transaction.
+     * @param query      is a {@literal COPY ... FROM STDIN BINARY} statement.
+     * @param rows       are the column values of the rows, in the order of the columns of the statement.
+     * @return number of the copied rows.
+     * @throws SQLException if the copy failed.
+     */
+    public static long copy(@Nonnull Connection connection, @Nonnull String query, @Nonnull List<Object[]> rows)
+            throws SQLException {
+        final CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        try {
+            final byte[] data = encode(rows);
+            return copyManager.copyIn(query, new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new SQLException("Failed to copy rows", e);
+        }
+    }
+
+    @Nonnull
+    static byte[] encode(@Nonnull List<Object[]> rows) throws IOException {
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (final DataOutputStream output = new DataOutputStream(buffer)) {
+            output.write(SIGNATURE);
+            // flags and header extension length
+            output.writeInt(0);
+            output.writeInt(0);
+            for (Object[] row : rows) {
+                output.writeShort(row.length);
+                for (Object value : row) {
+                    writeValue(output, value);
+                }
+            }
+            // file trailer
+            output.writeShort(-1);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static void writeValue(@Nonnull DataOutputStream output, @Nullable Object value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else if (value instanceof UUID) {
+            final UUID uuid = (UUID) value;
+            output.writeInt(UUID_LENGTH);
+            output.writeLong(uuid.getMostSignificantBits());
+            output.writeLong(uuid.getLeastSignificantBits());
+        } else if (value instanceof Long) {
+            output.writeInt(BIGINT_LENGTH);
+            output.writeLong((Long) value);
+        } else if (value instanceof String) {
+            final byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        } else if (value instanceof byte[]) {
+            final byte[] bytes = (byte[]) value;
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        } else {
+            throw new IllegalArgumentException("Unsupported COPY value type: " + value.getClass());
+        }
+    }
+}
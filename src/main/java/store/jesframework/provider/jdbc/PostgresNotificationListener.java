@@ -0,0 +1,106 @@
+package store.jesframework.provider.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.sql.DataSource;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.util.DaemonThreadFactory;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static store.jesframework.util.JdbcUtils.createConnection;
+
+/**
+ * Listens to the PostgreSQL notifications on the given channel (see {@literal LISTEN/NOTIFY}) and runs the callback
+ * on each received batch of notifications. The listener holds a dedicated connection from the datasource while it's
+ * running. If the connection is lost, the listener reconnects and runs the callback, because some notifications could
+ * be missed.
+ * {@implNote this class is loaded only for PostgreSQL, so the driver is not required for other databases}.
+ */
+@Slf4j
+public class PostgresNotificationListener implements AutoCloseable {
+
+    private static final int POLL_TIMEOUT_MS = 500;
+    private static final long RECONNECT_DELAY_MS = 1000;
+
+    private final String channel;
+    private final Runnable callback;
+    private final DataSource dataSource;
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    /**
+     * Starts listening to the channel.
+     *
+     * @param dataSource is a datasource to obtain a connection from.
+     * @param channel    is a name of the notification channel.
+     * @param callback   is a fast, non-blocking action to run on notifications.
+     */
+    public PostgresNotificationListener(@Nonnull DataSource dataSource, @Nonnull String channel,
+                                        @Nonnull Runnable callback) {
+        this.dataSource = Objects.requireNonNull(dataSource, "DataSource must not be null");
+        this.channel = Objects.requireNonNull(channel, "Channel must not be null");
+        this.callback = Objects.requireNonNull(callback, "Callback must not be null");
+        this.worker = new DaemonThreadFactory(getClass().getSimpleName()).newThread(this::run);
+        this.worker.start();
+    }
+
+    private void run() {
+        while (running) {
+            try (final Connection connection = createConnection(dataSource)) {
+                // LISTEN takes effect only after commit
+                connection.setAutoCommit(true);
+                execute(connection, "LISTEN \"" + channel.replace("\"", "\"\"") + "\"");
+                log.debug("Listening to {}", channel);
+                // notifications could be missed while (re)connecting
+                callback.run();
+                final PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    final PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MS);
+                    if (notifications != null && notifications.length > 0) {
+                        callback.run();
+                    }
+                }
+                // the connection goes back to the pool
+                execute(connection, "UNLISTEN *");
+            } catch (Exception e) {
+                if (running) {
+                    log.warn("Failed to listen to {}, reconnecting in {} ms", channel, RECONNECT_DELAY_MS, e);
+                    pause();
+                }
+            }
+        }
+        log.debug("Stopped listening to {}", channel);
+    }
+
+    private static void execute(@Nonnull Connection connection, @Nonnull String query) throws SQLException {
+        try (final Statement statement = connection.createStatement()) {
+            statement.execute(query);
+        }
+    }
+
+    private void pause() {
+        try {
+            MILLISECONDS.sleep(RECONNECT_DELAY_MS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            worker.join(POLL_TIMEOUT_MS * 2L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
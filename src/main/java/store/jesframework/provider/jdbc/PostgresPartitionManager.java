@@ -0,0 +1,264 @@
+package store.jesframework.provider.jdbc;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.sql.DataSource;
+
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.ex.BrokenStoreException;
+import store.jesframework.util.DaemonThreadFactory;
+
+import static java.sql.ResultSet.CONCUR_READ_ONLY;
+import static java.sql.ResultSet.TYPE_FORWARD_ONLY;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static store.jesframework.util.JdbcUtils.createConnection;
+import static store.jesframework.util.PropsReader.getProperty;
+
+/**
+ * Maintains the partitions of the PostgreSQL event store, partitioned by ranges of ids (see
+ * {@link DDLFactory#getPartitionedEventStoreDDL}). The partition {@literal event_store_p<n>} holds the ids in
+ * {@code [n * size, (n + 1) * size)}. The manager periodically creates the partitions ahead of the id sequence, and,
+ * if the number of hot partitions is set, archives the older ones into the {@link SegmentArchive}.
+ * {@implNote PostgreSQL 11+ is required}.
+ */
+@Slf4j
+public class PostgresPartitionManager implements AutoCloseable {
+
+    private static final Pattern PARTITION_BOUNDS = Pattern.compile("FROM \\('?(\\d+)'?\\) TO \\('?(\\d+)'?\\)");
+    private static final String PARTITION_PREFIX = "event_store_p";
+    private static final int FETCH_SIZE = 1000;
+
+    private final DataSource dataSource;
+    private final long partitionSize;
+    private final int partitionsAhead;
+    private final int hotPartitions;
+    private final SegmentArchive archive;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Creates the missing partitions and starts the maintenance.
+     *
+     * @param dataSource      is a datasource of the partitioned event store.
+     * @param partitionSize   is a number of ids in one partition.
+     * @param partitionsAhead is a number of partitions to create ahead of the current one.
+     * @param hotPartitions   is a number of the latest partitions to keep in the database, or 0 to disable the
+     *                        automatic archiving.
+     * @param checkIntervalMs is an interval between the maintenance runs.
+     * @param archive         is an archive for the old partitions, if any.
+     */
+    public PostgresPartitionManager(@Nonnull DataSource dataSource, long partitionSize, int partitionsAhead,
+                                    int hotPartitions, long checkIntervalMs, @Nullable SegmentArchive archive) {
+        this.dataSource = Objects.requireNonNull(dataSource, "DataSource must not be null");
+        if (partitionSize <= 0 || partitionsAhead < 0 || hotPartitions < 0 || checkIntervalMs <= 0) {
+            throw new IllegalArgumentException("Partition size and check interval must be > 0, partitions ahead and "
+                    + "hot partitions must be >= 0: " + partitionSize + ", " + checkIntervalMs + ", "
+                    + partitionsAhead + ", " + hotPartitions);
+        }
+        this.partitionSize = partitionSize;
+        this.partitionsAhead = partitionsAhead;
+        this.hotPartitions = hotPartitions;
+        this.archive = archive;
+
+        // inserts fail if there is no partition for the next id
+        createPartitions();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory(getClass().getSimpleName()));
+        this.executor.scheduleWithFixedDelay(this::maintain, checkIntervalMs, checkIntervalMs, MILLISECONDS);
+    }
+
+    private void maintain() {
+        try {
+            createPartitions();
+            if (hotPartitions > 0 && archive != null) {
+                final long current = currentPartition();
+                archive(Math.max(0, current - hotPartitions + 1) * partitionSize);
+            }
+        } catch (Exception e) {
+            // i.e. the partitions are concurrently maintained by another process. will be retried on the next run
+            log.warn("Failed to maintain event store partitions", e);
+        }
+    }
+
+    /**
+     * Creates the current partition and the partitions ahead of it, if they don't exist yet.
+     */
+    void createPartitions() {
+        final long current = currentPartition();
+        try (final Connection connection = createConnection(dataSource);
+             final Statement statement = connection.createStatement()) {
+            for (long partition = current; partition <= current + partitionsAhead; partition++) {
+                final String name = PARTITION_PREFIX + partition;
+                final long from = partition * partitionSize;
+                statement.execute(String.format(getProperty("jes.jdbc.statement.create-partition"), name, from,
+                        from + partitionSize));
+                statement.execute(String.format(getProperty("jes.jdbc.statement.create-partition-index"), name));
+            }
+        } catch (SQLException e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    private long currentPartition() {
+        try (final Connection connection = createConnection(dataSource);
+             final PreparedStatement statement = connection.prepareStatement(
+                     getProperty("jes.jdbc.statement.select-event-id-sequence"));
+             final ResultSet set = statement.executeQuery()) {
+            return set.next() ? set.getLong(1) / partitionSize : 0;
+        } catch (SQLException e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    /**
+     * Archives the partitions, that hold only the ids less than the given position: the events of a partition are
+     * written into the archive, then the partition is detached and dropped.
+     *
+     * @param beforePosition is an exclusive upper bound of the ids to archive.
+     * @return number of the archived partitions.
+     * @throws BrokenStoreException if there is no archive.
+     */
+    public synchronized int archive(long beforePosition) {
+        if (archive == null) {
+            throw new BrokenStoreException("Archive directory is not configured");
+        }
+        int archived = 0;
+        for (Partition partition : readPartitions()) {
+            if (partition.to <= beforePosition) {
+                archive(partition);
+                archived++;
+            }
+        }
+        return archived;
+    }
+
+    private void archive(@Nonnull Partition partition) {
+        try (final Connection connection = createConnection(dataSource)) {
+            // the partition could be archived, but not dropped by the previous attempt
+            if (!archive.contains(partition.from, partition.to)) {
+                connection.setAutoCommit(false);
+                connection.setReadOnly(true);
+                final String query = String.format(getProperty("jes.jdbc.statement.select-partition-events"),
+                        partition.name);
+                try (final PreparedStatement statement = connection.prepareStatement(query, TYPE_FORWARD_ONLY,
+                        CONCUR_READ_ONLY)) {
+                    statement.setFetchSize(FETCH_SIZE);
+                    try (final ResultSet set = statement.executeQuery()) {
+                        archive.write(partition.from, partition.to, new EntryIterator(set));
+                    }
+                }
+                connection.commit();
+                connection.setReadOnly(false);
+            }
+            connection.setAutoCommit(false);
+            try (final Statement statement = connection.createStatement()) {
+                statement.execute(String.format(getProperty("jes.jdbc.statement.detach-partition"), partition.name));
+                statement.execute(String.format(getProperty("jes.jdbc.statement.drop-partition"), partition.name));
+            }
+            connection.commit();
+            log.info("Partition {} [{}, {}) archived", partition.name, partition.from, partition.to);
+        } catch (SQLException e) {
+            throw new BrokenStoreException(e);
+        }
+    }
+
+    @Nonnull
+    private List<Partition> readPartitions() {
+        final List<Partition> partitions = new ArrayList<>();
+        try (final Connection connection = createConnection(dataSource);
+             final PreparedStatement statement = connection.prepareStatement(
+                     getProperty("jes.jdbc.statement.select-partitions"));
+             final ResultSet set = statement.executeQuery()) {
+            while (set.next()) {
+                final Matcher matcher = PARTITION_BOUNDS.matcher(set.getString(2));
+                if (matcher.find()) {
+                    partitions.add(new Partition(set.getString(1), Long.parseLong(matcher.group(1)),
+                            Long.parseLong(matcher.group(2))));
+                }
+            }
+        } catch (SQLException e) {
+            throw new BrokenStoreException(e);
+        }
+        partitions.sort((first, second) -> Long.compare(first.from, second.from));
+        return partitions;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static final class Partition {
+
+        private final String name;
+        private final long from;
+        private final long to;
+
+        private Partition(@Nonnull String name, long from, long to) {
+            this.name = name;
+            this.from = from;
+            this.to = to;
+        }
+    }
+
+    /**
+     * Converts the {@literal (id, uuid, version, type, data)} rows into the archive entries.
+     */
+    private static final class EntryIterator implements Iterator<SegmentArchive.Entry> {
+
+        private final ResultSet set;
+        private Boolean hasNext;
+
+        private EntryIterator(@Nonnull ResultSet set) {
+            this.set = set;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (hasNext == null) {
+                try {
+                    hasNext = set.next();
+                } catch (SQLException e) {
+                    throw new BrokenStoreException(e);
+                }
+            }
+            return hasNext;
+        }
+
+        @Override
+        public SegmentArchive.Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            hasNext = null;
+            try {
+                final long id = set.getLong(1);
+                final UUID uuid = set.getObject(2, UUID.class);
+                final long version = set.getLong(3);
+                final Long nullableVersion = set.wasNull() ? null : version;
+                final String type = set.getString(4);
+                final Object data = set.getObject(5);
+                final byte[] bytes = data instanceof String
+                        ? ((String) data).getBytes(StandardCharsets.UTF_8)
+                        : (byte[]) data;
+                return new SegmentArchive.Entry(id, uuid, nullableVersion, type, bytes);
+            } catch (SQLException e) {
+                throw new BrokenStoreException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package store.jesframework.provider.jdbc;
+
+/**
+ * Defines how {@link store.jesframework.provider.JdbcStoreProvider} and
+ * {@link store.jesframework.provider.JpaStoreProvider} read the store sequentially.
+ */
+public enum ReadMode {
+
+    /**
+     * CURSOR is the default read mode: the whole stream is read with a single query (and a server-side cursor, if the
+     * driver supports it). The connection and the read-only transaction are held until the stream is closed.
+     */
+    CURSOR,
+    /**
+     * PAGED mode reads the stream page by page with a keyset query ({@code WHERE id > ? ORDER BY id LIMIT ?}). The
+     * connection is returned to the pool after each page, so long reads (like projection catch-up) neither pin a
+     * pooled connection nor hold a long-running transaction.
+     */
+    PAGED
+
+}
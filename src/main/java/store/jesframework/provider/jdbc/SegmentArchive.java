@@ -0,0 +1,274 @@
+package store.jesframework.provider.jdbc;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import lombok.Data;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.ex.BrokenStoreException;
+
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+
+/**
+ * Directory of the archived event store segments: events of the detached partitions, dumped into gzip-compressed
+ * files. Each segment holds the events with ids in {@code [from, to)}, ordered by id, and it's named
+ * {@literal event_store-<from>-<to>.seg.gz}. A segment is written atomically: the file either contains all the events
+ * of the segment, or doesn't exist.
+ */
+@Slf4j
+public class SegmentArchive {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("event_store-(\\d+)-(\\d+)\\.seg\\.gz");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    @SneakyThrows
+    public SegmentArchive(@Nonnull Path directory) {
+        this.directory = Files.createDirectories(Objects.requireNonNull(directory, "Directory must not be null"));
+    }
+
+    /**
+     * Checks if the segment is already archived.
+     *
+     * @param from is an inclusive lower bound of the segment ids.
+     * @param to   is an exclusive upper bound of the segment ids.
+     * @return true if the segment exists.
+     */
+    public boolean contains(long from, long to) {
+        return Files.exists(segmentPath(from, to));
+    }
+
+    /**
+     * Writes the segment.
+     *
+     * @param from    is an inclusive lower bound of the segment ids.
+     * @param to      is an exclusive upper bound of the segment ids.
+     * @param entries are events of the segment, ordered by id.
+     * @return number of the written events.
+     */
+    public long write(long from, long to, @Nonnull Iterator<Entry> entries) {
+        final Path segment = segmentPath(from, to);
+        final Path temp = segment.resolveSibling(segment.getFileName() + ".tmp");
+        long count = 0;
+        boolean written = false;
+        try {
+            try (final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temp), BUFFER_SIZE)))) {
+                while (entries.hasNext()) {
+                    output.writeBoolean(true);
+                    writeEntry(output, entries.next());
+                    count++;
+                }
+                output.writeBoolean(false);
+            }
+            Files.move(temp, segment, StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+            log.debug("Archived {} event(s) into {}", count, segment);
+            return count;
+        } catch (IOException e) {
+            throw new BrokenStoreException(e);
+        } finally {
+            if (!written) {
+                deleteQuietly(temp);
+            }
+        }
+    }
+
+    /**
+     * Reads the archived events with ids greater than the offset.
+     *
+     * @param offset is an offset to read from.
+     * @return {@link Stream} of the archived events, ordered by id. The stream must be closed after usage.
+     */
+    @Nonnull
+    public Stream<Entry> read(long offset) {
+        return read(offset, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reads the archived events with ids in the range {@code (from, to]}.
+     *
+     * @param from is an exclusive lower bound of the ids to read.
+     * @param to   is an inclusive upper bound of the ids to read.
+     * @return {@link Stream} of the archived events, ordered by id. The stream must be closed after usage.
+     */
+    @Nonnull
+    public Stream<Entry> read(long from, long to) {
+        return segments().stream()
+                .filter(segment -> segment.to > from + 1 && segment.from <= to)
+                .flatMap(segment -> segment.read())
+                .filter(entry -> entry.getId() > from && entry.getId() <= to);
+    }
+
+    /**
+     * Returns the exclusive upper bound of the archived ids.
+     *
+     * @return the max upper bound of the segments, or 0 if there are no segments.
+     */
+    public long upperBound() {
+        final List<Segment> segments = segments();
+        return segments.isEmpty() ? 0 : segments.get(segments.size() - 1).to;
+    }
+
+    @Nonnull
+    private List<Segment> segments() {
+        final List<Segment> segments = new ArrayList<>();
+        try (final Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                final Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.add(new Segment(file, Long.parseLong(matcher.group(1)), Long.parseLong(matcher.group(2))));
+                }
+            });
+        } catch (IOException e) {
+            throw new BrokenStoreException(e);
+        }
+        segments.sort(Comparator.comparingLong(segment -> segment.from));
+        return segments;
+    }
+
+    @Nonnull
+    private Path segmentPath(long from, long to) {
+        return directory.resolve("event_store-" + from + "-" + to + ".seg.gz");
+    }
+
+    private static void writeEntry(@Nonnull DataOutputStream output, @Nonnull Entry entry) throws IOException {
+        output.writeLong(entry.getId());
+        output.writeBoolean(entry.getUuid() != null);
+        if (entry.getUuid() != null) {
+            output.writeLong(entry.getUuid().getMostSignificantBits());
+            output.writeLong(entry.getUuid().getLeastSignificantBits());
+        }
+        output.writeBoolean(entry.getVersion() != null);
+        if (entry.getVersion() != null) {
+            output.writeLong(entry.getVersion());
+        }
+        output.writeBoolean(entry.getType() != null);
+        if (entry.getType() != null) {
+            output.writeUTF(entry.getType());
+        }
+        output.writeInt(entry.getData().length);
+        output.write(entry.getData());
+    }
+
+    @Nonnull
+    private static Entry readEntry(@Nonnull DataInputStream input) throws IOException {
+        final long id = input.readLong();
+        final UUID uuid = input.readBoolean() ? new UUID(input.readLong(), input.readLong()) : null;
+        final Long version = input.readBoolean() ? input.readLong() : null;
+        final String type = input.readBoolean() ? input.readUTF() : null;
+        final byte[] data = new byte[input.readInt()];
+        input.readFully(data);
+        return new Entry(id, uuid, version, type, data);
+    }
+
+    private static void deleteQuietly(@Nonnull Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Failed to delete {}", file, e);
+        }
+    }
+
+    /**
+     * Archived event: the row of the event store.
+     */
+    @Data
+    @Immutable
+    public static final class Entry {
+
+        private final long id;
+        @Nullable
+        private final UUID uuid;
+        @Nullable
+        private final Long version;
+        @Nullable
+        private final String type;
+        private final byte[] data;
+    }
+
+    private static final class Segment {
+
+        private final Path file;
+        private final long from;
+        private final long to;
+
+        private Segment(@Nonnull Path file, long from, long to) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Nonnull
+        Stream<Entry> read() {
+            final DataInputStream input;
+            try {
+                input = new DataInputStream(new BufferedInputStream(
+                        new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE)));
+            } catch (IOException e) {
+                throw new BrokenStoreException(e);
+            }
+            final Iterator<Entry> iterator = new Iterator<Entry>() {
+
+                private Boolean hasNext;
+
+                @Override
+                public boolean hasNext() {
+                    if (hasNext == null) {
+                        try {
+                            hasNext = input.readBoolean();
+                        } catch (IOException e) {
+                            throw new BrokenStoreException(e);
+                        }
+                    }
+                    return hasNext;
+                }
+
+                @Override
+                public Entry next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    hasNext = null;
+                    try {
+                        return readEntry(input);
+                    } catch (IOException e) {
+                        throw new BrokenStoreException(e);
+                    }
+                }
+            };
+            return StreamSupport.stream(spliteratorUnknownSize(iterator, ORDERED), false).onClose(() -> {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    log.warn("Failed to close {}", file, e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package store.jesframework.provider.jdbc;
+
+import java.util.UUID;
+import javax.annotation.Nonnull;
+
+/**
+ * Tracks the recently written event streams, so the reads of them can be routed to the master to provide the
+ * {@literal read own writes} guarantee (see {@link store.jesframework.provider.JdbcClusterStoreProvider}).
+ */
+public interface WritesTracker extends AutoCloseable {
+
+    /**
+     * Remembers the written event stream.
+     *
+     * @param uuid is an identifier of the written event stream.
+     */
+    void track(@Nonnull UUID uuid);
+
+    /**
+     * Checks if the event stream was written recently. An implementation may return false positives: such a read is
+     * just routed to the master.
+     *
+     * @param uuid is an identifier of the event stream.
+     * @return true if the event stream was (probably) written within the tracking time.
+     */
+    boolean isTracked(@Nonnull UUID uuid);
+
+    @Override
+    void close();
+}
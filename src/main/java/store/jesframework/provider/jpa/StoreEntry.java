@@ -13,6 +13,7 @@ import javax.persistence.Index;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.UniqueConstraint;
 
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -37,9 +38,23 @@ public abstract class StoreEntry {
     @Column(name = "uuid", updatable = false)
     private final UUID uuid;
 
-    StoreEntry(@Nullable UUID uuid) {
+    /**
+     * Version of the event in its stream, starting from 1 ({@literal null} for the events without a stream).
+     */
+    @Column(name = "version", updatable = false)
+    private final Long version;
+
+    /**
+     * Type name of the event, as it's resolved by the serializer.
+     */
+    @Column(name = "type", updatable = false)
+    private final String type;
+
+    StoreEntry(@Nullable UUID uuid, @Nullable Long version, @Nullable String type) {
         this.id = 0;
         this.uuid = uuid;
+        this.version = version;
+        this.type = type;
     }
 
     @Nonnull
@@ -50,14 +65,20 @@ public abstract class StoreEntry {
     @Entity
     @NoArgsConstructor(access = PROTECTED, force = true)
     @EqualsAndHashCode(exclude = {"data"}, callSuper = true)
-    @Table(name = "event_store", indexes = {@Index(name = "uuid_idx", columnList = "uuid")})
+    @Table(name = "event_store", indexes = {@Index(name = "uuid_idx", columnList = "uuid"),
+            @Index(name = "uuid_id_idx", columnList = "uuid, id")},
+            uniqueConstraints = @UniqueConstraint(name = "uuid_version_uq", columnNames = {"uuid", "version"}))
     static class StoreBinaryEntry extends StoreEntry {
 
         @Column(name = "data", nullable = false, updatable = false, columnDefinition = "BYTEA")
         private final byte[] data;
 
         StoreBinaryEntry(@Nullable UUID uuid, @Nonnull byte[] data) {
-            super(uuid);
+            this(uuid, null, null, data);
+        }
+
+        StoreBinaryEntry(@Nullable UUID uuid, @Nullable Long version, @Nullable String type, @Nonnull byte[] data) {
+            super(uuid, version, type);
             this.data = Objects.requireNonNull(data, "Event data can't be null");
         }
     }
@@ -66,14 +87,20 @@ public abstract class StoreEntry {
     @Entity
     @NoArgsConstructor(access = PROTECTED, force = true)
     @EqualsAndHashCode(exclude = {"data"}, callSuper = true)
-    @Table(name = "event_store", indexes = {@Index(name = "uuid_idx", columnList = "uuid")})
+    @Table(name = "event_store", indexes = {@Index(name = "uuid_idx", columnList = "uuid"),
+            @Index(name = "uuid_id_idx", columnList = "uuid, id")},
+            uniqueConstraints = @UniqueConstraint(name = "uuid_version_uq", columnNames = {"uuid", "version"}))
     static class StoreStringEntry extends StoreEntry {
 
         @Column(name = "data", nullable = false, updatable = false, columnDefinition = "TEXT")
         private final String data;
 
         StoreStringEntry(@Nullable UUID uuid, @Nonnull String data) {
-            super(uuid);
+            this(uuid, null, null, data);
+        }
+
+        StoreStringEntry(@Nullable UUID uuid, @Nullable Long version, @Nullable String type, @Nonnull String data) {
+            super(uuid, version, type);
             this.data = Objects.requireNonNull(data, "Event data can't be null");
         }
 
@@ -36,11 +36,25 @@ public class StoreEntryFactory {
      * @return constructed and initialized {@link StoreEntry} with given uuid and payload.
      */
     public static StoreEntry newEntry(@Nullable UUID uuid, @Nonnull Object payload) {
+        return newEntry(uuid, null, null, payload);
+    }
+
+    /**
+     * Factory method for creating new {@literal store entry} of the event stream based on payload type.
+     *
+     * @param uuid    is uuid of event stream, if present.
+     * @param version is version of the event in its stream, if present.
+     * @param type    is type name of the event.
+     * @param payload is 'raw' event.
+     * @return constructed and initialized {@link StoreEntry} with given uuid, version, type and payload.
+     */
+    public static StoreEntry newEntry(@Nullable UUID uuid, @Nullable Long version, @Nullable String type,
+                                      @Nonnull Object payload) {
         Objects.requireNonNull(payload, "Event payload must not be null");
         if (payload instanceof String) {
-            return new StoreEntry.StoreStringEntry(uuid, (String) payload);
+            return new StoreEntry.StoreStringEntry(uuid, version, type, (String) payload);
         } else if (payload instanceof byte[]) {
-            return new StoreEntry.StoreBinaryEntry(uuid, (byte[]) payload);
+            return new StoreEntry.StoreBinaryEntry(uuid, version, type, (byte[]) payload);
         }
         throw new SerializationException("Payload of type " + payload.getClass() + " cannot be processed");
     }
@@ -2,7 +2,9 @@ package store.jesframework.reactors;
 
 import java.util.Objects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+import store.jesframework.JEventStore;
 import store.jesframework.lock.Lock;
 
 class BlockingPollingTrigger extends PollingTrigger {
@@ -16,6 +18,19 @@ class BlockingPollingTrigger extends PollingTrigger {
      * @throws NullPointerException if {@literal lock} is null.
      */
     BlockingPollingTrigger(@Nonnull Lock lock) {
+        this(null, lock);
+    }
+
+    /**
+     * Polling trigger that synchronizes among all {@literal key owners} via lock instance, and is also woken up by the
+     * store change notifications (if the store supports them).
+     *
+     * @param store is a store to listen to. If it's null, or doesn't support notifications, only polling is used.
+     * @param lock  is a lock to guarantee exclusive access to run action.
+     * @throws NullPointerException if {@literal lock} is null.
+     */
+    BlockingPollingTrigger(@Nullable JEventStore store, @Nonnull Lock lock) {
+        super(store);
         this.lock = Objects.requireNonNull(lock, "Lock must not be null");
     }
 
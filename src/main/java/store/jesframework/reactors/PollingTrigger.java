@@ -1,12 +1,18 @@
 package store.jesframework.reactors;
 
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import lombok.extern.slf4j.Slf4j;
+import store.jesframework.JEventStore;
 import store.jesframework.util.DaemonThreadFactory;
 
 import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
@@ -15,29 +21,74 @@ import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
 class PollingTrigger implements Trigger {
 
     private static final long DELAY_MS = 100;
+    // if the store notifies about changes, polling is only a safety net for lost notifications
+    private static final long SAFETY_NET_DELAY_MS = 1000;
 
     private final ThreadFactory factory = new DaemonThreadFactory(getClass().getSimpleName());
     private final ScheduledExecutorService executor = newSingleThreadScheduledExecutor(factory);
 
+    private final JEventStore store;
+    private final boolean notified;
+    private final Runnable changeListener = this::wakeUp;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final List<Runnable> actions = new CopyOnWriteArrayList<>();
+
+    PollingTrigger() {
+        this(null);
+    }
+
+    /**
+     * Polling trigger, that is also woken up by the store change notifications (if the store supports them).
+     *
+     * @param store is a store to listen to. If it's null, or doesn't support notifications, only polling is used.
+     */
+    PollingTrigger(@Nullable JEventStore store) {
+        this.store = store;
+        this.notified = store != null && store.addChangeListener(changeListener);
+    }
+
     @Override
     public void onChange(@Nonnull String key, @Nonnull Runnable runnable) {
         Objects.requireNonNull(key, "Key must not be null");
         Objects.requireNonNull(runnable, "Runnable action must not be null");
-        executor.scheduleWithFixedDelay(() -> {
+        final Runnable action = () -> {
             try {
                 runnable.run();
             } catch (Exception e) {
                 log.error("Failed to run task:", e);
             }
-        }, DELAY_MS, DELAY_MS, TimeUnit.MILLISECONDS);
+        };
+        actions.add(action);
+        executor.scheduleWithFixedDelay(action, getDelay(), getDelay(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the actions as soon as possible, without waiting for the next poll. Wake-ups are coalesced: if the actions
+     * are already scheduled to run, the call is no-op.
+     */
+    void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    // reset before the run: the changes made during the run will wake the trigger up once more
+                    wakeUpPending.set(false);
+                    actions.forEach(Runnable::run);
+                });
+            } catch (RejectedExecutionException e) {
+                log.trace("Trigger is closed, wake-up ignored");
+            }
+        }
     }
 
     @Override
     public void close() {
+        if (notified) {
+            store.removeChangeListener(changeListener);
+        }
         executor.shutdown();
     }
 
     long getDelay() {
-        return DELAY_MS;
+        return notified ? SAFETY_NET_DELAY_MS : DELAY_MS;
     }
 }
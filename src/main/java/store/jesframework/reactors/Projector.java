@@ -1,6 +1,8 @@
 package store.jesframework.reactors;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import javax.annotation.Nonnull;
 
@@ -10,6 +12,7 @@ import store.jesframework.JEventStore;
 import store.jesframework.common.ProjectionFailure;
 import store.jesframework.lock.Lock;
 import store.jesframework.offset.Offset;
+import store.jesframework.provider.ParallelReader;
 
 @Slf4j
 public abstract class Projector extends Reactor {
@@ -17,7 +20,7 @@ public abstract class Projector extends Reactor {
     private final Lock lock;
 
     public Projector(@Nonnull JEventStore store, @Nonnull Offset offset, @Nonnull Lock lock) {
-        super(store, offset, new BlockingPollingTrigger(lock));
+        super(store, offset, new BlockingPollingTrigger(store, lock));
         this.lock = Objects.requireNonNull(lock, "Lock must not be null");
     }
 
@@ -31,6 +34,21 @@ public abstract class Projector extends Reactor {
         }
     }
 
+    /**
+     * Blocks until this projector has processed all the events up to the given position, or until the timeout
+     * elapses. It can be used to read your own writes: pass the position returned by {@link JEventStore#write(Event)}
+     * and query the projection after this method returns true.
+     *
+     * @param position is a position of the event in the {@literal Event Store} to wait for.
+     * @param timeout  is a max time to wait.
+     * @return true if the event at the given position (and all events before it) is processed, false if the timeout
+     *     elapsed.
+     * @throws InterruptedException if the current thread was interrupted while waiting.
+     */
+    public boolean awaitPosition(long position, @Nonnull Duration timeout) throws InterruptedException {
+        return awaitOffset(position, timeout);
+    }
+
     /**
      * Method used to fully recreate projection.
      */
@@ -41,6 +59,23 @@ public abstract class Projector extends Reactor {
         });
     }
 
+    /**
+     * Same as {@link #recreate()}, but the projection is rebuilt right away: the store is read and deserialized in
+     * parallel on the given pool, while the events are projected sequentially, in order. The projector is locked for
+     * the whole rebuild, the events written after the rebuild is started are projected by the regular tailing. The
+     * writes, that are not committed at the start, are awaited for the commit lag (see {@link ParallelReader}).
+     *
+     * @param pool is a pool to read the events on.
+     */
+    public void recreate(@Nonnull ForkJoinPool pool) {
+        Objects.requireNonNull(pool, "Pool must not be null");
+        lock.doExclusively(getKey(), () -> {
+            offset.reset(getKey());
+            cleanUp();
+            replayInParallel(pool);
+        });
+    }
+
     /**
      * This method used to clean up all the state (projection) made by this Projector.
      * Note: this method MUST NOT use any methods that are protected by {@link #lock} instance.
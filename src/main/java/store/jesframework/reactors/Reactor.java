@@ -1,12 +1,17 @@
 package store.jesframework.reactors;
 
 import java.lang.reflect.Method;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
@@ -15,15 +20,21 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import store.jesframework.Envelope;
 import store.jesframework.Event;
 import store.jesframework.JEventStore;
 import store.jesframework.offset.Offset;
 import store.jesframework.util.Pair;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
 @Slf4j
 abstract class Reactor implements AutoCloseable {
 
     static final int MAX_RETRIES = 3;
+    // the offset can be moved by another instance of the reactor, so it must be re-read from time to time
+    private static final long MAX_AWAIT_STEP_MS = 100;
 
     final Offset offset;
     final JEventStore store;
@@ -33,9 +44,15 @@ abstract class Reactor implements AutoCloseable {
     private final String key = getClass().getName();
     private Pair<Long, LongAdder> failureCounter;
     private final Map<Class<? extends Event>, Consumer<? super Event>> reactors = new HashMap<>();
-    
+    // names of the handled event types: the store reads only them (the others are skipped)
+    private final Set<String> types;
+
+    // incremented after each tailing, guarded by itself
+    private final Object progressMonitor = new Object();
+    private long progress;
+
     Reactor(@Nonnull JEventStore store, @Nonnull Offset offset) {
-        this(store, offset, new PollingTrigger());
+        this(store, offset, new PollingTrigger(store));
     }
 
     Reactor(@Nonnull JEventStore store, @Nonnull Offset offset, @Nonnull Trigger trigger) {
@@ -44,6 +61,7 @@ abstract class Reactor implements AutoCloseable {
 
         this.trigger = Objects.requireNonNull(trigger, "Trigger must not be null");
         this.reactors.putAll(readReactors());
+        this.types = reactors.keySet().stream().map(Class::getName).collect(Collectors.toSet());
 
         this.trigger.onChange(getKey(), this::tailStore);
     }
@@ -71,23 +89,42 @@ abstract class Reactor implements AutoCloseable {
 
     // think of better solution for tailing. mb CDC (https://github.com/debezium/debezium) for db backed stores?
     private void tailStore() {
-        final LongAdder counter = new LongAdder();
         final long offsetValue = offset.value(getKey());
+        tail(offsetValue, () -> store.readEnvelopesFrom(offsetValue, types));
+    }
+
+    /**
+     * Handles the events from the current offset, like the tailing does, but the events are read and deserialized in
+     * parallel on the given pool (see {@link JEventStore#readEnvelopesInParallel(long, Set, ForkJoinPool)}). The
+     * events are still handled sequentially, in order. It must not run concurrently with the tailing.
+     *
+     * @param pool is a pool to read the events on.
+     */
+    void replayInParallel(@Nonnull ForkJoinPool pool) {
+        final long offsetValue = offset.value(getKey());
+        tail(offsetValue, () -> store.readEnvelopesInParallel(offsetValue, types, pool));
+    }
+
+    private void tail(long offsetValue, @Nonnull Supplier<Stream<Envelope>> reader) {
+        // position of the last processed event: the offset is moved to it after tailing
+        final AtomicLong lastPosition = new AtomicLong(offsetValue);
         log.trace("Current offset value: {} for {}", offsetValue, getKey());
 
-        try (Stream<Event> eventStream = store.readFrom(offsetValue)) {
-            eventStream.forEach(event -> {
-                final Consumer<? super Event> consumer = reactors.get(event.getClass());
+        try (Stream<Envelope> envelopes = reader.get()) {
+            envelopes.forEach(envelope -> {
+                final Event event = envelope.event();
+                // skipped events are not handled, but the offset is moved past them too
+                final Consumer<? super Event> consumer = event != null ? reactors.get(event.getClass()) : null;
                 if (consumer != null) {
-                    accept(offsetValue + counter.longValue(), event, consumer);
+                    accept(envelope.position() - 1, event, consumer);
                 }
-                counter.increment();
+                lastPosition.set(envelope.position());
             });
         } catch (Exception e) {
             // we must not stop to try read store, if any exception happens
             log.error("Exception during event store tailing:", e);
             // but we must not read the store infinitely (we could fall on store#read or reactors#get)
-            final long expectedOffset = offsetValue + counter.longValue();
+            final long expectedOffset = lastPosition.get();
             // tailing is sequential, so the failed offset will be always the last processed
             if (failureCounter == null || !failureCounter.getKey().equals(expectedOffset)) {
                 failureCounter = Pair.of(expectedOffset, new LongAdder());
@@ -99,9 +136,45 @@ abstract class Reactor implements AutoCloseable {
                 close();
             }
         } finally {
-            final long processedCount = counter.longValue();
+            final long processedCount = lastPosition.get() - offsetValue;
             offset.add(getKey(), processedCount);
             log.trace("Offset increased for: {} by {}", processedCount, getKey());
+            synchronized (progressMonitor) {
+                progress++;
+                progressMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Blocks until the offset of this reactor reaches the given value, i.e. all the events up to the given position
+     * are processed, or until the timeout elapses.
+     *
+     * @param value   is an offset value to wait for.
+     * @param timeout is a max time to wait.
+     * @return true if the offset has reached the given value, false if the timeout elapsed.
+     * @throws InterruptedException if the current thread was interrupted while waiting.
+     */
+    boolean awaitOffset(long value, @Nonnull Duration timeout) throws InterruptedException {
+        final long deadline = System.nanoTime() + Objects.requireNonNull(timeout, "Timeout must not be null").toNanos();
+        while (true) {
+            final long seen;
+            synchronized (progressMonitor) {
+                seen = progress;
+            }
+            if (offset.value(getKey()) >= value) {
+                return true;
+            }
+            final long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            synchronized (progressMonitor) {
+                if (seen == progress) {
+                    final long step = Math.min(remaining, MILLISECONDS.toNanos(MAX_AWAIT_STEP_MS));
+                    NANOSECONDS.timedWait(progressMonitor, step);
+                }
+            }
         }
     }
 
@@ -48,14 +48,14 @@ public class Saga extends Reactor {
 
     public Saga(@Nonnull JEventStore store, @Nonnull Offset offset, @Nonnull Lock lock) {
         // stateless saga instance, no context will be tracked.
-        super(store, offset, new BlockingPollingTrigger(lock));
+        super(store, offset, new BlockingPollingTrigger(store, lock));
         this.context = null;
         this.aggregateStore = null;
     }
 
     public Saga(@Nonnull AggregateStore aggregateStore, @Nonnull Offset offset, @Nonnull Lock lock) {
         // stateful saga instance, context will be tracked and refreshed every #STATE_REFRESH_DELAY ms.
-        super(aggregateStore.unwrap(), offset, new BlockingPollingTrigger(lock));
+        super(aggregateStore.unwrap(), offset, new BlockingPollingTrigger(aggregateStore.unwrap(), lock));
         this.aggregateStore = aggregateStore;
         this.context = this.aggregateStore.readBy(sagaUuid, new Context());
         // refresh state every 100 ms
@@ -0,0 +1,33 @@
+package store.jesframework.serializer.api;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Registry of the compact ids of the serialized classes, used by the {@link Format#BINARY_KRYO} serializer: a class is
+ * written by its id instead of its name. The ids must stay the same across the nodes and restarts, so the registry is
+ * usually persisted along with the events (see {@link store.jesframework.provider.jdbc.JdbcClassRegistry}).
+ *
+ * <p>The payloads, written with the class names, stay readable.
+ */
+@ThreadSafe
+public interface ClassRegistry extends SerializationOption {
+
+    /**
+     * Returns the id of the given class, registering the class, if it's not registered yet.
+     *
+     * @param className is a name of the class (see {@link Class#getName()}).
+     * @return positive id of the class.
+     */
+    int idOf(@Nonnull String className);
+
+    /**
+     * Returns the name of the class with the given id.
+     *
+     * @param id is an id of the class.
+     * @return name of the class, or null, if no class is registered with the id.
+     */
+    @Nullable
+    String classNameOf(int id);
+}
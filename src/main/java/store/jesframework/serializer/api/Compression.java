@@ -0,0 +1,232 @@
+package store.jesframework.serializer.api;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+import lombok.Getter;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compression of the serialized events: the events are serialized in the configured {@link Format}, and then deflated
+ * (see {@link Deflater}). The raw form of the text formats stays a string: the compressed events are encoded in
+ * base64. Small events compress poorly on their own, so the compression can use a preset dictionary: the content, that
+ * is common for most of the events (field names, type names, etc.), see {@link #trainDictionary(Collection, int)}.
+ *
+ * <p>The id of the dictionary is written along with each compressed event, so the dictionary can be replaced with a
+ * newly trained one: the events, written with the previous dictionaries, stay readable as long as their dictionaries
+ * are registered with {@link #withLegacyDictionary(int, byte[])}.
+ *
+ * <p>Compression is applied to the events only, and it doesn't change the column types of the event store: the
+ * events, written before the compression was enabled, stay readable.
+ */
+@Immutable
+public final class Compression implements SerializationOption {
+
+    /**
+     * Max id of the dictionary: the id is written as an unsigned short.
+     */
+    public static final int MAX_DICTIONARY_ID = 0xFFFF;
+
+    private static final int GRAM_SIZE = 8;
+    private static final int SEGMENT_SIZE = 32;
+    private static final int SEGMENT_STEP = 4;
+
+    @Getter
+    private final int level;
+    /**
+     * Id of the dictionary, used to compress the events, or 0, if the events are compressed without a dictionary.
+     */
+    @Getter
+    private final int dictionaryId;
+    private final Map<Integer, byte[]> dictionaries;
+
+    private Compression(int level, int dictionaryId, @Nonnull Map<Integer, byte[]> dictionaries) {
+        this.level = level;
+        this.dictionaryId = dictionaryId;
+        this.dictionaries = dictionaries;
+    }
+
+    /**
+     * Creates the compression with the default level and without a dictionary.
+     *
+     * @return constructed {@link Compression} instance.
+     */
+    @Nonnull
+    public static Compression deflate() {
+        return new Compression(Deflater.DEFAULT_COMPRESSION, 0, Collections.emptyMap());
+    }
+
+    /**
+     * Creates a copy of the compression with the given level.
+     *
+     * @param level is a compression level in {@code [0, 9]}, or {@link Deflater#DEFAULT_COMPRESSION}.
+     * @return constructed {@link Compression} instance.
+     */
+    @Nonnull
+    public Compression withLevel(int level) {
+        if ((level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION)
+                && level != Deflater.DEFAULT_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + level);
+        }
+        return new Compression(level, dictionaryId, dictionaries);
+    }
+
+    /**
+     * Creates a copy of the compression, that compresses the events with the given dictionary.
+     *
+     * @param id         is an id of the dictionary in {@code [1, 65535]}, written along with each compressed event.
+     * @param dictionary is a preset dictionary.
+     * @return constructed {@link Compression} instance.
+     */
+    @Nonnull
+    public Compression withDictionary(int id, @Nonnull byte[] dictionary) {
+        return new Compression(level, id, register(dictionaries, id, dictionary));
+    }
+
+    /**
+     * Creates a copy of the compression, that can decompress the events, written with the given dictionary.
+     *
+     * @param id         is an id of the dictionary in {@code [1, 65535]}.
+     * @param dictionary is a preset dictionary, that was used to compress the events.
+     * @return constructed {@link Compression} instance.
+     */
+    @Nonnull
+    public Compression withLegacyDictionary(int id, @Nonnull byte[] dictionary) {
+        return new Compression(level, dictionaryId, register(dictionaries, id, dictionary));
+    }
+
+    @Nonnull
+    private static Map<Integer, byte[]> register(@Nonnull Map<Integer, byte[]> dictionaries, int id,
+                                                 @Nonnull byte[] dictionary) {
+        requireNonNull(dictionary, "Dictionary must not be null");
+        if (id <= 0 || id > MAX_DICTIONARY_ID) {
+            throw new IllegalArgumentException("Dictionary id must be in [1, " + MAX_DICTIONARY_ID + "]: " + id);
+        }
+        final byte[] registered = dictionaries.get(id);
+        if (registered != null && !Arrays.equals(registered, dictionary)) {
+            throw new IllegalArgumentException("Another dictionary is already registered with id " + id);
+        }
+        final Map<Integer, byte[]> copy = new HashMap<>(dictionaries);
+        copy.put(id, dictionary.clone());
+        return Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Returns the dictionary with the given id.
+     *
+     * @param id is an id of the dictionary.
+     * @return the dictionary, or null, if it's not registered.
+     */
+    @Nullable
+    public byte[] getDictionary(int id) {
+        final byte[] dictionary = dictionaries.get(id);
+        return dictionary != null ? dictionary.clone() : null;
+    }
+
+    /**
+     * Trains a preset dictionary on the sampled serialized events (the events in {@link Format#JSON_JACKSON} and
+     * {@link Format#XML_XSTREAM} formats are sampled as {@literal UTF-8} bytes). The dictionary is made of the segments
+     * of the samples with the most content, that occurs in many samples: the more samples share a byte sequence, the
+     * closer to the end of the dictionary it is (the closer content is cheaper to refer to).
+     *
+     * @param samples are the sampled serialized events. A few thousands of the samples are usually enough.
+     * @param maxSize is a max size of the dictionary in bytes. Deflate refers to the last 32 KiB only.
+     * @return trained dictionary, possibly empty, if the samples have no common content.
+     */
+    @Nonnull
+    public static byte[] trainDictionary(@Nonnull Collection<byte[]> samples, int maxSize) {
+        requireNonNull(samples, "Samples must not be null");
+        // document frequency of each gram: number of the samples, that contain the gram
+        final Map<Long, Integer> frequencies = new HashMap<>();
+        for (byte[] sample : samples) {
+            final Set<Long> grams = new HashSet<>();
+            for (int i = 0; i + GRAM_SIZE <= sample.length; i++) {
+                grams.add(gram(sample, i));
+            }
+            for (Long gram : grams) {
+                frequencies.merge(gram, 1, Integer::sum);
+            }
+        }
+        final List<Segment> segments = new ArrayList<>();
+        for (byte[] sample : samples) {
+            for (int i = 0; i + SEGMENT_SIZE <= sample.length; i += SEGMENT_STEP) {
+                long score = 0;
+                for (int j = i; j + GRAM_SIZE <= i + SEGMENT_SIZE; j++) {
+                    final int frequency = frequencies.get(gram(sample, j));
+                    // a gram of a single sample is not common content
+                    score += frequency > 1 ? frequency : 0;
+                }
+                if (score > 0) {
+                    segments.add(new Segment(sample, i, score));
+                }
+            }
+        }
+        segments.sort((first, second) -> Long.compare(second.score, first.score));
+
+        // the best segments are picked first, the segments with the already picked content are skipped
+        final Set<Long> covered = new HashSet<>();
+        final List<Segment> picked = new ArrayList<>();
+        int size = 0;
+        for (Segment segment : segments) {
+            if (size + SEGMENT_SIZE > maxSize) {
+                break;
+            }
+            int uncovered = 0;
+            for (int j = segment.offset; j + GRAM_SIZE <= segment.offset + SEGMENT_SIZE; j++) {
+                uncovered += covered.contains(gram(segment.sample, j)) ? 0 : 1;
+            }
+            if (uncovered * 2 > SEGMENT_SIZE - GRAM_SIZE + 1) {
+                for (int j = segment.offset; j + GRAM_SIZE <= segment.offset + SEGMENT_SIZE; j++) {
+                    covered.add(gram(segment.sample, j));
+                }
+                picked.add(segment);
+                size += SEGMENT_SIZE;
+            }
+        }
+        final ByteBuffer dictionary = ByteBuffer.allocate(size);
+        for (int i = picked.size() - 1; i >= 0; i--) {
+            dictionary.put(picked.get(i).sample, picked.get(i).offset, SEGMENT_SIZE);
+        }
+        return dictionary.array();
+    }
+
+    private static long gram(@Nonnull byte[] sample, int offset) {
+        long gram = 0;
+        for (int i = 0; i < GRAM_SIZE; i++) {
+            gram = (gram << Byte.SIZE) | (sample[offset + i] & 0xFF);
+        }
+        return gram;
+    }
+
+    @Override
+    public String toString() {
+        return "Compression [level: " + level + ", dictionary: " + dictionaryId + ", dictionaries: "
+                + dictionaries.keySet() + "]";
+    }
+
+    private static final class Segment {
+
+        private final byte[] sample;
+        private final int offset;
+        private final long score;
+
+        private Segment(@Nonnull byte[] sample, int offset, long score) {
+            this.sample = sample;
+            this.offset = offset;
+            this.score = score;
+        }
+    }
+}
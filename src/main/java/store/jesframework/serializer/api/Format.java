@@ -11,7 +11,15 @@ public enum Format implements SerializationOption {
      */
     JSON_JACKSON(String.class),
     XML_XSTREAM(String.class),
-    BINARY_KRYO(byte[].class);
+    BINARY_KRYO(byte[].class),
+    /**
+     * The same as {@link #JSON_JACKSON}, but in the binary Smile format: smaller and faster to parse.
+     */
+    BINARY_SMILE(byte[].class),
+    /**
+     * The same as {@link #JSON_JACKSON}, but in the binary CBOR format (RFC 7049).
+     */
+    BINARY_CBOR(byte[].class);
 
     @Getter
     private final Class<?> javaType;
@@ -1,5 +1,6 @@
 package store.jesframework.serializer.api;
 
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -40,10 +41,46 @@ public interface Serializer<S, T> {
         return null;
     }
 
+    /**
+     * Resolves the name of the given type, as it's known in the serialized form: the type alias, if any, or the class
+     * name.
+     *
+     * @param type is a type to resolve the name of.
+     * @return the name of the given type.
+     */
+    @Nonnull
+    default String typeName(@Nonnull Class<?> type) {
+        return type.getName();
+    }
+
+    /**
+     * Resolves the names of the serialized types, that can be deserialized into one of the given types: names of the
+     * given types themselves (both the class names and the type aliases, if any) and names of the types, that can be
+     * upcasted.
+     *
+     * @param classNames are the class names of the types to resolve.
+     * @return the names of the serialized types.
+     */
+    @Nonnull
+    default Set<String> typeNames(@Nonnull Set<String> classNames) {
+        return classNames;
+    }
+
     /**
      * @return returns the supported by this serializer format.
      */
     @Nonnull
     Format format();
 
+    /**
+     * Returns the type of the raw form {@code T}. It's the java type of the {@link #format()}, even if the raw form is
+     * transformed further (see {@link Compression}).
+     *
+     * @return type of the raw form of this serializer.
+     */
+    @Nonnull
+    default Class<?> rawType() {
+        return format().getJavaType();
+    }
+
 }
@@ -0,0 +1,215 @@
+package store.jesframework.serializer.impl;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Registration;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.SerializerFactory.BaseSerializerFactory;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.esotericsoftware.kryo.util.Generics.GenericType;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Kryo {@link FieldSerializer}, that replaces the access of the object fields (by reflection, or by the offsets with
+ * {@literal sun.misc.Unsafe}) with the {@link FieldAccessor}s. Only the access is replaced: the fields are written the
+ * same way, as kryo writes them, so the serialized form is the same. The primitive and string fields are left to kryo.
+ *
+ * @param <T> type of the serialized objects.
+ */
+@Slf4j
+class AccessorFieldSerializer<T> extends FieldSerializer<T> {
+
+    // the object fields of kryo: the fields of the primitive and string types have their own subclasses
+    private static final Set<String> OBJECT_FIELDS = new HashSet<>(Arrays.asList(
+            "com.esotericsoftware.kryo.serializers.ReflectField", "com.esotericsoftware.kryo.serializers.UnsafeField"));
+
+    AccessorFieldSerializer(@Nonnull Kryo kryo, @Nonnull Class<T> type) {
+        super(kryo, type);
+    }
+
+    /**
+     * Factory of the serializers, that is set as the default serializer of kryo instead of {@link FieldSerializer}.
+     */
+    static final class Factory extends BaseSerializerFactory<AccessorFieldSerializer<?>> {
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public AccessorFieldSerializer<?> newSerializer(Kryo kryo, Class type) {
+            return new AccessorFieldSerializer<>(kryo, type);
+        }
+    }
+
+    @Override
+    protected void initializeCachedFields() {
+        // the fields are sorted and configured by kryo, the replacements keep their order and settings
+        replace(getFields());
+        replace(getCopyFields());
+    }
+
+    private void replace(@Nonnull CachedField[] fields) {
+        for (int i = 0; i < fields.length; i++) {
+            if (OBJECT_FIELDS.contains(fields[i].getClass().getName())) {
+                fields[i] = new AccessorField(fields[i], this);
+            }
+        }
+    }
+
+    /**
+     * The same as the object field of kryo (see {@literal ReflectField}), but the field is accessed by the
+     * {@link FieldAccessor}.
+     */
+    private static final class AccessorField extends CachedField {
+
+        // the name of the field is read by kryo directly, it has no setter
+        private static final FieldAccessor NAME = nameAccessor();
+
+        private final String name;
+        private final Kryo kryo;
+        private final FieldAccessor accessor;
+        private final GenericType genericType;
+
+        private AccessorField(@Nonnull CachedField replaced, @Nonnull FieldSerializer<?> serializer) {
+            super(replaced.getField());
+            final Field field = replaced.getField();
+            this.name = replaced.getName();
+            if (NAME != null) {
+                NAME.set(this, name);
+            }
+            this.kryo = serializer.getKryo();
+            this.accessor = FieldAccessors.of(field);
+            this.genericType = new GenericType(field.getDeclaringClass(), serializer.getType(), field.getGenericType());
+            setValueClass(replaced.getValueClass(), replaced.getSerializer());
+            setCanBeNull(replaced.getCanBeNull());
+            setVariableLengthEncoding(replaced.getVariableLengthEncoding());
+            setOptimizePositive(replaced.getOptimizePositive());
+        }
+
+        @Nullable
+        private static FieldAccessor nameAccessor() {
+            try {
+                return FieldAccessors.of(CachedField.class.getDeclaredField("name"));
+            } catch (NoSuchFieldException | RuntimeException e) {
+                log.debug("Names of the kryo fields can't be written", e);
+                return null;
+            }
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public void write(Output output, Object object) {
+            try {
+                final Object value = accessor.get(object);
+                Serializer serializer = getSerializer();
+                final Class<?> concreteType = resolveFieldClass();
+                if (concreteType == null) {
+                    // the concrete type of the field is unknown, the class is written first
+                    if (value == null) {
+                        kryo.writeClass(output, null);
+                        return;
+                    }
+                    final Registration registration = kryo.writeClass(output, value.getClass());
+                    if (serializer == null) {
+                        serializer = registration.getSerializer();
+                    }
+                    kryo.getGenerics().pushGenericType(genericType);
+                    kryo.writeObject(output, value, serializer);
+                } else {
+                    if (serializer == null) {
+                        serializer = kryo.getSerializer(concreteType);
+                    }
+                    kryo.getGenerics().pushGenericType(genericType);
+                    if (getCanBeNull()) {
+                        kryo.writeObjectOrNull(output, value, serializer);
+                    } else if (value == null) {
+                        throw new KryoException("Field value cannot be null when canBeNull is false: " + name + " ("
+                                + object.getClass().getName() + ")");
+                    } else {
+                        kryo.writeObject(output, value, serializer);
+                    }
+                }
+                kryo.getGenerics().popGenericType();
+            } catch (RuntimeException e) {
+                throw trace(e, object.getClass());
+            }
+        }
+
+        @Override
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        public void read(Input input, Object object) {
+            try {
+                final Object value;
+                Serializer serializer = getSerializer();
+                final Class<?> concreteType = resolveFieldClass();
+                if (concreteType == null) {
+                    // the concrete type of the field is unknown, the class is read first
+                    final Registration registration = kryo.readClass(input);
+                    if (registration == null) {
+                        accessor.set(object, null);
+                        return;
+                    }
+                    if (serializer == null) {
+                        serializer = registration.getSerializer();
+                    }
+                    kryo.getGenerics().pushGenericType(genericType);
+                    value = kryo.readObject(input, registration.getType(), serializer);
+                } else {
+                    if (serializer == null) {
+                        serializer = kryo.getSerializer(concreteType);
+                    }
+                    kryo.getGenerics().pushGenericType(genericType);
+                    value = getCanBeNull() ? kryo.readObjectOrNull(input, concreteType, serializer)
+                            : kryo.readObject(input, concreteType, serializer);
+                }
+                kryo.getGenerics().popGenericType();
+                accessor.set(object, value);
+            } catch (RuntimeException e) {
+                throw trace(e, getField().getDeclaringClass());
+            }
+        }
+
+        @Override
+        public void copy(Object original, Object copy) {
+            try {
+                accessor.set(copy, kryo.copy(accessor.get(original)));
+            } catch (RuntimeException e) {
+                throw trace(e, getField().getDeclaringClass());
+            }
+        }
+
+        @Nonnull
+        private KryoException trace(@Nonnull RuntimeException cause, @Nonnull Class<?> type) {
+            final KryoException traced = cause instanceof KryoException ? (KryoException) cause
+                    : new KryoException(cause);
+            traced.addTrace(name + " (" + type.getName() + ")");
+            return traced;
+        }
+
+        // the final type of the generic field is resolved by the current type variables of kryo
+        @Nullable
+        private Class<?> resolveFieldClass() {
+            final Class<?> valueClass = getValueClass();
+            if (valueClass == null) {
+                final Class<?> fieldClass = genericType.resolve(kryo.getGenerics());
+                if (fieldClass != null && kryo.isFinal(fieldClass)) {
+                    return fieldClass;
+                }
+            }
+            return valueClass;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package store.jesframework.serializer.impl;
+
+import java.io.IOException;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.ex.SerializationException;
+import store.jesframework.serializer.api.Format;
+import store.jesframework.serializer.api.Serializer;
+
+/**
+ * Jackson serializer of the binary formats ({@link Format#BINARY_SMILE} and {@link Format#BINARY_CBOR}). The mapper
+ * is configured the same way, as the one of {@link JacksonSerializer}: only the encoding differs.
+ *
+ * @param <S> type of source serialization format.
+ */
+@Slf4j
+class BinaryJacksonSerializer<S> implements Serializer<S, byte[]> {
+
+    private static final String TYPE_PROPERTY = "@type";
+
+    private final Format format;
+    private final ObjectMapper mapper;
+    private final TypeReference<S> serializationType = new TypeReference<S>() {};
+
+    BinaryJacksonSerializer(@Nonnull Format format, @Nonnull Context<?> context) {
+        this.format = Objects.requireNonNull(format, "Format must not be null");
+        Objects.requireNonNull(context, "Context must not be null");
+        switch (format) {
+            case BINARY_SMILE:
+                this.mapper = new ObjectMapper(new SmileFactory());
+                break;
+            case BINARY_CBOR:
+                this.mapper = new ObjectMapper(new CBORFactory());
+                break;
+            default:
+                throw new IllegalArgumentException("Not a binary jackson format: " + format);
+        }
+        JacksonSerializer.configureMapper(mapper, context);
+    }
+
+    @Nonnull
+    @Override
+    public byte[] serialize(@Nonnull S toSerialize) {
+        try {
+            return mapper.writeValueAsBytes(toSerialize);
+        } catch (Exception e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    @Nonnull
+    @Override
+    public S deserialize(@Nonnull byte[] toDeserialize) {
+        try {
+            return mapper.readValue(toDeserialize, serializationType);
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    /**
+     * Reads the type id, written as the first property of the object: only the first tokens are parsed.
+     */
+    @Nullable
+    @Override
+    public String fetchTypeName(@Nonnull byte[] raw) {
+        Objects.requireNonNull(raw, "The raw event must not be null");
+        try (final JsonParser parser = mapper.getFactory().createParser(raw)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT || parser.nextToken() != JsonToken.FIELD_NAME
+                    || !TYPE_PROPERTY.equals(parser.getCurrentName())) {
+                return null;
+            }
+            return parser.nextToken() == JsonToken.VALUE_STRING ? parser.getText() : null;
+        } catch (IOException e) {
+            log.trace("Failed to fetch type name", e);
+            return null;
+        }
+    }
+
+    @Nonnull
+    @Override
+    public Format format() {
+        return format;
+    }
+}
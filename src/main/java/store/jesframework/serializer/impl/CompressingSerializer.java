@@ -0,0 +1,239 @@
+package store.jesframework.serializer.impl;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import store.jesframework.ex.SerializationException;
+import store.jesframework.serializer.api.Compression;
+import store.jesframework.serializer.api.Format;
+import store.jesframework.serializer.api.Serializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * This Serializer deflates the raw form of the actual serializer. Each compressed event starts with a header: the
+ * magic bytes, the codec (stored or deflated) and the id of the dictionary (unsigned short, 0 if there is none). The
+ * events without the header (i.e. written before the compression was enabled) are passed to the actual serializer as
+ * is: the magic starts with a zero byte, that doesn't start any event of the binary formats (it's a null object of
+ * kryo, a zero number of CBOR, and the smile documents start with their own header), and the deflated events are
+ * accepted only with a valid zlib header.
+ * {@implNote the raw form of the text formats stays a string, so the events are stored in the same columns: the
+ * compressed event is encoded in base64 after the prefix, which never starts a JSON or XML document. The event, that
+ * isn't shortened by the compression, is stored as is}.
+ *
+ * @param <S> type of source serialization format.
+ * @param <T> type of raw form of the actual serializer.
+ */
+class CompressingSerializer<S, T> implements Serializer<S, T> {
+
+    private static final String TEXT_PREFIX = "#";
+    private static final byte[] MAGIC = {0, 'J', 'E', 'S'};
+    private static final byte STORED = 0;
+    private static final byte DEFLATED = 1;
+    private static final int HEADER_SIZE = MAGIC.length + 3;
+    // zlib header: the deflate method in the low bits of the first byte, the preset dictionary flag in the second one
+    private static final int ZLIB_DEFLATE = 8;
+    private static final int ZLIB_DICTIONARY = 0x20;
+    private static final int ZLIB_CHECK = 31;
+    private static final int MIN_BUFFER_SIZE = 64;
+
+    private final Serializer<S, T> actual;
+    private final Compression compression;
+    private final boolean text;
+    private final byte[] dictionary;
+    private final Map<Integer, byte[]> dictionaries = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("squid:S5164")
+    private final ThreadLocal<Deflater> deflater;
+    @SuppressWarnings("squid:S5164")
+    private final ThreadLocal<Inflater> inflater = ThreadLocal.withInitial(Inflater::new);
+
+    CompressingSerializer(@Nonnull Serializer<S, T> actual, @Nonnull Compression compression) {
+        this.actual = Objects.requireNonNull(actual, "Serializer must not be null");
+        this.compression = Objects.requireNonNull(compression, "Compression must not be null");
+        this.text = actual.rawType() == String.class;
+        this.dictionary = compression.getDictionaryId() != 0 ? compression.getDictionary(compression.getDictionaryId())
+                : null;
+        this.deflater = ThreadLocal.withInitial(() -> new Deflater(compression.getLevel()));
+    }
+
+    @Nonnull
+    @Override
+    @SuppressWarnings("unchecked")
+    public T serialize(@Nonnull S toSerialize) {
+        final T raw = actual.serialize(toSerialize);
+        if (!text) {
+            return (T) compress((byte[]) raw);
+        }
+        final String data = (String) raw;
+        final String encoded = TEXT_PREFIX + Base64.getEncoder().encodeToString(compress(data.getBytes(UTF_8)));
+        return encoded.length() < data.length() ? (T) encoded : raw;
+    }
+
+    @Nonnull
+    private byte[] compress(@Nonnull byte[] data) {
+        final Deflater current = deflater.get();
+        current.reset();
+        if (dictionary != null) {
+            current.setDictionary(dictionary);
+        }
+        current.setInput(data);
+        current.finish();
+        // the event is stored as is, if it's not compressed into fewer bytes
+        final byte[] compressed = new byte[HEADER_SIZE + data.length];
+        int length = HEADER_SIZE;
+        while (!current.finished() && length < compressed.length) {
+            length += current.deflate(compressed, length, compressed.length - length);
+        }
+        if (!current.finished()) {
+            System.arraycopy(data, 0, compressed, HEADER_SIZE, data.length);
+            writeHeader(compressed, STORED, 0);
+            return compressed;
+        }
+        writeHeader(compressed, DEFLATED, compression.getDictionaryId());
+        return Arrays.copyOf(compressed, length);
+    }
+
+    private static void writeHeader(@Nonnull byte[] compressed, byte codec, int dictionaryId) {
+        System.arraycopy(MAGIC, 0, compressed, 0, MAGIC.length);
+        compressed[MAGIC.length] = codec;
+        compressed[MAGIC.length + 1] = (byte) (dictionaryId >>> Byte.SIZE);
+        compressed[MAGIC.length + 2] = (byte) dictionaryId;
+    }
+
+    private static boolean hasMagic(@Nonnull byte[] raw) {
+        if (raw.length < HEADER_SIZE) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (raw[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZlibStream(@Nonnull byte[] raw, int dictionaryId) {
+        if (raw.length < HEADER_SIZE + 2) {
+            return false;
+        }
+        final int method = raw[HEADER_SIZE] & 0xFF;
+        final int flags = raw[HEADER_SIZE + 1] & 0xFF;
+        return (method & 0x0F) == ZLIB_DEFLATE && ((method << Byte.SIZE) | flags) % ZLIB_CHECK == 0
+                && ((flags & ZLIB_DICTIONARY) != 0) == (dictionaryId != 0);
+    }
+
+    @Nonnull
+    @Override
+    public S deserialize(@Nonnull T toDeserialize) {
+        return actual.deserialize(decompress(toDeserialize));
+    }
+
+    @Nullable
+    @Override
+    public String fetchTypeName(@Nonnull T raw) {
+        return actual.fetchTypeName(decompress(raw));
+    }
+
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    private T decompress(@Nonnull T raw) {
+        if (!text) {
+            return (T) decompress((byte[]) raw);
+        }
+        final String encoded = (String) raw;
+        if (!encoded.startsWith(TEXT_PREFIX)) {
+            return raw;
+        }
+        final byte[] compressed;
+        try {
+            compressed = Base64.getDecoder().decode(encoded.substring(TEXT_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new SerializationException(e);
+        }
+        return (T) new String(decompress(compressed), UTF_8);
+    }
+
+    @Nonnull
+    private byte[] decompress(@Nonnull byte[] raw) {
+        if (!hasMagic(raw)) {
+            return raw;
+        }
+        final byte codec = raw[MAGIC.length];
+        final int dictionaryId = ((raw[MAGIC.length + 1] & 0xFF) << Byte.SIZE) | (raw[MAGIC.length + 2] & 0xFF);
+        if (codec == STORED) {
+            return Arrays.copyOfRange(raw, HEADER_SIZE, raw.length);
+        } else if (codec == DEFLATED && isZlibStream(raw, dictionaryId)) {
+            return inflate(raw, dictionaryId);
+        }
+        throw new SerializationException("Unknown compression codec: " + codec);
+    }
+
+    @Nonnull
+    private byte[] inflate(@Nonnull byte[] raw, int dictionaryId) {
+        final Inflater current = inflater.get();
+        current.reset();
+        current.setInput(raw, HEADER_SIZE, raw.length - HEADER_SIZE);
+        byte[] data = new byte[Math.max(MIN_BUFFER_SIZE, raw.length * 4)];
+        int length = 0;
+        try {
+            while (!current.finished()) {
+                if (length == data.length) {
+                    data = Arrays.copyOf(data, data.length * 2);
+                }
+                final int inflated = current.inflate(data, length, data.length - length);
+                if (inflated == 0 && current.needsDictionary()) {
+                    current.setDictionary(requireDictionary(dictionaryId));
+                } else if (inflated == 0 && current.needsInput()) {
+                    throw new SerializationException("Compressed event is truncated");
+                }
+                length += inflated;
+            }
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new SerializationException(e);
+        }
+        return Arrays.copyOf(data, length);
+    }
+
+    @Nonnull
+    private byte[] requireDictionary(int dictionaryId) {
+        final byte[] found = dictionaries.computeIfAbsent(dictionaryId, compression::getDictionary);
+        if (found == null) {
+            throw new SerializationException("Compression dictionary " + dictionaryId + " is not registered");
+        }
+        return found;
+    }
+
+    @Nonnull
+    @Override
+    public String typeName(@Nonnull Class<?> type) {
+        return actual.typeName(type);
+    }
+
+    @Nonnull
+    @Override
+    public Set<String> typeNames(@Nonnull Set<String> classNames) {
+        return actual.typeNames(classNames);
+    }
+
+    @Nonnull
+    @Override
+    public Format format() {
+        return actual.format();
+    }
+
+    @Nonnull
+    @Override
+    public Class<?> rawType() {
+        return actual.rawType();
+    }
+}
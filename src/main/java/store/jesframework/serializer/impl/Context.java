@@ -8,29 +8,26 @@ import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
-import org.reflections.Reflections;
-import org.reflections.util.ConfigurationBuilder;
-
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import store.jesframework.Aggregate;
 import store.jesframework.Event;
 import store.jesframework.serializer.api.AliasingStrategy;
+import store.jesframework.serializer.api.ClassRegistry;
+import store.jesframework.serializer.api.Compression;
 import store.jesframework.serializer.api.Format;
 import store.jesframework.serializer.api.SerializationOption;
 import store.jesframework.serializer.api.TypeAlias;
 import store.jesframework.serializer.api.Upcaster;
 
 import static java.util.Objects.requireNonNull;
-import static org.reflections.util.ClasspathHelper.forPackage;
 
 /**
  * Aggregated meta information about serialization stuff.
  *
  * @param <T> is a raw serialized type.
  */
-// todo: cache lookup results? It called just at init time. (subtypes of Event & Aggregate classes)
 @Slf4j
 @SuppressWarnings("squid:S1135")
 public class Context<T> {
@@ -39,14 +36,16 @@ public class Context<T> {
     @Getter(AccessLevel.PACKAGE)
     private Format format = Format.JSON_JACKSON;
     private AliasingStrategy aliasingStrategy = AliasingStrategy.FULL_CLASS_NAME;
+    @Getter(AccessLevel.PACKAGE)
+    private Compression compression;
+    @Getter(AccessLevel.PACKAGE)
+    private ClassRegistry classRegistry;
 
     // no need of concurrent one
     private final Collection<TypeAlias> aliases = new HashSet<>();
     private final Map<String, Upcaster<T>> upcasters = new HashMap<>();
-
-    // try scan from the base packages
-    private final Reflections reflections =
-            new Reflections(new ConfigurationBuilder().addUrls(forPackage("")).setExpandSuperTypes(false));
+    // the registry is held weakly by the class loader, the context keeps it while the serializers are created
+    private TypeRegistry typeRegistry;
 
     Context() {
     }
@@ -74,6 +73,12 @@ public class Context<T> {
         return raw;
     }
 
+    // names of the types, that can be upcasted into another types
+    @Nonnull
+    Set<String> upcastedTypeNames() {
+        return upcasters.keySet();
+    }
+
     // called only during system setup.
     private void addUpcaster(@Nonnull Upcaster<T> upcaster) {
         requireNonNull(upcaster, "Upcaster must not be null");
@@ -120,17 +125,25 @@ public class Context<T> {
     }
 
     /**
-     * Try to find all subtypes of {@link store.jesframework.Event} class.
+     * Try to find all subtypes of {@link store.jesframework.Event} class (see {@link TypeRegistry}).
      */
     private Set<Class<? extends Event>> findAllEventTypes() {
-        return reflections.getSubTypesOf(Event.class);
+        return typeRegistry().getEventTypes();
     }
 
     /**
-     * Try to find all subtypes of {@link store.jesframework.Aggregate} class.
+     * Try to find all subtypes of {@link store.jesframework.Aggregate} class (see {@link TypeRegistry}).
      */
     private Set<Class<? extends Aggregate>> findAllAggregateTypes() {
-        return reflections.getSubTypesOf(Aggregate.class);
+        return typeRegistry().getAggregateTypes();
+    }
+
+    @Nonnull
+    private TypeRegistry typeRegistry() {
+        if (typeRegistry == null) {
+            typeRegistry = TypeRegistry.get();
+        }
+        return typeRegistry;
     }
 
     static <T> Context<T> empty() {
@@ -148,6 +161,10 @@ public class Context<T> {
                 context.aliases.add((TypeAlias) option);
             } else if (option instanceof Format) {
                 context.format = (Format) option;
+            } else if (option instanceof Compression) {
+                context.compression = (Compression) option;
+            } else if (option instanceof ClassRegistry) {
+                context.classRegistry = (ClassRegistry) option;
             } else if (option instanceof AliasingStrategy) {
                 context.aliasingStrategy = (AliasingStrategy) option;
             } else if (option instanceof Upcaster) {
@@ -1,6 +1,10 @@
 package store.jesframework.serializer.impl;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -20,6 +24,8 @@ class EventSerializerProxy<T> implements Serializer<Event, T> {
 
     private final Context<T> context;
     private final Serializer<Event, T> actual;
+    // class names to aliases
+    private volatile Map<String, String> aliases;
 
     EventSerializerProxy(@Nonnull Serializer<Event, T> actual, @Nonnull Context<T> context) {
         this.actual = Objects.requireNonNull(actual);
@@ -53,6 +59,41 @@ class EventSerializerProxy<T> implements Serializer<Event, T> {
         return actual.fetchTypeName(raw);
     }
 
+    @Nonnull
+    @Override
+    public String typeName(@Nonnull Class<?> type) {
+        final String alias = getAliases().get(type.getName());
+        return alias != null ? alias : type.getName();
+    }
+
+    @Nonnull
+    @Override
+    public Set<String> typeNames(@Nonnull Set<String> classNames) {
+        final Set<String> typeNames = new HashSet<>(context.upcastedTypeNames());
+        typeNames.addAll(classNames);
+        // not every format writes the aliases (kryo writes the class names), so both names are resolved
+        for (String className : classNames) {
+            final String alias = getAliases().get(className);
+            if (alias != null) {
+                typeNames.add(alias);
+            }
+        }
+        return typeNames;
+    }
+
+    // resolved lazily: it's a classpath scan for some aliasing strategies
+    private Map<String, String> getAliases() {
+        Map<String, String> result = aliases;
+        if (result == null) {
+            result = new HashMap<>();
+            for (Map.Entry<Class<?>, String> entry : context.classesToAliases().entrySet()) {
+                result.put(entry.getKey().getName(), entry.getValue());
+            }
+            aliases = result;
+        }
+        return result;
+    }
+
     @Nonnull
     @Override
     public Format format() {
@@ -0,0 +1,29 @@
+package store.jesframework.serializer.impl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reader and writer of an instance field, that replaces the reflective access of the serializers (see
+ * {@link FieldAccessors#of(java.lang.reflect.Field)}). It's public only to be implemented by the generated accessors,
+ * which are defined in the packages of the accessed classes.
+ */
+public interface FieldAccessor {
+
+    /**
+     * Reads the field.
+     *
+     * @param target is an object to read the field of.
+     * @return value of the field, primitive values are boxed.
+     */
+    @Nullable
+    Object get(@Nonnull Object target);
+
+    /**
+     * Writes the field, even if it's final.
+     *
+     * @param target is an object to write the field of.
+     * @param value  is a value to write, primitive values are unboxed.
+     */
+    void set(@Nonnull Object target, @Nullable Object value);
+}
@@ -0,0 +1,192 @@
+package store.jesframework.serializer.impl;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import javax.annotation.Nonnull;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.PropertyName;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.impl.FieldProperty;
+import com.fasterxml.jackson.databind.deser.impl.NullsConstantProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedField;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+
+/**
+ * Jackson module, that replaces the reflective access of the field-backed properties with the {@link FieldAccessor}s.
+ * Only the access is replaced: the properties are serialized the same way, as Jackson serializes them.
+ */
+class FieldAccessorModule extends SimpleModule {
+
+    private static final long serialVersionUID = 1L;
+
+    FieldAccessorModule() {
+        super(FieldAccessorModule.class.getSimpleName());
+        setSerializerModifier(new AccessorSerializerModifier());
+        setDeserializerModifier(new AccessorDeserializerModifier());
+    }
+
+    private static class AccessorSerializerModifier extends BeanSerializerModifier {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription description,
+                                                         List<BeanPropertyWriter> properties) {
+            for (int i = 0; i < properties.size(); i++) {
+                final BeanPropertyWriter writer = properties.get(i);
+                // the custom writers (views, unwrapping, etc.) are left as is
+                if (writer.getClass() == BeanPropertyWriter.class && writer.getMember() instanceof AnnotatedField) {
+                    final AnnotatedField field = (AnnotatedField) writer.getMember();
+                    properties.set(i, new AccessorPropertyWriter(writer, FieldAccessors.of(field.getAnnotated())));
+                }
+            }
+            return properties;
+        }
+    }
+
+    private static class AccessorDeserializerModifier extends BeanDeserializerModifier {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription description,
+                                                     BeanDeserializerBuilder builder) {
+            final List<SettableBeanProperty> replacements = new ArrayList<>();
+            for (Iterator<SettableBeanProperty> iterator = builder.getProperties(); iterator.hasNext(); ) {
+                final SettableBeanProperty property = iterator.next();
+                if (property.getClass() == FieldProperty.class) {
+                    final AnnotatedField field = (AnnotatedField) property.getMember();
+                    replacements.add(new AccessorProperty(property, FieldAccessors.of(field.getAnnotated())));
+                }
+            }
+            for (SettableBeanProperty replacement : replacements) {
+                builder.addOrReplaceProperty(replacement, true);
+            }
+            return builder;
+        }
+    }
+
+    private static class AccessorPropertyWriter extends BeanPropertyWriter {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient FieldAccessor accessor;
+
+        AccessorPropertyWriter(@Nonnull BeanPropertyWriter base, @Nonnull FieldAccessor accessor) {
+            super(base);
+            this.accessor = accessor;
+        }
+
+        private AccessorPropertyWriter(@Nonnull AccessorPropertyWriter base, @Nonnull PropertyName name) {
+            super(base, name);
+            this.accessor = base.accessor;
+        }
+
+        @Override
+        protected BeanPropertyWriter _new(PropertyName newName) {
+            return new AccessorPropertyWriter(this, newName);
+        }
+
+        // the same logic, as BeanPropertyWriter#serializeAsField has, but the field is read by the accessor
+        @Override
+        @SuppressWarnings("squid:S3776")
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            final Object value = accessor.get(bean);
+            if (value == null) {
+                if (_nullSerializer != null) {
+                    gen.writeFieldName(_name);
+                    _nullSerializer.serialize(null, gen, prov);
+                }
+                return;
+            }
+            JsonSerializer<Object> serializer = _serializer;
+            if (serializer == null) {
+                final Class<?> type = value.getClass();
+                final PropertySerializerMap serializers = _dynamicSerializers;
+                serializer = serializers.serializerFor(type);
+                if (serializer == null) {
+                    serializer = _findAndAddDynamic(serializers, type, prov);
+                }
+            }
+            if (_suppressableValue != null) {
+                if (MARKER_FOR_EMPTY == _suppressableValue) {
+                    if (serializer.isEmpty(prov, value)) {
+                        return;
+                    }
+                } else if (_suppressableValue.equals(value)) {
+                    return;
+                }
+            }
+            if (value == bean && _handleSelfReference(bean, gen, prov, serializer)) {
+                return;
+            }
+            gen.writeFieldName(_name);
+            if (_typeSerializer == null) {
+                serializer.serialize(value, gen, prov);
+            } else {
+                serializer.serializeWithType(value, gen, prov, _typeSerializer);
+            }
+        }
+    }
+
+    private static class AccessorProperty extends SettableBeanProperty.Delegating {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient FieldAccessor accessor;
+
+        AccessorProperty(@Nonnull SettableBeanProperty delegate, @Nonnull FieldAccessor accessor) {
+            super(delegate);
+            this.accessor = accessor;
+        }
+
+        @Override
+        protected SettableBeanProperty withDelegate(SettableBeanProperty delegate) {
+            return new AccessorProperty(delegate, accessor);
+        }
+
+        @Override
+        public void deserializeAndSet(JsonParser parser, DeserializationContext ctxt, Object instance)
+                throws IOException {
+            deserializeSetAndReturn(parser, ctxt, instance);
+        }
+
+        @Override
+        public Object deserializeSetAndReturn(JsonParser parser, DeserializationContext ctxt, Object instance)
+                throws IOException {
+            // nulls are deserialized with the null provider of the property
+            final Object value = deserialize(parser, ctxt);
+            if (value == null && NullsConstantProvider.isSkipper(getNullValueProvider())) {
+                return instance;
+            }
+            accessor.set(instance, value);
+            return instance;
+        }
+
+        @Override
+        public void set(Object instance, Object value) {
+            accessor.set(instance, value);
+        }
+
+        @Override
+        public Object setAndReturn(Object instance, Object value) {
+            accessor.set(instance, value);
+            return instance;
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package store.jesframework.serializer.impl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.description.field.FieldDescription;
+import net.bytebuddy.description.type.TypeDescription;
+import net.bytebuddy.dynamic.loading.ClassInjector;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.implementation.Implementation;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import net.bytebuddy.implementation.bytecode.assign.TypeCasting;
+import net.bytebuddy.implementation.bytecode.member.FieldAccess;
+import net.bytebuddy.implementation.bytecode.member.MethodReturn;
+import net.bytebuddy.implementation.bytecode.member.MethodVariableAccess;
+
+import static net.bytebuddy.matcher.ElementMatchers.named;
+
+/**
+ * Factory of the {@link FieldAccessor}s.
+ */
+@Slf4j
+final class FieldAccessors {
+
+    static final String SUFFIX = "$JesAccessor$";
+
+    // the accessors are cached by the declaring classes and the field names, and both are held weakly: the accessors
+    // reference the classes, so they would keep them (and their class loaders) from unloading
+    private static final Map<Class<?>, Map<String, WeakReference<FieldAccessor>>> CACHE = new WeakHashMap<>();
+    // a collected accessor is generated again, with another name
+    private static final AtomicLong GENERATED = new AtomicLong();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    // MethodHandles.privateLookupIn is available since java 9: the accessors aren't generated on java 8
+    private static final Method PRIVATE_LOOKUP_IN = findPrivateLookupIn();
+
+    private FieldAccessors() {
+    }
+
+    /**
+     * Returns the accessor of the given field, the accessors are cached while they are used. The field is accessed by
+     * the generated bytecode (getfield/putfield), if it's neither private nor final: the accessor is defined in the
+     * package of the field class with its private lookup (java 9+). Otherwise, the field is accessed by the method
+     * handles, and if they can't be created, by reflection.
+     *
+     * <p>The method handles are held in the instance fields of the accessor, so the JIT can't fold them into the
+     * direct field access: they are not faster than reflection. The private and final fields, i.e. the fields of the
+     * immutable events, gain nothing from the accessors (see {@literal FieldAccessBenchmark}: on java 11 the
+     * serialization of the immutable event takes the same time, the jackson serialization of the mutable one, accessed
+     * by the generated bytecode, ~25% less).
+     *
+     * @param field is an instance field to access.
+     * @return accessor of the field.
+     */
+    @Nonnull
+    static FieldAccessor of(@Nonnull Field field) {
+        synchronized (CACHE) {
+            final Map<String, WeakReference<FieldAccessor>> accessors = CACHE.computeIfAbsent(field.getDeclaringClass(),
+                    owner -> new HashMap<>());
+            final WeakReference<FieldAccessor> reference = accessors.get(field.getName());
+            FieldAccessor accessor = reference != null ? reference.get() : null;
+            if (accessor == null) {
+                accessor = newAccessor(field);
+                accessors.put(field.getName(), new WeakReference<>(accessor));
+            }
+            return accessor;
+        }
+    }
+
+    @Nonnull
+    @SuppressWarnings("squid:S3011")
+    private static FieldAccessor newAccessor(@Nonnull Field field) {
+        if (Modifier.isStatic(field.getModifiers())) {
+            throw new IllegalArgumentException("Field must not be static: " + field);
+        }
+        if (PRIVATE_LOOKUP_IN != null && isGeneratable(field)) {
+            try {
+                return generate(field);
+            } catch (Exception | LinkageError e) {
+                log.debug("Failed to generate accessor of {}", field, e);
+            }
+        }
+        field.setAccessible(true);
+        try {
+            return new MethodHandleAccessor(field);
+        } catch (IllegalAccessException e) {
+            log.debug("Failed to create method handles of {}", field, e);
+        }
+        return new ReflectiveAccessor(field);
+    }
+
+    private static boolean isGeneratable(@Nonnull Field field) {
+        final int modifiers = field.getModifiers();
+        final Class<?> owner = field.getDeclaringClass();
+        Class<?> type = field.getType();
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        // the generated accessor is defined in the package of the declaring class: package-private members and
+        // public types are accessible from there
+        return !Modifier.isPrivate(modifiers) && !Modifier.isFinal(modifiers) && owner.getClassLoader() != null
+                && (type.isPrimitive() || Modifier.isPublic(type.getModifiers())
+                || type.getPackage() == owner.getPackage() && type.getClassLoader() == owner.getClassLoader());
+    }
+
+    @Nonnull
+    private static FieldAccessor generate(@Nonnull Field field) throws ReflectiveOperationException {
+        final Class<?> owner = field.getDeclaringClass();
+        final FieldDescription.InDefinedShape description = new FieldDescription.ForLoadedField(field);
+        final TypeDescription.Generic type = description.getType();
+        final Implementation getter = new Implementation.Simple(
+                MethodVariableAccess.REFERENCE.loadFrom(1),
+                TypeCasting.to(TypeDescription.ForLoadedType.of(owner)),
+                FieldAccess.forField(description).read(),
+                Assigner.DEFAULT.assign(type, TypeDescription.Generic.OBJECT, Assigner.Typing.DYNAMIC),
+                MethodReturn.REFERENCE);
+        final Implementation setter = new Implementation.Simple(
+                MethodVariableAccess.REFERENCE.loadFrom(1),
+                TypeCasting.to(TypeDescription.ForLoadedType.of(owner)),
+                MethodVariableAccess.REFERENCE.loadFrom(2),
+                Assigner.DEFAULT.assign(TypeDescription.Generic.OBJECT, type, Assigner.Typing.DYNAMIC),
+                FieldAccess.forField(description).write(),
+                MethodReturn.VOID);
+        final Class<?> accessor = new ByteBuddy()
+                .subclass(Object.class)
+                .implement(FieldAccessor.class)
+                .name(owner.getName() + SUFFIX + field.getName() + "$" + GENERATED.incrementAndGet())
+                .method(named("get")).intercept(getter)
+                .method(named("set")).intercept(setter)
+                .make()
+                .load(owner.getClassLoader(), ClassLoadingStrategy.UsingLookup.of(PRIVATE_LOOKUP_IN.invoke(null, owner,
+                        MethodHandles.lookup())))
+                .getLoaded();
+        log.trace("Generated accessor {}", accessor.getName());
+        return (FieldAccessor) accessor.getConstructor().newInstance();
+    }
+
+    @Nullable
+    private static Method findPrivateLookupIn() {
+        if (!ClassInjector.UsingLookup.isAvailable()) {
+            return null;
+        }
+        try {
+            return MethodHandles.class.getMethod("privateLookupIn", Class.class, MethodHandles.Lookup.class);
+        } catch (NoSuchMethodException e) {
+            log.debug("Private lookup is not available, accessors won't be generated", e);
+            return null;
+        }
+    }
+
+    static final class MethodHandleAccessor implements FieldAccessor {
+
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+
+        // the field is accessible, so the handles of the private and final fields are created too
+        private MethodHandleAccessor(@Nonnull Field field) throws IllegalAccessException {
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            this.getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+            this.setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+        }
+
+        @Nullable
+        @Override
+        public Object get(@Nonnull Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void set(@Nonnull Object target, @Nullable Object value) {
+            try {
+                // the value is cast (or unboxed) to the field type, as the reflective write does
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    static final class ReflectiveAccessor implements FieldAccessor {
+
+        private final Field field;
+
+        private ReflectiveAccessor(@Nonnull Field field) {
+            this.field = field;
+        }
+
+        @Nullable
+        @Override
+        public Object get(@Nonnull Object target) {
+            try {
+                return field.get(target);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void set(@Nonnull Object target, @Nullable Object value) {
+            try {
+                field.set(target, value);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
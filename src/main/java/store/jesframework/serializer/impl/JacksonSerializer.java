@@ -32,6 +32,7 @@ import static com.fasterxml.jackson.databind.ObjectMapper.DefaultTypeResolverBui
 import static com.fasterxml.jackson.databind.ObjectMapper.DefaultTyping.NON_FINAL;
 import static com.fasterxml.jackson.databind.SerializationFeature.FAIL_ON_EMPTY_BEANS;
 import static com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS;
+import static store.jesframework.util.PropsReader.getProperty;
 
 @Slf4j
 class JacksonSerializer<S> implements Serializer<S, String> {
@@ -59,7 +60,11 @@ class JacksonSerializer<S> implements Serializer<S, String> {
         configureMapper(this.mapper, context);
     }
 
-    private void configureMapper(@Nonnull ObjectMapper mapper, @Nonnull Context<?> context) {
+    /**
+     * Configures the mapper: the same configuration is shared by all the jackson formats (see
+     * {@link BinaryJacksonSerializer}).
+     */
+    static void configureMapper(@Nonnull ObjectMapper mapper, @Nonnull Context<?> context) {
         mapper.disable(FAIL_ON_EMPTY_BEANS);
         mapper.disable(FAIL_ON_UNKNOWN_PROPERTIES);
         mapper.disable(WRITE_DATES_AS_TIMESTAMPS);
@@ -77,6 +82,9 @@ class JacksonSerializer<S> implements Serializer<S, String> {
                 .withGetterVisibility(NONE)
                 .withSetterVisibility(NONE)
                 .withCreatorVisibility(NONE));
+        if (Boolean.parseBoolean(getProperty("jes.serializer.field-accessors"))) {
+            mapper.registerModule(new FieldAccessorModule());
+        }
         mapper.findAndRegisterModules();
     }
 
@@ -105,14 +113,15 @@ class JacksonSerializer<S> implements Serializer<S, String> {
     public String fetchTypeName(@Nonnull String raw) {
         Objects.requireNonNull(raw, "The raw event must not be null");
         int size = 0;
-        final char[] searched = raw.toCharArray();
+        // the raw event is not copied: only the type name is read
         char[] typeNameArray = new char[DEFAULT_NAME_SIZE];
 
-        for (int i = START_TYPE_NAME_POSITION; i < searched.length; i++) {
-            if (searched[i] == '"') {
+        for (int i = START_TYPE_NAME_POSITION; i < raw.length(); i++) {
+            final char symbol = raw.charAt(i);
+            if (symbol == '"') {
                 break;
             }
-            typeNameArray[size++] = searched[i];
+            typeNameArray[size++] = symbol;
             if (size == typeNameArray.length) {
                 final char[] temp = new char[typeNameArray.length * 2];
                 System.arraycopy(typeNameArray, 0, temp, 0, typeNameArray.length);
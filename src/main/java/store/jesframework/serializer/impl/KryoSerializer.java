@@ -1,45 +1,91 @@
 package store.jesframework.serializer.impl;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-
+import java.lang.reflect.Proxy;
+import java.util.Objects;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.KryoException;
+import com.esotericsoftware.kryo.Registration;
 import com.esotericsoftware.kryo.io.Input;
 import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryo.util.DefaultClassResolver;
 import com.esotericsoftware.kryo.util.DefaultInstantiatorStrategy;
+import com.esotericsoftware.kryo.util.Pool;
 
 import org.objenesis.strategy.StdInstantiatorStrategy;
 
-import lombok.AccessLevel;
-import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import store.jesframework.ex.SerializationException;
+import store.jesframework.serializer.api.ClassRegistry;
 import store.jesframework.serializer.api.Format;
 import store.jesframework.serializer.api.Serializer;
 
-@NoArgsConstructor(access = AccessLevel.PACKAGE)
+import static store.jesframework.util.PropsReader.getProperty;
+
+/**
+ * Kryo serializer. The kryo instances are not thread safe, so they are pooled along with their buffers: a thread
+ * takes an instance for a single call only. If the {@link ClassRegistry} is given, the classes are written by their
+ * registered ids, otherwise by their names. If the field accessors are enabled, the object fields are accessed by the
+ * {@link FieldAccessor}s (see {@link AccessorFieldSerializer}).
+ *
+ * @param <S> type of source serialization format.
+ */
+@Slf4j
 class KryoSerializer<S> implements Serializer<S, byte[]> {
 
     private static final String NO_CLASS_KRYO_MESSAGE = "Unable to find class: ";
-    @SuppressWarnings("squid:S5164")
-    private final ThreadLocal<Kryo> kryo = ThreadLocal.withInitial(() -> {
-        final Kryo serializer = new Kryo();
-        serializer.setRegistrationRequired(false);
-        serializer.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
-        return serializer;
-    });
+    /**
+     * The ids of the registered classes follow the ids of the default kryo registrations (primitives and strings).
+     */
+    static final int REGISTERED_ID_OFFSET = 16;
+    private static final int BUFFER_SIZE = 4096;
+    // the buffers, grown by the large payloads, are not kept in the pool
+    private static final int MAX_POOLED_BUFFER_SIZE = 1 << 20;
+    private static final byte[] EMPTY = {};
+
+    private final ClassRegistry classRegistry;
+    private final Pool<PooledKryo> pool;
+
+    KryoSerializer() {
+        this(Context.parse());
+    }
+
+    KryoSerializer(@Nonnull Context<?> context) {
+        this(context.getClassRegistry(), Integer.parseInt(getProperty("jes.serializer.kryo.pool-size")),
+                Boolean.parseBoolean(getProperty("jes.serializer.field-accessors")));
+    }
+
+    KryoSerializer(@Nullable ClassRegistry classRegistry, int poolSize) {
+        this(classRegistry, poolSize, false);
+    }
+
+    KryoSerializer(@Nullable ClassRegistry classRegistry, int poolSize, boolean fieldAccessors) {
+        this.classRegistry = classRegistry;
+        this.pool = new Pool<PooledKryo>(true, false, poolSize) {
+            @Override
+            protected PooledKryo create() {
+                return new PooledKryo(classRegistry, fieldAccessors);
+            }
+        };
+    }
 
     @Nonnull
     @Override
     public byte[] serialize(@Nonnull S toSerialize) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream(); Output output = new Output(baos)) {
-            kryo.get().writeClassAndObject(output, toSerialize);
-            output.flush();
-            return baos.toByteArray();
+        final PooledKryo pooled = pool.obtain();
+        boolean reusable = false;
+        try {
+            pooled.output.reset();
+            pooled.kryo.writeClassAndObject(pooled.output, toSerialize);
+            final byte[] serialized = pooled.output.toBytes();
+            reusable = true;
+            return serialized;
         } catch (Exception e) {
             throw new SerializationException(e);
+        } finally {
+            release(pooled, reusable);
         }
     }
 
@@ -50,11 +96,14 @@ class KryoSerializer<S> implements Serializer<S, byte[]> {
         if (toDeserialize == null || toDeserialize.length == 0) {
             throw new SerializationException("Can't deserialize event from 0 length binary uuid");
         }
-        try (final ByteArrayInputStream bais = new ByteArrayInputStream(toDeserialize);
-             final Input input = new Input(bais, toDeserialize.length)) {
-
+        final PooledKryo pooled = pool.obtain();
+        boolean reusable = false;
+        try {
+            pooled.input.setBuffer(toDeserialize);
             //noinspection unchecked
-            return (S) kryo.get().readClassAndObject(input);
+            final S deserialized = (S) pooled.kryo.readClassAndObject(pooled.input);
+            reusable = true;
+            return deserialized;
         } catch (KryoException e) {
             final String message = e.getMessage();
             if (message != null && message.contains(NO_CLASS_KRYO_MESSAGE)) {
@@ -64,6 +113,50 @@ class KryoSerializer<S> implements Serializer<S, byte[]> {
             throw new SerializationException(e);
         } catch (Exception e) {
             throw new SerializationException(e);
+        } finally {
+            release(pooled, reusable);
+        }
+    }
+
+    /**
+     * Returns the instance to the pool, unless the call failed: the failed kryo instance may keep the state of the
+     * call, so it's dropped.
+     */
+    private void release(@Nonnull PooledKryo pooled, boolean reusable) {
+        if (!reusable) {
+            return;
+        }
+        // the read payload is not retained by the pool
+        pooled.input.setBuffer(EMPTY);
+        if (pooled.output.getBuffer().length > MAX_POOLED_BUFFER_SIZE) {
+            pooled.output.setBuffer(new byte[BUFFER_SIZE], -1);
+        }
+        pool.free(pooled);
+    }
+
+    /**
+     * Reads the class, written by kryo in front of the serialized object: either by its name, or by its registered id
+     * (see {@link ClassRegistry}).
+     */
+    @Nullable
+    @Override
+    public String fetchTypeName(@Nonnull byte[] raw) {
+        Objects.requireNonNull(raw, "The raw event must not be null");
+        try (final Input input = new Input(raw)) {
+            final int classId = input.readVarInt(true);
+            if (classId == DefaultClassResolver.NAME + 2) {
+                // skip the name id: it's always the first name in the serialized form
+                input.readVarInt(true);
+                return input.readString();
+            }
+            if (classRegistry != null && classId - 2 >= REGISTERED_ID_OFFSET) {
+                return classRegistry.classNameOf(classId - 2 - REGISTERED_ID_OFFSET);
+            }
+            // default registration or null
+            return null;
+        } catch (KryoException e) {
+            log.trace("Failed to fetch type name", e);
+            return null;
         }
     }
 
@@ -72,4 +165,79 @@ class KryoSerializer<S> implements Serializer<S, byte[]> {
     public Format format() {
         return Format.BINARY_KRYO;
     }
+
+    private static final class PooledKryo {
+
+        private final Kryo kryo;
+        private final Output output = new Output(BUFFER_SIZE, -1);
+        private final Input input = new Input();
+
+        private PooledKryo(@Nullable ClassRegistry classRegistry, boolean fieldAccessors) {
+            kryo = classRegistry != null ? new Kryo(new RegistryClassResolver(classRegistry), null) : new Kryo();
+            kryo.setRegistrationRequired(false);
+            kryo.setInstantiatorStrategy(new DefaultInstantiatorStrategy(new StdInstantiatorStrategy()));
+            if (fieldAccessors) {
+                kryo.setDefaultSerializer(new AccessorFieldSerializer.Factory());
+            }
+        }
+    }
+
+    /**
+     * Resolver, that registers the implicitly written classes with the ids of the {@link ClassRegistry}, and resolves
+     * the unknown ids with it. The class names are still read.
+     */
+    private static class RegistryClassResolver extends DefaultClassResolver {
+
+        private final ClassRegistry classRegistry;
+
+        RegistryClassResolver(@Nonnull ClassRegistry classRegistry) {
+            this.classRegistry = classRegistry;
+        }
+
+        @Override
+        @SuppressWarnings("rawtypes")
+        public Registration registerImplicit(Class type) {
+            // the names of the anonymous, local and generated classes are not stable, they are written as is
+            if (type.isAnonymousClass() || type.isLocalClass() || type.isSynthetic() || Proxy.isProxyClass(type)
+                    || !isResolvable(type)) {
+                return super.registerImplicit(type);
+            }
+            final int id = REGISTERED_ID_OFFSET + classRegistry.idOf(type.getName());
+            return register(new Registration(type, kryo.getDefaultSerializer(type), id));
+        }
+
+        // the registered id is resolved by the class name, so the class must be visible to the class loader of kryo
+        private boolean isResolvable(@Nonnull Class<?> type) {
+            try {
+                return Class.forName(type.getName(), false, kryo.getClassLoader()) == type;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+
+        @Override
+        public Registration readClass(Input input) {
+            final int position = input.position();
+            final int classId = input.readVarInt(true) - 2;
+            if (classId >= REGISTERED_ID_OFFSET && getRegistration(classId) == null) {
+                registerById(classId);
+            }
+            input.setPosition(position);
+            return super.readClass(input);
+        }
+
+        private void registerById(int classId) {
+            final String className = classRegistry.classNameOf(classId - REGISTERED_ID_OFFSET);
+            if (className == null) {
+                throw new KryoException("Encountered unregistered class ID: " + classId);
+            }
+            final Class<?> type;
+            try {
+                type = Class.forName(className, false, kryo.getClassLoader());
+            } catch (ClassNotFoundException e) {
+                throw new KryoException(NO_CLASS_KRYO_MESSAGE + className, e);
+            }
+            register(new Registration(type, kryo.getDefaultSerializer(type), classId));
+        }
+    }
 }
@@ -6,6 +6,7 @@ import javax.annotation.Nullable;
 import lombok.extern.slf4j.Slf4j;
 import store.jesframework.Aggregate;
 import store.jesframework.Event;
+import store.jesframework.serializer.api.Compression;
 import store.jesframework.serializer.api.SerializationOption;
 import store.jesframework.serializer.api.Serializer;
 
@@ -20,7 +21,8 @@ public class SerializerFactory {
     private SerializerFactory() {}
 
     /**
-     * Produces and return new {@link Serializer} for events.
+     * Produces and return new {@link Serializer} for events. If the {@link Compression} option is given, the raw form
+     * of the events is compressed, but its type stays the same (see {@link Serializer#rawType()}).
      *
      * @param options           are hooks for serialization/deserialization process.
      * @param <T>               is serialization format.
@@ -29,8 +31,12 @@ public class SerializerFactory {
     @Nonnull
     public static <T> Serializer<Event, T> newEventSerializer(@Nullable SerializationOption... options) {
         final Context<T> context = Context.parse(options);
-        final Serializer<Event, T> serializer = newSerializer(context);
-        return new EventSerializerProxy<>(serializer, context);
+        final Serializer<Event, T> serializer = new EventSerializerProxy<>(newSerializer(context), context);
+        final Compression compression = context.getCompression();
+        if (compression != null) {
+            return new CompressingSerializer<>(serializer, compression);
+        }
+        return serializer;
     }
 
     /**
@@ -52,9 +58,12 @@ public class SerializerFactory {
             case JSON_JACKSON:
                 return (Serializer<S, T>) new JacksonSerializer<>(context);
             case BINARY_KRYO:
-                return (Serializer<S, T>) new KryoSerializer<>();
+                return (Serializer<S, T>) new KryoSerializer<>(context);
             case XML_XSTREAM:
                 return (Serializer<S, T>) new XStreamSerializer<>(context);
+            case BINARY_SMILE:
+            case BINARY_CBOR:
+                return (Serializer<S, T>) new BinaryJacksonSerializer<>(context.getFormat(), context);
             default:
                 throw new IllegalArgumentException("Unknown serializer format: " + context.getFormat());
         }
@@ -0,0 +1,119 @@
+package store.jesframework.serializer.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.util.Set;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import store.jesframework.Aggregate;
+import store.jesframework.Event;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Annotation processor, that indexes the subtypes of {@link Event} and {@link Aggregate} at compile time. The binary
+ * names of the subtypes are written into {@value #EVENTS_INDEX} and {@value #AGGREGATES_INDEX} resources, which are
+ * read instead of the classpath scan, when the serialization aliases are resolved.
+ *
+ * <p>The processor is registered as a service, so it runs whenever jes is on the compile classpath (unless the
+ * annotation processors are set explicitly). The modules, compiled without it, are scanned at runtime, so the index
+ * pays off when every module with events or aggregates is compiled with it.
+ */
+@SupportedAnnotationTypes("*")
+public class TypeIndexProcessor extends AbstractProcessor {
+
+    static final String EVENTS_INDEX = "META-INF/jes/event-types";
+    static final String AGGREGATES_INDEX = "META-INF/jes/aggregate-types";
+
+    private final Set<String> events = new TreeSet<>();
+    private final Set<String> aggregates = new TreeSet<>();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        final TypeElement event = processingEnv.getElementUtils().getTypeElement(Event.class.getName());
+        final TypeElement aggregate = processingEnv.getElementUtils().getTypeElement(Aggregate.class.getName());
+        if (event == null || aggregate == null) {
+            return false;
+        }
+        if (roundEnv.processingOver()) {
+            write(EVENTS_INDEX, events);
+            write(AGGREGATES_INDEX, aggregates);
+            return false;
+        }
+        for (Element element : roundEnv.getRootElements()) {
+            collect(element, event.asType(), aggregate.asType());
+        }
+        // the types are indexed only, the annotations are not claimed
+        return false;
+    }
+
+    private void collect(@Nonnull Element element, @Nonnull TypeMirror event, @Nonnull TypeMirror aggregate) {
+        if (!(element instanceof TypeElement)) {
+            return;
+        }
+        final TypeElement type = (TypeElement) element;
+        final Types types = processingEnv.getTypeUtils();
+        final TypeMirror erasure = types.erasure(type.asType());
+        final String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+        if (!name.equals(Event.class.getName()) && types.isAssignable(erasure, event)) {
+            events.add(name);
+        }
+        if (!name.equals(Aggregate.class.getName()) && types.isAssignable(erasure, aggregate)) {
+            aggregates.add(name);
+        }
+        for (Element enclosed : type.getEnclosedElements()) {
+            collect(enclosed, event, aggregate);
+        }
+    }
+
+    private void write(@Nonnull String index, @Nonnull Set<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+        // incremental compilation: the types of the previous compilation are kept, stale ones are skipped at runtime
+        try {
+            final FileObject previous = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", index);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(previous.openInputStream(), UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (!line.trim().isEmpty()) {
+                        names.add(line.trim());
+                    }
+                }
+            }
+        } catch (IOException | IllegalArgumentException ignored) {
+            // there is no previous index
+        }
+        try {
+            final FileObject resource = processingEnv.getFiler()
+                    .createResource(StandardLocation.CLASS_OUTPUT, "", index);
+            try (Writer writer = resource.openWriter()) {
+                for (String name : names) {
+                    writer.write(name);
+                    writer.write('\n');
+                }
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Failed to write " + index + ": " + e);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package store.jesframework.serializer.impl;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import javax.annotation.Nonnull;
+
+import org.reflections.Reflections;
+import org.reflections.util.ConfigurationBuilder;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import store.jesframework.Aggregate;
+import store.jesframework.Event;
+import store.jesframework.ex.SerializationException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.reflections.util.ClasspathHelper.forPackage;
+import static store.jesframework.serializer.impl.TypeIndexProcessor.AGGREGATES_INDEX;
+import static store.jesframework.serializer.impl.TypeIndexProcessor.EVENTS_INDEX;
+import static store.jesframework.util.PropsReader.getProperty;
+
+/**
+ * JVM-wide registry of the {@link Event} and {@link Aggregate} subtypes, shared by all the serializers. The subtypes
+ * are read from the index, generated at compile time by the {@link TypeIndexProcessor}. The classpath roots without
+ * an index (the modules, compiled without the processor) are scanned, and their types are merged with the indexed
+ * ones. If there is no index on the classpath at all (or it's disabled), the whole classpath is scanned.
+ */
+@Slf4j
+final class TypeRegistry {
+
+    // the types are resolved per class loader: different applications in one container have different types. the
+    // registries are held weakly: they reference the classes of the loader, so they would keep it from unloading
+    private static final Map<ClassLoader, WeakReference<TypeRegistry>> REGISTRIES = new WeakHashMap<>();
+
+    @Getter
+    private final Set<Class<? extends Event>> eventTypes;
+    @Getter
+    private final Set<Class<? extends Aggregate>> aggregateTypes;
+    @Getter
+    private final boolean indexed;
+
+    private TypeRegistry(@Nonnull Set<Class<? extends Event>> eventTypes,
+                         @Nonnull Set<Class<? extends Aggregate>> aggregateTypes, boolean indexed) {
+        this.eventTypes = Collections.unmodifiableSet(eventTypes);
+        this.aggregateTypes = Collections.unmodifiableSet(aggregateTypes);
+        this.indexed = indexed;
+    }
+
+    @Nonnull
+    static TypeRegistry get() {
+        final ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        final ClassLoader loader = contextLoader != null ? contextLoader : TypeRegistry.class.getClassLoader();
+        synchronized (REGISTRIES) {
+            final WeakReference<TypeRegistry> reference = REGISTRIES.get(loader);
+            TypeRegistry registry = reference != null ? reference.get() : null;
+            if (registry == null) {
+                registry = load(loader);
+                REGISTRIES.put(loader, new WeakReference<>(registry));
+            }
+            return registry;
+        }
+    }
+
+    @Nonnull
+    static TypeRegistry load(@Nonnull ClassLoader loader) {
+        final long start = System.nanoTime();
+        final Collection<URL> roots = forPackage("", loader);
+        final TypeRegistry registry;
+        if (Boolean.parseBoolean(getProperty("jes.serializer.type-index"))) {
+            final Set<String> indexedRoots = new LinkedHashSet<>();
+            final Set<Class<? extends Event>> events = readIndex(loader, EVENTS_INDEX, Event.class, indexedRoots);
+            final Set<Class<? extends Aggregate>> aggregates = readIndex(loader, AGGREGATES_INDEX, Aggregate.class,
+                    indexedRoots);
+            if (indexedRoots.isEmpty()) {
+                log.info("No type index found, scanning the classpath for the event and aggregate types");
+                registry = scan(loader, roots);
+            } else {
+                final Collection<URL> uncovered = roots.stream()
+                        .filter(root -> !indexedRoots.contains(root.toExternalForm()))
+                        .collect(Collectors.toList());
+                if (!uncovered.isEmpty()) {
+                    log.info("Scanning the classpath roots without the type index: {}", uncovered);
+                    final TypeRegistry scanned = scan(loader, uncovered);
+                    events.addAll(scanned.eventTypes);
+                    aggregates.addAll(scanned.aggregateTypes);
+                }
+                registry = new TypeRegistry(events, aggregates, true);
+            }
+        } else {
+            registry = scan(loader, roots);
+        }
+        log.debug("Resolved {} event type(s) and {} aggregate type(s) in {} ms (indexed: {})",
+                registry.eventTypes.size(), registry.aggregateTypes.size(), (System.nanoTime() - start) / 1_000_000,
+                registry.indexed);
+        return registry;
+    }
+
+    // the roots of the read indexes are added to the given ones, in the form of the classpath urls
+    @Nonnull
+    private static <T> Set<Class<? extends T>> readIndex(@Nonnull ClassLoader loader, @Nonnull String index,
+                                                         @Nonnull Class<T> superType, @Nonnull Set<String> roots) {
+        try {
+            final Enumeration<URL> resources = loader.getResources(index);
+            final Set<Class<? extends T>> types = new LinkedHashSet<>();
+            while (resources.hasMoreElements()) {
+                final URL resource = resources.nextElement();
+                final String url = resource.toExternalForm();
+                roots.add(url.substring(0, url.length() - index.length()));
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.openStream(), UTF_8))) {
+                    String name;
+                    while ((name = reader.readLine()) != null) {
+                        addType(loader, name.trim(), superType, types);
+                    }
+                }
+            }
+            return types;
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    private static <T> void addType(@Nonnull ClassLoader loader, @Nonnull String name, @Nonnull Class<T> superType,
+                                    @Nonnull Set<Class<? extends T>> types) {
+        if (name.isEmpty()) {
+            return;
+        }
+        try {
+            final Class<?> type = Class.forName(name, false, loader);
+            if (superType.isAssignableFrom(type)) {
+                types.add(type.asSubclass(superType));
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            // the index may be stale after an incremental compilation
+            log.debug("Skipped indexed type {}: {}", name, e.toString());
+        }
+    }
+
+    @Nonnull
+    private static TypeRegistry scan(@Nonnull ClassLoader loader, @Nonnull Collection<URL> roots) {
+        final Reflections reflections = new Reflections(new ConfigurationBuilder()
+                .addUrls(roots)
+                .addClassLoader(loader)
+                .setExpandSuperTypes(false));
+        return new TypeRegistry(new LinkedHashSet<>(reflections.getSubTypesOf(Event.class)),
+                new LinkedHashSet<>(reflections.getSubTypesOf(Aggregate.class)), false);
+    }
+}
@@ -2,8 +2,10 @@ package store.jesframework.serializer.impl;
 
 import java.util.Map;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 import com.thoughtworks.xstream.XStream;
+import com.thoughtworks.xstream.io.xml.XmlFriendlyNameCoder;
 import com.thoughtworks.xstream.io.xml.Xpp3Driver;
 import com.thoughtworks.xstream.mapper.CannotResolveClassException;
 import com.thoughtworks.xstream.security.AnyTypePermission;
@@ -18,8 +20,9 @@ import static java.util.Objects.requireNonNull;
 @Slf4j
 class XStreamSerializer<S> implements Serializer<S, String> {
 
+    private final XmlFriendlyNameCoder nameCoder = new XmlFriendlyNameCoder();
     // it's thread-safe, so it's ok to have just 1 instance
-    private final XStream xstream = new XStream(new Xpp3Driver());
+    private final XStream xstream = new XStream(new Xpp3Driver(nameCoder));
 
     XStreamSerializer() {
         this(Context.parse());
@@ -52,6 +55,37 @@ class XStreamSerializer<S> implements Serializer<S, String> {
         }
     }
 
+    /**
+     * Reads the name of the root element, which is the alias or the class name of the serialized event.
+     */
+    @Nullable
+    @Override
+    public String fetchTypeName(@Nonnull String raw) {
+        requireNonNull(raw, "The raw event must not be null");
+        int start = raw.indexOf('<');
+        // skip the xml declaration and comments, if any
+        while (start >= 0 && isDeclaration(raw, start)) {
+            start = raw.indexOf('<', start + 1);
+        }
+        if (start < 0) {
+            return null;
+        }
+        int end = ++start;
+        while (end < raw.length() && !isNameEnd(raw.charAt(end))) {
+            end++;
+        }
+        return end > start && end < raw.length() ? nameCoder.decodeNode(raw.substring(start, end)) : null;
+    }
+
+    private static boolean isDeclaration(@Nonnull String raw, int tagStart) {
+        final int next = tagStart + 1;
+        return next < raw.length() && (raw.charAt(next) == '?' || raw.charAt(next) == '!');
+    }
+
+    private static boolean isNameEnd(char symbol) {
+        return symbol == '>' || symbol == '/' || Character.isWhitespace(symbol);
+    }
+
     @Nonnull
     @Override
     public Format format() {
@@ -3,6 +3,14 @@ package store.jesframework.snapshot;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import javax.annotation.Nonnull;
@@ -26,6 +34,8 @@ import static java.util.Objects.requireNonNull;
 @Slf4j
 public class JdbcSnapshotProvider<T> extends DefaultSnapshotProvider implements AutoCloseable {
 
+    private static final int MAX_SNAPSHOTS_PER_READ = 1000;
+
     private final DataSource dataSource;
     private final Serializer<Aggregate, T> serializer;
 
@@ -65,6 +75,29 @@ public class JdbcSnapshotProvider<T> extends DefaultSnapshotProvider implements
         return (A) aggregate;
     }
 
+    /**
+     * {@inheritDoc}
+     * {@implNote the snapshots are read with a single query per {@literal MAX_SNAPSHOTS_PER_READ} aggregates}.
+     */
+    @Nonnull
+    @Override
+    public <A extends Aggregate> Map<UUID, A> initialStatesOf(@Nonnull Collection<UUID> uuids,
+                                                              @Nonnull Class<A> type) {
+        final List<UUID> distinct = new ArrayList<>(new LinkedHashSet<>(requireNonNull(uuids)));
+        final Map<UUID, Aggregate> found = new HashMap<>();
+        for (int from = 0; from < distinct.size(); from += MAX_SNAPSHOTS_PER_READ) {
+            found.putAll(findAggregatesByUuids(distinct.subList(from,
+                    Math.min(distinct.size(), from + MAX_SNAPSHOTS_PER_READ))));
+        }
+        final Map<UUID, A> aggregates = new LinkedHashMap<>();
+        for (UUID uuid : distinct) {
+            final Aggregate aggregate = found.get(uuid);
+            //noinspection unchecked
+            aggregates.put(uuid, aggregate == null ? super.initialStateOf(uuid, type) : (A) aggregate);
+        }
+        return aggregates;
+    }
+
     @Nonnull
     @Override
     @SneakyThrows
@@ -118,6 +151,28 @@ public class JdbcSnapshotProvider<T> extends DefaultSnapshotProvider implements
         });
     }
 
+    @Nonnull
+    private Map<UUID, Aggregate> findAggregatesByUuids(@Nonnull List<UUID> uuids) {
+        return execute(connection -> {
+            final String query = String.format(getProperty("jes.jdbc.statement.select-aggregates"),
+                    String.join(", ", Collections.nCopies(uuids.size(), "?")));
+            try (final PreparedStatement statement = connection.prepareStatement(query)) {
+                int index = 1;
+                for (UUID uuid : uuids) {
+                    statement.setObject(index++, Objects.requireNonNull(uuid, "Aggregate uuid must not be null"));
+                }
+                final Map<UUID, Aggregate> aggregates = new HashMap<>();
+                try (final ResultSet set = statement.executeQuery()) {
+                    while (set.next()) {
+                        final Aggregate aggregate = serializer.deserialize(unwrapJdbcType(set.getObject(1)));
+                        aggregates.put(aggregate.uuid(), aggregate);
+                    }
+                }
+                return aggregates;
+            }
+        });
+    }
+
     @SneakyThrows
     private boolean existsAggregateByUuid(@Nonnull UUID uuid) {
         return execute(connection -> {
@@ -1,11 +1,15 @@
 package store.jesframework.snapshot;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentMap;
 import javax.annotation.Nonnull;
 
 import org.redisson.api.LocalCachedMapOptions;
+import org.redisson.api.RMap;
 import org.redisson.api.RedissonClient;
 import org.redisson.client.codec.Codec;
 import org.redisson.codec.JsonJacksonCodec;
@@ -15,7 +19,7 @@ import store.jesframework.Aggregate;
 public class RedisSnapshotProvider extends DefaultSnapshotProvider implements AutoCloseable {
 
     private static final int MAX_CACHE_SIZE = 5000;
-    private final ConcurrentMap<UUID, Aggregate> redisCache;
+    private final RMap<UUID, Aggregate> redisCache;
     private final RedissonClient redissonClient;
 
     public RedisSnapshotProvider(@Nonnull RedissonClient redissonClient) {
@@ -43,6 +47,25 @@ public class RedisSnapshotProvider extends DefaultSnapshotProvider implements Au
         return (T) aggregate;
     }
 
+    /**
+     * {@inheritDoc}
+     * {@implNote the snapshots, missing in the local cache, are read with a single request}.
+     */
+    @Nonnull
+    @Override
+    public <T extends Aggregate> Map<UUID, T> initialStatesOf(@Nonnull Collection<UUID> uuids,
+                                                              @Nonnull Class<T> type) {
+        final Map<UUID, Aggregate> found = redisCache.getAll(
+                new LinkedHashSet<>(Objects.requireNonNull(uuids, "Aggregate uuids must not be null")));
+        final Map<UUID, T> aggregates = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            final Aggregate aggregate = found.get(uuid);
+            //noinspection unchecked
+            aggregates.put(uuid, aggregate == null ? super.initialStateOf(uuid, type) : (T) aggregate);
+        }
+        return aggregates;
+    }
+
     @Nonnull
     @Override
     public <T extends Aggregate> T snapshot(@Nonnull T aggregate) {
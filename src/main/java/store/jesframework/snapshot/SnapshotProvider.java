@@ -1,6 +1,9 @@
 package store.jesframework.snapshot;
 
 import java.lang.reflect.Constructor;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
 import javax.annotation.Nonnull;
@@ -30,6 +33,27 @@ public interface SnapshotProvider {
         }
     }
 
+    /**
+     * Returns initial states for given {@literal type} aggregates.
+     * {@implNote the default implementation returns initial states one by one. Providers, that can read several
+     * snapshots at once, should override this method}.
+     *
+     * @param uuids are event stream (aggregate) identifiers.
+     * @param type  is the class of aggregates.
+     * @param <T>   is the type of aggregates.
+     * @return aggregates of type {@literal T} initialized with initial states, by their identifiers, in the order of
+     *     the given identifiers.
+     */
+    @Nonnull
+    default <T extends Aggregate> Map<UUID, T> initialStatesOf(@Nonnull Collection<UUID> uuids,
+                                                               @Nonnull Class<T> type) {
+        final Map<UUID, T> aggregates = new LinkedHashMap<>();
+        for (UUID uuid : Objects.requireNonNull(uuids, "Aggregate uuids must not be null")) {
+            aggregates.put(uuid, initialStateOf(uuid, type));
+        }
+        return aggregates;
+    }
+
     @Nonnull
     default <T extends Aggregate> T snapshot(@Nonnull T aggregate) {
         // do nothing - default impl
@@ -1,11 +1,17 @@
 package store.jesframework.snapshot;
 
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
+import store.jesframework.Envelope;
 import store.jesframework.Event;
 
+import static java.util.stream.Collectors.toList;
+
 public interface SnapshotReader {
 
     /**
@@ -19,4 +25,44 @@ public interface SnapshotReader {
      */
     Collection<Event> readBy(@Nonnull UUID uuid, long skip);
 
+    /**
+     * Returns the rest of the event stream, i.e. the events, that are not yet applied to the snapshot. If the position
+     * of the last applied event is known, the events are read right after it (seek by position), so the cost of the
+     * read doesn't depend on the length of the already snapshotted part of the stream. Otherwise the first
+     * {@literal skip} events are skipped.
+     * {@implNote the default implementation reads the events with {@link #readBy(UUID, long)}: their positions are
+     * unknown (0), so the next read skips the events again. Providers, that know the positions, should override this
+     * method}.
+     *
+     * @param uuid          identifier of event uuid to read.
+     * @param afterPosition position of the last event applied to the snapshot, or 0 if it's unknown.
+     * @param skip          events count to skip, if the position is unknown.
+     * @return {@link Stream} of envelopes with the events of the stream, ordered by position. The stream must be
+     *     closed after usage.
+     * @throws NullPointerException                if uuid is null.
+     */
+    default Stream<Envelope> readEnvelopesBy(@Nonnull UUID uuid, long afterPosition, long skip) {
+        return readBy(uuid, skip).stream().map(event -> new Envelope(0, event));
+    }
+
+    /**
+     * Returns the rest of several event streams at once, see {@link #readEnvelopesBy(UUID, long, long)}. The first
+     * {@literal skip} events of each stream are skipped.
+     * {@implNote the default implementation reads the event streams one by one. Providers, that can read several
+     * streams at once, should override this method}.
+     *
+     * @param skips are the identifiers of the event streams to read, along with the count of events to skip in each
+     *              of them.
+     * @return envelopes with the events of each requested stream (possibly empty), by the stream identifiers.
+     */
+    default Map<UUID, Collection<Envelope>> readAllEnvelopesBy(@Nonnull Map<UUID, Long> skips) {
+        final Map<UUID, Collection<Envelope>> streams = new LinkedHashMap<>();
+        skips.forEach((uuid, skip) -> {
+            try (final Stream<Envelope> stream = readEnvelopesBy(uuid, 0, skip)) {
+                streams.put(uuid, stream.collect(toList()));
+            }
+        });
+        return streams;
+    }
+
 }
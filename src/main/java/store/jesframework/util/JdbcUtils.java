@@ -4,6 +4,7 @@ import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -15,6 +16,8 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class JdbcUtils {
 
+    private static final String INTEGRITY_CONSTRAINT_VIOLATION_CLASS = "23";
+
     private JdbcUtils() {
     }
 
@@ -119,4 +122,25 @@ public final class JdbcUtils {
         throw new IllegalArgumentException("Unsupported content type: " + type + " for db " + databaseName);
     }
 
+    /**
+     * Checks if the given exception (or any exception chained to it) reports an integrity constraint violation,
+     * i.e. has an SQLState of the class {@literal 23}.
+     *
+     * @param exception is an exception to check.
+     * @return true if the exception was caused by an integrity constraint violation, false otherwise.
+     */
+    public static boolean isIntegrityConstraintViolation(@Nullable Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause() != cause ? cause.getCause() : null) {
+            if (cause instanceof SQLException) {
+                for (SQLException next = (SQLException) cause; next != null; next = next.getNextException()) {
+                    final String state = next.getSQLState();
+                    if (state != null && state.startsWith(INTEGRITY_CONSTRAINT_VIOLATION_CLASS)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
 }
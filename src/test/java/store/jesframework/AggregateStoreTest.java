@@ -1,16 +1,22 @@
 package store.jesframework;
 
+import java.util.ArrayList;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.IntStream;
 import javax.persistence.EntityManagerFactory;
 
 import org.junit.jupiter.api.Test;
 
+import lombok.Cleanup;
 import store.jesframework.internal.FancyAggregate;
+import store.jesframework.provider.JdbcStoreProvider;
 import store.jesframework.provider.JpaStoreProvider;
 import store.jesframework.snapshot.InMemorySnapshotProvider;
 import store.jesframework.snapshot.SnapshotProvider;
 import store.jesframework.snapshot.SnapshotStrategy;
 
+import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -20,6 +26,7 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -28,6 +35,7 @@ import static store.jesframework.internal.Events.ProcessingStarted;
 import static store.jesframework.internal.Events.ProcessingTerminated;
 import static store.jesframework.internal.Events.SampleEvent;
 import static store.jesframework.internal.FancyStuff.newEntityManagerFactory;
+import static store.jesframework.internal.FancyStuff.newH2DataSource;
 
 class AggregateStoreTest {
 
@@ -68,6 +76,94 @@ class AggregateStoreTest {
         } catch (Exception ignored) {}
     }
 
+    @Test
+    void aggregateShouldBeRestoredByChunksWithIntermediateSnapshots() {
+        @Cleanup
+        final JdbcStoreProvider<String> storeProvider = new JdbcStoreProvider<>(newH2DataSource());
+
+        final JEventStore eventStore = new JEventStore(storeProvider);
+        final SnapshotProvider snapshotProvider = spy(new InMemorySnapshotProvider());
+        final SnapshotStrategy snapshotStrategy = mock(SnapshotStrategy.class);
+        when(snapshotStrategy.isSnapshotNecessary(any(), any())).thenReturn(true);
+        final AggregateStore aggregateStore = new AggregateStore(eventStore, snapshotProvider, snapshotStrategy);
+
+        final UUID uuid = UUID.randomUUID();
+        eventStore.write(IntStream.range(0, 25).mapToObj(i -> new FancyEvent("FOO" + i, uuid)).toArray(Event[]::new));
+
+        final FancyAggregate aggregate = aggregateStore.readBy(uuid, FancyAggregate.class, 10);
+        assertEquals(uuid, aggregate.uuid());
+        assertEquals(25, aggregate.streamVersion());
+        assertEquals("FOO24", aggregate.getFancyName());
+        // chunks of 10, 10 and 5 events
+        verify(snapshotStrategy, times(3)).isSnapshotNecessary(any(), any());
+        verify(snapshotProvider, times(3)).snapshot(aggregate);
+
+        // only the new events are read
+        eventStore.write(new ProcessingTerminated(uuid));
+        final FancyAggregate refreshed = aggregateStore.readBy(uuid, FancyAggregate.class, 10);
+        assertEquals(26, refreshed.streamVersion());
+        assertTrue(refreshed.isCancelled());
+        verify(snapshotStrategy, times(4)).isSnapshotNecessary(any(), any());
+    }
+
+    @Test
+    void snapshottedAggregateTailShouldBeReadAfterItsPosition() {
+        @Cleanup
+        final JdbcStoreProvider<String> storeProvider = spy(new JdbcStoreProvider<String>(newH2DataSource()));
+        final JEventStore eventStore = new JEventStore(storeProvider);
+        final AggregateStore aggregateStore = new AggregateStore(eventStore, new InMemorySnapshotProvider());
+
+        final UUID uuid = UUID.randomUUID();
+        eventStore.write(new FancyEvent("FOO", uuid));
+        eventStore.write(new FancyEvent("OTHER", UUID.randomUUID()));
+        final long position = eventStore.write(new FancyEvent("BAR", uuid));
+
+        final FancyAggregate aggregate = aggregateStore.readBy(uuid, FancyAggregate.class);
+        assertEquals(2, aggregate.streamVersion());
+        assertEquals(position, aggregate.streamPosition());
+        verify(storeProvider).readEnvelopesBy(uuid, 0, 0);
+
+        eventStore.write(new FancyEvent("OTHER", UUID.randomUUID()));
+        final long last = eventStore.write(new FancyEvent("BAZ", uuid));
+        final FancyAggregate refreshed = aggregateStore.readBy(uuid, FancyAggregate.class);
+        assertEquals(3, refreshed.streamVersion());
+        assertEquals(last, refreshed.streamPosition());
+        assertEquals("BAZ", refreshed.getFancyName());
+        // the snapshot knows its position, so the tail is read with a seek, not with an offset
+        verify(storeProvider).readEnvelopesBy(uuid, position, 2);
+    }
+
+    @Test
+    void aggregatesShouldBeReadAllAtOnceFromSnapshotsAndEventStreams() {
+        @Cleanup
+        final JdbcStoreProvider<String> storeProvider = new JdbcStoreProvider<>(newH2DataSource());
+        final JEventStore eventStore = new JEventStore(storeProvider);
+        final AggregateStore aggregateStore = new AggregateStore(eventStore, new InMemorySnapshotProvider());
+
+        final UUID snapshotted = UUID.randomUUID();
+        final UUID cancelled = UUID.randomUUID();
+        final UUID empty = UUID.randomUUID();
+        eventStore.write(new FancyEvent("FOO", snapshotted), new FancyEvent("BAR", cancelled));
+        // the snapshot covers the first event, so only the tail must be read
+        assertEquals(1, aggregateStore.readBy(snapshotted, FancyAggregate.class).streamVersion());
+        final long[] positions = eventStore.write(new ProcessingTerminated(cancelled),
+                new FancyEvent("BAZ", snapshotted));
+
+        final Map<UUID, FancyAggregate> aggregates = aggregateStore.readAll(asList(empty, snapshotted, cancelled),
+                FancyAggregate.class);
+
+        assertEquals(asList(empty, snapshotted, cancelled), new ArrayList<>(aggregates.keySet()));
+        assertEquals(0, aggregates.get(empty).streamVersion());
+        assertEquals(2, aggregates.get(snapshotted).streamVersion());
+        assertEquals(positions[1], aggregates.get(snapshotted).streamPosition());
+        assertEquals("BAZ", aggregates.get(snapshotted).getFancyName());
+        assertEquals(2, aggregates.get(cancelled).streamVersion());
+        assertEquals(positions[0], aggregates.get(cancelled).streamPosition());
+        assertEquals("BAR", aggregates.get(cancelled).getFancyName());
+        assertTrue(aggregates.get(cancelled).isCancelled());
+        assertEquals(aggregates.get(snapshotted), aggregateStore.readBy(snapshotted, FancyAggregate.class));
+    }
+
     @Test
     void shouldDelegateWritingEventsToUnderlyingStore() {
         final JEventStore eventStore = mock(JEventStore.class);
@@ -19,6 +19,8 @@ import com.zaxxer.hikari.HikariDataSource;
 
 import org.h2.jdbcx.JdbcConnectionPool;
 import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
 import org.hibernate.dialect.PostgreSQL95Dialect;
 import org.hibernate.jpa.HibernatePersistenceProvider;
 import org.redisson.Redisson;
@@ -187,9 +189,10 @@ public final class FancyStuff {
     }
 
     @Nonnull
-    private static EntityManagerFactory newEntityManagerFactory(@Nonnull PersistenceUnitInfo unitInfo) {
+    private static EntityManagerFactory newEntityManagerFactory(@Nonnull PersistenceUnitInfo unitInfo,
+                                                                @Nonnull Class<? extends Dialect> dialect) {
         final Map<String, Object> properties = new HashMap<>();
-        properties.put(DIALECT, PostgreSQL95Dialect.class);
+        properties.put(DIALECT, dialect);
         properties.put(USE_QUERY_CACHE, false);
         properties.put(SHOW_SQL, false);
         properties.put(FORMAT_SQL, false);
@@ -208,7 +211,13 @@ public final class FancyStuff {
     @Nonnull
     public static EntityManagerFactory newEntityManagerFactory(Class<?> serializationType) {
         final PersistenceUnitInfo unitInfo = newUnit(serializationType);
-        return newEntityManagerFactory(unitInfo);
+        return newEntityManagerFactory(unitInfo, PostgreSQL95Dialect.class);
+    }
+
+    @Nonnull
+    public static EntityManagerFactory newH2EntityManagerFactory(Class<?> serializationType) {
+        final PersistenceUnitInfo unitInfo = new JesUnitInfo(newH2DataSource(), serializationType);
+        return newEntityManagerFactory(unitInfo, H2Dialect.class);
     }
 
 }
@@ -0,0 +1,207 @@
+package store.jesframework.provider;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import lombok.Cleanup;
+import store.jesframework.Envelope;
+import store.jesframework.Event;
+import store.jesframework.ex.BrokenStoreException;
+import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.serializer.api.Format;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.UUID.randomUUID;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileStoreProviderTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int INDEX_INTERVAL = 4;
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void eventsShouldBeReadAcrossSegmentsAfterReopen(Format format) {
+        final UUID first = randomUUID();
+        final UUID second = randomUUID();
+        final int total = 500;
+        try (final FileStoreProvider<?> provider = newProvider(format)) {
+            for (int i = 0; i < total; i += 5) {
+                final Event[] batch = new Event[5];
+                for (int j = 0; j < batch.length; j++) {
+                    batch[j] = new SampleEvent("FOO" + (i + j), (i + j) % 2 == 0 ? first : second);
+                }
+                provider.write(batch);
+            }
+            assertStore(provider, first, second, total);
+        }
+        try (final FileStoreProvider<?> provider = newProvider(format)) {
+            assertStore(provider, first, second, total);
+            assertEquals(total + 1, provider.write(new SampleEvent("BAR", first, total / 2)));
+            assertEquals(total / 2 + 1, provider.readBy(first).size());
+        }
+    }
+
+    private static void assertStore(FileStoreProvider<?> provider, UUID first, UUID second, int total) {
+        assertEquals(total, provider.lastPosition());
+        assertEquals(total, provider.readFrom(0).count());
+        assertEquals(new SampleEvent("FOO250", first), provider.readFrom(250).findFirst().orElseThrow(
+                IllegalStateException::new));
+        assertArrayEquals(LongStream.rangeClosed(98, 130).toArray(),
+                provider.readEnvelopesRange(97, 130).stream().mapToLong(Envelope::position).toArray());
+        assertEquals(total / 2, provider.readBy(second).size());
+        assertEquals(new SampleEvent("FOO11", second), provider.readBy(second, 5).iterator().next());
+        @Cleanup
+        final Stream<Envelope> tail = provider.readEnvelopesBy(first, 481, 0);
+        assertArrayEquals(new long[] {483, 485, 487, 489, 491, 493, 495, 497, 499},
+                tail.mapToLong(Envelope::position).toArray());
+    }
+
+    @Test
+    void tornTailShouldBeTruncatedOnRecovery() throws IOException {
+        final UUID uuid = randomUUID();
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            provider.write(new SampleEvent("FOO", uuid), new SampleEvent("BAR", uuid));
+            provider.write(new SampleEvent("BAZ", uuid));
+        }
+        // corrupts the last byte of the last record
+        try (final FileChannel channel = FileChannel.open(directory.resolve("events-0000000000.seg"), READ, WRITE)) {
+            final ByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            int last = segment.capacity() - 1;
+            while (segment.get(last) == 0) {
+                last--;
+            }
+            segment.put(last, (byte) (segment.get(last) + 1));
+        }
+
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            assertEquals(2, provider.lastPosition());
+            assertEquals(2, provider.readBy(uuid).size());
+            assertEquals(3, provider.write(new SampleEvent("LAZ", uuid, 2)));
+        }
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            assertEquals(new SampleEvent("LAZ", uuid, 2), provider.readFrom(2).findFirst().orElseThrow(
+                    IllegalStateException::new));
+        }
+    }
+
+    @Test
+    void streamsIndexShouldBeRecoveredFromSegments() throws IOException {
+        final UUID uuid = randomUUID();
+        try (final FileStoreProvider<?> provider = newProvider(Format.BINARY_KRYO)) {
+            for (int i = 0; i < 100; i++) {
+                provider.write(new SampleEvent("FOO" + i, uuid), new SampleEvent("BAR" + i));
+            }
+        }
+        // the index is behind the segments, as if the process crashed right after the segment write
+        try (final FileChannel channel = FileChannel.open(directory.resolve("streams.idx"), WRITE)) {
+            channel.truncate(channel.size() / 2);
+        }
+        try (final FileStoreProvider<?> provider = newProvider(Format.BINARY_KRYO)) {
+            assertEquals(100, provider.readBy(uuid).size());
+            assertEquals(201, provider.write(new SampleEvent("BAZ", uuid, 100)));
+        }
+        try (final FileStoreProvider<?> provider = newProvider(Format.BINARY_KRYO)) {
+            assertEquals(101, provider.readBy(uuid).size());
+        }
+    }
+
+    @Test
+    void deletedEventsShouldStayDeletedAfterReopen() {
+        final UUID deleted = randomUUID();
+        final UUID kept = randomUUID();
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            provider.write(new SampleEvent("FOO", deleted), new SampleEvent("BAR", kept), new SampleEvent("BAZ", deleted));
+            provider.deleteBy(deleted);
+            assertEquals(0, provider.readBy(deleted).size());
+        }
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            final List<Envelope> envelopes = provider.readEnvelopesFrom(0).collect(Collectors.toList());
+            assertEquals(1, envelopes.size());
+            assertEquals(2, envelopes.get(0).position());
+            assertEquals(0, provider.readBy(deleted).size());
+            // the deleted stream starts over
+            assertEquals(4, provider.write(new SampleEvent("LAZ", deleted, 0)));
+        }
+    }
+
+    @Test
+    void batchWithVersionMismatchShouldNotBeWritten() {
+        final UUID uuid = randomUUID();
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            final Event[] events = {new SampleEvent("FOO", uuid, 0), new SampleEvent("BAR", uuid, 1),
+                    new SampleEvent("BAZ", uuid, 1)};
+
+            assertThrows(VersionMismatchException.class, () -> provider.write(events));
+            assertEquals(0, provider.lastPosition());
+            assertArrayEquals(new long[] {1, 2}, provider.write(events[0], events[1]));
+        }
+    }
+
+    @Test
+    void failedBatchShouldBeDiscarded() {
+        final UUID uuid = randomUUID();
+        final FileStoreProvider<?> closed = newProvider(Format.JSON_JACKSON);
+        closed.write(new SampleEvent("FOO", uuid));
+        closed.close();
+
+        // the streams index of the closed store can't be written
+        assertThrows(BrokenStoreException.class, () -> closed.write(new SampleEvent("BAR", uuid),
+                new SampleEvent("BAZ", uuid)));
+        assertEquals(1, closed.lastPosition());
+        assertEquals(1, closed.readBy(uuid).size());
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            assertEquals(1, provider.lastPosition());
+            assertEquals(1, provider.readBy(uuid).size());
+            assertEquals(2, provider.write(new SampleEvent("LAZ", uuid, 1)));
+            assertEquals(new SampleEvent("LAZ", uuid, 1), provider.readFrom(1).findFirst().orElseThrow(
+                    IllegalStateException::new));
+        }
+    }
+
+    @Test
+    void envelopesShouldBeReadLazily() {
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            provider.write(new SampleEvent("FOO", randomUUID()));
+            final Envelope envelope = provider.readEnvelopesFrom(0).findFirst().orElseThrow(
+                    IllegalStateException::new);
+            assertEquals(SampleEvent.class.getName(), envelope.type());
+            assertEquals("FOO", ((SampleEvent) envelope.event()).getName());
+        }
+    }
+
+    @Test
+    void openedStoreShouldNotBeOpenedAgain() {
+        final List<FileStoreProvider<?>> providers = new ArrayList<>();
+        try (final FileStoreProvider<?> provider = newProvider(Format.JSON_JACKSON)) {
+            providers.add(provider);
+            assertThrows(BrokenStoreException.class, () -> providers.add(newProvider(Format.JSON_JACKSON)));
+        }
+        assertEquals(1, providers.size());
+    }
+
+    private FileStoreProvider<?> newProvider(Format format) {
+        return new FileStoreProvider<>(directory, SEGMENT_SIZE, INDEX_INTERVAL, false, format);
+    }
+}
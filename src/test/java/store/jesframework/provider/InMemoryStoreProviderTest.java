@@ -0,0 +1,140 @@
+package store.jesframework.provider;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import javax.annotation.Nonnull;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import store.jesframework.Envelope;
+import store.jesframework.Event;
+import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.serializer.api.Format;
+
+import static java.util.UUID.randomUUID;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static store.jesframework.provider.InMemoryStoreProvider.Storage.OFF_HEAP;
+import static store.jesframework.serializer.api.Format.JSON_JACKSON;
+
+class InMemoryStoreProviderTest {
+
+    @Test
+    void eventsShouldBeReadAcrossChunksByPositionsAndStreams() {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider();
+        final UUID first = randomUUID();
+        final UUID second = randomUUID();
+        // more than one chunk of the log
+        final int total = 40_000;
+        range(0, total).forEach(i -> provider.write(new SampleEvent("FOO" + i, i % 2 == 0 ? first : second)));
+
+        assertEquals(total, provider.lastPosition());
+        assertEquals(total, provider.readFrom(0).count());
+        assertEquals(total / 2, provider.readBy(first).size());
+        assertEquals("FOO39999", ((SampleEvent) provider.readFrom(total - 1).findFirst().orElseThrow(
+                IllegalStateException::new)).getName());
+        assertArrayEquals(LongStream.rangeClosed(16_380, 16_390).toArray(),
+                provider.readEnvelopesRange(16_379, 16_390).stream().mapToLong(Envelope::position).toArray());
+    }
+
+    @Test
+    void deletedStreamShouldNotChangePositionsOfOtherEvents() {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider();
+        final UUID deleted = randomUUID();
+        final UUID kept = randomUUID();
+        provider.write(new SampleEvent("FOO", deleted), new SampleEvent("BAR", kept), new SampleEvent("BAZ", deleted));
+
+        provider.deleteBy(deleted);
+        final List<Envelope> envelopes = provider.readEnvelopesFrom(0).collect(Collectors.toList());
+        assertEquals(1, envelopes.size());
+        assertEquals(2, envelopes.get(0).position());
+        assertEquals(0, provider.readBy(deleted).size());
+        // the deleted stream starts over
+        assertEquals(4, provider.write(new SampleEvent("LAZ", deleted, 0)));
+    }
+
+    @Test
+    void batchWithVersionMismatchShouldNotBeWritten() {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider();
+        final UUID uuid = randomUUID();
+        final Event[] events = {new SampleEvent("FOO", uuid, 0), new SampleEvent("BAR", uuid, 1),
+                new SampleEvent("BAZ", uuid, 1)};
+
+        assertThrows(VersionMismatchException.class, () -> provider.write(events));
+        assertEquals(0, provider.lastPosition());
+        assertArrayEquals(new long[] {1, 2}, provider.write(events[0], events[1]));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void offHeapStorageShouldReadSerializedEvents(Format format) {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider(OFF_HEAP, format);
+        final UUID deleted = randomUUID();
+        final UUID kept = randomUUID();
+        final int total = 20_000;
+        range(0, total).forEach(i -> provider.write(new SampleEvent("FOO" + i, i % 2 == 0 ? deleted : kept)));
+
+        assertEquals(total, provider.readFrom(0).count());
+        assertEquals(new SampleEvent("FOO19999", kept), provider.readFrom(total - 1).findFirst().orElseThrow(
+                IllegalStateException::new));
+        assertEquals(total / 2, provider.readBy(kept).size());
+
+        provider.deleteBy(deleted);
+        final List<Envelope> envelopes = provider.readEnvelopesRange(0, 4);
+        assertEquals(2, envelopes.size());
+        assertEquals(4, envelopes.get(1).position());
+        assertEquals(new SampleEvent("FOO3", kept), envelopes.get(1).event());
+        assertEquals(0, provider.readBy(deleted).size());
+    }
+
+    @Test
+    void offHeapBatchWithUnserializableEventShouldNotBeWritten() {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider(OFF_HEAP, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+
+        assertThrows(Exception.class, () -> provider.write(new SampleEvent("FOO", uuid), new BrokenEvent(uuid),
+                new SampleEvent("BAR", uuid)));
+        assertEquals(0, provider.lastPosition());
+        assertEquals(0, provider.readBy(uuid).size());
+        assertEquals(1, provider.write(new SampleEvent("BAZ", uuid, 0)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(InMemoryStoreProvider.Storage.class)
+    void closedProviderShouldBeEmpty(InMemoryStoreProvider.Storage storage) {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider(storage, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        provider.write(new SampleEvent("FOO", uuid), new SampleEvent("BAR", uuid));
+
+        provider.close();
+        assertEquals(0, provider.lastPosition());
+        assertEquals(0, provider.readFrom(0).count());
+        assertEquals(0, provider.readBy(uuid).size());
+    }
+
+    private static class BrokenEvent implements Event {
+
+        private final UUID uuid;
+        // the direct self-reference can't be serialized
+        @SuppressWarnings("unused")
+        private final Object self = this;
+
+        BrokenEvent(UUID uuid) {
+            this.uuid = uuid;
+        }
+
+        @Nonnull
+        @Override
+        public UUID uuid() {
+            return uuid;
+        }
+    }
+}
@@ -4,7 +4,11 @@ import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
 import java.util.stream.Stream;
 import javax.sql.DataSource;
 
@@ -23,14 +27,20 @@ import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static store.jesframework.util.PropsReader.getProperty;
 
 @Slf4j
 class JdbcClusterStoreProviderTest {
@@ -241,6 +251,96 @@ class JdbcClusterStoreProviderTest {
         clearInvocations(replica);
     }
 
+    @Test
+    @SneakyThrows
+    void readsByOffsetShouldBeRoutedToCaughtUpReplicas() {
+        final DataSource master = mockDataSource();
+        final DataSource lagging = mockDataSource(5);
+        final DataSource caughtUp = mockDataSource(100);
+        final Map<DataSource, Integer> replicas = new LinkedHashMap<>();
+        replicas.put(lagging, 10);
+        replicas.put(caughtUp, 1);
+        // the replicas are probed in order: the second probe of the lagging one follows the first probe of both
+        final CountDownLatch probed = new CountDownLatch(2);
+        when(lagging.getConnection().prepareStatement("").executeQuery().getLong(1)).thenAnswer(invocation -> {
+            probed.countDown();
+            return 5L;
+        });
+        @Cleanup
+        final JdbcClusterStoreProvider<String> provider = new JdbcClusterStoreProvider<>(master, replicas, 1, SECONDS,
+                10);
+        assertTrue(probed.await(5, SECONDS));
+
+        for (int i = 0; i < 10; i++) {
+            //noinspection unused
+            @Cleanup
+            final Stream<Event> ignored = provider.readFrom(50);
+        }
+        final String query = getProperty("jes.jdbc.statement.select-events");
+        verify(caughtUp.getConnection(), times(10)).prepareStatement(eq(query), anyInt(), anyInt());
+        verify(lagging.getConnection(), never()).prepareStatement(eq(query), anyInt(), anyInt());
+        verify(master.getConnection(), never()).prepareStatement(eq(query), anyInt(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void failedReplicaShouldBeEjected() {
+        final DataSource master = mockDataSource();
+        final DataSource replica = mockDataSource();
+        @Cleanup
+        final JdbcClusterStoreProvider<String> provider = new JdbcClusterStoreProvider<>(master,
+                singleton(replica), 1, SECONDS);
+        clearInvocations(master);
+        when(replica.getConnection()).thenThrow(new SQLException("Replica is down"));
+
+        assertDoesNotThrow(() -> provider.readBy(UUID.randomUUID()));
+        verify(master, times(1)).getConnection();
+        verify(replica, times(1)).getConnection();
+
+        // the ejected replica is not used anymore
+        provider.readBy(UUID.randomUUID());
+        verify(master, times(2)).getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @Test
+    @SneakyThrows
+    void replicaFailedWhileStreamIsReadShouldBeEjected() {
+        final DataSource master = mockDataSource();
+        final DataSource replica = mockDataSource();
+        @Cleanup
+        final JdbcClusterStoreProvider<String> provider = new JdbcClusterStoreProvider<>(master,
+                singleton(replica), 1, SECONDS);
+        clearInvocations(master);
+        // the stream is opened, but the connection is lost while the rows are read
+        when(replica.getConnection().prepareStatement("").executeQuery().next())
+                .thenThrow(new SQLException("Replica is down"));
+        clearInvocations(replica);
+
+        try (final Stream<Event> events = provider.readFrom(0)) {
+            assertEquals(0, events.count());
+        }
+        verify(master, times(1)).getConnection();
+        verify(replica, times(1)).getConnection();
+
+        // the ejected replica is not used anymore
+        try (final Stream<Event> events = provider.streamBy(UUID.randomUUID(), 0)) {
+            assertEquals(0, events.count());
+        }
+        verify(master, times(2)).getConnection();
+        verify(replica, times(1)).getConnection();
+    }
+
+    @SneakyThrows
+    private DataSource mockDataSource(long lastPosition) {
+        final DataSource dataSource = mockDataSource();
+        final ResultSet resultSet = dataSource.getConnection().prepareStatement("").executeQuery();
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(lastPosition);
+        clearInvocations(dataSource);
+        return dataSource;
+    }
+
     @SneakyThrows
     private DataSource mockDataSource() {
         final DataSource dataSource = mock(DataSource.class);
@@ -248,17 +348,22 @@ class JdbcClusterStoreProviderTest {
         final DatabaseMetaData metaData = mock(DatabaseMetaData.class);
         final PreparedStatement statement = mock(PreparedStatement.class);
         final ResultSet resultSet = mock(ResultSet.class);
+        final ResultSet generatedKeys = mock(ResultSet.class);
         when(dataSource.getConnection()).thenReturn(connection);
         when(connection.getMetaData()).thenReturn(metaData);
 
         when(connection.prepareStatement(anyString())).thenReturn(statement);
         //noinspection MagicConstant
         when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(statement);
+        when(connection.prepareStatement(anyString(), any(String[].class))).thenReturn(statement);
 
         when(metaData.supportsBatchUpdates()).thenReturn(true);
         when(metaData.getDatabaseProductName()).thenReturn("H2");
         when(statement.executeUpdate()).thenReturn(1);
+        when(statement.executeBatch()).thenReturn(new int[] {1, 1});
         when(statement.executeQuery()).thenReturn(resultSet);
+        when(statement.getGeneratedKeys()).thenReturn(generatedKeys);
+        when(generatedKeys.next()).thenReturn(true);
         return dataSource;
     }
 
@@ -0,0 +1,488 @@
+package store.jesframework.provider;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import store.jesframework.Envelope;
+import store.jesframework.Event;
+import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.internal.Events.ProcessingStarted;
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.provider.jdbc.JdbcClassRegistry;
+import store.jesframework.serializer.api.Compression;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static store.jesframework.internal.FancyStuff.newH2DataSource;
+import static store.jesframework.internal.FancyStuff.newPostgresDataSource;
+import static store.jesframework.provider.jdbc.ReadMode.CURSOR;
+import static store.jesframework.provider.jdbc.ReadMode.PAGED;
+import static store.jesframework.serializer.api.Format.BINARY_KRYO;
+import static store.jesframework.serializer.api.Format.JSON_JACKSON;
+import static store.jesframework.util.PropsReader.getProperty;
+
+class JdbcStoreProviderTest {
+
+    private static final int WORKERS_COUNT = 8;
+
+    @Test
+    @SneakyThrows
+    void onlyOneOfConcurrentWritesWithTheSameExpectedVersionShouldSucceed() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        provider.write(new SampleEvent("FOO", uuid, 0));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(WORKERS_COUNT);
+        try {
+            final List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < WORKERS_COUNT; i++) {
+                writes.add(executor.submit(() -> provider.write(new SampleEvent("BAR", uuid, 1))));
+            }
+            int mismatches = 0;
+            for (Future<?> write : writes) {
+                try {
+                    write.get();
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof VersionMismatchException);
+                    mismatches++;
+                }
+            }
+            assertEquals(WORKERS_COUNT - 1, mismatches);
+            assertEquals(2, provider.readBy(uuid).size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentUnversionedWritesIntoTheSameStreamShouldNotConflict() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID uuid = randomUUID();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(WORKERS_COUNT);
+        try {
+            final List<Future<?>> writes = new ArrayList<>();
+            for (int i = 0; i < WORKERS_COUNT * 10; i++) {
+                writes.add(executor.submit(() -> provider.write(new SampleEvent("FOO", uuid))));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+            assertEquals(WORKERS_COUNT * 10, provider.readBy(uuid).size());
+            // every write must take the next stream version
+            assertEquals(WORKERS_COUNT * 10, provider.readBy(uuid, 0).size());
+            provider.write(new SampleEvent("BAR", uuid, WORKERS_COUNT * 10));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void batchWriteShouldBeRejectedAsAWholeOnVersionMismatch() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        provider.write(new SampleEvent("FOO", uuid, 0), new SampleEvent("BAR", uuid, 1));
+
+        final Event[] events = {new SampleEvent("BAZ", uuid, 2), new SampleEvent("LAZ", uuid, 2)};
+        assertThrows(VersionMismatchException.class, () -> provider.write(events));
+        assertEquals(2, provider.readBy(uuid).size());
+
+        provider.write(new SampleEvent("BAZ", uuid, 2), new SampleEvent("LAZ", uuid, 3), new SampleEvent("Z"));
+        assertEquals(4, provider.readBy(uuid).size());
+    }
+
+    @Test
+    @SneakyThrows
+    void streamVersionsShouldBeAddedToTheExistingEventStore() {
+        final DataSource dataSource = newH2DataSource();
+        final UUID uuid = randomUUID();
+        // event store, created before the version column was added
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                     "CREATE TABLE event_store (id BIGSERIAL PRIMARY KEY, uuid UUID, data VARCHAR NOT NULL)")) {
+            statement.executeUpdate();
+        }
+        @Cleanup
+        final JdbcStoreProvider<String> legacy = new JdbcStoreProvider<>(dataSource, JSON_JACKSON);
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE event_store SET version = NULL")) {
+            legacy.write(new SampleEvent("FOO", uuid), new ProcessingStarted(), new SampleEvent("BAR", uuid));
+            statement.executeUpdate();
+        }
+
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(dataSource, JSON_JACKSON);
+        assertEquals(1, provider.readBy(uuid, 1).size());
+        assertThrows(VersionMismatchException.class, () -> provider.write(new SampleEvent("BAZ", uuid, 1)));
+        provider.write(new SampleEvent("BAZ", uuid, 2));
+        assertEquals(3, provider.readBy(uuid).size());
+    }
+
+    @Test
+    @SneakyThrows
+    void archivedStreamShouldBeReadAndWrittenWithTheNextVersions(@TempDir Path archiveDirectory) {
+        final DataSource dataSource = newPostgresDataSource("partitioned", "postgres:11");
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(dataSource, false, CURSOR, 10,
+                archiveDirectory, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        for (int version = 0; version < 15; version++) {
+            provider.write(new SampleEvent(String.valueOf(version), uuid, version));
+        }
+        // events 1-9 of the stream are moved into the archive
+        assertEquals(1, provider.archivePartitions(10));
+
+        final List<String> names = provider.readBy(uuid).stream()
+                .map(event -> ((SampleEvent) event).getName())
+                .collect(Collectors.toList());
+        assertEquals(range(0, 15).mapToObj(String::valueOf).collect(Collectors.toList()), names);
+        assertEquals(8, provider.readBy(uuid, 7).size());
+        assertEquals(3, provider.readBy(uuid, 12).size());
+        try (final Stream<Envelope> envelopes = provider.readEnvelopesBy(uuid, 5, 5)) {
+            assertEquals(10, envelopes.count());
+        }
+        assertEquals(15, provider.readAllBy(singletonMap(uuid, 0L)).get(uuid).size());
+
+        // the versions continue after the archived events, and the archived versions can't be written again
+        assertThrows(VersionMismatchException.class, () -> provider.write(new SampleEvent("FOO", uuid, 9)));
+        provider.write(new SampleEvent("FOO", uuid, 15));
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                     "INSERT INTO event_store (uuid, version, type, data) VALUES (?, 3, NULL, '{}')")) {
+            statement.setObject(1, uuid);
+            assertThrows(SQLException.class, statement::executeUpdate);
+        }
+
+        // deleted stream starts over
+        provider.deleteBy(uuid);
+        assertTrue(provider.readBy(uuid).isEmpty());
+        provider.write(new SampleEvent("BAR", uuid, 0));
+        assertEquals(1, provider.readBy(uuid).size());
+    }
+
+    @Test
+    @SneakyThrows
+    void asyncWritesShouldReturnAssignedPositions() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+
+        final List<CompletableFuture<long[]>> writes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            writes.add(provider.writeAsync(new SampleEvent("FOO " + i), new SampleEvent("BAR " + i)));
+        }
+        final Set<Long> positions = new HashSet<>();
+        for (CompletableFuture<long[]> write : writes) {
+            final long[] assigned = write.get(5, SECONDS);
+            assertEquals(2, assigned.length);
+            assertEquals(assigned[0] + 1, assigned[1]);
+            positions.add(assigned[0]);
+            positions.add(assigned[1]);
+        }
+        assertEquals(200, positions.size());
+
+        try (final Stream<Event> stream = provider.readFrom(0)) {
+            assertEquals(200, stream.count());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void asyncWriteConflictShouldFailOnlyItsOwnFuture() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        provider.write(new SampleEvent("FOO", uuid, 0));
+
+        final CompletableFuture<long[]> first = provider.writeAsync(new SampleEvent("BAR", uuid, 1));
+        final CompletableFuture<long[]> conflicting = provider.writeAsync(new SampleEvent("BAZ", uuid, 1));
+        final CompletableFuture<long[]> unrelated = provider.writeAsync(new SampleEvent("LAZ", randomUUID()));
+
+        assertEquals(1, first.get(5, SECONDS).length);
+        assertEquals(1, unrelated.get(5, SECONDS).length);
+        final ExecutionException exception = assertThrows(ExecutionException.class, conflicting::get);
+        assertTrue(exception.getCause() instanceof VersionMismatchException);
+        assertEquals(2, provider.readBy(uuid).size());
+    }
+
+    @Test
+    void bulkWriteShouldWriteEventsByChunksInOrder() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        final int chunkSize = Integer.parseInt(getProperty("jes.jdbc.bulk-write.chunk-size"));
+        final List<Event> expected = range(0, chunkSize + 1)
+                .mapToObj(i -> new SampleEvent("" + i, i % 2 == 0 ? uuid : null, i % 2 == 0 ? i / 2 : -1))
+                .collect(Collectors.toList());
+
+        assertEquals(expected.size(), provider.bulkWrite(expected.stream()));
+
+        try (final Stream<Event> stream = provider.readFrom(0)) {
+            final List<String> names = stream.map(event -> ((SampleEvent) event).getName()).collect(Collectors.toList());
+            assertEquals(expected.stream().map(event -> ((SampleEvent) event).getName()).collect(Collectors.toList()),
+                    names);
+        }
+        assertEquals(chunkSize / 2 + 1, provider.readBy(uuid).size());
+        assertThrows(VersionMismatchException.class, () -> provider.write(new SampleEvent("FOO", uuid, chunkSize / 2)));
+    }
+
+    @Test
+    void failedBulkWriteShouldKeepTheCommittedChunks() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        final int chunkSize = Integer.parseInt(getProperty("jes.jdbc.bulk-write.chunk-size"));
+        // the last event doesn't match the version of its stream, only the first chunk is committed
+        final Stream<Event> events = range(0, chunkSize + 2)
+                .mapToObj(i -> new SampleEvent("" + i, i < chunkSize ? null : uuid, i < chunkSize ? -1 : 0));
+
+        assertThrows(VersionMismatchException.class, () -> provider.bulkWrite(events));
+
+        try (final Stream<Event> stream = provider.readFrom(0)) {
+            assertEquals(chunkSize, stream.count());
+        }
+        assertEquals(0, provider.readBy(uuid).size());
+    }
+
+    @Test
+    void writesShouldReturnPositionsOfEnvelopes() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final UUID deleted = randomUUID();
+
+        final long first = provider.write(new SampleEvent("FOO"));
+        provider.write(new SampleEvent("BAR", deleted), new SampleEvent("BAZ", deleted));
+        final long[] batch = provider.write(new SampleEvent("LAZ"), new SampleEvent("ZAZ"));
+        // deletion leaves a gap between positions
+        provider.deleteBy(deleted);
+
+        assertEquals(2, batch.length);
+        assertTrue(first < batch[0] - 2);
+        assertEquals(batch[0] + 1, batch[1]);
+        try (final Stream<Envelope> stream = provider.readEnvelopesFrom(0)) {
+            final long[] positions = stream.mapToLong(Envelope::position).toArray();
+            assertArrayEquals(new long[] {first, batch[0], batch[1]}, positions);
+        }
+        try (final Stream<Envelope> stream = provider.readEnvelopesFrom(first)) {
+            final Envelope next = stream.findFirst().orElseThrow(IllegalStateException::new);
+            assertEquals(batch[0], next.position());
+            // the type is known before the event is deserialized
+            assertEquals(SampleEvent.class.getName(), next.type());
+            assertEquals("LAZ", ((SampleEvent) next.event()).getName());
+        }
+    }
+
+    @Test
+    void compressedEventsShouldBeWrittenAndReadWithTheirTypes() {
+        final DataSource dataSource = newH2DataSource();
+        final UUID uuid = randomUUID();
+        try (final JdbcStoreProvider<String> legacy = new JdbcStoreProvider<>(dataSource, JSON_JACKSON)) {
+            legacy.write(new SampleEvent("FOO", uuid));
+        }
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(dataSource, JSON_JACKSON,
+                Compression.deflate());
+
+        provider.write(new ProcessingStarted(), new SampleEvent("BAR", uuid));
+        assertEquals(2, provider.readBy(uuid).size());
+        try (final Stream<Envelope> stream = provider.readEnvelopesFrom(0, singleton(SampleEvent.class.getName()))) {
+            final List<Envelope> envelopes = stream.collect(Collectors.toList());
+            assertEquals(3, envelopes.size());
+            assertEquals(SampleEvent.class.getName(), envelopes.get(2).type());
+            assertEquals("BAR", ((SampleEvent) envelopes.get(2).event()).getName());
+            assertNull(envelopes.get(1).event());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void kryoEventsShouldBeWrittenWithClassNamesByDefault() {
+        final DataSource dataSource = newH2DataSource();
+        @Cleanup
+        final JdbcStoreProvider<byte[]> provider = new JdbcStoreProvider<>(dataSource, BINARY_KRYO);
+        final UUID uuid = randomUUID();
+
+        provider.write(new SampleEvent("FOO", uuid), new SampleEvent("BAR", uuid));
+        assertEquals(2, provider.readBy(uuid).size());
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement("SELECT COUNT(*) FROM class_registry");
+             final ResultSet set = statement.executeQuery()) {
+            assertTrue(set.next());
+            assertEquals(0, set.getInt(1));
+        }
+
+        // the events, written with the class names, are read with the registry too
+        @Cleanup
+        final JdbcStoreProvider<byte[]> registered = new JdbcStoreProvider<>(dataSource, BINARY_KRYO,
+                new JdbcClassRegistry(dataSource));
+        assertEquals(2, registered.readBy(uuid).size());
+    }
+
+    @Test
+    @SneakyThrows
+    void kryoEventsShouldBeWrittenWithRegisteredClassIds() {
+        final DataSource dataSource = newH2DataSource();
+        @Cleanup
+        final JdbcStoreProvider<byte[]> provider = new JdbcStoreProvider<>(dataSource, BINARY_KRYO,
+                new JdbcClassRegistry(dataSource));
+        final UUID uuid = randomUUID();
+
+        provider.write(new SampleEvent("FOO", uuid), new ProcessingStarted(), new SampleEvent("BAR", uuid));
+        assertEquals(2, provider.readBy(uuid).size());
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                     "SELECT class_name FROM class_registry ORDER BY id");
+             final ResultSet set = statement.executeQuery()) {
+            final List<String> classNames = new ArrayList<>();
+            while (set.next()) {
+                classNames.add(set.getString(1));
+            }
+            assertTrue(classNames.contains(SampleEvent.class.getName()));
+            assertTrue(classNames.contains(ProcessingStarted.class.getName()));
+        }
+
+        // another provider of the store resolves the same ids
+        @Cleanup
+        final JdbcStoreProvider<byte[]> another = new JdbcStoreProvider<>(dataSource, BINARY_KRYO,
+                new JdbcClassRegistry(dataSource));
+        try (final Stream<Envelope> stream = another.readEnvelopesFrom(0, singleton(SampleEvent.class.getName()))) {
+            final List<Envelope> envelopes = stream.collect(Collectors.toList());
+            assertEquals(3, envelopes.size());
+            assertEquals(SampleEvent.class.getName(), envelopes.get(2).type());
+            assertEquals("BAR", ((SampleEvent) envelopes.get(2).event()).getName());
+            assertNull(envelopes.get(1).event());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void typedReadShouldSkipEventsOfOtherTypesButReturnTheirPositions() {
+        final DataSource dataSource = newH2DataSource();
+        @Cleanup
+        final JdbcStoreProvider<String> cursor = new JdbcStoreProvider<>(dataSource, CURSOR, JSON_JACKSON);
+        @Cleanup
+        final JdbcStoreProvider<String> paged = new JdbcStoreProvider<>(dataSource, PAGED, JSON_JACKSON);
+
+        final long[] positions = cursor.write(new SampleEvent("FOO"), new ProcessingStarted(), new SampleEvent("BAR"),
+                new ProcessingStarted());
+        // events, written before the type column was added, have no type
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE event_store SET type = NULL WHERE id = ?")) {
+            statement.setLong(1, positions[3]);
+            assertEquals(1, statement.executeUpdate());
+        }
+
+        final Set<String> types = singleton(SampleEvent.class.getName());
+        for (JdbcStoreProvider<String> provider : Arrays.asList(cursor, paged)) {
+            try (final Stream<Envelope> stream = provider.readEnvelopesFrom(0, types)) {
+                final List<Envelope> envelopes = stream.collect(Collectors.toList());
+                assertArrayEquals(positions, envelopes.stream().mapToLong(Envelope::position).toArray());
+                assertEquals("FOO", ((SampleEvent) envelopes.get(0).event()).getName());
+                assertNull(envelopes.get(1).event());
+                assertEquals("BAR", ((SampleEvent) envelopes.get(2).event()).getName());
+                // legacy event is read, but filtered out by its actual type
+                assertNull(envelopes.get(3).event());
+            }
+            try (final Stream<Event> stream = provider.readFrom(positions[0], types)) {
+                assertEquals(1, stream.count());
+            }
+        }
+    }
+
+    @Test
+    void pagedReadShouldReadTheSameEventsAsCursorReadAndReleaseConnections() {
+        final JdbcConnectionPool dataSource = (JdbcConnectionPool) newH2DataSource();
+        @Cleanup
+        final JdbcStoreProvider<String> cursor = new JdbcStoreProvider<>(dataSource, CURSOR, JSON_JACKSON);
+        @Cleanup
+        final JdbcStoreProvider<String> paged = new JdbcStoreProvider<>(dataSource, PAGED, JSON_JACKSON);
+        final UUID deleted = randomUUID();
+
+        final int pageSize = Integer.parseInt(getProperty("jes.jdbc.paged-read.page-size"));
+        final Event[] events = range(0, pageSize * 2 + 1).mapToObj(i -> new SampleEvent("" + i)).toArray(Event[]::new);
+        paged.write(events);
+        paged.write(new SampleEvent("FOO", deleted));
+        paged.write(events);
+        // deletion leaves a gap, that must not break the reading
+        paged.deleteBy(deleted);
+
+        final long[] expected;
+        try (final Stream<Envelope> stream = cursor.readEnvelopesFrom(0)) {
+            expected = stream.mapToLong(Envelope::position).toArray();
+        }
+        try (final Stream<Envelope> stream = paged.readEnvelopesFrom(0)) {
+            final Iterator<Envelope> iterator = stream.iterator();
+            assertTrue(iterator.hasNext());
+            // the connection is not held between pages
+            assertEquals(0, dataSource.getActiveConnections());
+
+            final long[] actual = new long[expected.length];
+            int index = 0;
+            while (iterator.hasNext()) {
+                actual[index++] = iterator.next().position();
+            }
+            assertEquals(events.length * 2, index);
+            assertArrayEquals(expected, actual);
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void changeListenersShouldBeNotifiedAboutWrites() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource(), JSON_JACKSON);
+        final AtomicInteger notifications = new AtomicInteger();
+        final Runnable listener = notifications::incrementAndGet;
+        provider.addChangeListener(listener);
+
+        provider.write(new SampleEvent("FOO"));
+        assertEquals(1, notifications.get());
+        provider.write(new SampleEvent("BAR"), new SampleEvent("BAZ"));
+        assertEquals(2, notifications.get());
+        provider.writeAsync(new SampleEvent("LAZ")).get(5, SECONDS);
+        assertEquals(3, notifications.get());
+
+        provider.removeChangeListener(listener);
+        provider.write(new SampleEvent("ZAZ"));
+        assertEquals(3, notifications.get());
+    }
+
+}
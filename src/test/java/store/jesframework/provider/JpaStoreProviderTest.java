@@ -0,0 +1,169 @@
+package store.jesframework.provider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.jupiter.api.Test;
+
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import store.jesframework.Envelope;
+import store.jesframework.Event;
+import store.jesframework.ex.BrokenStoreException;
+import store.jesframework.ex.VersionMismatchException;
+import store.jesframework.internal.Events.ProcessingStarted;
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.provider.jdbc.ReadMode;
+
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static store.jesframework.internal.FancyStuff.newH2EntityManagerFactory;
+import static store.jesframework.serializer.api.Format.JSON_JACKSON;
+
+class JpaStoreProviderTest {
+
+    @Test
+    void batchWriteShouldReturnPositionsOfTheWrittenEvents() {
+        @Cleanup
+        final EntityManagerFactory factory = newH2EntityManagerFactory(String.class);
+        @Cleanup
+        final JpaStoreProvider<String> provider = new JpaStoreProvider<>(factory, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+
+        final long first = provider.write(new SampleEvent("FOO", uuid, 0));
+        final long[] positions = provider.write(new SampleEvent("BAR", uuid, 1), new SampleEvent("BAZ"),
+                new SampleEvent("LAZ", uuid, 2));
+
+        assertEquals(3, positions.length);
+        try (final Stream<Envelope> envelopes = provider.readEnvelopesFrom(0)) {
+            final long[] read = envelopes.mapToLong(Envelope::position).toArray();
+            assertArrayEquals(new long[] {first, positions[0], positions[1], positions[2]}, read);
+        }
+        final Collection<Event> stream = provider.readBy(uuid);
+        assertEquals(3, stream.size());
+    }
+
+    @Test
+    void batchWriteShouldBeRejectedAsAWholeOnVersionMismatchInsideTheBatch() {
+        @Cleanup
+        final EntityManagerFactory factory = newH2EntityManagerFactory(String.class);
+        @Cleanup
+        final JpaStoreProvider<String> provider = new JpaStoreProvider<>(factory, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        provider.write(new SampleEvent("FOO", uuid, 0));
+
+        // the second event of the stream expects the version before the first one of the batch
+        assertThrows(VersionMismatchException.class, () -> provider.write(new SampleEvent("BAR", uuid, 1),
+                new SampleEvent("BAZ"), new SampleEvent("LAZ", uuid, 1)));
+
+        try (final Stream<Event> events = provider.readFrom(0)) {
+            assertEquals(1, events.collect(toList()).size());
+        }
+        provider.write(new SampleEvent("BAR", uuid, 1), new SampleEvent("LAZ", uuid, 2));
+        assertEquals(3, provider.readBy(uuid).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamEventsShouldBeWrittenWithTheirVersionsAndTypes() {
+        @Cleanup
+        final EntityManagerFactory factory = newH2EntityManagerFactory(String.class);
+        @Cleanup
+        final JpaStoreProvider<String> provider = new JpaStoreProvider<>(factory, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+
+        provider.write(new SampleEvent("FOO", uuid));
+        provider.write(new SampleEvent("BAR", uuid, 1), new ProcessingStarted(), new SampleEvent("LAZ", uuid));
+
+        @Cleanup
+        final EntityManager entityManager = factory.createEntityManager();
+        final List<Object[]> rows = entityManager.createNativeQuery("SELECT version, type FROM event_store ORDER BY id")
+                .getResultList();
+        assertEquals(4, rows.size());
+        assertEquals(Arrays.asList(1L, 2L, null, 3L), rows.stream()
+                .map(row -> row[0] != null ? ((Number) row[0]).longValue() : null)
+                .collect(toList()));
+        assertEquals(Arrays.asList(SampleEvent.class.getName(), SampleEvent.class.getName(),
+                ProcessingStarted.class.getName(), SampleEvent.class.getName()),
+                rows.stream().map(row -> row[1]).collect(toList()));
+    }
+
+    @Test
+    @SneakyThrows
+    void concurrentWritesOfTheSameVersionShouldBeRejected() {
+        @Cleanup
+        final EntityManagerFactory factory = newH2EntityManagerFactory(String.class);
+        @Cleanup
+        final JpaStoreProvider<String> provider = new JpaStoreProvider<>(factory, JSON_JACKSON);
+        final UUID uuid = randomUUID();
+        provider.write(new SampleEvent("FOO", uuid, 0));
+
+        final int writers = 8;
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<?>> writes = new ArrayList<>();
+        for (int i = 0; i < writers; i++) {
+            writes.add(executor.submit(() -> {
+                start.await();
+                return provider.write(new SampleEvent("BAR", uuid, 1));
+            }));
+        }
+        start.countDown();
+        int written = 0;
+        for (Future<?> write : writes) {
+            try {
+                write.get(10, SECONDS);
+                written++;
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof VersionMismatchException
+                        || e.getCause() instanceof BrokenStoreException, e.getCause().toString());
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, written);
+        assertEquals(2, provider.readBy(uuid).size());
+    }
+
+    @Test
+    void pagedReadShouldContinueFromTheLastReadPosition() {
+        @Cleanup
+        final EntityManagerFactory factory = newH2EntityManagerFactory(String.class);
+        @Cleanup
+        final JpaStoreProvider<String> provider = new JpaStoreProvider<>(factory, ReadMode.PAGED, 3, JSON_JACKSON);
+        final long[] positions = provider.write(range(0, 12).mapToObj(i -> new SampleEvent("" + i))
+                .toArray(Event[]::new));
+        // the deleted events leave a gap inside the page
+        final UUID deleted = randomUUID();
+        provider.write(new SampleEvent("FOO", deleted), new SampleEvent("BAR", deleted));
+        provider.deleteBy(deleted);
+        final long last = provider.write(new SampleEvent("12"));
+
+        // 10 events from the position of the second one: more than 3 pages, the last one is not full
+        try (final Stream<Event> events = provider.readFrom(positions[1])) {
+            assertEquals(range(2, 13).mapToObj(i -> "" + i).collect(toList()),
+                    events.map(event -> ((SampleEvent) event).getName()).collect(toList()));
+        }
+        try (final Stream<Envelope> envelopes = provider.readEnvelopesFrom(positions[8])) {
+            assertArrayEquals(new long[] {positions[9], positions[10], positions[11], last},
+                    envelopes.mapToLong(Envelope::position).toArray());
+        }
+    }
+}
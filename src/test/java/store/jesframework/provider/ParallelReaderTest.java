@@ -0,0 +1,172 @@
+package store.jesframework.provider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+import lombok.Cleanup;
+import lombok.SneakyThrows;
+import store.jesframework.Envelope;
+import store.jesframework.Event;
+import store.jesframework.internal.Events.ProcessingStarted;
+import store.jesframework.internal.Events.SampleEvent;
+
+import static java.util.UUID.randomUUID;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.IntStream.range;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static store.jesframework.internal.FancyStuff.newH2DataSource;
+
+class ParallelReaderTest {
+
+    private static final int RANGE_SIZE = 7;
+    private static final Duration COMMIT_LAG = Duration.ofMillis(50);
+
+    @Test
+    void parallelReadShouldReadTheSameEnvelopesAsSequentialRead() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource());
+        final UUID deleted = randomUUID();
+        provider.write(range(0, 50).mapToObj(i -> new SampleEvent("" + i)).toArray(Event[]::new));
+        provider.write(new SampleEvent("FOO", deleted), new SampleEvent("BAR", deleted));
+        provider.write(range(0, 50).mapToObj(i -> new SampleEvent("" + i)).toArray(Event[]::new));
+        // deletion leaves a gap, that must not break the reading
+        provider.deleteBy(deleted);
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long offset : new long[] {0, 10, 51}) {
+                final long[] expected;
+                try (final Stream<Envelope> stream = provider.readEnvelopesFrom(offset)) {
+                    expected = stream.mapToLong(Envelope::position).toArray();
+                }
+                final ParallelReader reader = new ParallelReader(provider, pool, RANGE_SIZE, COMMIT_LAG);
+                try (final Stream<Envelope> stream = reader.read(offset, UnaryOperator.identity())) {
+                    assertArrayEquals(expected, stream.mapToLong(Envelope::position).toArray());
+                }
+
+                final Set<Long> consumed = ConcurrentHashMap.newKeySet();
+                reader.forEach(offset, envelope -> consumed.add(envelope.position()));
+                assertEquals(expected.length, consumed.size());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void parallelReadShouldReadTheWritesCommittedWithinTheCommitLag() {
+        final DataSource dataSource = newH2DataSource();
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(dataSource);
+        provider.write(new ProcessingStarted());
+
+        final long[] expected = new long[RANGE_SIZE * 2];
+        @Cleanup
+        final Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        // the position in the middle of the range is taken, but not committed yet
+        try (final PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO event_store (type, data) SELECT type, data FROM event_store WHERE id = 1")) {
+            statement.executeUpdate();
+        }
+        provider.write(range(0, expected.length - 2).mapToObj(i -> new SampleEvent("" + i)).toArray(Event[]::new));
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = i + 1;
+        }
+
+        final ParallelReader reader = new ParallelReader(provider, ForkJoinPool.commonPool(), RANGE_SIZE,
+                Duration.ofSeconds(1));
+        final CompletableFuture<long[]> read = CompletableFuture.supplyAsync(() -> {
+            try (final Stream<Envelope> stream = reader.read(0, UnaryOperator.identity())) {
+                return stream.mapToLong(Envelope::position).toArray();
+            }
+        });
+        final Set<Long> consumed = ConcurrentHashMap.newKeySet();
+        final CompletableFuture<Void> forEach = CompletableFuture.runAsync(
+                () -> reader.forEach(0, envelope -> consumed.add(envelope.position())));
+        MILLISECONDS.sleep(100);
+        connection.commit();
+
+        assertArrayEquals(expected, read.get(5, SECONDS));
+        forEach.get(5, SECONDS);
+        assertEquals(expected.length, consumed.size());
+    }
+
+    @Test
+    void parallelReadShouldReadInMemoryStore() {
+        final InMemoryStoreProvider provider = new InMemoryStoreProvider();
+        final Event[] events = range(0, 20).mapToObj(i -> new SampleEvent("" + i)).toArray(Event[]::new);
+        final long[] expected = provider.write(events);
+
+        final ParallelReader reader = new ParallelReader(provider, ForkJoinPool.commonPool(), RANGE_SIZE);
+        try (final Stream<Envelope> stream = reader.read(0, UnaryOperator.identity())) {
+            assertArrayEquals(expected, stream.mapToLong(Envelope::position).toArray());
+        }
+    }
+
+    @Test
+    void parallelReadShouldRethrowRangeReadFailure() {
+        final RangeReader failing = new RangeReader() {
+
+            @Override
+            public long lastPosition() {
+                return 100;
+            }
+
+            @Override
+            public List<Envelope> readEnvelopesRange(long from, long to) {
+                throw new IllegalStateException("Boom");
+            }
+        };
+        final ParallelReader reader = new ParallelReader(failing, ForkJoinPool.commonPool(), RANGE_SIZE);
+        try (final Stream<Envelope> stream = reader.read(0, UnaryOperator.identity())) {
+            assertThrows(IllegalStateException.class, stream::count);
+        }
+        assertThrows(IllegalStateException.class, () -> reader.forEach(0, envelope -> {}));
+    }
+
+    @Test
+    @SneakyThrows
+    void eventsOfOtherTypesShouldBeSkippedWithoutDeserialization() {
+        final DataSource dataSource = newH2DataSource();
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(dataSource);
+        provider.write(range(0, 20).mapToObj(i -> i % 2 == 0 ? new SampleEvent("" + i) : new ProcessingStarted())
+                .toArray(Event[]::new));
+        // the skipped events can't be deserialized anymore
+        try (final Connection connection = dataSource.getConnection();
+             final PreparedStatement statement = connection.prepareStatement(
+                     "UPDATE event_store SET data = 'broken' WHERE type = ?")) {
+            statement.setString(1, ProcessingStarted.class.getName());
+            assertEquals(10, statement.executeUpdate());
+        }
+
+        final ParallelReader reader = new ParallelReader(provider, ForkJoinPool.commonPool(), RANGE_SIZE, COMMIT_LAG);
+        final Set<String> types = Collections.singleton(SampleEvent.class.getName());
+        try (final Stream<Envelope> stream = reader.read(0, provider.typeFilter(types))) {
+            final List<Event> events = stream.map(Envelope::event).collect(Collectors.toList());
+            assertEquals(20, events.size());
+            assertEquals(10, events.stream().filter(SampleEvent.class::isInstance).count());
+            assertEquals(10, events.stream().filter(Objects::isNull).count());
+        }
+    }
+}
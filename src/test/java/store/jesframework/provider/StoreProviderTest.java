@@ -27,6 +27,7 @@ import store.jesframework.Event;
 import store.jesframework.ex.BrokenStoreException;
 import store.jesframework.ex.VersionMismatchException;
 import store.jesframework.internal.Events;
+import store.jesframework.provider.jdbc.ReadMode;
 import store.jesframework.util.Pair;
 
 import static java.lang.Runtime.getRuntime;
@@ -74,6 +75,7 @@ class StoreProviderTest {
         PROVIDERS.add(new JpaStoreProvider<>(newEntityManagerFactory(byte[].class), BINARY_KRYO));
         PROVIDERS.add(new JpaStoreProvider<>(newEntityManagerFactory(String.class), JSON_JACKSON));
         PROVIDERS.add(new JpaStoreProvider<>(newEntityManagerFactory(String.class), XML_XSTREAM));
+        PROVIDERS.add(new JpaStoreProvider<>(newEntityManagerFactory(String.class), ReadMode.PAGED, JSON_JACKSON));
 
         // master-only config
         PROVIDERS.add(new JdbcClusterStoreProvider<>(newPostgresDataSource("es")));
@@ -172,6 +174,27 @@ class StoreProviderTest {
         assertDoesNotThrow(() -> provider.write(new Events.SampleEvent("LAZ", uuid, 2)));
     }
 
+    @ParameterizedTest
+    @MethodSource("getProviders")
+    void batchWritesShouldCheckStreamVersions(@Nonnull StoreProvider provider) {
+        final UUID uuid = randomUUID();
+        provider.write(new Events.SampleEvent("FOO", uuid));
+
+        final long[] positions = provider.write(
+                new Events.SampleEvent("BAR", uuid, 1),
+                new Events.SampleEvent("BAZ"),
+                new Events.SampleEvent("LAZ", uuid, 2)
+        );
+        assertEquals(3, positions.length);
+        assertTrue(positions[0] < positions[1] && positions[1] < positions[2]);
+        assertEquals(3, provider.readBy(uuid).size());
+
+        assertThrows(VersionMismatchException.class, () -> provider.write(
+                new Events.SampleEvent("ZAZ", uuid, 3),
+                new Events.SampleEvent("ZAR", uuid, 3)
+        ));
+    }
+
     @ParameterizedTest
     @MethodSource("getProviders")
     void shouldDeleteFullStreamByUuid(@Nonnull StoreProvider provider) {
@@ -234,6 +257,35 @@ class StoreProviderTest {
         }
     }
 
+    @ParameterizedTest
+    @MethodSource("getProviders")
+    void bulkWritesShouldCheckAndAssignStreamVersions(@Nonnull StoreProvider provider) {
+        if (!(provider instanceof BulkWriter)) {
+            return;
+        }
+        final BulkWriter writer = (BulkWriter) provider;
+        final UUID uuid = randomUUID();
+        provider.write(new Events.SampleEvent("FOO", uuid));
+
+        final List<Event> expected = asList(
+                new Events.SampleEvent("BAR", uuid, 1),
+                new Events.SampleEvent("BAZ"),
+                new Events.SampleEvent("LAZ", uuid, 2)
+        );
+        assertEquals(3, writer.bulkWrite(expected.stream()));
+        assertEquals(3, provider.readBy(uuid).size());
+
+        // nothing is written on a version mismatch
+        final Stream<Event> mismatched = Stream.of(
+                new Events.SampleEvent("ZAZ", uuid, 3),
+                new Events.SampleEvent("ZAR", uuid, 5)
+        );
+        assertThrows(VersionMismatchException.class, () -> writer.bulkWrite(mismatched));
+        assertEquals(3, provider.readBy(uuid).size());
+        // regular writes continue the bulk written stream versions
+        assertDoesNotThrow(() -> provider.write(new Events.SampleEvent("ZAZ", uuid, 3)));
+    }
+
     @Test
     @SuppressWarnings("ConstantConditions")
     void providersShouldProtectItsInvariants() {
@@ -0,0 +1,107 @@
+package store.jesframework.provider.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import lombok.SneakyThrows;
+import store.jesframework.Event;
+import store.jesframework.provider.JdbcStoreProvider;
+import store.jesframework.provider.StoreProvider;
+
+import static java.util.stream.IntStream.range;
+import static store.jesframework.internal.Events.SampleEvent;
+import static store.jesframework.internal.FancyStuff.newPostgresDataSource;
+import static store.jesframework.provider.jdbc.ReadMode.CURSOR;
+import static store.jesframework.provider.jdbc.ReadMode.PAGED;
+import static store.jesframework.serializer.api.Format.BINARY_KRYO;
+
+/**
+ * Compares sequential reads of {@link JdbcStoreProvider} in CURSOR and PAGED read modes.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@SuppressWarnings("DefaultAnnotationParam")
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class JdbcReadModesBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Providers {
+
+        @SuppressWarnings("FieldCanBeLocal")
+        private final int totalEventsToRead = 100000;
+
+        private JdbcStoreProvider<byte[]> cursorProvider;
+        private JdbcStoreProvider<byte[]> pagedProvider;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            // both providers read the same store
+            final DataSource dataSource = newPostgresDataSource("read_modes");
+            cursorProvider = new JdbcStoreProvider<>(dataSource, CURSOR, BINARY_KRYO);
+            pagedProvider = new JdbcStoreProvider<>(dataSource, PAGED, BINARY_KRYO);
+
+            final Event[] events = range(0, totalEventsToRead)
+                    .mapToObj(i -> new SampleEvent("" + i, UUID.randomUUID()))
+                    .parallel()
+                    .toArray(Event[]::new);
+
+            cursorProvider.write(events);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            cursorProvider.close();
+            pagedProvider.close();
+        }
+
+    }
+
+    @Benchmark
+    @SuppressWarnings("unused")
+    public void cursorProviderReads100000events(Blackhole blackhole, Providers providers) {
+        readEventsSequentially(blackhole, providers.cursorProvider);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unused")
+    public void pagedProviderReads100000events(Blackhole blackhole, Providers providers) {
+        readEventsSequentially(blackhole, providers.pagedProvider);
+    }
+
+    private void readEventsSequentially(Blackhole blackhole, StoreProvider provider) {
+        try (Stream<Event> stream = provider.readFrom(0)) {
+            stream.forEach(blackhole::consume);
+        }
+    }
+
+    @SneakyThrows
+    public static void main(String[] args) {
+        final Options options = new OptionsBuilder().include(JdbcReadModesBenchmark.class.getSimpleName())
+                .detectJvmArgs().jvmArgsAppend("-Xmx2048m")
+                .build();
+        new Runner(options).run();
+    }
+
+}
@@ -0,0 +1,60 @@
+package store.jesframework.provider.jdbc;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomWritesTrackerTest {
+
+    @Test
+    void trackedUuidsShouldBeFoundWithBoundedFalsePositives() {
+        final BloomWritesTracker tracker = new BloomWritesTracker(1, SECONDS, 10_000, 0.01);
+        final List<UUID> written = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID()).collect(toList());
+        written.forEach(tracker::track);
+
+        assertTrue(written.stream().allMatch(tracker::isTracked));
+        final long falsePositives = IntStream.range(0, 10_000).mapToObj(i -> UUID.randomUUID())
+                .filter(tracker::isTracked)
+                .count();
+        assertTrue(falsePositives < 200, "Too many false positives: " + falsePositives);
+    }
+
+    @Test
+    void uuidsShouldBeTrackedForTheTrackingTimeOnly() {
+        final AtomicLong clock = new AtomicLong(10_000);
+        final BloomWritesTracker tracker = new BloomWritesTracker(1, SECONDS, 1000, 0.01, clock::get);
+        final UUID first = UUID.randomUUID();
+        tracker.track(first);
+
+        clock.addAndGet(999);
+        final UUID second = UUID.randomUUID();
+        tracker.track(second);
+        assertTrue(tracker.isTracked(first));
+        assertTrue(tracker.isTracked(second));
+
+        // the bucket of the first write is expired and reused
+        clock.addAndGet(600);
+        tracker.track(UUID.randomUUID());
+        assertFalse(tracker.isTracked(first));
+        assertTrue(tracker.isTracked(second));
+
+        clock.addAndGet(10_000);
+        assertFalse(tracker.isTracked(second));
+    }
+
+    @Test
+    void invalidParametersShouldNotBeAccepted() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomWritesTracker(0, SECONDS, 1, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomWritesTracker(1, SECONDS, 0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomWritesTracker(1, SECONDS, 1, 1));
+    }
+}
@@ -11,6 +11,7 @@ import lombok.SneakyThrows;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.parallel.ExecutionMode.CONCURRENT;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -19,6 +20,7 @@ import static store.jesframework.provider.jdbc.DDLFactory.getAggregateStoreDDL;
 import static store.jesframework.provider.jdbc.DDLFactory.getEventStoreDDL;
 import static store.jesframework.provider.jdbc.DDLFactory.getLockDDL;
 import static store.jesframework.provider.jdbc.DDLFactory.getOffsetsDDL;
+import static store.jesframework.provider.jdbc.DDLFactory.getPartitionedEventStoreDDL;
 
 @Execution(CONCURRENT)
 class DDLFactoryTest {
@@ -52,6 +54,20 @@ class DDLFactoryTest {
         assertNotNull(getEventStoreDDL(newConnectionMock(MY_SQL, "FOO"), String.class));
     }
 
+    @Test
+    void getPartitionedEventStoreDDLShouldReturnScriptOnlyForPostgreSQL11AndLater() {
+        final String ddl = getPartitionedEventStoreDDL(newConnectionMock(POSTGRE_SQL, "FOO", 11), byte[].class);
+        assertTrue(ddl.contains("PARTITION BY RANGE (id)"));
+        assertTrue(ddl.contains("FOO.event_store"));
+        assertNotNull(getPartitionedEventStoreDDL(newConnectionMock(POSTGRE_SQL, "FOO", 12), String.class));
+
+        final Connection postgres10Connection = newConnectionMock(POSTGRE_SQL, "FOO", 10);
+        final Connection h2Connection = newConnectionMock(H2, "FOO");
+        assertThrows(IllegalArgumentException.class, () -> getPartitionedEventStoreDDL(postgres10Connection,
+                String.class));
+        assertThrows(IllegalArgumentException.class, () -> getPartitionedEventStoreDDL(h2Connection, String.class));
+    }
+
     @Test
     void getAggregateStoreDDLShouldReturnScriptOnCorrectValue() {
         assertNotNull(getAggregateStoreDDL(newConnectionMock(POSTGRE_SQL, "FOO")));
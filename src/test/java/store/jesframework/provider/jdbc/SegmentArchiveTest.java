@@ -0,0 +1,89 @@
+package store.jesframework.provider.jdbc;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import store.jesframework.ex.BrokenStoreException;
+
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SegmentArchiveTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void archivedEntriesShouldBeReadInOrderOfIds() {
+        final SegmentArchive archive = new SegmentArchive(directory);
+        assertEquals(0, archive.upperBound());
+
+        final List<SegmentArchive.Entry> second = entries(10, 20);
+        final List<SegmentArchive.Entry> first = entries(1, 9);
+        // event without a stream and a type
+        first.add(new SegmentArchive.Entry(9, null, null, null, "9".getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(10, archive.write(10, 20, second.iterator()));
+        assertEquals(9, archive.write(0, 10, first.iterator()));
+        assertTrue(archive.contains(0, 10));
+        assertFalse(archive.contains(20, 30));
+        assertEquals(20, archive.upperBound());
+
+        try (final Stream<SegmentArchive.Entry> stream = archive.read(0)) {
+            final List<SegmentArchive.Entry> read = stream.collect(toList());
+            assertArrayEquals(LongStream.range(1, 20).toArray(),
+                    read.stream().mapToLong(SegmentArchive.Entry::getId).toArray());
+            assertEquals(first, read.subList(0, 9));
+            assertEquals(second, read.subList(9, 19));
+        }
+        try (final Stream<SegmentArchive.Entry> stream = archive.read(5, 12)) {
+            assertArrayEquals(LongStream.rangeClosed(6, 12).toArray(),
+                    stream.mapToLong(SegmentArchive.Entry::getId).toArray());
+        }
+        try (final Stream<SegmentArchive.Entry> stream = archive.read(19)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void failedWriteShouldNotLeaveSegment() {
+        final SegmentArchive archive = new SegmentArchive(directory);
+        final List<SegmentArchive.Entry> entries = entries(1, 10);
+        // null data can't be written
+        entries.add(new SegmentArchive.Entry(10, null, null, null, null));
+
+        assertThrows(NullPointerException.class, () -> archive.write(0, 20, entries.iterator()));
+        assertFalse(archive.contains(0, 20));
+        try (final Stream<SegmentArchive.Entry> stream = archive.read(0)) {
+            assertEquals(0, stream.count());
+        }
+    }
+
+    @Test
+    void brokenSegmentShouldNotBeRead() throws Exception {
+        final SegmentArchive archive = new SegmentArchive(directory);
+        archive.write(0, 10, entries(1, 10).iterator());
+        Files.write(directory.resolve("event_store-10-20.seg.gz"), new byte[] {1, 2, 3});
+
+        assertThrows(BrokenStoreException.class, () -> archive.read(0).count());
+    }
+
+    private static List<SegmentArchive.Entry> entries(long from, long to) {
+        return LongStream.range(from, to)
+                .mapToObj(id -> new SegmentArchive.Entry(id, randomUUID(), id, "Type" + id,
+                        ("data" + id).getBytes(StandardCharsets.UTF_8)))
+                .collect(toList());
+    }
+}
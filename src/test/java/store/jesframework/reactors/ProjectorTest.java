@@ -1,11 +1,16 @@
 package store.jesframework.reactors;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 
@@ -13,6 +18,7 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import lombok.Cleanup;
 import lombok.Data;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -28,7 +34,10 @@ import store.jesframework.provider.JdbcStoreProvider;
 import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.IntStream.range;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertIterableEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
@@ -39,8 +48,10 @@ import static store.jesframework.internal.Events.FancyEvent;
 import static store.jesframework.internal.Events.ProcessingStarted;
 import static store.jesframework.internal.Events.ProcessingTerminated;
 import static store.jesframework.internal.Events.SampleEvent;
+import static store.jesframework.internal.FancyStuff.newH2DataSource;
 import static store.jesframework.internal.FancyStuff.newPostgresDataSource;
 import static store.jesframework.reactors.ProjectorTest.SampleProjector.Projection;
+import static store.jesframework.util.PropsReader.getProperty;
 
 @Slf4j
 class ProjectorTest {
@@ -142,6 +153,72 @@ class ProjectorTest {
         assertEquals(ProjectionFailure.class, iterator.next().getClass());
     }
 
+    @Test
+    @SneakyThrows
+    void projectorShouldAwaitWrittenPosition() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource());
+        final JEventStore store = new JEventStore(provider);
+        final UUID deleted = randomUUID();
+        // deleted events leave a gap between positions
+        store.write(new FancyEvent("FOO", deleted), new FancyEvent("BAR", deleted));
+        store.deleteBy(deleted);
+
+        final Set<String> handled = ConcurrentHashMap.newKeySet();
+        //noinspection unused
+        @Cleanup
+        final Projector projector = new Projector(store, new InMemoryOffset(), new InMemoryReentrantLock()) {
+
+            @ReactsOn
+            void handle(SampleEvent event) {
+                handled.add(event.getName());
+            }
+
+            // do nothing
+            @Override
+            protected void cleanUp() {}
+        };
+
+        final long position = store.write(new SampleEvent("BAZ"));
+        assertTrue(projector.awaitPosition(position, Duration.ofSeconds(5)));
+        assertTrue(handled.contains("BAZ"));
+        assertFalse(projector.awaitPosition(position + 1, Duration.ofMillis(200)));
+    }
+
+    @Test
+    void projectorShouldBeRecreatedInParallelInOrder() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource());
+        final JEventStore store = new JEventStore(provider);
+        final int rangeSize = Integer.parseInt(getProperty("jes.parallel-read.range-size"));
+        final List<String> expected = range(0, rangeSize * 2 + 1).mapToObj(String::valueOf).collect(toList());
+        store.write(expected.stream().map(SampleEvent::new).toArray(Event[]::new));
+
+        final List<String> handled = new CopyOnWriteArrayList<>();
+        //noinspection unused
+        @Cleanup
+        final Projector projector = new Projector(store, new InMemoryOffset(), new InMemoryReentrantLock()) {
+
+            @ReactsOn
+            void handle(SampleEvent event) {
+                handled.add(event.getName());
+            }
+
+            @Override
+            protected void cleanUp() {
+                handled.clear();
+            }
+        };
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            projector.recreate(pool);
+        } finally {
+            pool.shutdown();
+        }
+        assertIterableEquals(expected, handled);
+    }
+
     @SuppressWarnings("unused")
     static class SampleProjector extends Projector {
 
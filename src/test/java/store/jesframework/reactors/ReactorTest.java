@@ -9,6 +9,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
 import org.mockito.stubbing.Answer;
 
+import lombok.Cleanup;
 import lombok.SneakyThrows;
 import store.jesframework.Command;
 import store.jesframework.JEventStore;
@@ -19,9 +20,11 @@ import store.jesframework.internal.Events;
 import store.jesframework.offset.InMemoryOffset;
 import store.jesframework.offset.Offset;
 import store.jesframework.provider.InMemoryStoreProvider;
+import store.jesframework.provider.JdbcClusterStoreProvider;
 import store.jesframework.provider.JdbcStoreProvider;
 import store.jesframework.provider.StoreProvider;
 import store.jesframework.serializer.api.Format;
+import store.jesframework.serializer.api.TypeAlias;
 
 import static java.time.Duration.ofMillis;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
@@ -31,11 +34,13 @@ import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anySet;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static store.jesframework.internal.FancyStuff.newH2DataSource;
 import static store.jesframework.internal.FancyStuff.newPostgresDataSource;
 
 class ReactorTest {
@@ -200,6 +205,56 @@ class ReactorTest {
         assertTrue(latch.await(1, TimeUnit.SECONDS));
     }
 
+    @Test
+    @SneakyThrows
+    void reactorShouldReactOnAliasedEventsOfKryoStore() {
+        final CountDownLatch latch = new CountDownLatch(2);
+        @Cleanup
+        final JdbcStoreProvider<byte[]> provider = new JdbcStoreProvider<>(newH2DataSource(), Format.BINARY_KRYO,
+                TypeAlias.of(Events.SampleEvent.class, "Sample"));
+        final JEventStore store = new JEventStore(provider);
+
+        //noinspection unused
+        try (final Reactor reactor = new Reactor(store, new InMemoryOffset()) {
+
+            @ReactsOn
+            void handle(Events.SampleEvent event) {
+                latch.countDown();
+            }
+        }) {
+            store.write(new Events.SampleEvent("FOO", UUID.randomUUID()));
+            store.write(new Events.ProcessingStarted());
+            store.write(new Events.SampleEvent("BAR", UUID.randomUUID()));
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void reactorOfClusterStoreShouldBeWokenUpByStoreChanges() {
+        final CountDownLatch latch = new CountDownLatch(1);
+        @Cleanup
+        final JdbcClusterStoreProvider<String> provider = new JdbcClusterStoreProvider<>(newH2DataSource());
+        final JEventStore store = new JEventStore(provider);
+        @Cleanup
+        final PollingTrigger trigger = new PollingTrigger(store);
+        // polling is only a safety net
+        assertTrue(trigger.getDelay() > 500);
+
+        //noinspection unused
+        try (final Reactor reactor = new Reactor(store, new InMemoryOffset(), trigger) {
+
+            @ReactsOn
+            void handle(Events.SampleEvent event) {
+                latch.countDown();
+            }
+        }) {
+            store.write(new Events.SampleEvent("FOO", UUID.randomUUID()));
+            assertTrue(latch.await(trigger.getDelay() / 2, TimeUnit.MILLISECONDS));
+        }
+    }
+
     @Test
     @SneakyThrows
     void reactorShouldRetryFailureLimitedNumberOfTimes() {
@@ -208,7 +263,7 @@ class ReactorTest {
         final Trigger trigger = mock(Trigger.class);
         final InMemoryOffset offset = new InMemoryOffset();
 
-        when(storeProvider.readFrom(anyLong())).thenThrow(new IllegalStateException("Boom"));
+        when(storeProvider.readEnvelopesFrom(anyLong(), anySet())).thenThrow(new IllegalStateException("Boom"));
         doAnswer((Answer<Void>) invocation -> {
             final Runnable runnable = invocation.getArgument(1);
             try {
@@ -236,7 +291,7 @@ class ReactorTest {
                 // do nothing
             }
         };
-        verify(storeProvider, times(Reactor.MAX_RETRIES)).readFrom(anyLong());
+        verify(storeProvider, times(Reactor.MAX_RETRIES)).readEnvelopesFrom(anyLong(), anySet());
         verify(trigger, times(1)).close();
     }
 
@@ -5,16 +5,22 @@ import java.util.concurrent.CountDownLatch;
 import javax.annotation.Nonnull;
 
 import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import lombok.Cleanup;
 import lombok.SneakyThrows;
+import store.jesframework.JEventStore;
 import store.jesframework.lock.InMemoryReentrantLock;
+import store.jesframework.provider.JdbcStoreProvider;
 
 import static java.util.Arrays.asList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static store.jesframework.internal.Events.SampleEvent;
+import static store.jesframework.internal.FancyStuff.newH2DataSource;
 
 class TriggersTest {
 
@@ -53,6 +59,23 @@ class TriggersTest {
         assertTrue(latch.await(delay * 2, MILLISECONDS));
     }
 
+    @Test
+    @SneakyThrows
+    void pollingTriggerShouldBeWokenUpByStoreChanges() {
+        @Cleanup
+        final JdbcStoreProvider<String> provider = new JdbcStoreProvider<>(newH2DataSource());
+        final JEventStore store = new JEventStore(provider);
+        @Cleanup
+        final PollingTrigger trigger = new PollingTrigger(store);
+        // polling is only a safety net
+        assertTrue(trigger.getDelay() > DEFAULT_DELAY_MS);
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        trigger.onChange("", latch::countDown);
+        store.write(new SampleEvent("FOO"));
+        assertTrue(latch.await(trigger.getDelay() / 2, MILLISECONDS));
+    }
+
     @AfterAll
     static void cleanUp() {
         for (Trigger trigger : TRIGGERS) {
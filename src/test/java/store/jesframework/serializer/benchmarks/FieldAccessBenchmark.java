@@ -0,0 +1,190 @@
+package store.jesframework.serializer.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import lombok.SneakyThrows;
+import store.jesframework.Event;
+import store.jesframework.serializer.api.Serializer;
+
+import static store.jesframework.internal.Events.SampleEvent;
+import static store.jesframework.serializer.api.Format.BINARY_KRYO;
+import static store.jesframework.serializer.api.Format.JSON_JACKSON;
+import static store.jesframework.serializer.impl.SerializerFactory.newEventSerializer;
+
+/**
+ * Compares the field accessors of the JSON_JACKSON and BINARY_KRYO serializers with the reflective field access: the
+ * accessor benchmarks are forked with the accessors enabled. The immutable event (private final fields) is accessed by
+ * the method handles, the mutable one (package-private fields) by the generated accessors (java 9+).
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+public class FieldAccessBenchmark {
+
+    private static final String ACCESSORS = "-Djes.serializer.field-accessors=true";
+
+    private Serializer<Event, String> serializer;
+    private Serializer<Event, byte[]> kryo;
+    private Event event;
+    private String serialized;
+    private byte[] kryoSerialized;
+    private Event mutableEvent;
+    private String mutableSerialized;
+    private byte[] mutableKryoSerialized;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = newEventSerializer(JSON_JACKSON);
+        kryo = newEventSerializer(BINARY_KRYO);
+        event = new SampleEvent("FOO", UUID.randomUUID(), 42);
+        serialized = serializer.serialize(event);
+        kryoSerialized = kryo.serialize(event);
+        mutableEvent = new MutableEvent("FOO", UUID.randomUUID(), 42);
+        mutableSerialized = serializer.serialize(mutableEvent);
+        mutableKryoSerialized = kryo.serialize(mutableEvent);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public String serializeWithAccessors() {
+        return serializer.serialize(event);
+    }
+
+    @Benchmark
+    public String serializeWithReflection() {
+        return serializer.serialize(event);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public Event deserializeWithAccessors() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    public Event deserializeWithReflection() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public byte[] kryoSerializeWithAccessors() {
+        return kryo.serialize(event);
+    }
+
+    @Benchmark
+    public byte[] kryoSerializeWithReflection() {
+        return kryo.serialize(event);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public Event kryoDeserializeWithAccessors() {
+        return kryo.deserialize(kryoSerialized);
+    }
+
+    @Benchmark
+    public Event kryoDeserializeWithReflection() {
+        return kryo.deserialize(kryoSerialized);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public String serializeMutableWithAccessors() {
+        return serializer.serialize(mutableEvent);
+    }
+
+    @Benchmark
+    public String serializeMutableWithReflection() {
+        return serializer.serialize(mutableEvent);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public Event deserializeMutableWithAccessors() {
+        return serializer.deserialize(mutableSerialized);
+    }
+
+    @Benchmark
+    public Event deserializeMutableWithReflection() {
+        return serializer.deserialize(mutableSerialized);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public byte[] kryoSerializeMutableWithAccessors() {
+        return kryo.serialize(mutableEvent);
+    }
+
+    @Benchmark
+    public byte[] kryoSerializeMutableWithReflection() {
+        return kryo.serialize(mutableEvent);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = ACCESSORS)
+    public Event kryoDeserializeMutableWithAccessors() {
+        return kryo.deserialize(mutableKryoSerialized);
+    }
+
+    @Benchmark
+    public Event kryoDeserializeMutableWithReflection() {
+        return kryo.deserialize(mutableKryoSerialized);
+    }
+
+    /**
+     * Event with the package-private mutable fields: they are accessed by the generated accessors.
+     */
+    public static class MutableEvent implements Event {
+
+        UUID uuid;
+        String name;
+        long expectedStreamVersion;
+
+        public MutableEvent() {
+        }
+
+        MutableEvent(String name, UUID uuid, long expectedStreamVersion) {
+            this.name = name;
+            this.uuid = uuid;
+            this.expectedStreamVersion = expectedStreamVersion;
+        }
+
+        @Override
+        public UUID uuid() {
+            return uuid;
+        }
+
+        @Override
+        public long expectedStreamVersion() {
+            return expectedStreamVersion;
+        }
+    }
+
+    @SneakyThrows
+    public static void main(String[] args) {
+        final Options options = new OptionsBuilder()
+                .include(FieldAccessBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,138 @@
+package store.jesframework.serializer.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import store.jesframework.Event;
+import store.jesframework.ex.SerializationException;
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.serializer.api.ClassRegistry;
+import store.jesframework.serializer.api.Compression;
+import store.jesframework.serializer.api.Format;
+import store.jesframework.serializer.api.Serializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static store.jesframework.serializer.impl.SerializerFactory.newEventSerializer;
+
+class CompressingSerializerTest {
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void compressedEventsShouldBeDeserialized(Format format) {
+        final Serializer<Event, Object> serializer = newEventSerializer(format, Compression.deflate());
+        final SampleEvent event = new SampleEvent("FOO", UUID.randomUUID(), 3);
+
+        assertEquals(format.getJavaType(), serializer.rawType());
+        assertEquals(format, serializer.format());
+        final Object compressed = serializer.serialize(event);
+        assertEquals(event, serializer.deserialize(compressed));
+        assertEquals(newEventSerializer(format).fetchTypeName(newEventSerializer(format).serialize(event)),
+                serializer.fetchTypeName(compressed));
+    }
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void eventsWrittenBeforeCompressionShouldBeDeserialized(Format format) {
+        final Serializer<Event, Object> plain = newEventSerializer(format);
+        final Serializer<Event, Object> compressing = newEventSerializer(format, Compression.deflate());
+        final SampleEvent event = new SampleEvent("FOO", UUID.randomUUID());
+
+        assertEquals(event, compressing.deserialize(plain.serialize(event)));
+        assertEquals(plain.fetchTypeName(plain.serialize(event)), compressing.fetchTypeName(plain.serialize(event)));
+    }
+
+    @Test
+    void compressedTextEventsShouldStayStrings() {
+        final Serializer<Event, String> plain = newEventSerializer(Format.JSON_JACKSON);
+        final Serializer<Event, String> compressing = newEventSerializer(Format.JSON_JACKSON, Compression.deflate());
+        final String name = IntStream.range(0, 100).mapToObj(i -> "FOO").collect(Collectors.joining());
+        final SampleEvent event = new SampleEvent(name, UUID.randomUUID());
+
+        final String compressed = compressing.serialize(event);
+        assertTrue(compressed.length() < plain.serialize(event).length());
+        assertEquals(event, compressing.deserialize(compressed));
+        assertEquals(event, plain.deserialize(plain.serialize(compressing.deserialize(compressed))));
+    }
+
+    @Test
+    void trainedDictionaryShouldShrinkEventsAndKeepOldEventsReadable() {
+        final Serializer<Event, String> json = newEventSerializer(Format.JSON_JACKSON);
+        final List<byte[]> samples = IntStream.range(0, 500)
+                .mapToObj(i -> json.serialize(new SampleEvent("FOO" + i, UUID.randomUUID(), i)).getBytes(UTF_8))
+                .collect(Collectors.toList());
+        final byte[] dictionary = Compression.trainDictionary(samples, 4096);
+        assertTrue(dictionary.length > 0 && dictionary.length <= 4096);
+
+        final Compression withoutDictionary = Compression.deflate();
+        final Compression first = withoutDictionary.withDictionary(1, dictionary);
+        final SampleEvent event = new SampleEvent("BAR", UUID.randomUUID(), 42);
+        final String plain = json.serialize(event);
+        final Serializer<Event, String> deflating = newEventSerializer(withoutDictionary);
+        final Serializer<Event, String> compressing = newEventSerializer(first);
+        final String deflated = deflating.serialize(event);
+        final String compressed = compressing.serialize(event);
+        assertTrue(compressed.length() < deflated.length() && deflated.length() <= plain.length(),
+                compressed.length() + " / " + deflated.length() + " / " + plain.length());
+
+        // the dictionary is replaced, the events of the previous one are still readable
+        final Compression second = Compression.deflate().withDictionary(2, new byte[] {1, 2, 3})
+                .withLegacyDictionary(1, dictionary);
+        final Serializer<Event, String> replaced = newEventSerializer(second);
+        assertEquals(event, replaced.deserialize(compressed));
+        final Serializer<Event, String> unaware = newEventSerializer(Compression.deflate().withDictionary(3, dictionary));
+        assertThrows(SerializationException.class, () -> unaware.deserialize(compressed));
+    }
+
+    @Test
+    void dictionaryIdShouldBeValidated() {
+        final Compression compression = Compression.deflate().withDictionary(1, new byte[] {1});
+        assertThrows(IllegalArgumentException.class, () -> compression.withDictionary(0, new byte[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> compression.withDictionary(1 << 16, new byte[] {1}));
+        assertThrows(IllegalArgumentException.class, () -> compression.withLegacyDictionary(1, new byte[] {2}));
+    }
+
+    @Test
+    void binaryEventsWrittenBeforeCompressionShouldNotBeTakenForCompressedOnes() {
+        // the class of the event is written by its id: 16 + 188 + 2 = 0xCE 0x01 as a varint
+        final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        final Map<Integer, String> names = new ConcurrentHashMap<>();
+        final ClassRegistry registry = new ClassRegistry() {
+            @Override
+            public int idOf(@Nonnull String className) {
+                return ids.computeIfAbsent(className, name -> {
+                    final int id = 188 + ids.size();
+                    names.put(id, name);
+                    return id;
+                });
+            }
+
+            @Nullable
+            @Override
+            public String classNameOf(int id) {
+                return names.get(id);
+            }
+        };
+        final Serializer<Event, byte[]> plain = new KryoSerializer<>(registry, 1);
+        final Serializer<Event, byte[]> compressing = new CompressingSerializer<>(plain, Compression.deflate());
+        final SampleEvent event = new SampleEvent("FOO", UUID.randomUUID());
+
+        final byte[] legacy = plain.serialize(event);
+        assertEquals((byte) 0xCE, legacy[0]);
+        assertEquals(1, legacy[1]);
+        assertEquals(event, compressing.deserialize(legacy));
+        assertEquals(SampleEvent.class.getName(), compressing.fetchTypeName(legacy));
+    }
+}
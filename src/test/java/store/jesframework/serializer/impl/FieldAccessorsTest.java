@@ -0,0 +1,154 @@
+package store.jesframework.serializer.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.serializers.FieldSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import net.bytebuddy.dynamic.loading.ClassInjector;
+
+import store.jesframework.Event;
+import store.jesframework.internal.Events.SampleEvent;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FieldAccessorsTest {
+
+    @Test
+    void plainFieldsShouldBeAccessedByGeneratedAccessors() throws ReflectiveOperationException {
+        final FieldAccessor name = FieldAccessors.of(Sample.class.getDeclaredField("name"));
+        final FieldAccessor count = FieldAccessors.of(Sample.class.getDeclaredField("count"));
+        final FieldAccessor values = FieldAccessors.of(Sample.class.getDeclaredField("values"));
+
+        // the accessors are generated with the private lookup of java 9+ only
+        for (FieldAccessor accessor : Arrays.asList(name, count, values)) {
+            if (ClassInjector.UsingLookup.isAvailable()) {
+                assertTrue(accessor.getClass().getName().startsWith(Sample.class.getName() + FieldAccessors.SUFFIX));
+            } else {
+                assertEquals(FieldAccessors.MethodHandleAccessor.class, accessor.getClass());
+            }
+        }
+        assertSame(name, FieldAccessors.of(Sample.class.getDeclaredField("name")));
+
+        final Sample sample = new Sample();
+        name.set(sample, "FOO");
+        count.set(sample, 42);
+        values.set(sample, new long[]{1, 2});
+
+        assertEquals("FOO", name.get(sample));
+        assertEquals(42, count.get(sample));
+        assertArrayEquals(new long[]{1, 2}, (long[]) values.get(sample));
+        assertThrows(ClassCastException.class, () -> name.set(sample, 1));
+    }
+
+    @Test
+    void privateAndFinalFieldsShouldBeAccessedByMethodHandles() throws ReflectiveOperationException {
+        final FieldAccessor uuid = FieldAccessors.of(Sample.class.getDeclaredField("uuid"));
+        final FieldAccessor version = FieldAccessors.of(Sample.class.getDeclaredField("version"));
+        final FieldAccessor flag = FieldAccessors.of(Sample.class.getDeclaredField("flag"));
+
+        assertEquals(FieldAccessors.MethodHandleAccessor.class, uuid.getClass());
+        assertEquals(FieldAccessors.MethodHandleAccessor.class, version.getClass());
+
+        final Sample sample = new Sample();
+        assertNull(uuid.get(sample));
+        final UUID value = UUID.randomUUID();
+        uuid.set(sample, value);
+        version.set(sample, 7L);
+        flag.set(sample, true);
+
+        assertEquals(value, uuid.get(sample));
+        assertEquals(7L, version.get(sample));
+        assertEquals(true, flag.get(sample));
+        assertEquals(7L, sample.version);
+        assertThrows(ClassCastException.class, () -> uuid.set(sample, "FOO"));
+    }
+
+    @Test
+    void staticFieldsShouldNotBeAccessed() {
+        assertThrows(IllegalArgumentException.class, () -> FieldAccessors.of(Sample.class.getDeclaredField("STATIC")));
+    }
+
+    @Test
+    void eventsShouldBeDeserializedWithAccessors() {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new FieldAccessorModule());
+        final JacksonSerializer<Event> serializer = new JacksonSerializer<>(mapper, Context.parse());
+        final SampleEvent event = new SampleEvent("FOO", UUID.randomUUID(), 5);
+
+        assertEquals(event, serializer.deserialize(serializer.serialize(event)));
+    }
+
+    @Test
+    void plainFieldsShouldBeSerializedByGeneratedAccessors() {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new FieldAccessorModule());
+        final JacksonSerializer<Sample> serializer = new JacksonSerializer<>(mapper, Context.parse());
+        final Sample sample = new Sample();
+        sample.name = "FOO";
+        sample.count = 3;
+        sample.values = new long[]{4, 5};
+
+        final Sample deserialized = serializer.deserialize(serializer.serialize(sample));
+        assertEquals("FOO", deserialized.name);
+        assertEquals(3, deserialized.count);
+        assertTrue(Arrays.equals(new long[]{4, 5}, deserialized.values));
+        assertNull(deserialized.uuid);
+    }
+
+    @Test
+    void kryoFieldsShouldBeWrittenTheSameWayByAccessors() {
+        final KryoSerializer<Object> reflective = new KryoSerializer<>(null, 4, false);
+        final KryoSerializer<Object> accessing = new KryoSerializer<>(null, 4, true);
+        final Sample sample = new Sample();
+        sample.name = "FOO";
+        sample.count = 3;
+        sample.values = new long[]{4, 5};
+        sample.uuid = UUID.randomUUID();
+        sample.names = Collections.singletonList("BAR");
+        sample.nested = new Sample();
+        final SampleEvent event = new SampleEvent("BAZ", UUID.randomUUID(), 5);
+
+        assertArrayEquals(reflective.serialize(event), accessing.serialize(event));
+        assertArrayEquals(reflective.serialize(sample), accessing.serialize(sample));
+        assertEquals(event, accessing.deserialize(reflective.serialize(event)));
+        final Sample deserialized = (Sample) accessing.deserialize(reflective.serialize(sample));
+        assertEquals("FOO", deserialized.name);
+        assertEquals(sample.uuid, deserialized.uuid);
+        assertEquals(sample.names, deserialized.names);
+        assertNull(deserialized.nested.name);
+
+        final Kryo kryo = new Kryo();
+        kryo.setRegistrationRequired(false);
+        kryo.setDefaultSerializer(new AccessorFieldSerializer.Factory());
+        final FieldSerializer<?> fields = (FieldSerializer<?>) kryo.getSerializer(Sample.class);
+        assertEquals("AccessorField", fields.getField("names").getClass().getSimpleName());
+    }
+
+    @SuppressWarnings("unused")
+    static class Sample {
+
+        static final String STATIC = "STATIC";
+
+        String name;
+        int count;
+        long[] values;
+        private UUID uuid;
+        private final long version;
+        private boolean flag;
+        private List<String> names;
+        Sample nested;
+
+        Sample() {
+            version = 0;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package store.jesframework.serializer.impl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.junit.jupiter.api.Test;
+
+import lombok.SneakyThrows;
+import store.jesframework.Event;
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.serializer.api.ClassRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KryoSerializerTest {
+
+    @Test
+    void registeredClassesShouldBeWrittenByIds() {
+        final InMemoryClassRegistry registry = new InMemoryClassRegistry();
+        final KryoSerializer<Event> registered = new KryoSerializer<>(registry, 4);
+        final KryoSerializer<Event> named = new KryoSerializer<>(null, 4);
+        final SampleEvent event = new SampleEvent("FOO", UUID.randomUUID(), 2);
+
+        final byte[] byId = registered.serialize(event);
+        final byte[] byName = named.serialize(event);
+        assertTrue(byId.length < byName.length - SampleEvent.class.getName().length() + 4);
+        assertEquals(event, registered.deserialize(byId));
+        assertEquals(SampleEvent.class.getName(), registered.fetchTypeName(byId));
+        assertEquals(1, registry.idOf(SampleEvent.class.getName()));
+
+        // another node resolves the ids with the shared registry
+        assertEquals(event, new KryoSerializer<Event>(registry, 4).deserialize(byId));
+        // the events, written by the class names, stay readable
+        assertEquals(event, registered.deserialize(byName));
+        assertNull(named.fetchTypeName(byId));
+    }
+
+    @Test
+    void unknownClassIdsShouldNotBeDeserialized() {
+        final byte[] serialized = new KryoSerializer<Event>(new InMemoryClassRegistry(), 4)
+                .serialize(new SampleEvent("FOO"));
+
+        assertThrows(RuntimeException.class, () -> new KryoSerializer<Event>(new InMemoryClassRegistry(), 4)
+                .deserialize(serialized));
+    }
+
+    @Test
+    @SneakyThrows
+    void pooledInstancesShouldBeSharedByThreads() {
+        final KryoSerializer<Event> serializer = new KryoSerializer<>(new InMemoryClassRegistry(), 2);
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<Boolean>> results = IntStream.range(0, 1000)
+                    .mapToObj(i -> executor.submit(() -> {
+                        final SampleEvent event = new SampleEvent("FOO" + i, UUID.randomUUID(), i);
+                        return event.equals(serializer.deserialize(serializer.serialize(event)));
+                    }))
+                    .collect(Collectors.toList());
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    static class InMemoryClassRegistry implements ClassRegistry {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> names = new ConcurrentHashMap<>();
+
+        @Override
+        public int idOf(@Nonnull String className) {
+            return ids.computeIfAbsent(className, name -> {
+                final int id = sequence.incrementAndGet();
+                names.put(id, name);
+                return id;
+            });
+        }
+
+        @Nullable
+        @Override
+        public String classNameOf(int id) {
+            return names.get(id);
+        }
+    }
+}
@@ -53,6 +53,13 @@ class SerializerFactoryTest {
         Assertions.assertEquals(JacksonSerializer.class, newAggregateSerializer(Format.JSON_JACKSON).getClass());
     }
 
+    @Test
+    void newAggregateSerializerShouldReturnBinaryJacksonImplWhenSmileOrCborFormatRequested() {
+        Assertions.assertEquals(BinaryJacksonSerializer.class, newAggregateSerializer(Format.BINARY_SMILE).getClass());
+        Assertions.assertEquals(BinaryJacksonSerializer.class, newAggregateSerializer(Format.BINARY_CBOR).getClass());
+        Assertions.assertEquals(Format.BINARY_CBOR, newEventSerializer(Format.BINARY_CBOR).format());
+    }
+
     @Test
     void newAggregateSerializerShouldReturnJacksonImplAsDefaultWhenXmlFormatRequested() {
         Assertions.assertEquals(XStreamSerializer.class, newAggregateSerializer(Format.XML_XSTREAM).getClass());
@@ -21,6 +21,8 @@ import store.jesframework.internal.Events.FancyEvent;
 import store.jesframework.serializer.api.Serializer;
 import store.jesframework.serializer.api.TypeAlias;
 
+import static store.jesframework.serializer.api.Format.BINARY_CBOR;
+import static store.jesframework.serializer.api.Format.BINARY_SMILE;
 import static store.jesframework.serializer.api.Format.JSON_JACKSON;
 
 class SerializerTest {
@@ -28,7 +30,13 @@ class SerializerTest {
     private static Stream<Serializer<Event, ?>> eventSerializers() {
         return Stream.of(
                 new EventSerializerProxy<>(new KryoSerializer<>(), Context.empty()),
+                new EventSerializerProxy<>(new KryoSerializer<>(new KryoSerializerTest.InMemoryClassRegistry(), 4),
+                        Context.empty()),
                 new EventSerializerProxy<>(new JacksonSerializer<>(), Context.empty()),
+                new EventSerializerProxy<>(new BinaryJacksonSerializer<>(BINARY_SMILE, Context.empty()),
+                        Context.empty()),
+                new EventSerializerProxy<>(new BinaryJacksonSerializer<>(BINARY_CBOR, Context.empty()),
+                        Context.empty()),
                 new EventSerializerProxy<>(new XStreamSerializer<>(), Context.empty())
         );
     }
@@ -37,6 +45,8 @@ class SerializerTest {
         return Stream.of(
                 Arguments.of(new KryoSerializer<>(), new byte[]{}),
                 Arguments.of(new JacksonSerializer<>(), ""),
+                Arguments.of(new BinaryJacksonSerializer<>(BINARY_SMILE, Context.empty()), new byte[]{}),
+                Arguments.of(new BinaryJacksonSerializer<>(BINARY_CBOR, Context.empty()), new byte[]{}),
                 Arguments.of(new XStreamSerializer<>(), "")
         );
     }
@@ -84,6 +94,14 @@ class SerializerTest {
         Assertions.assertNotNull(((UnknownTypeResolved) deserialized).raw());
     }
 
+    @ParameterizedTest
+    @MethodSource("eventSerializers")
+    <T> void shouldFetchTypeNameOfSerializedEvent(@Nonnull Serializer<Event, T> serializer) {
+        final T serialized = serializer.serialize(new Events.SampleEvent("FOO", UUID.randomUUID()));
+
+        Assertions.assertEquals(Events.SampleEvent.class.getName(), serializer.fetchTypeName(serialized));
+    }
+
     @ParameterizedTest
     @MethodSource("createInvariantsVerificationPair")
     <T> void shouldWrapNativeExceptionsIntoSerializationException(@Nonnull Serializer<Event, T> serializer,
@@ -119,4 +137,27 @@ class SerializerTest {
 
         Assertions.assertEquals(eventName, serializer.fetchTypeName(serialized));
     }
-}
\ No newline at end of file
+
+    @Test
+    void xstreamEventSerializerShouldFetchTypeAliasOfSerializedEvent() {
+        final Context<String> context = Context.parse(TypeAlias.of(Events.SampleEvent.class, "MyAlias"));
+
+        final XStreamSerializer<Event> serializer = new XStreamSerializer<>(context);
+        final String serialized = serializer.serialize(new Events.SampleEvent("name", UUID.randomUUID()));
+
+        Assertions.assertEquals("MyAlias", serializer.fetchTypeName(serialized));
+        Assertions.assertEquals("MyAlias", serializer.fetchTypeName("<?xml version=\"1.0\"?>\n" + serialized));
+    }
+
+    @Test
+    void binaryJacksonEventSerializerShouldFetchTypeAliasOfSerializedEvent() {
+        final Context<byte[]> context = Context.parse(TypeAlias.of(Events.SampleEvent.class, "MyAlias"));
+
+        final BinaryJacksonSerializer<Event> serializer = new BinaryJacksonSerializer<>(BINARY_SMILE, context);
+        final byte[] serialized = serializer.serialize(new Events.SampleEvent("name", UUID.randomUUID()));
+
+        Assertions.assertEquals("MyAlias", serializer.fetchTypeName(serialized));
+        Assertions.assertEquals(Events.SampleEvent.class, serializer.deserialize(serialized).getClass());
+        Assertions.assertNull(serializer.fetchTypeName(new byte[]{1, 2, 3}));
+    }
+}
@@ -0,0 +1,106 @@
+package store.jesframework.serializer.impl;
+
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import store.jesframework.internal.Events.SampleEvent;
+import store.jesframework.internal.FancyAggregate;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TypeRegistryTest {
+
+    @Test
+    void typesShouldBeReadFromIndexOnce() {
+        final TypeRegistry registry = TypeRegistry.get();
+
+        assertTrue(registry.isIndexed());
+        assertTrue(registry.getEventTypes().contains(SampleEvent.class));
+        assertTrue(registry.getAggregateTypes().contains(FancyAggregate.class));
+        assertSame(registry, TypeRegistry.get());
+    }
+
+    @Test
+    void classpathShouldBeScannedWithoutIndex() {
+        final ClassLoader withoutIndex = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                return name.startsWith("META-INF/jes/") ? Collections.emptyEnumeration() : super.getResources(name);
+            }
+        };
+        final TypeRegistry registry = TypeRegistry.load(withoutIndex);
+
+        assertFalse(registry.isIndexed());
+        assertTrue(registry.getEventTypes().contains(SampleEvent.class));
+        assertTrue(registry.getAggregateTypes().contains(FancyAggregate.class));
+    }
+
+    @Test
+    void rootsWithoutIndexShouldBeScannedAndMerged(@TempDir Path dir) throws IOException {
+        // the only index lists the event, the test classes are left without one
+        final Path index = dir.resolve(TypeIndexProcessor.EVENTS_INDEX);
+        Files.createDirectories(index.getParent());
+        Files.write(index, Collections.singletonList(SampleEvent.class.getName()), UTF_8);
+        final URL root = dir.toUri().toURL();
+        final ClassLoader partiallyIndexed = new ClassLoader(getClass().getClassLoader()) {
+            @Override
+            public Enumeration<URL> getResources(String name) throws IOException {
+                if (name.startsWith("META-INF/jes/")) {
+                    return Files.exists(dir.resolve(name))
+                            ? Collections.enumeration(Collections.singletonList(new URL(root, name)))
+                            : Collections.emptyEnumeration();
+                }
+                final List<URL> resources = Collections.list(super.getResources(name));
+                if (name.isEmpty()) {
+                    resources.add(root);
+                }
+                return Collections.enumeration(resources);
+            }
+        };
+        final TypeRegistry registry = TypeRegistry.load(partiallyIndexed);
+
+        assertTrue(registry.isIndexed());
+        assertTrue(registry.getEventTypes().contains(SampleEvent.class));
+        assertTrue(registry.getAggregateTypes().contains(FancyAggregate.class));
+    }
+
+    @Test
+    void processorShouldIndexEventAndAggregateSubtypes(@TempDir Path dir) throws IOException {
+        final Path source = dir.resolve("sample/Sample.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, Arrays.asList(
+                "package sample;",
+                "public class Sample extends store.jesframework.Aggregate {",
+                "    public static class Created implements store.jesframework.Event {",
+                "        public java.util.UUID uuid() { return null; }",
+                "    }",
+                "    interface Marker extends store.jesframework.Event {}",
+                "    static class NotAnEvent {}",
+                "}"), UTF_8);
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final int result = compiler.run(null, null, null, "-proc:only", "-processor",
+                TypeIndexProcessor.class.getName(), "-classpath", System.getProperty("java.class.path"),
+                "-d", dir.toString(), source.toString());
+
+        assertEquals(0, result);
+        final List<String> events = Files.readAllLines(dir.resolve(TypeIndexProcessor.EVENTS_INDEX), UTF_8);
+        final List<String> aggregates = Files.readAllLines(dir.resolve(TypeIndexProcessor.AGGREGATES_INDEX), UTF_8);
+        assertEquals(Arrays.asList("sample.Sample$Created", "sample.Sample$Marker"), events);
+        assertEquals(Collections.singletonList("sample.Sample"), aggregates);
+    }
+}
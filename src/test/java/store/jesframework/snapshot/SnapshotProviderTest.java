@@ -1,7 +1,11 @@
 package store.jesframework.snapshot;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 
 import org.junit.jupiter.api.AfterAll;
@@ -21,6 +25,7 @@ import store.jesframework.provider.JdbcStoreProvider;
 
 import static java.util.Arrays.asList;
 import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -131,6 +136,43 @@ class SnapshotProviderTest {
         assertNull(target.getFancyName());
     }
 
+    @ParameterizedTest
+    @MethodSource("createSnapshotProviders")
+    void initialStatesShouldBeReturnedInOrderOfUuids(@Nonnull SnapshotProvider provider) {
+        final FancyAggregate first = new FancyAggregate(randomUUID());
+        first.setFancyName("First");
+        final FancyAggregate third = new FancyAggregate(randomUUID());
+        third.setFancyName("Third");
+        provider.snapshot(first);
+        provider.snapshot(third);
+        final UUID missing = randomUUID();
+
+        final Map<UUID, FancyAggregate> states = provider.initialStatesOf(
+                asList(first.uuid(), missing, third.uuid(), first.uuid()), FancyAggregate.class);
+
+        assertEquals(asList(first.uuid(), missing, third.uuid()), new ArrayList<>(states.keySet()));
+        assertEquals("First", states.get(first.uuid()).getFancyName());
+        assertEquals("Third", states.get(third.uuid()).getFancyName());
+        assertEquals(missing, states.get(missing).uuid());
+        assertNull(states.get(missing).getFancyName());
+    }
+
+    @ParameterizedTest
+    @MethodSource("createSnapshotProviders")
+    void initialStatesOfManyAggregatesShouldBeReadByChunks(@Nonnull SnapshotProvider provider) {
+        // more than a single query of the jdbc provider reads
+        final List<UUID> uuids = Stream.generate(UUID::randomUUID).limit(1001).collect(toList());
+        final FancyAggregate last = new FancyAggregate(uuids.get(uuids.size() - 1));
+        last.setFancyName("Last");
+        provider.snapshot(last);
+
+        final Map<UUID, FancyAggregate> states = provider.initialStatesOf(uuids, FancyAggregate.class);
+
+        assertEquals(uuids, new ArrayList<>(states.keySet()));
+        assertEquals("Last", states.get(last.uuid()).getFancyName());
+        assertNull(states.get(uuids.get(0)).getFancyName());
+    }
+
     @ParameterizedTest
     @MethodSource("createSnapshotProviders")
     void shouldCreateSnapshotAndUpdateItReadThroughAggregateStore(@Nonnull SnapshotProvider provider) {
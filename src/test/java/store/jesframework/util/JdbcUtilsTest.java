@@ -1,9 +1,11 @@
 package store.jesframework.util;
 
+import java.sql.BatchUpdateException;
 import java.sql.Blob;
 import java.sql.Clob;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
 
 import javax.sql.DataSource;
 
@@ -114,4 +116,17 @@ class JdbcUtilsTest {
         assertEquals("BLOB", getSqlTypeByClassAndDatabaseName(byte[].class, "MySQL"));
     }
 
-}
\ No newline at end of file
+    @Test
+    void isIntegrityConstraintViolationShouldInspectWholeExceptionChain() {
+        assertFalse(isIntegrityConstraintViolation(null));
+        assertFalse(isIntegrityConstraintViolation(new SQLException("foo", "08001")));
+        assertTrue(isIntegrityConstraintViolation(new SQLException("foo", "23505")));
+        assertTrue(isIntegrityConstraintViolation(new IllegalStateException(new SQLException("foo", "23000"))));
+
+        final BatchUpdateException batchException = new BatchUpdateException("foo", "HY000", new int[0]);
+        assertFalse(isIntegrityConstraintViolation(batchException));
+        batchException.setNextException(new SQLException("bar", "23505"));
+        assertTrue(isIntegrityConstraintViolation(batchException));
+    }
+
+}